@@ -0,0 +1,30 @@
+package com.bingbaihanji.constant;
+
+/**
+ * 两个图形之间的接触类型
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public enum ContactType {
+    /**
+     * 不相交
+     */
+    DISJOINT,
+    /**
+     * 正常相交（穿过）
+     */
+    CROSSING,
+    /**
+     * 端点恰好落在另一图形上
+     */
+    TOUCHING,
+    /**
+     * 相切
+     */
+    TANGENT,
+    /**
+     * 共线重叠、直线重合或两圆重合（交点有无穷多个）
+     */
+    OVERLAP
+}
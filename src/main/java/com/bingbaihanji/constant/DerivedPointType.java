@@ -0,0 +1,16 @@
+package com.bingbaihanji.constant;
+
+/**
+ * 派生点类型
+ * <p>
+ * 派生点由其他图形计算得到，不作为独立的 WorldObject 存在
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public enum DerivedPointType {
+    /**
+     * 交点
+     */
+    INTERSECTION
+}
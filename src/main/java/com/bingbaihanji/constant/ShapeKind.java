@@ -0,0 +1,40 @@
+package com.bingbaihanji.constant;
+
+/**
+ * 图形类型
+ * <p>
+ * 每个图形通过 WorldObject.kind() 报告自己的类型，序号用作按类型分派的表格下标
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public enum ShapeKind {
+    /**
+     * 不参与几何运算的其他图形
+     */
+    OTHER,
+    /**
+     * 点
+     */
+    POINT,
+    /**
+     * 线段
+     */
+    LINE,
+    /**
+     * 无限直线
+     */
+    INFINITE_LINE,
+    /**
+     * 圆
+     */
+    CIRCLE,
+    /**
+     * 多边形
+     */
+    POLYGON,
+    /**
+     * 手绘路径
+     */
+    PATH
+}
@@ -1,5 +1,6 @@
 package com.bingbaihanji.controller;
 
+import com.bingbaihanji.constant.DerivedPointType;
 import com.bingbaihanji.constant.DrawMode;
 import com.bingbaihanji.util.*;
 import com.bingbaihanji.util.SpecialPointManager.SpecialPoint;
@@ -9,6 +10,9 @@ import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
 import com.bingbaihanji.view.layout.draw.geometry.impl.*;
 import com.bingbaihanji.view.layout.draw.tools.CircleDrawingTool;
 import com.bingbaihanji.view.layout.draw.tools.FreehandDrawingTool;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.geometry.Insets;
 import javafx.geometry.Point2D;
 import javafx.scene.canvas.GraphicsContext;
@@ -20,10 +24,17 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import javafx.stage.Window;
+import javafx.util.Duration;
 import javafx.util.Pair;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -42,10 +53,52 @@ public class DrawingController {
      */
     private final GridChartView gridChartPane;
 
+    /**
+     * 连续拖动同一控制点合并为一条历史记录的时间窗口（毫秒）
+     */
+    private static final long MERGE_WINDOW_MILLIS = 2000;
+    /**
+     * 不小于该大小（字节）的场景文件以内存映射方式加载
+     */
+    private static final long LAZY_LOAD_FILE_BYTES = 64L * 1024 * 1024;
+    /**
+     * 映射加载时，顶点数不少于该值的多边形、手绘路径延迟到需要时才读入顶点
+     */
+    private static final int LAZY_VERTEX_THRESHOLD = 10_000;
     /**
      * 命令历史管理器
      */
     private final CommandHistory commandHistory = new CommandHistory();
+    /**
+     * 全场景交点扫描器
+     */
+    private final IntersectionScanner intersectionScanner = new IntersectionScanner();
+    /**
+     * 后台交点计算器
+     */
+    private final IntersectionWorker intersectionWorker = new IntersectionWorker(intersectionScanner);
+    /**
+     * 作图依赖图（中点、垂线、平行线等随源图形更新）
+     */
+    private final ConstructionGraph constructionGraph = new ConstructionGraph();
+    /**
+     * 磁盘历史日志（未启用时为 null）
+     */
+    private HistoryJournal journal;
+    /**
+     * 以映射方式加载的场景文件及其中的延迟图形（包括已删除但仍可撤销的），覆盖保存该文件前需要解除映射
+     */
+    private Path mappedScenePath;
+    private List<LazyPolylineGeo> mappedObjects = List.of();
+    /**
+     * 最近一个检查点保存的各图形坐标（下一个检查点共享其中版本未变的部分）
+     */
+    private Map<WorldObject, SavedGeometry> checkpointGeometry = new IdentityHashMap<>();
+    /**
+     * 后台增量自动保存（未启用时为 null）
+     */
+    private SceneAutosave autosave;
+    private Timeline autosaveTimeline;
     /**
      * 多边形顶点列表（用于POLYGON模式）
      */
@@ -58,6 +111,18 @@ public class DrawingController {
      * 当前拖动的控制点
      */
     private WorldObject.DraggablePoint draggingPoint = null;
+    /**
+     * 当前拖动的控制点所属的图形
+     */
+    private WorldObject draggingObject = null;
+    /**
+     * 当前拖动的控制点在所属图形控制点列表中的序号
+     */
+    private int draggingHandle = -1;
+    /**
+     * 拖动开始时所属图形的几何坐标（用于生成增量历史记录）
+     */
+    private double[] dragStartCoordinates = null;
 
     /**
      * 拖动开始时的鼠标偏移量
@@ -115,9 +180,88 @@ public class DrawingController {
         // 通过添加setPreviewParams和reset方法，实现了与DrawingController的状态同步
         this.circleTool = new CircleDrawingTool();
         this.freehandTool = new FreehandDrawingTool();
+        // 每次执行、撤销、恢复命令（包括整个事务）只重绘一次
+        commandHistory.setUpdateBatch(new CommandHistory.UpdateBatch() {
+            @Override
+            public void begin() {
+                gridChartPane.beginBatch();
+            }
+
+            @Override
+            public void end() {
+                gridChartPane.endBatch();
+            }
+        });
+        // 周期性保存完整场景，跳转到较远的历史状态时只需重放检查点之后的几条命令
+        commandHistory.setCheckpointer(this::captureScene, CommandHistory.DEFAULT_CHECKPOINT_INTERVAL);
         initMouseHandlers();
     }
 
+    /**
+     * 保存当前场景的完整状态：图形（保留原对象，历史命令按对象或标识引用它们）及其坐标、派生点和构造关系
+     * <p>
+     * 自上一个检查点以来版本没有变化的图形共享上一个检查点的坐标副本，只有变化的图形才复制坐标并计入历史内存；
+     * 未编辑的延迟加载折线只记录“与映射区域一致”，不把顶点读入堆内存
+     */
+    private CommandHistory.Checkpoint captureScene() {
+        List<WorldObject> objects = gridChartPane.getObjects();
+        List<SavedGeometry> geometries = new ArrayList<>(objects.size());
+        Map<WorldObject, SavedGeometry> captured = new IdentityHashMap<>(objects.size() * 2);
+        long copiedBytes = 0;
+        for (WorldObject obj : objects) {
+            SavedGeometry saved = checkpointGeometry.get(obj);
+            if (saved == null || saved.version() != obj.getVersion()) {
+                if (obj instanceof LazyPolylineGeo lazy && !lazy.isPinned()) {
+                    saved = new SavedGeometry(obj.getVersion(), null, true);
+                } else {
+                    double[] coordinates = obj.getCoordinates();
+                    saved = new SavedGeometry(obj.getVersion(), coordinates, false);
+                    copiedBytes += 16 + (coordinates != null ? coordinates.length * 8L : 0);
+                }
+            }
+            geometries.add(saved);
+            captured.put(obj, saved);
+        }
+        checkpointGeometry = captured;
+        DerivedPointLayer derivedPoints = gridChartPane.getDerivedPoints().snapshot();
+        ConstructionGraph constructions = constructionGraph.snapshot();
+        long size = 64 + objects.size() * 8L + copiedBytes + derivedPoints.estimateSize() + constructions.estimateSize();
+        return new CommandHistory.Checkpoint() {
+            @Override
+            public void restore() {
+                gridChartPane.clearAllObjects();
+                for (int i = 0; i < objects.size(); i++) {
+                    WorldObject obj = objects.get(i);
+                    SavedGeometry saved = geometries.get(i);
+                    if (saved.mapped()) {
+                        ((LazyPolylineGeo) obj).unpin();
+                    } else if (saved.coordinates() != null) {
+                        obj.setCoordinates(saved.coordinates().clone());
+                    }
+                    gridChartPane.addObject(obj);
+                }
+                gridChartPane.getDerivedPoints().restore(derivedPoints);
+                constructionGraph.restore(constructions);
+                gridChartPane.redraw();
+            }
+
+            @Override
+            public long estimateSize() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * 检查点中一个图形的几何坐标（创建后不再修改，可以被多个检查点共享）
+     *
+     * @param version     保存时的图形版本
+     * @param coordinates 坐标副本（图形没有可保存的坐标时为 null）
+     * @param mapped      未编辑的延迟加载折线，恢复时放弃编辑即可
+     */
+    private record SavedGeometry(long version, double[] coordinates, boolean mapped) {
+    }
+
     /**
      * 初始化鼠标事件处理器
      */
@@ -215,17 +359,7 @@ public class DrawingController {
         if (drawMode == DrawMode.POINT) {
             // 点模式：直接绘制
             PointGeo newPoint = new PointGeo(worldX, worldY);
-            commandHistory.execute(new CommandHistory.Command() {
-                @Override
-                public void execute() {
-                    gridChartPane.addObject(newPoint);
-                }
-
-                @Override
-                public void undo() {
-                    gridChartPane.removeObject(newPoint);
-                }
-            });
+            commandHistory.execute(addObjectCommand(newPoint));
             state = DrawingState.IDLE;
             // 消费点绘制事件
             e.consume();
@@ -258,27 +392,12 @@ public class DrawingController {
                     // 创建圆心点，使其拥有名称（如A1, B1等）
                     PointGeo centerPoint = new PointGeo(firstPointX, firstPointY);
                     // 计算此圆产生的所有交点
-                    List<PointGeo> intersectionPoints = checkIntersections(newCircle);
-                    commandHistory.execute(new CommandHistory.Command() {
-                        @Override
-                        public void execute() {
-                            gridChartPane.addObject(centerPoint);
-                            gridChartPane.addObject(newCircle);
-                            // 添加交点
-                            for (PointGeo point : intersectionPoints) {
-                                gridChartPane.addObject(point);
-                            }
-                        }
-
-                        @Override
-                        public void undo() {
-                            gridChartPane.removeObject(newCircle);
-                            gridChartPane.removeObject(centerPoint);
-                            // 移除交点
-                            for (PointGeo point : intersectionPoints) {
-                                gridChartPane.removeObject(point);
-                            }
-                        }
+                    PointBuffer intersectionPoints = checkIntersections(newCircle);
+                    // 圆心、圆和交点作为一个撤销单元
+                    commandHistory.transaction(() -> {
+                        commandHistory.execute(addObjectCommand(centerPoint));
+                        commandHistory.execute(addObjectCommand(newCircle));
+                        commandHistory.execute(addDerivedPointsCommand(intersectionPoints));
                     });
                     // 重置CircleDrawingTool状态
                     circleTool.reset();
@@ -287,50 +406,20 @@ public class DrawingController {
                     // 只创建线段对象，不创建独立的端点
                     LineGeo newLine = new LineGeo(firstPointX, firstPointY, worldX, worldY);
                     // 计算此线段产生的所有交点
-                    List<PointGeo> intersectionPoints = checkIntersections(newLine);
-                    commandHistory.execute(new CommandHistory.Command() {
-                        @Override
-                        public void execute() {
-                            gridChartPane.addObject(newLine);
-                            // 添加交点
-                            for (PointGeo point : intersectionPoints) {
-                                gridChartPane.addObject(point);
-                            }
-                        }
-
-                        @Override
-                        public void undo() {
-                            gridChartPane.removeObject(newLine);
-                            // 移除交点
-                            for (PointGeo point : intersectionPoints) {
-                                gridChartPane.removeObject(point);
-                            }
-                        }
+                    PointBuffer intersectionPoints = checkIntersections(newLine);
+                    commandHistory.transaction(() -> {
+                        commandHistory.execute(addObjectCommand(newLine));
+                        commandHistory.execute(addDerivedPointsCommand(intersectionPoints));
                     });
                 }
                 case INFINITE_LINE -> {
                     // 创建无限直线对象
                     InfiniteLineGeo newLine = new InfiniteLineGeo(firstPointX, firstPointY, worldX, worldY);
                     // 计算此无限直线产生的所有交点
-                    List<PointGeo> intersectionPoints = checkIntersections(newLine);
-                    commandHistory.execute(new CommandHistory.Command() {
-                        @Override
-                        public void execute() {
-                            gridChartPane.addObject(newLine);
-                            // 添加交点
-                            for (PointGeo point : intersectionPoints) {
-                                gridChartPane.addObject(point);
-                            }
-                        }
-
-                        @Override
-                        public void undo() {
-                            gridChartPane.removeObject(newLine);
-                            // 移除交点
-                            for (PointGeo point : intersectionPoints) {
-                                gridChartPane.removeObject(point);
-                            }
-                        }
+                    PointBuffer intersectionPoints = checkIntersections(newLine);
+                    commandHistory.transaction(() -> {
+                        commandHistory.execute(addObjectCommand(newLine));
+                        commandHistory.execute(addDerivedPointsCommand(intersectionPoints));
                     });
                 }
             }
@@ -385,25 +474,10 @@ public class DrawingController {
         // 只创建多边形对象，不创建独立的点和线段
         PolygonGeo polygon = new PolygonGeo(new ArrayList<>(polygonVertices));
         // 计算此多边形产生的所有交点
-        List<PointGeo> intersectionPoints = checkIntersections(polygon);
-        commandHistory.execute(new CommandHistory.Command() {
-            @Override
-            public void execute() {
-                gridChartPane.addObject(polygon);
-                // 添加交点
-                for (PointGeo point : intersectionPoints) {
-                    gridChartPane.addObject(point);
-                }
-            }
-
-            @Override
-            public void undo() {
-                gridChartPane.removeObject(polygon);
-                // 移除交点
-                for (PointGeo point : intersectionPoints) {
-                    gridChartPane.removeObject(point);
-                }
-            }
+        PointBuffer intersectionPoints = checkIntersections(polygon);
+        commandHistory.transaction(() -> {
+            commandHistory.execute(addObjectCommand(polygon));
+            commandHistory.execute(addDerivedPointsCommand(intersectionPoints));
         });
 
         // 重置状态
@@ -505,9 +579,17 @@ public class DrawingController {
 
             // 遍历所有图形的控制点，找到最近的控制点
             for (WorldObject obj : gridChartPane.getObjects()) {
-                for (WorldObject.DraggablePoint point : obj.getDraggablePoints()) {
+                if (!obj.isNear(worldX, worldY, tolerance)) {
+                    continue;
+                }
+                List<WorldObject.DraggablePoint> points = obj.getDraggablePoints();
+                for (int i = 0; i < points.size(); i++) {
+                    WorldObject.DraggablePoint point = points.get(i);
                     if (point.hitTest(worldX, worldY, tolerance)) {
                         draggingPoint = point;
+                        draggingObject = obj;
+                        draggingHandle = i;
+                        dragStartCoordinates = obj.getCoordinates();
                         dragOffsetX = worldX - point.getX();
                         dragOffsetY = worldY - point.getY();
 
@@ -553,6 +635,9 @@ public class DrawingController {
 
             // 更新控制点位置
             draggingPoint.updatePosition(newX, newY);
+            // 同一帧内更新依赖该图形的构造
+            constructionGraph.update(draggingObject);
+            gridChartPane.markSceneChanged();
 
             // 实时记录当前拖动位置（用于撤销/恢复）
             dragEndX = newX;
@@ -605,25 +690,10 @@ public class DrawingController {
             if (points.size() >= 2) {
                 PathGeo newPath = new PathGeo(new ArrayList<>(points));
                 // 计算此路径产生的所有交点
-                List<PointGeo> intersectionPoints = checkIntersections(newPath);
-                commandHistory.execute(new CommandHistory.Command() {
-                    @Override
-                    public void execute() {
-                        gridChartPane.addObject(newPath);
-                        // 添加交点
-                        for (PointGeo point : intersectionPoints) {
-                            gridChartPane.addObject(point);
-                        }
-                    }
-
-                    @Override
-                    public void undo() {
-                        gridChartPane.removeObject(newPath);
-                        // 移除交点
-                        for (PointGeo point : intersectionPoints) {
-                            gridChartPane.removeObject(point);
-                        }
-                    }
+                PointBuffer intersectionPoints = checkIntersections(newPath);
+                commandHistory.transaction(() -> {
+                    commandHistory.execute(addObjectCommand(newPath));
+                    commandHistory.execute(addDerivedPointsCommand(intersectionPoints));
                 });
             }
             gridChartPane.redraw();
@@ -634,32 +704,16 @@ public class DrawingController {
             if (Math.abs(dragStartX - dragEndX) > 1e-10 ||
                     Math.abs(dragStartY - dragEndY) > 1e-10) {
 
-                // 保存对点的持久引用和坐标
-                final WorldObject.DraggablePoint pointRef = draggingPoint;
-                final double startX = dragStartX;
-                final double startY = dragStartY;
-                final double endX = dragEndX;
-                final double endY = dragEndY;
-
-                // 使用addCommand而不是execute，因为拖动已经完成了
-                commandHistory.addCommand(new CommandHistory.Command() {
-                    @Override
-                    public void execute() {
-                        // 恢复操作：移动到结束位置
-                        pointRef.updatePosition(endX, endY);
-                        recalculateAllIntersections();
-                    }
-
-                    @Override
-                    public void undo() {
-                        // 撤销操作：移动回起始位置
-                        pointRef.updatePosition(startX, startY);
-                        recalculateAllIntersections();
-                    }
-                });
+                // 使用addCommand而不是execute，因为拖动已经完成了；
+                // 短时间内连续拖动同一个控制点会合并为一条历史记录
+                recordGeometryChange(draggingObject, dragStartCoordinates,
+                        new MergeKey("drag", draggingHandle, true));
             }
 
             draggingPoint = null;
+            draggingObject = null;
+            draggingHandle = -1;
+            dragStartCoordinates = null;
             dragOffsetX = 0;
             dragOffsetY = 0;
             dragStartX = 0;
@@ -883,6 +937,9 @@ public class DrawingController {
             double tolerance = 10.0 / scale;
 
             for (WorldObject obj : gridChartPane.getObjects()) {
+                if (!obj.isNear(mouseWorldX, mouseWorldY, tolerance)) {
+                    continue;
+                }
                 for (WorldObject.DraggablePoint point : obj.getDraggablePoints()) {
                     if (point.hitTest(mouseWorldX, mouseWorldY, tolerance)) {
                         // 绘制高亮圈
@@ -1082,10 +1139,13 @@ public class DrawingController {
     public void clearAll() {
         // 保存当前所有对象，用于撤销
         List<WorldObject> objectsToClear = new ArrayList<>(gridChartPane.getObjects());
+        DerivedPointLayer derivedPointsToClear = gridChartPane.getDerivedPoints().snapshot();
+        ConstructionGraph constructionsToClear = constructionGraph.snapshot();
         commandHistory.execute(new CommandHistory.Command() {
             @Override
             public void execute() {
                 gridChartPane.clearAllObjects();
+                constructionGraph.clear();
                 // 清除点命名管理器
                 PointNameManager.getInstance().clear();
             }
@@ -1095,6 +1155,18 @@ public class DrawingController {
                 for (WorldObject obj : objectsToClear) {
                     gridChartPane.addObject(obj);
                 }
+                gridChartPane.getDerivedPoints().restore(derivedPointsToClear);
+                constructionGraph.restore(constructionsToClear);
+                gridChartPane.redraw();
+            }
+
+            @Override
+            public long estimateSize() {
+                long size = derivedPointsToClear.estimateSize() + constructionsToClear.estimateSize();
+                for (WorldObject obj : objectsToClear) {
+                    size += obj.estimateSize();
+                }
+                return size;
             }
         });
     }
@@ -1103,16 +1175,263 @@ public class DrawingController {
      * 撤销操作
      */
     public void undo() {
-        commandHistory.undo();
-        gridChartPane.redraw();
+        gridChartPane.beginBatch();
+        try {
+            commandHistory.undo();
+            gridChartPane.redraw();
+        } finally {
+            gridChartPane.endBatch();
+        }
     }
 
     /**
      * 恢复操作
      */
     public void redo() {
-        commandHistory.redo();
-        gridChartPane.redraw();
+        gridChartPane.beginBatch();
+        try {
+            commandHistory.redo();
+            gridChartPane.redraw();
+        } finally {
+            gridChartPane.endBatch();
+        }
+    }
+
+    /**
+     * 跳转到任意历史状态（包括撤销后被新操作分出的其他分支）
+     *
+     * @param stateId 历史状态编号
+     * @return 状态已被淘汰或不存在时返回 false
+     */
+    public boolean jumpToHistoryState(long stateId) {
+        gridChartPane.beginBatch();
+        try {
+            boolean jumped = commandHistory.jumpTo(stateId);
+            gridChartPane.redraw();
+            return jumped;
+        } finally {
+            gridChartPane.endBatch();
+        }
+    }
+
+    /**
+     * 当前历史状态编号
+     */
+    public long getHistoryState() {
+        return commandHistory.getCurrentState();
+    }
+
+    /**
+     * 设置并行计算交点的图形数量阈值
+     */
+    public void setParallelIntersectionThreshold(int threshold) {
+        intersectionScanner.setParallelThreshold(threshold);
+    }
+
+    /**
+     * 把当前场景（图形、点名称与视图变换）保存为场景文件
+     *
+     * @param path 场景文件
+     */
+    public void saveScene(Path path) throws IOException {
+        if (mappedScenePath != null && Files.exists(path) && Files.isSameFile(path, mappedScenePath)) {
+            // 覆盖被映射的文件前让延迟图形改为使用堆内存中的顶点（Windows 不允许替换被映射的文件）
+            for (LazyPolylineGeo lazy : mappedObjects) {
+                lazy.detach();
+            }
+            mappedObjects = List.of();
+            mappedScenePath = null;
+        }
+        SceneFile.write(path, gridChartPane.getObjects(), gridChartPane.getTransform());
+    }
+
+    /**
+     * 把当前视图导出为 SVG 矢量图（导出区域与画布可见区域一致）
+     *
+     * @param path SVG 文件
+     */
+    public void exportSvg(Path path) throws IOException {
+        SvgExporter.export(path, gridChartPane.getTransform(), gridChartPane.getWidth(), gridChartPane.getHeight(),
+                gridChartPane.getPainters(), gridChartPane.getObjects(), List.of(gridChartPane.getDerivedPoints()));
+    }
+
+    /**
+     * 把当前视图按像素倍率放大导出为 PNG（分块渲染，内存占用与图片尺寸无关）
+     *
+     * @param path       PNG 文件
+     * @param pixelRatio 像素倍率（1 为屏幕分辨率）
+     */
+    public void exportPng(Path path, double pixelRatio) throws IOException {
+        TiledPngExporter.export(path, gridChartPane.getTransform(), gridChartPane.getWidth(), gridChartPane.getHeight(),
+                pixelRatio, gridChartPane.getPainters(), gridChartPane.getObjects(),
+                List.of(gridChartPane.getDerivedPoints()));
+    }
+
+    /**
+     * 从场景文件加载场景，替换当前的所有图形并清空撤销历史
+     * <p>
+     * 大文件以内存映射方式加载，其中的大型折线只在进入视口或被命中测试时才读入顶点
+     *
+     * @param path 场景文件
+     */
+    public void loadScene(Path path) throws IOException {
+        boolean mapped = Files.size(path) >= LAZY_LOAD_FILE_BYTES;
+        SceneFile.Contents contents = mapped ? SceneFile.map(path, LAZY_VERTEX_THRESHOLD) : SceneFile.read(path);
+        replaceScene(contents);
+        List<LazyPolylineGeo> lazyObjects = new ArrayList<>();
+        for (WorldObject obj : contents.objects()) {
+            if (obj instanceof LazyPolylineGeo lazy) {
+                lazyObjects.add(lazy);
+            }
+        }
+        mappedObjects = lazyObjects;
+        mappedScenePath = mapped && !lazyObjects.isEmpty() ? path : null;
+    }
+
+    /**
+     * 用场景内容替换当前的所有图形并清空撤销历史
+     */
+    private void replaceScene(SceneFile.Contents contents) {
+        gridChartPane.beginBatch();
+        try {
+            gridChartPane.clearAllObjects();
+            constructionGraph.clear();
+            for (WorldObject obj : contents.objects()) {
+                gridChartPane.addObject(obj);
+            }
+            WorldTransform transform = gridChartPane.getTransform();
+            transform.setScale(contents.scale());
+            transform.setOffset(contents.offsetX(), contents.offsetY());
+            // 场景加入后再清空历史，树根的检查点保存的是加载后的场景
+            commandHistory.clear();
+            if (journal != null) {
+                journal.checkpoint(gridChartPane.getObjects());
+                journal.commit();
+            }
+            recalculateAllIntersections();
+            gridChartPane.redraw();
+        } finally {
+            gridChartPane.endBatch();
+        }
+    }
+
+    /**
+     * 启用磁盘历史日志
+     * <p>
+     * 先从日志重放出上次会话的场景并加入画布，再以恢复后的场景为检查点新建日志，
+     * 之后的图形增删、几何变化和每次命令提交都写入日志
+     *
+     * @param path 日志文件
+     */
+    public void openJournal(Path path) throws IOException {
+        closeJournal();
+        for (WorldObject obj : HistoryJournal.replay(path)) {
+            gridChartPane.addObject(obj);
+        }
+        // 以恢复后的场景作为历史的起点，重新保存树根的检查点
+        commandHistory.clear();
+        HistoryJournal newJournal = new HistoryJournal(path, gridChartPane.getObjects(),
+                gridChartPane::getObjects, HistoryJournal.DEFAULT_CHECKPOINT_INTERVAL);
+        gridChartPane.setSceneListener(new GridChartView.SceneListener() {
+            @Override
+            public void objectAdded(WorldObject obj) {
+                newJournal.recordAdd(obj);
+            }
+
+            @Override
+            public void objectRemoved(WorldObject obj) {
+                newJournal.recordRemove(obj);
+            }
+
+            @Override
+            public void sceneCleared() {
+                newJournal.recordClear();
+            }
+        });
+        commandHistory.setJournal(newJournal);
+        journal = newJournal;
+        recalculateAllIntersections();
+    }
+
+    /**
+     * 写入剩余内容并关闭磁盘历史日志
+     */
+    public void closeJournal() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        gridChartPane.setSceneListener(null);
+        commandHistory.setJournal(null);
+        HistoryJournal closing = journal;
+        journal = null;
+        closing.close();
+    }
+
+    /**
+     * 启用后台增量自动保存
+     * <p>
+     * 自动保存文件存在且当前场景为空时先从中恢复场景；之后按间隔在 FX 线程上捕获变化的图形，
+     * 编码、写入与刷盘在后台线程上完成
+     *
+     * @param path           自动保存文件
+     * @param intervalMillis 保存间隔（毫秒）
+     */
+    public void startAutosave(Path path, long intervalMillis) throws IOException {
+        stopAutosave();
+        if (gridChartPane.getObjects().isEmpty()) {
+            SceneFile.Contents contents = SceneAutosave.recover(path);
+            if (contents != null) {
+                replaceScene(contents);
+            }
+        }
+        SceneAutosave newAutosave = new SceneAutosave(path, intervalMillis);
+        Timeline timeline = new Timeline(new KeyFrame(Duration.millis(intervalMillis),
+                e -> newAutosave.save(gridChartPane.getObjects(), gridChartPane.getTransform())));
+        timeline.setCycleCount(Animation.INDEFINITE);
+        timeline.play();
+        autosave = newAutosave;
+        autosaveTimeline = timeline;
+    }
+
+    /**
+     * 保存最后的变化并停止自动保存
+     */
+    public void stopAutosave() throws IOException {
+        if (autosave == null) {
+            return;
+        }
+        autosaveTimeline.stop();
+        SceneAutosave closing = autosave;
+        autosave = null;
+        autosaveTimeline = null;
+        try {
+            // 先等待正在写入的保存完成，否则最后一次保存会因保存尚未写完而被跳过
+            closing.flush();
+        } finally {
+            closing.save(gridChartPane.getObjects(), gridChartPane.getTransform());
+            closing.close();
+        }
+    }
+
+    /**
+     * 当前的自动保存（用于读取保存间隔与写入字节数等统计），未启用时为 null
+     */
+    public SceneAutosave getAutosave() {
+        return autosave;
+    }
+
+    /**
+     * 设置撤销历史的条目数量与估算内存上限
+     */
+    public void setHistoryLimits(int maxEntries, long maxBytes) {
+        commandHistory.setLimits(maxEntries, maxBytes);
+    }
+
+    /**
+     * 撤销历史当前占用的估算内存（字节）
+     */
+    public long getHistoryRetainedBytes() {
+        return commandHistory.getRetainedBytes();
     }
 
     /**
@@ -1131,404 +1450,77 @@ public class DrawingController {
 
     /**
      * 检查新添加的图形与其他图形的交点，并返回交点列表（不自动添加到画布）
+     * <p>
+     * 与派生点图层中已有交点重合的点，以及彼此重合的点只保留一个
      *
      * @param newObject 新添加的图形对象
      * @return 生成的交点列表
      */
-    private List<PointGeo> checkIntersections(Object newObject) {
-        List<WorldObject> allObjects = new ArrayList<>(gridChartPane.getObjects()); // 创建副本避免并发修改
-        List<PointGeo> intersectionPoints = new ArrayList<>(); // 收集所有交点
+    private PointBuffer checkIntersections(WorldObject newObject) {
+        List<WorldObject> allObjects = gridChartPane.getObjects(); // getObjects 返回副本，避免并发修改
+        PointBuffer candidates = new PointBuffer(); // 收集所有交点
+        IntersectionCache cache = IntersectionCache.getInstance();
+        double[] hits = new double[IntersectionUtils.SCRATCH_SIZE];
 
         for (WorldObject obj : allObjects) {
             // 跳过自身
             if (obj == newObject) continue;
 
-            // 检查不同类型的图形组合
-            if (newObject instanceof LineGeo && obj instanceof LineGeo) {
-                // 线段与线段的交点
-                List<Point2D> intersections = IntersectionUtils.getLineLineIntersections((LineGeo) newObject, (LineGeo) obj);
-                for (Point2D point : intersections) {
-                    PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                    intersectionPoint.setColor(Color.PURPLE);
-                    intersectionPoints.add(intersectionPoint);
-                }
-            } else if (newObject instanceof LineGeo && obj instanceof CircleGeo) {
-                // 线段与圆的交点
-                List<Point2D> intersections = IntersectionUtils.getLineCircleIntersections((LineGeo) newObject, (CircleGeo) obj);
-                for (Point2D point : intersections) {
-                    PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                    intersectionPoint.setColor(Color.PURPLE);
-                    intersectionPoints.add(intersectionPoint);
-                }
-            } else if (newObject instanceof CircleGeo && obj instanceof LineGeo) {
-                // 圆与线段的交点
-                List<Point2D> intersections = IntersectionUtils.getLineCircleIntersections((LineGeo) obj, (CircleGeo) newObject);
-                for (Point2D point : intersections) {
-                    PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                    intersectionPoint.setColor(Color.PURPLE);
-                    intersectionPoints.add(intersectionPoint);
-                }
-            } else if (newObject instanceof CircleGeo && obj instanceof CircleGeo) {
-                // 圆与圆的交点
-                List<Point2D> intersections = IntersectionUtils.getCircleCircleIntersections((CircleGeo) newObject, (CircleGeo) obj);
-                for (Point2D point : intersections) {
-                    PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                    intersectionPoint.setColor(Color.PURPLE);
-                    intersectionPoints.add(intersectionPoint);
-                }
-            } else if (newObject instanceof InfiniteLineGeo && obj instanceof LineGeo) {
-                // 无限直线与线段的交点
-                List<Point2D> intersections = IntersectionUtils.getInfiniteLineLineIntersections((InfiniteLineGeo) newObject, (LineGeo) obj);
-                for (Point2D point : intersections) {
-                    PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                    intersectionPoint.setColor(Color.PURPLE);
-                    intersectionPoints.add(intersectionPoint);
-                }
-            } else if (newObject instanceof InfiniteLineGeo && obj instanceof CircleGeo) {
-                // 无限直线与圆的交点
-                List<Point2D> intersections = IntersectionUtils.getInfiniteLineCircleIntersections((InfiniteLineGeo) newObject, (CircleGeo) obj);
-                for (Point2D point : intersections) {
-                    PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                    intersectionPoint.setColor(Color.PURPLE);
-                    intersectionPoints.add(intersectionPoint);
-                }
-            } else if (newObject instanceof InfiniteLineGeo && obj instanceof InfiniteLineGeo) {
-                // 无限直线与无限直线的交点
-                List<Point2D> intersections = IntersectionUtils.getInfiniteLineInfiniteLineIntersections((InfiniteLineGeo) newObject, (InfiniteLineGeo) obj);
-                for (Point2D point : intersections) {
-                    PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                    intersectionPoint.setColor(Color.PURPLE);
-                    intersectionPoints.add(intersectionPoint);
-                }
-            } else if (newObject instanceof PolygonGeo polygon) {
-                // 多边形与其他图形的交点：遍历多边形的每条边
-                for (LineGeo edge : polygon.getEdges()) {
-                    if (obj instanceof LineGeo line) {
-                        List<Point2D> intersections = IntersectionUtils.getLineLineIntersections(edge, line);
-                        for (Point2D point : intersections) {
-                            PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                            intersectionPoint.setColor(Color.PURPLE);
-                            intersectionPoints.add(intersectionPoint);
-                        }
-                    } else if (obj instanceof CircleGeo circle) {
-                        List<Point2D> intersections = IntersectionUtils.getLineCircleIntersections(edge, circle);
-                        for (Point2D point : intersections) {
-                            PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                            intersectionPoint.setColor(Color.PURPLE);
-                            intersectionPoints.add(intersectionPoint);
-                        }
-                    } else if (obj instanceof PolygonGeo otherPolygon) {
-                        // 多边形与多边形的交点：遍历两个多边形的所有边
-                        for (LineGeo otherEdge : otherPolygon.getEdges()) {
-                            List<Point2D> intersections = IntersectionUtils.getLineLineIntersections(edge, otherEdge);
-                            for (Point2D point : intersections) {
-                                PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                                intersectionPoint.setColor(Color.PURPLE);
-                                intersectionPoints.add(intersectionPoint);
-                            }
-                        }
-                    } else if (obj instanceof InfiniteLineGeo infiniteLine) {
-                        List<Point2D> intersections = IntersectionUtils.getInfiniteLineLineIntersections(infiniteLine, edge);
-                        for (Point2D point : intersections) {
-                            PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                            intersectionPoint.setColor(Color.PURPLE);
-                            intersectionPoints.add(intersectionPoint);
-                        }
-                    } else if (obj instanceof PathGeo path) {
-                        // 多边形与手绘路径的交点
-                        for (LineGeo pathEdge : path.getEdges()) {
-                            List<Point2D> intersections = IntersectionUtils.getLineLineIntersections(edge, pathEdge);
-                            for (Point2D point : intersections) {
-                                PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                                intersectionPoint.setColor(Color.PURPLE);
-                                intersectionPoints.add(intersectionPoint);
-                            }
-                        }
-                    }
-                }
-            } else if (newObject instanceof PathGeo path) {
-                // 手绘路径与其他图形的交点
-                for (LineGeo edge : path.getEdges()) {
-                    if (obj instanceof LineGeo line) {
-                        List<Point2D> intersections = IntersectionUtils.getLineLineIntersections(edge, line);
-                        for (Point2D point : intersections) {
-                            PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                            intersectionPoint.setColor(Color.PURPLE);
-                            intersectionPoints.add(intersectionPoint);
-                        }
-                    } else if (obj instanceof CircleGeo circle) {
-                        List<Point2D> intersections = IntersectionUtils.getLineCircleIntersections(edge, circle);
-                        for (Point2D point : intersections) {
-                            PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                            intersectionPoint.setColor(Color.PURPLE);
-                            intersectionPoints.add(intersectionPoint);
-                        }
-                    } else if (obj instanceof PolygonGeo polygon) {
-                        for (LineGeo polyEdge : polygon.getEdges()) {
-                            List<Point2D> intersections = IntersectionUtils.getLineLineIntersections(edge, polyEdge);
-                            for (Point2D point : intersections) {
-                                PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                                intersectionPoint.setColor(Color.PURPLE);
-                                intersectionPoints.add(intersectionPoint);
-                            }
-                        }
-                    } else if (obj instanceof InfiniteLineGeo infiniteLine) {
-                        List<Point2D> intersections = IntersectionUtils.getInfiniteLineLineIntersections(infiniteLine, edge);
-                        for (Point2D point : intersections) {
-                            PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                            intersectionPoint.setColor(Color.PURPLE);
-                            intersectionPoints.add(intersectionPoint);
-                        }
-                    } else if (obj instanceof PathGeo otherPath) {
-                        // 手绘路径与手绘路径的交点
-                        for (LineGeo otherEdge : otherPath.getEdges()) {
-                            List<Point2D> intersections = IntersectionUtils.getLineLineIntersections(edge, otherEdge);
-                            for (Point2D point : intersections) {
-                                PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                                intersectionPoint.setColor(Color.PURPLE);
-                                intersectionPoints.add(intersectionPoint);
-                            }
-                        }
-                    }
-                }
-            } else if (obj instanceof PolygonGeo polygon) {
-                // 其他图形与多边形的交点
-                for (LineGeo edge : polygon.getEdges()) {
-                    if (newObject instanceof LineGeo line) {
-                        List<Point2D> intersections = IntersectionUtils.getLineLineIntersections(line, edge);
-                        for (Point2D point : intersections) {
-                            PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                            intersectionPoint.setColor(Color.PURPLE);
-                            intersectionPoints.add(intersectionPoint);
-                        }
-                    } else if (newObject instanceof CircleGeo circle) {
-                        List<Point2D> intersections = IntersectionUtils.getLineCircleIntersections(edge, circle);
-                        for (Point2D point : intersections) {
-                            PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                            intersectionPoint.setColor(Color.PURPLE);
-                            intersectionPoints.add(intersectionPoint);
-                        }
-                    } else if (newObject instanceof InfiniteLineGeo infiniteLine) {
-                        List<Point2D> intersections = IntersectionUtils.getInfiniteLineLineIntersections(infiniteLine, edge);
-                        for (Point2D point : intersections) {
-                            PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                            intersectionPoint.setColor(Color.PURPLE);
-                            intersectionPoints.add(intersectionPoint);
-                        }
-                    }
-                }
-            } else if (obj instanceof InfiniteLineGeo infiniteLine) {
-                // 其他图形与无限直线的交点
-                if (newObject instanceof LineGeo line) {
-                    List<Point2D> intersections = IntersectionUtils.getInfiniteLineLineIntersections(infiniteLine, line);
-                    for (Point2D point : intersections) {
-                        PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                        intersectionPoint.setColor(Color.PURPLE);
-                        intersectionPoints.add(intersectionPoint);
-                    }
-                } else if (newObject instanceof CircleGeo circle) {
-                    List<Point2D> intersections = IntersectionUtils.getInfiniteLineCircleIntersections(infiniteLine, circle);
-                    for (Point2D point : intersections) {
-                        PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                        intersectionPoint.setColor(Color.PURPLE);
-                        intersectionPoints.add(intersectionPoint);
-                    }
-                }
-            } else if (newObject instanceof InfiniteLineGeo infiniteLine) {
-                // 无限直线与多边形的交点
-                if (obj instanceof PolygonGeo polygon) {
-                    for (LineGeo edge : polygon.getEdges()) {
-                        List<Point2D> intersections = IntersectionUtils.getInfiniteLineLineIntersections(infiniteLine, edge);
-                        for (Point2D point : intersections) {
-                            PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                            intersectionPoint.setColor(Color.PURPLE);
-                            intersectionPoints.add(intersectionPoint);
-                        }
-                    }
-                } else if (obj instanceof PathGeo path) {
-                    // 无限直线与手绘路径的交点
-                    for (LineGeo edge : path.getEdges()) {
-                        List<Point2D> intersections = IntersectionUtils.getInfiniteLineLineIntersections(infiniteLine, edge);
-                        for (Point2D point : intersections) {
-                            PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                            intersectionPoint.setColor(Color.PURPLE);
-                            intersectionPoints.add(intersectionPoint);
-                        }
-                    }
-                }
-            }
+            // 新图形总在列表末尾，参数顺序与全场景重算一致，保证交点坐标逐位相同
+            cache.intersect(obj, newObject, hits, candidates);
         }
 
+        // 先登记已有交点，再按容差过滤新交点
+        DerivedPointLayer derivedPoints = gridChartPane.getDerivedPoints();
+        PointDeduplicator deduplicator = new PointDeduplicator(PointDeduplicator.DEFAULT_EPSILON,
+                derivedPoints.size() + candidates.size());
+        for (int i = 0; i < derivedPoints.size(); i++) {
+            if (derivedPoints.getType(i) == DerivedPointType.INTERSECTION) {
+                deduplicator.add(derivedPoints.getX(i), derivedPoints.getY(i));
+            }
+        }
+        PointBuffer intersectionPoints = new PointBuffer(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            if (deduplicator.add(candidates.getX(i), candidates.getY(i))) {
+                intersectionPoints.add(candidates.getX(i), candidates.getY(i));
+            }
+        }
         return intersectionPoints;
     }
 
     /**
      * 重新计算所有图形之间的交点
      * 用于拖动后更新交点位置
+     * <p>
+     * 在后台线程上对图形快照计算，完成后替换派生点图层中的交点；
+     * 计算期间场景再次变化时丢弃结果并重新计算
      */
     private void recalculateAllIntersections() {
-        // 1. 删除所有旧的交点（紫色的PointGeo）
-        List<WorldObject> allObjects = new ArrayList<>(gridChartPane.getObjects());
-        for (WorldObject obj : allObjects) {
-            if (obj instanceof PointGeo point) {
-                // 检查是否为紫色交点
-                if (isIntersectionPoint(point)) {
-                    gridChartPane.removeObject(obj);
-                }
-            }
-        }
+        gridChartPane.markSceneChanged();
 
-        // 2. 重新计算所有图形之间的交点
-        List<WorldObject> objects = new ArrayList<>(gridChartPane.getObjects());
-        List<PointGeo> newIntersectionPoints = new ArrayList<>();
-
-        for (int i = 0; i < objects.size(); i++) {
-            WorldObject obj1 = objects.get(i);
-            // 跳过点对象
-            if (obj1 instanceof PointGeo) continue;
-
-            for (int j = i + 1; j < objects.size(); j++) {
-                WorldObject obj2 = objects.get(j);
-                // 跳过点对象
-                if (obj2 instanceof PointGeo) continue;
-
-                // 计算交点
-                List<Point2D> intersections = calculateIntersections(obj1, obj2);
-                for (Point2D point : intersections) {
-                    PointGeo intersectionPoint = new PointGeo(point.getX(), point.getY(), false);
-                    intersectionPoint.setColor(Color.PURPLE);
-                    newIntersectionPoints.add(intersectionPoint);
-                }
+        // 对图形做快照（跳过点对象）
+        List<WorldObject> snapshot = new ArrayList<>();
+        for (WorldObject obj : gridChartPane.getObjects()) {
+            if (obj instanceof PointGeo) continue;
+            WorldObject copy = obj.snapshot();
+            if (copy != null) {
+                snapshot.add(copy);
             }
         }
 
-        // 3. 添加新的交点
-        for (PointGeo point : newIntersectionPoints) {
-            gridChartPane.addObject(point);
-        }
-
-        // 4. 重绘
-        gridChartPane.redraw();
+        intersectionWorker.submit(snapshot, gridChartPane.getSceneVersion(), gridChartPane::getSceneVersion,
+                this::publishIntersections, this::recalculateAllIntersections);
     }
 
     /**
-     * 判断点是否为交点（通过颜色判断）
+     * 用新的交点替换派生点图层中的旧交点（FX 线程）
      */
-    private boolean isIntersectionPoint(PointGeo point) {
-        // 使用新增的getColor方法
-        Color color = point.getColor();
-        return Color.PURPLE.equals(color);
-    }
+    private void publishIntersections(PointBuffer newIntersectionPoints) {
+        DerivedPointLayer derivedPoints = gridChartPane.getDerivedPoints();
+        derivedPoints.clear(DerivedPointType.INTERSECTION);
+        derivedPoints.addAll(newIntersectionPoints, DerivedPointType.INTERSECTION);
 
-    /**
-     * 计算两个几何对象之间的交点
-     */
-    private List<Point2D> calculateIntersections(WorldObject obj1, WorldObject obj2) {
-        List<Point2D> intersections = new ArrayList<>();
-
-        if (obj1 instanceof LineGeo && obj2 instanceof LineGeo) {
-            intersections.addAll(IntersectionUtils.getLineLineIntersections((LineGeo) obj1, (LineGeo) obj2));
-        } else if (obj1 instanceof LineGeo && obj2 instanceof CircleGeo) {
-            intersections.addAll(IntersectionUtils.getLineCircleIntersections((LineGeo) obj1, (CircleGeo) obj2));
-        } else if (obj1 instanceof CircleGeo && obj2 instanceof LineGeo) {
-            intersections.addAll(IntersectionUtils.getLineCircleIntersections((LineGeo) obj2, (CircleGeo) obj1));
-        } else if (obj1 instanceof CircleGeo && obj2 instanceof CircleGeo) {
-            intersections.addAll(IntersectionUtils.getCircleCircleIntersections((CircleGeo) obj1, (CircleGeo) obj2));
-        } else if (obj1 instanceof InfiniteLineGeo && obj2 instanceof LineGeo) {
-            intersections.addAll(IntersectionUtils.getInfiniteLineLineIntersections((InfiniteLineGeo) obj1, (LineGeo) obj2));
-        } else if (obj1 instanceof LineGeo && obj2 instanceof InfiniteLineGeo) {
-            intersections.addAll(IntersectionUtils.getInfiniteLineLineIntersections((InfiniteLineGeo) obj2, (LineGeo) obj1));
-        } else if (obj1 instanceof InfiniteLineGeo && obj2 instanceof CircleGeo) {
-            intersections.addAll(IntersectionUtils.getInfiniteLineCircleIntersections((InfiniteLineGeo) obj1, (CircleGeo) obj2));
-        } else if (obj1 instanceof CircleGeo && obj2 instanceof InfiniteLineGeo) {
-            intersections.addAll(IntersectionUtils.getInfiniteLineCircleIntersections((InfiniteLineGeo) obj2, (CircleGeo) obj1));
-        } else if (obj1 instanceof InfiniteLineGeo && obj2 instanceof InfiniteLineGeo) {
-            intersections.addAll(IntersectionUtils.getInfiniteLineInfiniteLineIntersections((InfiniteLineGeo) obj1, (InfiniteLineGeo) obj2));
-        } else if (obj1 instanceof PolygonGeo polygon) {
-            // 多边形与其他图形的交点
-            for (LineGeo edge : polygon.getEdges()) {
-                if (obj2 instanceof LineGeo line) {
-                    intersections.addAll(IntersectionUtils.getLineLineIntersections(edge, line));
-                } else if (obj2 instanceof CircleGeo circle) {
-                    intersections.addAll(IntersectionUtils.getLineCircleIntersections(edge, circle));
-                } else if (obj2 instanceof InfiniteLineGeo infiniteLine) {
-                    intersections.addAll(IntersectionUtils.getInfiniteLineLineIntersections(infiniteLine, edge));
-                } else if (obj2 instanceof PolygonGeo otherPolygon) {
-                    for (LineGeo otherEdge : otherPolygon.getEdges()) {
-                        intersections.addAll(IntersectionUtils.getLineLineIntersections(edge, otherEdge));
-                    }
-                }
-            }
-        } else if (obj2 instanceof PolygonGeo polygon) {
-            // 其他图形与多边形的交点
-            for (LineGeo edge : polygon.getEdges()) {
-                if (obj1 instanceof LineGeo line) {
-                    intersections.addAll(IntersectionUtils.getLineLineIntersections(line, edge));
-                } else if (obj1 instanceof CircleGeo circle) {
-                    intersections.addAll(IntersectionUtils.getLineCircleIntersections(edge, circle));
-                } else if (obj1 instanceof InfiniteLineGeo infiniteLine) {
-                    intersections.addAll(IntersectionUtils.getInfiniteLineLineIntersections(infiniteLine, edge));
-                }
-            }
-        } else if (obj1 instanceof InfiniteLineGeo infiniteLine) {
-            // 无限直线与其他图形的交点
-            if (obj2 instanceof PolygonGeo polygon) {
-                for (LineGeo edge : polygon.getEdges()) {
-                    intersections.addAll(IntersectionUtils.getInfiniteLineLineIntersections(infiniteLine, edge));
-                }
-            } else if (obj2 instanceof PathGeo path) {
-                for (LineGeo edge : path.getEdges()) {
-                    intersections.addAll(IntersectionUtils.getInfiniteLineLineIntersections(infiniteLine, edge));
-                }
-            }
-        } else if (obj2 instanceof InfiniteLineGeo infiniteLine) {
-            // 其他图形与无限直线的交点
-            if (obj1 instanceof PolygonGeo polygon) {
-                for (LineGeo edge : polygon.getEdges()) {
-                    intersections.addAll(IntersectionUtils.getInfiniteLineLineIntersections(infiniteLine, edge));
-                }
-            } else if (obj1 instanceof PathGeo path) {
-                for (LineGeo edge : path.getEdges()) {
-                    intersections.addAll(IntersectionUtils.getInfiniteLineLineIntersections(infiniteLine, edge));
-                }
-            }
-        } else if (obj1 instanceof PathGeo path) {
-            // 手绘路径与其他图形的交点
-            for (LineGeo edge : path.getEdges()) {
-                if (obj2 instanceof LineGeo line) {
-                    intersections.addAll(IntersectionUtils.getLineLineIntersections(edge, line));
-                } else if (obj2 instanceof CircleGeo circle) {
-                    intersections.addAll(IntersectionUtils.getLineCircleIntersections(edge, circle));
-                } else if (obj2 instanceof PolygonGeo polygon) {
-                    for (LineGeo polyEdge : polygon.getEdges()) {
-                        intersections.addAll(IntersectionUtils.getLineLineIntersections(edge, polyEdge));
-                    }
-                } else if (obj2 instanceof InfiniteLineGeo infiniteLine) {
-                    intersections.addAll(IntersectionUtils.getInfiniteLineLineIntersections(infiniteLine, edge));
-                } else if (obj2 instanceof PathGeo otherPath) {
-                    for (LineGeo otherEdge : otherPath.getEdges()) {
-                        intersections.addAll(IntersectionUtils.getLineLineIntersections(edge, otherEdge));
-                    }
-                }
-            }
-        } else if (obj2 instanceof PathGeo path) {
-            // 其他图形与手绘路径的交点
-            for (LineGeo edge : path.getEdges()) {
-                if (obj1 instanceof LineGeo line) {
-                    intersections.addAll(IntersectionUtils.getLineLineIntersections(line, edge));
-                } else if (obj1 instanceof CircleGeo circle) {
-                    intersections.addAll(IntersectionUtils.getLineCircleIntersections(edge, circle));
-                } else if (obj1 instanceof PolygonGeo polygon) {
-                    for (LineGeo polyEdge : polygon.getEdges()) {
-                        intersections.addAll(IntersectionUtils.getLineLineIntersections(polyEdge, edge));
-                    }
-                } else if (obj1 instanceof InfiniteLineGeo infiniteLine) {
-                    intersections.addAll(IntersectionUtils.getInfiniteLineLineIntersections(infiniteLine, edge));
-                }
-            }
-        }
-
-        return intersections;
+        gridChartPane.redraw();
     }
 
     /**
@@ -1536,59 +1528,25 @@ public class DrawingController {
      * 点击线段或直线，立即绘制其中点
      */
     private void handleMidpointClick(double worldX, double worldY) {
-        // 查找点击位置附近的线段或直线
+        // 查找点击位置附近的线段或直线（直线的中点是定义点的中点）
         double scale = gridChartPane.getTransform().getScale();
         double tolerance = 10.0 / scale;
 
         for (WorldObject obj : gridChartPane.getObjects()) {
-            if (obj instanceof LineGeo line) {
-                if (line.hitTest(worldX, worldY, tolerance)) {
-                    // 计算中点
-                    Point2D midpoint = IntersectionUtils.getMidpoint(
-                            line.getStartX(), line.getStartY(),
-                            line.getEndX(), line.getEndY()
-                    );
-
-                    // 绘制中点
-                    PointGeo newPoint = new PointGeo(midpoint.getX(), midpoint.getY());
-                    newPoint.setColor(Color.GREEN);
-                    commandHistory.execute(new CommandHistory.Command() {
-                        @Override
-                        public void execute() {
-                            gridChartPane.addObject(newPoint);
-                        }
-
-                        @Override
-                        public void undo() {
-                            gridChartPane.removeObject(newPoint);
-                        }
-                    });
-                    return;
-                }
-            } else if (obj instanceof InfiniteLineGeo line) {
-                if (line.hitTest(worldX, worldY, tolerance)) {
-                    // 直线的中点是定义点的中点
-                    Point2D midpoint = IntersectionUtils.getMidpoint(
-                            line.getPoint1X(), line.getPoint1Y(),
-                            line.getPoint2X(), line.getPoint2Y()
-                    );
-
-                    // 绘制中点
-                    PointGeo newPoint = new PointGeo(midpoint.getX(), midpoint.getY());
-                    newPoint.setColor(Color.GREEN);
-                    commandHistory.execute(new CommandHistory.Command() {
-                        @Override
-                        public void execute() {
-                            gridChartPane.addObject(newPoint);
-                        }
-
-                        @Override
-                        public void undo() {
-                            gridChartPane.removeObject(newPoint);
-                        }
-                    });
-                    return;
-                }
+            if ((obj instanceof LineGeo || obj instanceof InfiniteLineGeo) && obj.hitTest(worldX, worldY, tolerance)) {
+                // 计算中点
+                double[] p = lineEndpoints(obj);
+                Point2D midpoint = IntersectionUtils.getMidpoint(p[0], p[1], p[2], p[3]);
+
+                // 绘制中点
+                PointGeo newPoint = new PointGeo(midpoint.getX(), midpoint.getY());
+                newPoint.setColor(Color.GREEN);
+                addConstruction(newPoint, () -> {
+                    double[] q = lineEndpoints(obj);
+                    Point2D m = IntersectionUtils.getMidpoint(q[0], q[1], q[2], q[3]);
+                    newPoint.setPosition(m.getX(), m.getY());
+                }, new PointBuffer(), obj);
+                return;
             }
         }
     }
@@ -1623,23 +1581,11 @@ public class DrawingController {
             }
         } else if (state == DrawingState.FIRST_CLICK && selectedLine != null) {
             // 第二次点击：过此点绘制垂线
-            double x1, y1, x2, y2;
-            if (selectedLine instanceof LineGeo line) {
-                x1 = line.getStartX();
-                y1 = line.getStartY();
-                x2 = line.getEndX();
-                y2 = line.getEndY();
-            } else if (selectedLine instanceof InfiniteLineGeo line) {
-                x1 = line.getPoint1X();
-                y1 = line.getPoint1Y();
-                x2 = line.getPoint2X();
-                y2 = line.getPoint2Y();
-            } else {
-                return;
-            }
+            final WorldObject source = selectedLine;
+            double[] p = lineEndpoints(source);
 
             // 计算垂线：过 (worldX, worldY) 点
-            Point2D[] perpLine = IntersectionUtils.getPerpendicularLine(x1, y1, x2, y2, worldX, worldY);
+            Point2D[] perpLine = IntersectionUtils.getPerpendicularLine(p[0], p[1], p[2], p[3], worldX, worldY);
 
             // 创建垂线（使用鼠标点和垂线上的另一点）
             InfiniteLineGeo newLine = new InfiniteLineGeo(
@@ -1647,25 +1593,14 @@ public class DrawingController {
                     perpLine[0].getX(), perpLine[0].getY()
             );
 
-            // 计算交点
-            List<PointGeo> intersectionPoints = checkIntersections(newLine);
-            commandHistory.execute(new CommandHistory.Command() {
-                @Override
-                public void execute() {
-                    gridChartPane.addObject(newLine);
-                    for (PointGeo point : intersectionPoints) {
-                        gridChartPane.addObject(point);
-                    }
-                }
-
-                @Override
-                public void undo() {
-                    gridChartPane.removeObject(newLine);
-                    for (PointGeo point : intersectionPoints) {
-                        gridChartPane.removeObject(point);
-                    }
-                }
-            });
+            // 源图形变化时保持过定义点1且垂直于源图形
+            addConstruction(newLine, () -> {
+                double[] q = lineEndpoints(source);
+                double px = newLine.getPoint1X();
+                double py = newLine.getPoint1Y();
+                Point2D[] l = IntersectionUtils.getPerpendicularLine(q[0], q[1], q[2], q[3], px, py);
+                newLine.setPoints(px, py, l[0].getX(), l[0].getY());
+            }, checkIntersections(newLine), source);
 
             // 重置状态
             selectedLine = null;
@@ -1686,42 +1621,16 @@ public class DrawingController {
         for (WorldObject obj : gridChartPane.getObjects()) {
             if (obj instanceof LineGeo line) {
                 if (line.hitTest(worldX, worldY, tolerance)) {
-                    // 计算线段的中点
-                    double midX = (line.getStartX() + line.getEndX()) / 2.0;
-                    double midY = (line.getStartY() + line.getEndY()) / 2.0;
-
                     // 计算垂直平分线（过中点，垂直于线段）
-                    Point2D[] bisectorLine = IntersectionUtils.getPerpendicularLine(
-                            line.getStartX(), line.getStartY(),
-                            line.getEndX(), line.getEndY(),
-                            midX, midY
-                    );
+                    double[] bisector = perpendicularBisector(line);
 
                     // 创建垂直平分线（使用中点和垂直方向点）
-                    InfiniteLineGeo newLine = new InfiniteLineGeo(
-                            midX, midY,
-                            bisectorLine[0].getX(), bisectorLine[0].getY()
-                    );
+                    InfiniteLineGeo newLine = new InfiniteLineGeo(bisector[0], bisector[1], bisector[2], bisector[3]);
 
-                    // 计算交点
-                    List<PointGeo> intersectionPoints = checkIntersections(newLine);
-                    commandHistory.execute(new CommandHistory.Command() {
-                        @Override
-                        public void execute() {
-                            gridChartPane.addObject(newLine);
-                            for (PointGeo point : intersectionPoints) {
-                                gridChartPane.addObject(point);
-                            }
-                        }
-
-                        @Override
-                        public void undo() {
-                            gridChartPane.removeObject(newLine);
-                            for (PointGeo point : intersectionPoints) {
-                                gridChartPane.removeObject(point);
-                            }
-                        }
-                    });
+                    addConstruction(newLine, () -> {
+                        double[] b = perpendicularBisector(line);
+                        newLine.setPoints(b[0], b[1], b[2], b[3]);
+                    }, checkIntersections(newLine), line);
                     return;
                 }
             }
@@ -1759,23 +1668,11 @@ public class DrawingController {
             }
         } else if (state == DrawingState.FIRST_CLICK && selectedLine != null) {
             // 第二次点击：过此点绘制平行线
-            double x1, y1, x2, y2;
-            if (selectedLine instanceof LineGeo line) {
-                x1 = line.getStartX();
-                y1 = line.getStartY();
-                x2 = line.getEndX();
-                y2 = line.getEndY();
-            } else if (selectedLine instanceof InfiniteLineGeo line) {
-                x1 = line.getPoint1X();
-                y1 = line.getPoint1Y();
-                x2 = line.getPoint2X();
-                y2 = line.getPoint2Y();
-            } else {
-                return;
-            }
+            final WorldObject source = selectedLine;
+            double[] p = lineEndpoints(source);
 
             // 计算平行线
-            Point2D[] parallelLine = IntersectionUtils.getParallelLine(x1, y1, x2, y2, worldX, worldY);
+            Point2D[] parallelLine = IntersectionUtils.getParallelLine(p[0], p[1], p[2], p[3], worldX, worldY);
 
             // 创建平行线（使用鼠标点和平行线上的另一点）
             InfiniteLineGeo newLine = new InfiniteLineGeo(
@@ -1783,25 +1680,14 @@ public class DrawingController {
                     parallelLine[0].getX(), parallelLine[0].getY()
             );
 
-            // 计算交点
-            List<PointGeo> intersectionPoints = checkIntersections(newLine);
-            commandHistory.execute(new CommandHistory.Command() {
-                @Override
-                public void execute() {
-                    gridChartPane.addObject(newLine);
-                    for (PointGeo point : intersectionPoints) {
-                        gridChartPane.addObject(point);
-                    }
-                }
-
-                @Override
-                public void undo() {
-                    gridChartPane.removeObject(newLine);
-                    for (PointGeo point : intersectionPoints) {
-                        gridChartPane.removeObject(point);
-                    }
-                }
-            });
+            // 源图形变化时保持过定义点1且平行于源图形
+            addConstruction(newLine, () -> {
+                double[] q = lineEndpoints(source);
+                double px = newLine.getPoint1X();
+                double py = newLine.getPoint1Y();
+                Point2D[] l = IntersectionUtils.getParallelLine(q[0], q[1], q[2], q[3], px, py);
+                newLine.setPoints(px, py, l[0].getX(), l[0].getY());
+            }, checkIntersections(newLine), source);
 
             // 重置状态
             selectedLine = null;
@@ -1846,31 +1732,116 @@ public class DrawingController {
                             tangentLine[0].getX(), tangentLine[0].getY()
                     );
 
-                    // 计算交点
-                    List<PointGeo> intersectionPoints = checkIntersections(newLine);
-                    commandHistory.execute(new CommandHistory.Command() {
-                        @Override
-                        public void execute() {
-                            gridChartPane.addObject(newLine);
-                            for (PointGeo point : intersectionPoints) {
-                                gridChartPane.addObject(point);
-                            }
-                        }
-
-                        @Override
-                        public void undo() {
-                            gridChartPane.removeObject(newLine);
-                            for (PointGeo point : intersectionPoints) {
-                                gridChartPane.removeObject(point);
-                            }
-                        }
-                    });
+                    // 圆变化时切点保持在同一方位角上
+                    final double angle = Math.atan2(dy, dx);
+                    addConstruction(newLine, () -> {
+                        double tx = circle.getCx() + Math.cos(angle) * circle.getR();
+                        double ty = circle.getCy() + Math.sin(angle) * circle.getR();
+                        Point2D[] l = IntersectionUtils.getTangentLine(circle.getCx(), circle.getCy(), tx, ty);
+                        newLine.setPoints(tx, ty, l[0].getX(), l[0].getY());
+                    }, checkIntersections(newLine), circle);
                     return;
                 }
             }
         }
     }
 
+    /**
+     * 添加一个构造出的图形，并在依赖图中登记它与源图形的依赖关系（支持撤销/恢复）
+     *
+     * @param target             构造出的图形
+     * @param evaluator          源图形变化时重新计算 target 的求值函数
+     * @param intersectionPoints target 产生的交点
+     * @param sources            target 依赖的源图形
+     */
+    private void addConstruction(WorldObject target, Runnable evaluator, PointBuffer intersectionPoints,
+                                 WorldObject... sources) {
+        commandHistory.transaction(() -> {
+            commandHistory.execute(addObjectCommand(target));
+            commandHistory.execute(new CommandHistory.Command() {
+                @Override
+                public void execute() {
+                    constructionGraph.add(target, evaluator, sources);
+                }
+
+                @Override
+                public void undo() {
+                    constructionGraph.remove(target);
+                }
+            });
+            commandHistory.execute(addDerivedPointsCommand(intersectionPoints));
+        });
+    }
+
+    /**
+     * 添加图形的命令（撤销时移除）
+     */
+    private CommandHistory.Command addObjectCommand(WorldObject object) {
+        return new CommandHistory.Command() {
+            @Override
+            public void execute() {
+                gridChartPane.addObject(object);
+            }
+
+            @Override
+            public void undo() {
+                gridChartPane.removeObject(object);
+            }
+
+            @Override
+            public long estimateSize() {
+                return object.estimateSize();
+            }
+        };
+    }
+
+    /**
+     * 添加交点的命令（撤销时移除）
+     */
+    private CommandHistory.Command addDerivedPointsCommand(PointBuffer intersectionPoints) {
+        return new CommandHistory.Command() {
+            @Override
+            public void execute() {
+                gridChartPane.addDerivedPoints(intersectionPoints, DerivedPointType.INTERSECTION);
+            }
+
+            @Override
+            public void undo() {
+                gridChartPane.removeDerivedPoints(intersectionPoints);
+            }
+
+            @Override
+            public long estimateSize() {
+                return intersectionPoints.estimateSize();
+            }
+        };
+    }
+
+    /**
+     * 线段或直线的两个定义点坐标 {x1, y1, x2, y2}
+     */
+    private static double[] lineEndpoints(WorldObject line) {
+        if (line instanceof LineGeo l) {
+            return new double[]{l.getStartX(), l.getStartY(), l.getEndX(), l.getEndY()};
+        }
+        InfiniteLineGeo l = (InfiniteLineGeo) line;
+        return new double[]{l.getPoint1X(), l.getPoint1Y(), l.getPoint2X(), l.getPoint2Y()};
+    }
+
+    /**
+     * 线段的垂直平分线上的两点 {中点x, 中点y, x, y}
+     */
+    private static double[] perpendicularBisector(LineGeo line) {
+        double midX = (line.getStartX() + line.getEndX()) / 2.0;
+        double midY = (line.getStartY() + line.getEndY()) / 2.0;
+        Point2D[] bisectorLine = IntersectionUtils.getPerpendicularLine(
+                line.getStartX(), line.getStartY(),
+                line.getEndX(), line.getEndY(),
+                midX, midY
+        );
+        return new double[]{midX, midY, bisectorLine[0].getX(), bisectorLine[0].getY()};
+    }
+
     /**
      * 处理旋转模式的点击事件
      * 第一次点击：选择要旋转的几何图形
@@ -1911,23 +1882,13 @@ public class DrawingController {
                     angleRadians = -angleRadians; // 顺时针方向为负角度
                 }
 
-                final double finalAngle = angleRadians;
-                final WorldObject shapeToRotate = selectedRotateShape;
-
-                // 使用命令历史执行旋转，支持撤销/恢复
-                commandHistory.execute(new CommandHistory.Command() {
-                    @Override
-                    public void execute() {
-                        shapeToRotate.rotateAroundPoint(rotateCenterX, rotateCenterY, finalAngle);
-                    }
-
-                    @Override
-                    public void undo() {
-                        // 反向旋转
-                        shapeToRotate.rotateAroundPoint(rotateCenterX, rotateCenterY, -finalAngle);
-                    }
-                });
-
+                // 旋转后记录到命令历史，支持撤销/恢复；
+                // 连续旋转同一个图形（中间没有其他操作）会合并为一条历史记录
+                double[] before = selectedRotateShape.getCoordinates();
+                selectedRotateShape.rotateAroundPoint(rotateCenterX, rotateCenterY, angleRadians);
+                // recordGeometryChange 会更新依赖该图形的作图
+                recordGeometryChange(selectedRotateShape, before,
+                        new MergeKey("rotate", 0, false));
                 // 重新计算交点
                 recalculateAllIntersections();
             }
@@ -2036,4 +1997,105 @@ public class DrawingController {
         ROTATE_SELECT_SHAPE,  // 旋转模式：选择要旋转的图形
         ROTATE_SELECT_CENTER  // 旋转模式：选择旋转中心点
     }
-}
\ No newline at end of file
+
+    /**
+     * 把图形的几何变化（已经完成）记录为增量历史命令
+     *
+     * @param object   变化的图形
+     * @param before   变化前的坐标
+     * @param mergeKey 合并键，相同键的连续变化合并为一条历史记录
+     */
+    private void recordGeometryChange(WorldObject object, double[] before, MergeKey mergeKey) {
+        double[] after = object.getCoordinates();
+        if (before == null || after == null || object.getId() == 0 || Arrays.equals(before, after)) {
+            return;
+        }
+        byte[] record = DeltaCodec.encode(object.getId(), before, after);
+        journalGeometry(record, true, constructionGraph.update(object));
+        commandHistory.addCommand(new GeometryChangeCommand(record, mergeKey, System.currentTimeMillis()));
+    }
+
+    /**
+     * 把图形的增量记录及随之更新的构造的当前坐标写入历史日志
+     */
+    private void journalGeometry(byte[] record, boolean forward, List<WorldObject> updatedConstructions) {
+        if (journal == null) {
+            return;
+        }
+        journal.recordDelta(record, forward);
+        for (WorldObject updated : updatedConstructions) {
+            journal.recordCoordinates(updated);
+        }
+    }
+
+    /**
+     * 几何变化命令的合并键，与图形标识一起决定能否合并
+     *
+     * @param operation 操作类型
+     * @param handle    拖动的控制点序号（其他操作为 0）
+     * @param windowed  是否只合并时间窗口内的变化；通过对话框进行的操作（旋转）每次间隔都较长，不受窗口限制
+     */
+    private record MergeKey(String operation, int handle, boolean windowed) {
+    }
+
+    /**
+     * 几何变化命令（拖动、旋转）
+     * <p>
+     * 不持有图形引用和坐标副本，只保存按图形标识编码的增量记录，撤销/恢复时按标识（经场景的标识索引）
+     * 找到图形后反向/正向重放；同一图形上合并键相同的后续变化并入本命令
+     */
+    private class GeometryChangeCommand implements CommandHistory.Command {
+        private final MergeKey mergeKey;
+        private byte[] record;
+        private long timestamp;
+
+        GeometryChangeCommand(byte[] record, MergeKey mergeKey, long timestamp) {
+            this.record = record;
+            this.mergeKey = mergeKey;
+            this.timestamp = timestamp;
+        }
+
+        @Override
+        public void execute() {
+            replay(true);
+        }
+
+        @Override
+        public void undo() {
+            replay(false);
+        }
+
+        private void replay(boolean forward) {
+            WorldObject object = gridChartPane.findObject(DeltaCodec.readId(record));
+            if (object == null) {
+                return;
+            }
+            double[] coordinates = object.getCoordinates();
+            DeltaCodec.apply(record, coordinates, forward);
+            object.setCoordinates(coordinates);
+            journalGeometry(record, forward, constructionGraph.update(object));
+            recalculateAllIntersections();
+        }
+
+        @Override
+        public long estimateSize() {
+            return 48 + record.length;
+        }
+
+        @Override
+        public boolean mergeWith(CommandHistory.Command next) {
+            if (next instanceof GeometryChangeCommand change && change.mergeKey.equals(mergeKey)
+                    && DeltaCodec.readId(change.record) == DeltaCodec.readId(record)
+                    && (!mergeKey.windowed() || change.timestamp - timestamp <= MERGE_WINDOW_MILLIS)) {
+                WorldObject object = gridChartPane.findObject(DeltaCodec.readId(record));
+                if (object == null) {
+                    return false;
+                }
+                record = DeltaCodec.merge(record, change.record, object.getCoordinates());
+                timestamp = change.timestamp;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -1,12 +1,32 @@
 package com.bingbaihanji.util;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 命令历史管理器
  * <p>
- * 用于管理撤销/恢复功能的命令栈
+ * 用于管理撤销/恢复功能的命令树。每个节点代表一个历史状态，父节点到子节点的边是一条命令；
+ * 撤销后再记录新命令时开出一个新分支，原来的恢复分支仍保留在树中，可以通过 {@link #jumpTo(long)} 回到任意状态。
+ * 恢复（{@link #redo()}）沿最近访问过的分支前进。
+ * <p>
+ * 设置了 {@link Checkpointer} 时，深度为检查点间隔整数倍的节点保存一份完整状态，
+ * 跳转较远的状态时先恢复目标路径上最近的检查点，再只重放检查点之后的几条命令，
+ * 而不是逐条撤销、恢复沿途的所有命令。
+ * <p>
+ * 历史记录同时受条目数量和估算内存字节数限制，任一限制超出时先丢弃不在当前路径上的最早分支，
+ * 再从根节点开始丢弃最早的撤销记录（至少保留最近的一条）。
+ * 新命令可以合并进当前节点的命令（如连续拖动同一个控制点），合并后只占一条历史记录。
+ * 设置了 {@link HistoryJournal} 时，每次记录、撤销、恢复、跳转都会在日志中提交一个事务。
+ * <p>
+ * 事务（{@link #beginTransaction()} / {@link #commitTransaction()} / {@link #rollbackTransaction()}）
+ * 把期间执行的命令组合为一个 {@link CompositeCommand}，作为一个撤销单元记录。
+ * 设置了 {@link UpdateBatch} 时，每次执行、撤销、恢复、跳转以及整个事务都在一次批量更新中完成（只重绘一次）
  *
  * @author bingbaihanji
  * @date 2025-12-23
@@ -14,56 +34,320 @@ import java.util.List;
 public class CommandHistory {
 
     /**
-     * 撤销栈
+     * 默认最多保留的历史条目数
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    /**
+     * 默认历史记录估算内存上限（字节）
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    /**
+     * 默认检查点间隔（节点深度）
      */
-    private final List<Command> undoStack = new ArrayList<>();
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 32;
+
     /**
-     * 恢复栈
+     * 状态编号到节点的映射（只包含仍保留的节点）
      */
-    private final List<Command> redoStack = new ArrayList<>();
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private long nextStateId = 0;
+    private Node root;
+    private Node current;
 
+    private int maxEntries;
+    private long maxBytes;
+    /**
+     * 所有命令与检查点的估算字节数之和
+     */
+    private long retainedBytes = 0;
+    private long evictionCount = 0;
+    /**
+     * 当前节点的命令是否还能接受合并（撤销/恢复/跳转后不再合并）
+     */
+    private boolean mergeOpen = false;
+    /**
+     * 完整状态检查点（可选）
+     */
+    private Checkpointer checkpointer;
+    private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+    /**
+     * 最近一次跳转执行的步数（撤销、恢复命令数，恢复检查点计一步）
+     */
+    private int lastJumpSteps = 0;
     /**
-     * 执行命令并记录到撤销栈
+     * 磁盘历史日志（可选）
+     */
+    private HistoryJournal journal;
+    /**
+     * 批量更新范围（可选）
+     */
+    private UpdateBatch updateBatch;
+    /**
+     * 进行中的事务及其嵌套深度
+     */
+    private CompositeCommand transaction;
+    private int transactionDepth = 0;
+
+    public CommandHistory() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxEntries 最多保留的历史条目数（所有分支合计）
+     * @param maxBytes   历史记录估算内存上限（字节）
+     */
+    public CommandHistory(int maxEntries, long maxBytes) {
+        resetTree();
+        setLimits(maxEntries, maxBytes);
+    }
+
+    /**
+     * 执行命令并记录到历史
      *
      * @param command 要执行的命令
      */
     public void execute(Command command) {
-        command.execute();
-        undoStack.add(command);
-        // 执行新命令时，清空恢复栈
-        redoStack.clear();
+        beginBatch();
+        try {
+            command.execute();
+        } finally {
+            endBatch();
+        }
+        addCommand(command);
     }
 
     /**
-     * 只记录命令到撤销栈（不执行，用于已经完成的操作如拖动）
+     * 只记录命令到历史（不执行，用于已经完成的操作如拖动）
+     * <p>
+     * 当前节点已有子节点（撤销过）时，新命令开出一个新分支，原分支保留
      *
      * @param command 要记录的命令
      */
     public void addCommand(Command command) {
-        undoStack.add(command);
-        // 记录新命令时，清空恢复栈
-        redoStack.clear();
+        if (transaction != null) {
+            // 事务中的命令先收集起来，提交时作为一个整体记录
+            transaction.add(command);
+            return;
+        }
+        if (mergeOpen && current != root && current.command.mergeWith(command)) {
+            // 合并进当前节点的命令，按合并后的大小重新记账
+            retainedBytes -= current.size;
+            current.size = Math.max(0, current.command.estimateSize());
+            retainedBytes += current.size;
+            if (current.checkpoint != null) {
+                // 合并改变了该节点的状态，检查点需要重新保存
+                dropCheckpoint(current);
+                captureCheckpoint(current);
+            }
+        } else {
+            Node node = new Node(nextStateId++, current, command);
+            node.size = Math.max(0, command.estimateSize());
+            retainedBytes += node.size;
+            current.children.add(node);
+            current.preferred = node;
+            nodes.put(node.id, node);
+            current = node;
+            if (checkpointer != null && node.depth % checkpointInterval == 0) {
+                captureCheckpoint(node);
+            }
+        }
+        mergeOpen = true;
+        evict();
+        commitJournal();
+    }
+
+    /**
+     * 结束当前的合并窗口，之后的命令总是作为新条目记录
+     */
+    public void breakMerge() {
+        mergeOpen = false;
     }
 
     /**
-     * 撤销最后一个命令
+     * 撤销当前节点的命令，回到父节点
      */
     public void undo() {
-        if (!undoStack.isEmpty()) {
-            Command command = undoStack.remove(undoStack.size() - 1);
-            command.undo();
-            redoStack.add(command);
+        checkNoTransaction();
+        if (current != root) {
+            beginBatch();
+            try {
+                current.command.undo();
+            } finally {
+                endBatch();
+            }
+            current.parent.preferred = current;
+            current = current.parent;
+            mergeOpen = false;
+            commitJournal();
         }
     }
 
     /**
-     * 恢复最后一个被撤销的命令
+     * 沿最近访问过的分支恢复一个命令
      */
     public void redo() {
-        if (!redoStack.isEmpty()) {
-            Command command = redoStack.remove(redoStack.size() - 1);
-            command.execute();
-            undoStack.add(command);
+        checkNoTransaction();
+        Node next = current.preferred;
+        if (next != null) {
+            beginBatch();
+            try {
+                next.command.execute();
+            } finally {
+                endBatch();
+            }
+            current = next;
+            mergeOpen = false;
+            commitJournal();
+        }
+    }
+
+    /**
+     * 跳转到任意历史状态（可以在其他分支上）
+     * <p>
+     * 逐条撤销到公共祖先再逐条恢复到目标；目标路径上有更近的检查点时，改为恢复检查点后只重放之后的命令。
+     * 整个跳转在一次批量更新中完成，并只提交一次日志事务；之后 {@link #redo()} 沿跳转经过的分支前进
+     *
+     * @param stateId 状态编号（{@link #getCurrentState()} 等方法返回的值）
+     * @return 状态不存在（已被淘汰或清空）时返回 false
+     */
+    public boolean jumpTo(long stateId) {
+        checkNoTransaction();
+        Node target = nodes.get(stateId);
+        if (target == null) {
+            return false;
+        }
+        lastJumpSteps = 0;
+        if (target == current) {
+            return true;
+        }
+        Node ancestor = commonAncestor(current, target);
+        int walkSteps = current.depth + target.depth - 2 * ancestor.depth;
+        Node checkpointed = nearestCheckpoint(target);
+
+        beginBatch();
+        try {
+            Node from;
+            if (checkpointed != null && target.depth - checkpointed.depth + 1 < walkSteps) {
+                checkpointed.checkpoint.restore();
+                lastJumpSteps++;
+                from = checkpointed;
+            } else {
+                while (current != ancestor) {
+                    current.command.undo();
+                    current.parent.preferred = current;
+                    current = current.parent;
+                    lastJumpSteps++;
+                }
+                from = ancestor;
+            }
+            for (Node node : pathBetween(from, target)) {
+                node.command.execute();
+                node.parent.preferred = node;
+                lastJumpSteps++;
+            }
+            current = target;
+        } finally {
+            endBatch();
+        }
+        mergeOpen = false;
+        commitJournal();
+        return true;
+    }
+
+    /**
+     * 开始事务（可嵌套，嵌套的事务并入最外层事务）
+     */
+    public void beginTransaction() {
+        if (transactionDepth++ == 0) {
+            transaction = new CompositeCommand();
+            beginBatch();
+        }
+    }
+
+    /**
+     * 提交事务：最外层提交时把期间执行的命令作为一个撤销单元记录（没有命令时不记录）
+     *
+     * @throws IllegalStateException 没有进行中的事务
+     */
+    public void commitTransaction() {
+        if (transactionDepth == 0) {
+            throw new IllegalStateException("没有进行中的事务");
+        }
+        if (--transactionDepth == 0) {
+            CompositeCommand committed = transaction;
+            transaction = null;
+            endBatch();
+            if (!committed.isEmpty()) {
+                addCommand(committed);
+            }
+        }
+    }
+
+    /**
+     * 回滚事务：按相反顺序撤销期间执行的命令并丢弃它们（嵌套时回滚整个最外层事务）
+     */
+    public void rollbackTransaction() {
+        if (transactionDepth == 0) {
+            return;
+        }
+        CompositeCommand aborted = transaction;
+        transaction = null;
+        transactionDepth = 0;
+        try {
+            aborted.undo();
+        } finally {
+            endBatch();
+        }
+    }
+
+    /**
+     * 在事务中执行 body：正常结束时提交，抛出异常时回滚
+     */
+    public void transaction(Runnable body) {
+        beginTransaction();
+        try {
+            body.run();
+        } catch (RuntimeException | Error e) {
+            rollbackTransaction();
+            throw e;
+        }
+        commitTransaction();
+    }
+
+    /**
+     * 是否有进行中的事务
+     */
+    public boolean isInTransaction() {
+        return transaction != null;
+    }
+
+    /**
+     * 设置批量更新范围（null 表示不使用）
+     */
+    public void setUpdateBatch(UpdateBatch updateBatch) {
+        this.updateBatch = updateBatch;
+    }
+
+    /**
+     * 设置完整状态检查点（null 表示不保存检查点）
+     * <p>
+     * 已有的检查点全部丢弃，并立即为当前状态保存一个检查点
+     *
+     * @param checkpointer 保存完整状态的回调
+     * @param interval     检查点间隔（节点深度，至少为 1）
+     */
+    public void setCheckpointer(Checkpointer checkpointer, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("检查点间隔至少为 1");
+        }
+        for (Node node : nodes.values()) {
+            dropCheckpoint(node);
+        }
+        this.checkpointer = checkpointer;
+        this.checkpointInterval = interval;
+        if (checkpointer != null) {
+            captureCheckpoint(current);
+            evict();
         }
     }
 
@@ -71,22 +355,308 @@ public class CommandHistory {
      * 判断是否可以撤销
      */
     public boolean canUndo() {
-        return !undoStack.isEmpty();
+        return current != root;
     }
 
     /**
      * 判断是否可以恢复
      */
     public boolean canRedo() {
-        return !redoStack.isEmpty();
+        return current.preferred != null;
     }
 
     /**
      * 清空所有历史记录
      */
     public void clear() {
-        undoStack.clear();
-        redoStack.clear();
+        resetTree();
+        retainedBytes = 0;
+        mergeOpen = false;
+        if (checkpointer != null) {
+            captureCheckpoint(current);
+        }
+    }
+
+    /**
+     * 设置历史记录的条目数量与内存上限，超出部分立即淘汰
+     *
+     * @param maxEntries 最多保留的历史条目数（至少为 1）
+     * @param maxBytes   历史记录估算内存上限（字节）
+     */
+    public void setLimits(int maxEntries, long maxBytes) {
+        if (maxEntries < 1 || maxBytes < 0) {
+            throw new IllegalArgumentException("maxEntries 至少为 1，maxBytes 不能为负数");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        evict();
+    }
+
+    /**
+     * 设置磁盘历史日志：每次记录、撤销、恢复、跳转后提交一次日志事务（null 表示不记录）
+     */
+    public void setJournal(HistoryJournal journal) {
+        this.journal = journal;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * 当前状态到最早保留状态之间可以撤销的条目数
+     */
+    public int getUndoCount() {
+        return current.depth - root.depth;
+    }
+
+    /**
+     * 沿最近访问过的分支可以恢复的条目数
+     */
+    public int getRedoCount() {
+        int count = 0;
+        for (Node node = current.preferred; node != null; node = node.preferred) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 当前状态编号
+     */
+    public long getCurrentState() {
+        return current.id;
+    }
+
+    /**
+     * 最早保留的状态编号（树根）
+     */
+    public long getRootState() {
+        return root.id;
+    }
+
+    /**
+     * 父状态编号
+     *
+     * @return 状态是树根或不存在时返回 -1
+     */
+    public long getParentState(long stateId) {
+        Node node = nodes.get(stateId);
+        return node == null || node.parent == null ? -1 : node.parent.id;
+    }
+
+    /**
+     * 子状态编号（按创建顺序，每个子状态是一个分支）
+     *
+     * @return 状态不存在时返回空列表
+     */
+    public List<Long> getChildStates(long stateId) {
+        Node node = nodes.get(stateId);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        List<Long> ids = new ArrayList<>(node.children.size());
+        for (Node child : node.children) {
+            ids.add(child.id);
+        }
+        return ids;
+    }
+
+    /**
+     * 保留的状态数（包括树根）
+     */
+    public int getStateCount() {
+        return nodes.size();
+    }
+
+    /**
+     * 最近一次 {@link #jumpTo(long)} 执行的步数（撤销、恢复命令数，恢复检查点计一步）
+     */
+    public int getLastJumpSteps() {
+        return lastJumpSteps;
+    }
+
+    /**
+     * 历史记录当前占用的估算内存（字节）
+     */
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * 因超出限制被淘汰的条目总数
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private void checkNoTransaction() {
+        if (transaction != null) {
+            throw new IllegalStateException("事务进行中，不能撤销、恢复或跳转");
+        }
+    }
+
+    private void beginBatch() {
+        if (updateBatch != null) {
+            updateBatch.begin();
+        }
+    }
+
+    private void endBatch() {
+        if (updateBatch != null) {
+            updateBatch.end();
+        }
+    }
+
+    private void commitJournal() {
+        if (journal != null) {
+            journal.commit();
+        }
+    }
+
+    private void resetTree() {
+        nodes.clear();
+        root = new Node(nextStateId++, null, null);
+        current = root;
+        nodes.put(root.id, root);
+    }
+
+    private void captureCheckpoint(Node node) {
+        node.checkpoint = checkpointer.capture();
+        node.checkpointSize = Math.max(0, node.checkpoint.estimateSize());
+        retainedBytes += node.checkpointSize;
+    }
+
+    private void dropCheckpoint(Node node) {
+        if (node.checkpoint != null) {
+            retainedBytes -= node.checkpointSize;
+            node.checkpoint = null;
+            node.checkpointSize = 0;
+        }
+    }
+
+    /**
+     * 目标节点及其祖先中最近的检查点
+     */
+    private static Node nearestCheckpoint(Node target) {
+        for (Node node = target; node != null; node = node.parent) {
+            if (node.checkpoint != null) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static Node commonAncestor(Node a, Node b) {
+        while (a.depth > b.depth) {
+            a = a.parent;
+        }
+        while (b.depth > a.depth) {
+            b = b.parent;
+        }
+        while (a != b) {
+            a = a.parent;
+            b = b.parent;
+        }
+        return a;
+    }
+
+    /**
+     * 从 ancestor（不含）到 target（含）的节点，按深度递增排列
+     */
+    private static List<Node> pathBetween(Node ancestor, Node target) {
+        List<Node> path = new ArrayList<>(target.depth - ancestor.depth);
+        for (Node node = target; node != ancestor; node = node.parent) {
+            path.add(node);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * 超出限制时先丢弃不在当前路径上的最早分支，再从根节点开始丢弃最早的撤销记录
+     */
+    private void evict() {
+        while (isOverLimit()) {
+            if (!pruneOldestBranch() && !dropRoot()) {
+                break;
+            }
+        }
+    }
+
+    private boolean isOverLimit() {
+        return nodes.size() - 1 > maxEntries || retainedBytes > maxBytes;
+    }
+
+    /**
+     * 丢弃不在根节点到当前节点路径上的最早创建的分支（包括当前节点的恢复分支）
+     */
+    private boolean pruneOldestBranch() {
+        Node oldest = null;
+        Node onPath = null;
+        for (Node node = current; node != null; onPath = node, node = node.parent) {
+            for (Node child : node.children) {
+                if (child != onPath && (oldest == null || child.id < oldest.id)) {
+                    oldest = child;
+                }
+            }
+        }
+        if (oldest == null) {
+            return false;
+        }
+        Node parent = oldest.parent;
+        parent.children.remove(oldest);
+        if (parent.preferred == oldest) {
+            parent.preferred = parent.children.isEmpty() ? null : parent.children.get(parent.children.size() - 1);
+        }
+        discardSubtree(oldest);
+        return true;
+    }
+
+    /**
+     * 丢弃树根：根节点通向当前节点的子节点成为新树根，其他分支一并丢弃（至少保留一条撤销记录）
+     */
+    private boolean dropRoot() {
+        if (current.depth - root.depth <= 1) {
+            return false;
+        }
+        Node next = current;
+        while (next.parent != root) {
+            next = next.parent;
+        }
+        for (Node child : root.children) {
+            if (child != next) {
+                discardSubtree(child);
+            }
+        }
+        dropCheckpoint(root);
+        nodes.remove(root.id);
+        retainedBytes -= next.size;
+        evictionCount++;
+        next.command = null;
+        next.size = 0;
+        next.parent = null;
+        root = next;
+        return true;
+    }
+
+    private void discardSubtree(Node top) {
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(top);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            retainedBytes -= node.size;
+            dropCheckpoint(node);
+            nodes.remove(node.id);
+            evictionCount++;
+            for (Node child : node.children) {
+                stack.push(child);
+            }
+        }
     }
 
     /**
@@ -102,5 +672,87 @@ public class CommandHistory {
          * 撤销命令
          */
         void undo();
+
+        /**
+         * 估算命令持有的数据占用的内存字节数（用于限制历史记录内存）
+         */
+        default long estimateSize() {
+            return 64;
+        }
+
+        /**
+         * 尝试把紧随其后的命令合并进当前命令
+         * <p>
+         * 合并成功后当前命令应只保留自己的起始状态和 next 的结束状态，
+         * 撤销时直接回到起始状态；next 已经执行过，合并不会再次执行它
+         *
+         * @param next 紧随其后记录的命令
+         * @return 是否已合并（返回 false 时 next 作为新条目记录）
+         */
+        default boolean mergeWith(Command next) {
+            return false;
+        }
+    }
+
+    /**
+     * 批量更新范围（如合并期间的多次重绘）
+     */
+    public interface UpdateBatch {
+        void begin();
+
+        void end();
+    }
+
+    /**
+     * 保存完整状态的回调
+     */
+    public interface Checkpointer {
+        /**
+         * 保存当前的完整状态（在命令执行之后调用）
+         */
+        Checkpoint capture();
+    }
+
+    /**
+     * 一份完整状态
+     */
+    public interface Checkpoint {
+        /**
+         * 把状态整体恢复为保存时的样子
+         */
+        void restore();
+
+        /**
+         * 估算检查点占用的内存字节数（计入历史记录内存）
+         */
+        default long estimateSize() {
+            return 64;
+        }
+    }
+
+    /**
+     * 历史状态节点：command 是从父节点到达本节点的命令（树根没有命令），
+     * size 记录加入时的估算大小，淘汰时按同一数值扣除
+     */
+    private static final class Node {
+        final long id;
+        final int depth;
+        final List<Node> children = new ArrayList<>(1);
+        Node parent;
+        Command command;
+        long size;
+        /**
+         * 恢复时前进的子节点（最近创建或访问过的分支）
+         */
+        Node preferred;
+        Checkpoint checkpoint;
+        long checkpointSize;
+
+        Node(long id, Node parent, Command command) {
+            this.id = id;
+            this.parent = parent;
+            this.command = command;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+        }
     }
 }
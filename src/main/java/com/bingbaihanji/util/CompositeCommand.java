@@ -0,0 +1,65 @@
+package com.bingbaihanji.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 组合命令
+ * <p>
+ * 把一次用户操作中的多个子命令组合为一个撤销单元：执行与恢复时按顺序执行子命令，撤销时按相反顺序撤销
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public class CompositeCommand implements CommandHistory.Command {
+
+    private final List<CommandHistory.Command> commands = new ArrayList<>();
+
+    public CompositeCommand() {
+    }
+
+    public CompositeCommand(List<? extends CommandHistory.Command> commands) {
+        this.commands.addAll(commands);
+    }
+
+    /**
+     * 追加一个子命令
+     */
+    public void add(CommandHistory.Command command) {
+        commands.add(command);
+    }
+
+    /**
+     * 子命令数量
+     */
+    public int size() {
+        return commands.size();
+    }
+
+    public boolean isEmpty() {
+        return commands.isEmpty();
+    }
+
+    @Override
+    public void execute() {
+        for (CommandHistory.Command command : commands) {
+            command.execute();
+        }
+    }
+
+    @Override
+    public void undo() {
+        for (int i = commands.size() - 1; i >= 0; i--) {
+            commands.get(i).undo();
+        }
+    }
+
+    @Override
+    public long estimateSize() {
+        long size = 32 + commands.size() * 8L;
+        for (CommandHistory.Command command : commands) {
+            size += command.estimateSize();
+        }
+        return size;
+    }
+}
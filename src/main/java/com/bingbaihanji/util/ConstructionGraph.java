@@ -0,0 +1,213 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 作图依赖图
+ * <p>
+ * 中点、垂线、垂直平分线、平行线、切线等由其他图形构造出的图形登记为图中的节点，
+ * 边从源图形指向构造出的图形，整张图是有向无环图。某个图形变化后，只沿边收集它下游的子图，
+ * 按拓扑顺序逐个重新求值，因此开销只与受影响的子图大小成正比，与场景中的图形总数无关
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public class ConstructionGraph {
+
+    /**
+     * 构造出的图形 -> 节点
+     */
+    private final Map<WorldObject, Node> nodes = new IdentityHashMap<>();
+    /**
+     * 图形 -> 直接依赖它的节点
+     */
+    private final Map<WorldObject, List<Node>> dependents = new IdentityHashMap<>();
+    /**
+     * 当前遍历的标记值，节点的 mark 等于该值表示本次已访问（标记为脏）
+     */
+    private int epoch = 0;
+
+    /**
+     * 登记一个构造
+     *
+     * @param target    构造出的图形
+     * @param evaluator 根据源图形重新计算 target 几何数据的求值函数
+     * @param sources   target 依赖的源图形
+     * @throws IllegalArgumentException target 已登记，或加入后会形成环
+     */
+    public void add(WorldObject target, Runnable evaluator, WorldObject... sources) {
+        if (nodes.containsKey(target)) {
+            throw new IllegalArgumentException("构造已存在");
+        }
+        for (WorldObject source : sources) {
+            if (source == target || collectDownstream(target).contains(nodes.get(source))) {
+                throw new IllegalArgumentException("构造依赖形成环");
+            }
+        }
+        link(new Node(target, evaluator, List.of(sources)));
+    }
+
+    /**
+     * 移除一个构造（target 之后不再随源图形更新）
+     */
+    public void remove(WorldObject target) {
+        Node node = nodes.remove(target);
+        if (node == null) {
+            return;
+        }
+        for (WorldObject source : node.sources) {
+            List<Node> list = dependents.get(source);
+            if (list != null) {
+                list.remove(node);
+                if (list.isEmpty()) {
+                    dependents.remove(source);
+                }
+            }
+        }
+    }
+
+    /**
+     * 判断图形是否是登记过的构造
+     */
+    public boolean isConstructed(WorldObject object) {
+        return nodes.containsKey(object);
+    }
+
+    /**
+     * 构造数量
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    public void clear() {
+        nodes.clear();
+        dependents.clear();
+    }
+
+    /**
+     * 估算依赖图占用的内存字节数
+     */
+    public long estimateSize() {
+        return 64 + nodes.size() * 128L;
+    }
+
+    /**
+     * 图形变化后重新求值受影响的构造
+     * <p>
+     * changed 本身是构造时先按约束重新求值它自己，再按拓扑顺序求值它下游的所有构造
+     *
+     * @param changed 发生变化的图形
+     * @return 按求值顺序排列的被更新的图形
+     */
+    public List<WorldObject> update(WorldObject changed) {
+        List<Node> order = collectDownstream(changed);
+        Node self = nodes.get(changed);
+        if (self != null) {
+            self.evaluator.run();
+        }
+        List<WorldObject> updated = new ArrayList<>(order.size());
+        for (Node node : order) {
+            node.evaluator.run();
+            updated.add(node.target);
+        }
+        return updated;
+    }
+
+    /**
+     * 创建当前内容的独立副本（用于撤销）
+     */
+    public ConstructionGraph snapshot() {
+        ConstructionGraph copy = new ConstructionGraph();
+        copy.restore(this);
+        return copy;
+    }
+
+    /**
+     * 用副本的内容替换当前内容
+     */
+    public void restore(ConstructionGraph snapshot) {
+        clear();
+        for (Node node : snapshot.nodes.values()) {
+            link(new Node(node.target, node.evaluator, node.sources));
+        }
+    }
+
+    private void link(Node node) {
+        nodes.put(node.target, node);
+        for (WorldObject source : node.sources) {
+            dependents.computeIfAbsent(source, k -> new ArrayList<>(2)).add(node);
+        }
+    }
+
+    /**
+     * 收集 root 下游（不含 root 自身）的所有节点，按拓扑顺序返回
+     * <p>
+     * 迭代式深度优先遍历，按后序的逆序即为拓扑顺序
+     */
+    private List<Node> collectDownstream(WorldObject root) {
+        List<Node> postOrder = new ArrayList<>();
+        List<Node> direct = dependents.get(root);
+        if (direct == null) {
+            return postOrder;
+        }
+        int mark = ++epoch;
+        List<Node> stack = new ArrayList<>();
+        List<Integer> cursors = new ArrayList<>();
+        for (Node start : direct) {
+            if (start.mark == mark) {
+                continue;
+            }
+            start.mark = mark;
+            stack.add(start);
+            cursors.add(0);
+            while (!stack.isEmpty()) {
+                int top = stack.size() - 1;
+                Node node = stack.get(top);
+                List<Node> next = dependents.get(node.target);
+                int cursor = cursors.get(top);
+                if (next != null && cursor < next.size()) {
+                    cursors.set(top, cursor + 1);
+                    Node child = next.get(cursor);
+                    if (child.mark != mark) {
+                        child.mark = mark;
+                        stack.add(child);
+                        cursors.add(0);
+                    }
+                } else {
+                    stack.remove(top);
+                    cursors.remove(top);
+                    postOrder.add(node);
+                }
+            }
+        }
+        // 后序逆序
+        for (int i = 0, j = postOrder.size() - 1; i < j; i++, j--) {
+            Node tmp = postOrder.get(i);
+            postOrder.set(i, postOrder.get(j));
+            postOrder.set(j, tmp);
+        }
+        return postOrder;
+    }
+
+    /**
+     * 依赖图节点
+     */
+    private static final class Node {
+        final WorldObject target;
+        final Runnable evaluator;
+        final List<WorldObject> sources;
+        int mark;
+
+        Node(WorldObject target, Runnable evaluator, List<WorldObject> sources) {
+            this.target = target;
+            this.evaluator = evaluator;
+            this.sources = sources;
+        }
+    }
+}
@@ -1,19 +1,22 @@
 package com.bingbaihanji.util;
 
-import javafx.embed.swing.SwingFXUtils;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.scene.Node;
 import javafx.scene.SnapshotParameters;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
 import javafx.scene.paint.Color;
 import javafx.stage.FileChooser;
+import javafx.stage.Modality;
 import javafx.stage.Stage;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -28,14 +31,21 @@ public interface FxTools {
         snapshotParameters.setFill(Color.TRANSPARENT); // 使用透明背景
         WritableImage image = node.snapshot(snapshotParameters, null);
 
-        // 保存截图到剪切板
-        Clipboard systemClipboard = Clipboard.getSystemClipboard(); // 获取系统剪切板
-        ClipboardContent clipboardContent = new ClipboardContent();
-        clipboardContent.putImage(image);
-        systemClipboard.setContent(clipboardContent);
+        // 保存截图到剪切板：推迟到当前事件处理结束之后，不阻塞本次重绘
+        Platform.runLater(() -> {
+            Clipboard systemClipboard = Clipboard.getSystemClipboard(); // 获取系统剪切板
+            ClipboardContent clipboardContent = new ClipboardContent();
+            clipboardContent.putImage(image);
+            systemClipboard.setContent(clipboardContent);
+        });
+
+        // 在 FX 线程上只复制一次像素，编码与写盘交给后台线程
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] pixels = new int[width * height];
+        image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
 
         // 保存到文件
-        BufferedImage png = SwingFXUtils.fromFXImage(image, null);
         FileChooser fileChooser = new FileChooser();
         // 设置默认文件名：当前日期时间
         LocalDateTime now = LocalDateTime.now();
@@ -47,13 +57,38 @@ public interface FxTools {
         );
         File save = fileChooser.showSaveDialog(primaryStage);
         if (save != null) {
-            try {
-                ImageIO.write(png, "png", save);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
+            showProgress(primaryStage, ScreenshotSaver.save(pixels, width, height, save.toPath()));
         }
     }
 
+    /**
+     * 显示后台保存任务的进度（非模态，可取消），任务结束后自动关闭
+     */
+    private static void showProgress(Stage owner, Task<?> task) {
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(280);
+        progressBar.progressProperty().bind(task.progressProperty());
+
+        Alert alert = new Alert(Alert.AlertType.NONE, null, ButtonType.CANCEL);
+        alert.initOwner(owner);
+        alert.initModality(Modality.NONE);
+        alert.setHeaderText(I18nUtil.getString("screenshot.saving"));
+        alert.getDialogPane().setContent(progressBar);
+        alert.setOnHidden(e -> task.cancel());
+
+        task.setOnSucceeded(e -> alert.close());
+        task.setOnCancelled(e -> alert.close());
+        task.setOnFailed(e -> {
+            alert.close();
+            Throwable error = task.getException();
+            error.printStackTrace();
+            Alert failed = new Alert(Alert.AlertType.ERROR, error.getMessage());
+            failed.initOwner(owner);
+            failed.setHeaderText(I18nUtil.getString("screenshot.saveFailed"));
+            failed.show();
+        });
+        alert.show();
+    }
+
 
 }
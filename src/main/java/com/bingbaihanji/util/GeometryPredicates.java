@@ -0,0 +1,265 @@
+package com.bingbaihanji.util;
+
+import java.util.Arrays;
+
+/**
+ * 自适应精度几何谓词
+ * <p>
+ * 参照 Shewchuk 的自适应精度算法：先用普通浮点运算求值，并与该表达式的舍入误差上界比较，
+ * 符号可信时直接返回；否则借助无误差变换（twoSum、基于 fma 的 twoProduct）把表达式展开成
+ * 浮点展开式精确求值。返回值的符号总是精确的，数值本身只是近似值
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public final class GeometryPredicates {
+
+    /**
+     * 单位舍入误差 2^-53
+     */
+    private static final double EPSILON = Math.ulp(1.0) / 2;
+    /**
+     * orient2d 的误差上界系数
+     */
+    static final double CCW_ERRBOUND = (3.0 + 16.0 * EPSILON) * EPSILON;
+    /**
+     * 方向叉积的误差上界系数（保守值）
+     */
+    private static final double CROSS_ERRBOUND = 8.0 * EPSILON;
+    /**
+     * 距离平方比较的误差上界系数（保守值）
+     */
+    private static final double DIST_ERRBOUND = 32.0 * EPSILON;
+
+    private GeometryPredicates() {
+    }
+
+    /**
+     * 点 c 相对有向直线 a→b 的方向
+     *
+     * @return 正数表示 c 在左侧（a、b、c 逆时针），负数表示在右侧，0 表示三点共线
+     */
+    public static double orient2d(double ax, double ay, double bx, double by, double cx, double cy) {
+        double detLeft = (ax - cx) * (by - cy);
+        double detRight = (ay - cy) * (bx - cx);
+        double det = detLeft - detRight;
+        double errBound = CCW_ERRBOUND * (Math.abs(detLeft) + Math.abs(detRight));
+        if (det > errBound || -det > errBound) {
+            return det;
+        }
+
+        // ax*by - ay*bx + bx*cy - by*cx + cx*ay - cy*ax
+        Expansion exact = new Expansion();
+        exact.addProduct(ax, by);
+        exact.addProduct(-ay, bx);
+        exact.addProduct(bx, cy);
+        exact.addProduct(-by, cx);
+        exact.addProduct(cx, ay);
+        exact.addProduct(-cy, ax);
+        return exact.estimate();
+    }
+
+    /**
+     * 方向 a→b 与方向 c→d 的叉积 (b - a) × (d - c)
+     *
+     * @return 正数表示 c→d 在 a→b 的逆时针方向，0 表示两方向平行
+     */
+    public static double cross(double ax, double ay, double bx, double by,
+                               double cx, double cy, double dx, double dy) {
+        double left = (bx - ax) * (dy - cy);
+        double right = (by - ay) * (dx - cx);
+        double det = left - right;
+        double errBound = CROSS_ERRBOUND * (Math.abs(left) + Math.abs(right));
+        if (det > errBound || -det > errBound) {
+            return det;
+        }
+
+        // bx*dy - bx*cy - ax*dy + ax*cy - by*dx + by*cx + ay*dx - ay*cx
+        Expansion exact = new Expansion();
+        exact.addProduct(bx, dy);
+        exact.addProduct(-bx, cy);
+        exact.addProduct(-ax, dy);
+        exact.addProduct(ax, cy);
+        exact.addProduct(-by, dx);
+        exact.addProduct(by, cx);
+        exact.addProduct(ay, dx);
+        exact.addProduct(-ay, cx);
+        return exact.estimate();
+    }
+
+    /**
+     * 过 (x1, y1)、(x2, y2) 的直线与圆的位置关系，即 r²·|p2 - p1|² - ((p2 - p1) × (c - p1))²
+     *
+     * @return 正数表示相交于两点，0 表示相切，负数表示相离（两点重合时为 0）
+     */
+    public static double lineCircle(double x1, double y1, double x2, double y2,
+                                    double cx, double cy, double r) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double left = dx * (cy - y1);
+        double right = dy * (cx - x1);
+        double crossValue = left - right;
+        double magnitude = Math.abs(left) + Math.abs(right);
+        double radiusLength = r * r * (dx * dx + dy * dy);
+        double det = radiusLength - crossValue * crossValue;
+        double errBound = DIST_ERRBOUND * (magnitude * magnitude + radiusLength);
+        if (det > errBound || -det > errBound) {
+            return det;
+        }
+
+        // (p2 - p1) × (c - p1) = x2*cy - x2*y1 - x1*cy - y2*cx + y2*x1 + y1*cx
+        Expansion crossExact = new Expansion();
+        crossExact.addProduct(x2, cy);
+        crossExact.addProduct(-x2, y1);
+        crossExact.addProduct(-x1, cy);
+        crossExact.addProduct(-y2, cx);
+        crossExact.addProduct(y2, x1);
+        crossExact.addProduct(y1, cx);
+
+        // |p2 - p1|² = x2² - 2*x2*x1 + x1² + y2² - 2*y2*y1 + y1²
+        Expansion length = new Expansion();
+        length.addProduct(x2, x2);
+        length.addProduct(-2 * x2, x1);
+        length.addProduct(x1, x1);
+        length.addProduct(y2, y2);
+        length.addProduct(-2 * y2, y1);
+        length.addProduct(y1, y1);
+
+        Expansion radius = new Expansion();
+        radius.addProduct(r, r);
+
+        Expansion exact = radius.multiply(length);
+        exact.add(crossExact.multiply(crossExact).negate());
+        return exact.estimate();
+    }
+
+    /**
+     * 两圆圆心距与半径之和的比较，即 d² - (r1 + r2)²
+     *
+     * @return 正数表示两圆相离，0 表示外切，负数表示两圆有重叠部分
+     */
+    public static double circlesExternal(double x1, double y1, double r1, double x2, double y2, double r2) {
+        return compareCentreDistance(x1, y1, r1, x2, y2, r2, 1);
+    }
+
+    /**
+     * 两圆圆心距与半径之差的比较，即 d² - (r1 - r2)²
+     *
+     * @return 负数表示一圆在另一圆内部，0 表示内切（或同心等半径），正数表示两圆边界可能相交
+     */
+    public static double circlesInternal(double x1, double y1, double r1, double x2, double y2, double r2) {
+        return compareCentreDistance(x1, y1, r1, x2, y2, r2, -1);
+    }
+
+    /**
+     * 计算 d² - (r1 + sign·r2)²
+     */
+    private static double compareCentreDistance(double x1, double y1, double r1,
+                                                double x2, double y2, double r2, int sign) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double distance = dx * dx + dy * dy;
+        double radius = r1 + sign * r2;
+        double det = distance - radius * radius;
+        double radiusBound = Math.abs(r1) + Math.abs(r2);
+        double errBound = DIST_ERRBOUND * (distance + radiusBound * radiusBound);
+        if (det > errBound || -det > errBound) {
+            return det;
+        }
+
+        // x2² - 2*x2*x1 + x1² + y2² - 2*y2*y1 + y1² - r1² - 2*sign*r1*r2 - r2²
+        Expansion exact = new Expansion();
+        exact.addProduct(x2, x2);
+        exact.addProduct(-2 * x2, x1);
+        exact.addProduct(x1, x1);
+        exact.addProduct(y2, y2);
+        exact.addProduct(-2 * y2, y1);
+        exact.addProduct(y1, y1);
+        exact.addProduct(-r1, r1);
+        exact.addProduct(-2 * sign * r1, r2);
+        exact.addProduct(-r2, r2);
+        return exact.estimate();
+    }
+
+    /**
+     * 浮点展开式
+     * <p>
+     * 一个实数表示为若干互不重叠的浮点分量之和，分量按绝对值从小到大排列，不含 0；
+     * 最大的分量与整个和同号
+     */
+    private static final class Expansion {
+
+        private double[] terms = new double[8];
+        private int length;
+
+        /**
+         * 加上一个浮点数（Grow-Expansion，原地执行并去掉 0 分量）
+         */
+        void add(double b) {
+            if (length == terms.length) {
+                terms = Arrays.copyOf(terms, length * 2);
+            }
+            double q = b;
+            int index = 0;
+            for (int i = 0; i < length; i++) {
+                double e = terms[i];
+                // twoSum：sum + error 精确等于 q + e
+                double sum = q + e;
+                double bVirtual = sum - q;
+                double aVirtual = sum - bVirtual;
+                double error = (q - aVirtual) + (e - bVirtual);
+                q = sum;
+                // index <= i，原地写入不会覆盖尚未读取的分量
+                if (error != 0) {
+                    terms[index++] = error;
+                }
+            }
+            if (q != 0) {
+                terms[index++] = q;
+            }
+            length = index;
+        }
+
+        void add(Expansion other) {
+            for (int i = 0; i < other.length; i++) {
+                add(other.terms[i]);
+            }
+        }
+
+        /**
+         * 加上 a * b（twoProduct：fma 求出乘积的舍入误差）
+         */
+        void addProduct(double a, double b) {
+            double product = a * b;
+            add(Math.fma(a, b, -product));
+            add(product);
+        }
+
+        Expansion multiply(Expansion other) {
+            Expansion result = new Expansion();
+            for (int i = 0; i < length; i++) {
+                for (int j = 0; j < other.length; j++) {
+                    result.addProduct(terms[i], other.terms[j]);
+                }
+            }
+            return result;
+        }
+
+        Expansion negate() {
+            Expansion result = new Expansion();
+            result.terms = new double[Math.max(length, 1)];
+            for (int i = 0; i < length; i++) {
+                result.terms[i] = -terms[i];
+            }
+            result.length = length;
+            return result;
+        }
+
+        /**
+         * 近似值（最大的分量），符号精确
+         */
+        double estimate() {
+            return length == 0 ? 0 : terms[length - 1];
+        }
+    }
+}
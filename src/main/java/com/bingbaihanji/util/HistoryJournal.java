@@ -0,0 +1,448 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * 撤销历史的磁盘日志（只追加）
+ * <p>
+ * 每个图形增删、坐标变化都编码为一条记录（拖动、旋转直接复用撤销历史的 {@link DeltaCodec} 增量记录），
+ * {@link CommandHistory} 每完成一次执行、撤销或恢复就写入一条提交记录，每隔若干次提交再写入一次完整场景的检查点。
+ * 记录在调用线程上编码后放入队列，由后台线程成批写入内存映射的文件段并一次性刷盘（组提交），交互线程不等待磁盘 IO；
+ * 检查点在调用线程上只捕获图形的不可变快照（未变化的图形复用上一个检查点的快照），编码也在后台线程上完成。
+ * <p>
+ * 文件格式：文件头（魔数、版本号），之后每条记录为 长度（int）、CRC32（int）、类型（byte）与数据，
+ * 长度为 0 表示日志结束。恢复时从最后一个检查点开始重放到最后一条提交记录，
+ * 校验失败或未提交的尾部记录（崩溃时写了一半）直接丢弃
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public class HistoryJournal implements Closeable {
+
+    /**
+     * 默认检查点间隔（提交次数）
+     */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 200;
+
+    private static final int MAGIC = 0x46584A31; // "FXJ1"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    /**
+     * 每次映射的文件段大小
+     */
+    private static final int SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final byte COORDINATES = 3;
+    private static final byte CLEAR = 4;
+    private static final byte COMMIT = 5;
+    private static final byte CHECKPOINT = 6;
+    private static final byte DELTA = 7;
+
+    private final FileChannel channel;
+    private final Supplier<List<WorldObject>> sceneSupplier;
+    private final int checkpointInterval;
+    private final ExecutorService writer;
+    private final Queue<Supplier<byte[]>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * 当前映射段及其在文件中的起始位置（只在写线程上访问）
+     */
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private long commitCount = 0;
+    /**
+     * 上一个检查点捕获的快照，按图形（引用）索引（只在提交线程上访问）
+     */
+    private Map<WorldObject, Captured> capturedGeometry = new IdentityHashMap<>();
+    private volatile IOException failure;
+
+    /**
+     * 新建日志（覆盖已有文件），并以 initialScene 作为第一个检查点
+     *
+     * @param path               日志文件
+     * @param initialScene       初始场景
+     * @param sceneSupplier      读取当前场景，用于写入周期性检查点（在提交线程上调用）
+     * @param checkpointInterval 检查点间隔（提交次数）；0 表示不写周期性检查点
+     */
+    public HistoryJournal(Path path, List<WorldObject> initialScene,
+                          Supplier<List<WorldObject>> sceneSupplier, int checkpointInterval) throws IOException {
+        this.sceneSupplier = sceneSupplier;
+        this.checkpointInterval = checkpointInterval;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.segmentStart = 0;
+        this.segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+        segment.putInt(MAGIC);
+        segment.putInt(VERSION);
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "history-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpoint(initialScene);
+    }
+
+    /**
+     * 从日志重建场景：从最后一个检查点重放到最后一条提交记录
+     *
+     * @param path 日志文件
+     * @return 按场景顺序排列的图形；文件不存在或无效时返回空列表
+     */
+    public static List<WorldObject> replay(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return new ArrayList<>();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                return new ArrayList<>();
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("日志文件过大：" + size);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            // 版本 1 没有增量记录，仍可按版本 2 的规则重放
+            if (buffer.getInt() != MAGIC) {
+                return new ArrayList<>();
+            }
+            int version = buffer.getInt();
+            if (version < 1 || version > VERSION) {
+                return new ArrayList<>();
+            }
+
+            // 第一遍：找到最后一个检查点与最后一个完整事务的结束位置
+            int checkpointStart = -1;
+            int committedEnd = HEADER_SIZE;
+            CRC32 crc = new CRC32();
+            int pos = HEADER_SIZE;
+            while (pos + RECORD_HEADER_SIZE <= size) {
+                int length = buffer.getInt(pos);
+                if (length <= 0 || pos + RECORD_HEADER_SIZE + (long) length > size) {
+                    break;
+                }
+                int checksum = buffer.getInt(pos + 4);
+                crc.reset();
+                crc.update(buffer.slice(pos + RECORD_HEADER_SIZE, length));
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                byte type = buffer.get(pos + RECORD_HEADER_SIZE);
+                int next = pos + RECORD_HEADER_SIZE + length;
+                if (type == CHECKPOINT) {
+                    checkpointStart = pos;
+                    committedEnd = next;
+                } else if (type == COMMIT) {
+                    committedEnd = next;
+                }
+                pos = next;
+            }
+            if (checkpointStart < 0) {
+                return new ArrayList<>();
+            }
+
+            // 第二遍：重放
+            Map<Long, WorldObject> scene = new LinkedHashMap<>();
+            pos = checkpointStart;
+            while (pos < committedEnd) {
+                int length = buffer.getInt(pos);
+                ByteBuffer record = buffer.slice(pos + RECORD_HEADER_SIZE, length);
+                apply(record, scene);
+                pos += RECORD_HEADER_SIZE + length;
+            }
+            return new ArrayList<>(scene.values());
+        }
+    }
+
+    private static void apply(ByteBuffer record, Map<Long, WorldObject> scene) {
+        switch (record.get()) {
+            case ADD -> {
+                long id = record.getLong();
+                scene.put(id, WorldObjectCodec.read(record));
+            }
+            case REMOVE -> scene.remove(record.getLong());
+            case COORDINATES -> {
+                WorldObject object = scene.get(record.getLong());
+                double[] coordinates = new double[record.getInt()];
+                for (int i = 0; i < coordinates.length; i++) {
+                    coordinates[i] = record.getDouble();
+                }
+                if (object != null) {
+                    object.setCoordinates(coordinates);
+                }
+            }
+            case DELTA -> {
+                boolean forward = record.get() != 0;
+                byte[] delta = new byte[record.remaining()];
+                record.get(delta);
+                WorldObject object = scene.get(DeltaCodec.readId(delta));
+                if (object != null) {
+                    double[] coordinates = object.getCoordinates();
+                    DeltaCodec.apply(delta, coordinates, forward);
+                    object.setCoordinates(coordinates);
+                }
+            }
+            case CLEAR -> scene.clear();
+            case CHECKPOINT -> {
+                scene.clear();
+                int count = record.getInt();
+                for (int i = 0; i < count; i++) {
+                    long id = record.getLong();
+                    scene.put(id, WorldObjectCodec.read(record));
+                }
+            }
+            default -> {
+                // COMMIT 不改变场景
+            }
+        }
+    }
+
+    /**
+     * 记录添加图形
+     */
+    public void recordAdd(WorldObject object) {
+        if (!WorldObjectCodec.isSupported(object)) {
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate(1 + 8 + WorldObjectCodec.encodedSize(object));
+        record.put(ADD).putLong(object.getId());
+        WorldObjectCodec.write(record, object);
+        enqueue(record.array());
+    }
+
+    /**
+     * 记录移除图形
+     */
+    public void recordRemove(WorldObject object) {
+        enqueue(ByteBuffer.allocate(1 + 8).put(REMOVE).putLong(object.getId()).array());
+    }
+
+    /**
+     * 记录图形的当前坐标
+     */
+    public void recordCoordinates(WorldObject object) {
+        double[] coordinates = object.getCoordinates();
+        if (coordinates == null) {
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate(1 + 8 + 4 + coordinates.length * 8);
+        record.put(COORDINATES).putLong(object.getId()).putInt(coordinates.length);
+        for (double value : coordinates) {
+            record.putDouble(value);
+        }
+        enqueue(record.array());
+    }
+
+    /**
+     * 记录图形坐标的增量变化（撤销历史中的 {@link DeltaCodec} 记录），不复制完整坐标
+     *
+     * @param delta   增量记录
+     * @param forward true 表示从变化前重放到变化后，false 表示撤销
+     */
+    public void recordDelta(byte[] delta, boolean forward) {
+        enqueue(ByteBuffer.allocate(2 + delta.length).put(DELTA).put((byte) (forward ? 1 : 0)).put(delta).array());
+    }
+
+    /**
+     * 记录清空场景
+     */
+    public void recordClear() {
+        enqueue(new byte[]{CLEAR});
+    }
+
+    /**
+     * 提交当前事务：之前记录的操作在恢复时作为一个整体生效；每隔若干次提交写入一次检查点
+     */
+    public void commit() {
+        enqueue(new byte[]{COMMIT});
+        commitCount++;
+        if (checkpointInterval > 0 && commitCount % checkpointInterval == 0 && sceneSupplier != null) {
+            checkpoint(sceneSupplier.get());
+        }
+    }
+
+    /**
+     * 写入完整场景的检查点：在调用线程上捕获快照，在写线程上编码
+     */
+    public void checkpoint(List<WorldObject> scene) {
+        Map<WorldObject, Captured> previous = capturedGeometry;
+        Map<WorldObject, Captured> current = new IdentityHashMap<>(scene.size() * 2);
+        List<Captured> entries = new ArrayList<>(scene.size());
+        for (WorldObject object : scene) {
+            if (!WorldObjectCodec.isSupported(object)) {
+                continue;
+            }
+            Captured entry = previous.get(object);
+            if (entry == null || entry.geometry() == null || entry.version() != object.getVersion()) {
+                entry = Captured.capture(object);
+            }
+            current.put(object, entry);
+            entries.add(entry);
+        }
+        capturedGeometry = current;
+        enqueue(() -> encodeCheckpoint(entries));
+    }
+
+    private static byte[] encodeCheckpoint(List<Captured> entries) {
+        int size = 1 + 4;
+        for (Captured entry : entries) {
+            size += 8 + entry.encodedSize();
+        }
+        ByteBuffer record = ByteBuffer.allocate(size);
+        record.put(CHECKPOINT).putInt(entries.size());
+        for (Captured entry : entries) {
+            record.putLong(entry.id());
+            entry.write(record);
+        }
+        return record.array();
+    }
+
+    /**
+     * 等待已记录的内容全部写入并刷盘
+     *
+     * @throws IOException 后台写入失败
+     */
+    public void flush() throws IOException {
+        try {
+            writer.submit(this::drain).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * 写入剩余内容并关闭日志
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+    }
+
+    private void enqueue(byte[] payload) {
+        enqueue(() -> payload);
+    }
+
+    /**
+     * 放入在写线程上编码的记录
+     */
+    private void enqueue(Supplier<byte[]> payload) {
+        pending.add(payload);
+        if (drainScheduled.compareAndSet(false, true)) {
+            writer.execute(this::drain);
+        }
+    }
+
+    /**
+     * 把队列中的记录成批写入文件段，每批只刷盘一次（写线程）
+     */
+    private void drain() {
+        drainScheduled.set(false);
+        if (failure != null || !channel.isOpen()) {
+            pending.clear();
+            return;
+        }
+        boolean written = false;
+        try {
+            Supplier<byte[]> payload;
+            while ((payload = pending.poll()) != null) {
+                append(payload.get());
+                written = true;
+            }
+            if (written) {
+                segment.force();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private void append(byte[] payload) throws IOException {
+        int required = RECORD_HEADER_SIZE + payload.length;
+        // 额外保留 4 字节的结束标记（长度 0）
+        if (segment.remaining() < required + 4) {
+            segment.force();
+            segmentStart += segment.position();
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, segmentStart,
+                    Math.max(SEGMENT_SIZE, required + 4));
+        }
+        crc.reset();
+        crc.update(payload);
+        // 先写数据与校验和，最后写长度，保证崩溃时不会读到写了一半的记录
+        int start = segment.position();
+        segment.putInt(start + 4, (int) crc.getValue());
+        segment.put(start + RECORD_HEADER_SIZE, payload);
+        segment.putInt(start, payload.length);
+        segment.position(start + required);
+    }
+
+    /**
+     * 检查点中一个图形的不可变快照：支持快照的图形保存几何副本，其余图形（点）直接保存编码
+     */
+    private record Captured(long id, long version, WorldObject geometry, byte[] encoded) {
+
+        static Captured capture(WorldObject object) {
+            WorldObject geometry = object.snapshot();
+            if (geometry != null) {
+                return new Captured(object.getId(), object.getVersion(), geometry, null);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(WorldObjectCodec.encodedSize(object));
+            WorldObjectCodec.write(buffer, object);
+            return new Captured(object.getId(), object.getVersion(), null, buffer.array());
+        }
+
+        int encodedSize() {
+            return encoded != null ? encoded.length : WorldObjectCodec.encodedSize(geometry);
+        }
+
+        void write(ByteBuffer buffer) {
+            if (encoded != null) {
+                buffer.put(encoded);
+            } else {
+                WorldObjectCodec.write(buffer, geometry);
+            }
+        }
+    }
+}
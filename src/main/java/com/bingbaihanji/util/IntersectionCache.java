@@ -0,0 +1,162 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 图形对交点缓存
+ * <p>
+ * 以 (图形1 标识, 版本号, 图形2 标识, 版本号) 为键缓存两个图形的交点坐标（按 [x0, y0, x1, y1, ...] 紧凑存放），
+ * 容量有限，超出时淘汰最久未使用的条目（LRU）。图形几何变化后版本号递增，旧条目自然失效并逐渐被淘汰。
+ * 键区分参数顺序，命中时返回的坐标与直接计算逐位相同。所有方法线程安全
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public class IntersectionCache {
+
+    /**
+     * 默认容量（条目数）
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+    private static final double[] NO_POINTS = new double[0];
+    /**
+     * 单例实例
+     */
+    private static IntersectionCache instance;
+
+    private final int capacity;
+    private final LinkedHashMap<PairKey, double[]> entries;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * @param capacity 最多缓存的图形对数量
+     */
+    public IntersectionCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("容量必须为正数: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PairKey, double[]> eldest) {
+                if (size() > IntersectionCache.this.capacity) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 获取共享实例
+     */
+    public static synchronized IntersectionCache getInstance() {
+        if (instance == null) {
+            instance = new IntersectionCache(DEFAULT_CAPACITY);
+        }
+        return instance;
+    }
+
+    /**
+     * 计算两个图形之间的所有交点，追加到 out 中；命中缓存时直接复制缓存的坐标
+     * <p>
+     * 没有标识的图形（getId() 为 0）不经过缓存
+     */
+    public void intersect(WorldObject obj1, WorldObject obj2, PointBuffer out) {
+        intersect(obj1, obj2, null, out);
+    }
+
+    /**
+     * 计算两个图形之间的所有交点，追加到 out 中（未命中时使用调用方提供的临时数组求交）
+     *
+     * @param hits 临时数组，长度至少为 {@link IntersectionUtils#SCRATCH_SIZE}，只由调用线程使用；
+     *             为 null 时在未命中时临时分配
+     */
+    public void intersect(WorldObject obj1, WorldObject obj2, double[] hits, PointBuffer out) {
+        if (obj1.getId() == 0 || obj2.getId() == 0) {
+            IntersectionUtils.intersect(obj1, obj2, scratch(hits), out);
+            return;
+        }
+
+        PairKey key = new PairKey(obj1.getId(), obj1.getVersion(), obj2.getId(), obj2.getVersion());
+        double[] cached;
+        synchronized (this) {
+            cached = entries.get(key);
+            if (cached != null) {
+                hitCount++;
+            } else {
+                missCount++;
+            }
+        }
+        if (cached != null) {
+            out.add(cached, cached.length / 2);
+            return;
+        }
+
+        // 在锁外计算，避免阻塞其他线程
+        PointBuffer points = new PointBuffer(4);
+        IntersectionUtils.intersect(obj1, obj2, scratch(hits), points);
+        double[] packed = points.isEmpty() ? NO_POINTS : points.toArray();
+        synchronized (this) {
+            entries.put(key, packed);
+        }
+        out.addAll(points);
+    }
+
+    private static double[] scratch(double[] hits) {
+        return hits != null ? hits : new double[IntersectionUtils.SCRATCH_SIZE];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 命中率（尚无访问时为 0）
+     */
+    public synchronized double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * 清空缓存条目（保留统计计数）
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * 统计计数归零
+     */
+    public synchronized void resetStatistics() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    private record PairKey(long id1, long version1, long id2, long version2) {
+    }
+}
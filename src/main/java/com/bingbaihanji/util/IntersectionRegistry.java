@@ -0,0 +1,227 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.constant.ShapeKind;
+import com.bingbaihanji.view.layout.draw.geometry.SegmentShape;
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import com.bingbaihanji.view.layout.draw.geometry.impl.CircleGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.InfiniteLineGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.LineGeo;
+import javafx.geometry.Rectangle2D;
+
+import java.util.function.Function;
+
+/**
+ * 求交内核注册表
+ * <p>
+ * 以 {@link ShapeKind} 的序号为下标，维护两张表：
+ * 图形×图形的求交内核，以及“一条线段与某类图形”的求交内核（折线逐边求交时使用）。
+ * 求交时按两个图形的类型直接查表，不做逐个类型判断；新增图形类型只需增加 ShapeKind、
+ * 实现 kind()，再在这里注册它与其他类型的内核
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public final class IntersectionRegistry {
+
+    private static final int KINDS = ShapeKind.values().length;
+    private static final PairKernel[][] PAIR_KERNELS = new PairKernel[KINDS][KINDS];
+    private static final SegmentKernel[] SEGMENT_KERNELS = new SegmentKernel[KINDS];
+
+    static {
+        registerDefaults();
+    }
+
+    private IntersectionRegistry() {
+    }
+
+    /**
+     * 注册两类图形之间的求交内核
+     * <p>
+     * 类型不同时同时登记反方向（交换参数后调用同一内核），之后可以单独注册反方向覆盖它
+     */
+    public static synchronized void register(ShapeKind kind1, ShapeKind kind2, PairKernel kernel) {
+        PAIR_KERNELS[kind1.ordinal()][kind2.ordinal()] = kernel;
+        if (kind1 != kind2) {
+            PAIR_KERNELS[kind2.ordinal()][kind1.ordinal()] = (obj1, obj2, hits, out) -> kernel.intersect(obj2, obj1, hits, out);
+        }
+    }
+
+    /**
+     * 注册线段与某类图形的求交内核
+     */
+    public static synchronized void registerSegment(ShapeKind kind, SegmentKernel kernel) {
+        SEGMENT_KERNELS[kind.ordinal()] = kernel;
+    }
+
+    /**
+     * 查找两类图形之间的求交内核
+     *
+     * @return 内核，两类图形之间不求交时返回 null
+     */
+    public static PairKernel get(ShapeKind kind1, ShapeKind kind2) {
+        return PAIR_KERNELS[kind1.ordinal()][kind2.ordinal()];
+    }
+
+    /**
+     * 查找线段与某类图形的求交内核
+     *
+     * @return 内核，该类图形不与线段求交时返回 null
+     */
+    public static SegmentKernel getSegment(ShapeKind kind) {
+        return SEGMENT_KERNELS[kind.ordinal()];
+    }
+
+    private static void registerDefaults() {
+        registerSegment(ShapeKind.LINE, (x1, y1, x2, y2, shape, hits, out) -> {
+            LineGeo line = (LineGeo) shape;
+            out.add(hits, IntersectionUtils.intersectSegments(x1, y1, x2, y2,
+                    line.getStartX(), line.getStartY(), line.getEndX(), line.getEndY(), hits));
+        });
+        registerSegment(ShapeKind.CIRCLE, (x1, y1, x2, y2, shape, hits, out) -> {
+            CircleGeo circle = (CircleGeo) shape;
+            out.add(hits, IntersectionUtils.intersectSegmentCircle(x1, y1, x2, y2,
+                    circle.getCx(), circle.getCy(), circle.getR(), hits));
+        });
+        registerSegment(ShapeKind.INFINITE_LINE, (x1, y1, x2, y2, shape, hits, out) -> {
+            InfiniteLineGeo line = (InfiniteLineGeo) shape;
+            out.add(hits, IntersectionUtils.intersectLineSegment(line.getPoint1X(), line.getPoint1Y(),
+                    line.getPoint2X(), line.getPoint2Y(), x1, y1, x2, y2, hits));
+        });
+        registerSegment(ShapeKind.POLYGON, polylineSegmentKernel(shape -> ((SegmentShape) shape).getSegmentBvh()));
+        registerSegment(ShapeKind.PATH, polylineSegmentKernel(shape -> ((SegmentShape) shape).getSegmentBvh()));
+
+        // 线段与线段、圆、无限直线：线段作为第一个参数
+        for (ShapeKind kind : new ShapeKind[]{ShapeKind.LINE, ShapeKind.CIRCLE, ShapeKind.INFINITE_LINE}) {
+            SegmentKernel segmentKernel = getSegment(kind);
+            register(ShapeKind.LINE, kind, (obj1, obj2, hits, out) -> {
+                LineGeo line = (LineGeo) obj1;
+                segmentKernel.intersect(line.getStartX(), line.getStartY(), line.getEndX(), line.getEndY(), obj2, hits, out);
+            });
+        }
+        register(ShapeKind.CIRCLE, ShapeKind.CIRCLE, (obj1, obj2, hits, out) -> {
+            CircleGeo c1 = (CircleGeo) obj1;
+            CircleGeo c2 = (CircleGeo) obj2;
+            out.add(hits, IntersectionUtils.intersectCircles(c1.getCx(), c1.getCy(), c1.getR(),
+                    c2.getCx(), c2.getCy(), c2.getR(), hits));
+        });
+        register(ShapeKind.INFINITE_LINE, ShapeKind.CIRCLE, (obj1, obj2, hits, out) -> {
+            InfiniteLineGeo l = (InfiniteLineGeo) obj1;
+            CircleGeo c = (CircleGeo) obj2;
+            out.add(hits, IntersectionUtils.intersectLineCircle(l.getPoint1X(), l.getPoint1Y(),
+                    l.getPoint2X(), l.getPoint2Y(), c.getCx(), c.getCy(), c.getR(), hits));
+        });
+        register(ShapeKind.INFINITE_LINE, ShapeKind.INFINITE_LINE, (obj1, obj2, hits, out) -> {
+            InfiniteLineGeo l1 = (InfiniteLineGeo) obj1;
+            InfiniteLineGeo l2 = (InfiniteLineGeo) obj2;
+            out.add(hits, IntersectionUtils.intersectLines(l1.getPoint1X(), l1.getPoint1Y(),
+                    l1.getPoint2X(), l1.getPoint2Y(),
+                    l2.getPoint1X(), l2.getPoint1Y(), l2.getPoint2X(), l2.getPoint2Y(), hits));
+        });
+
+        // 折线（多边形、手绘路径）与其他图形：折线的边作为第一个参数
+        registerPolyline(ShapeKind.POLYGON, shape -> ((SegmentShape) shape).getSegmentBvh());
+        registerPolyline(ShapeKind.PATH, shape -> ((SegmentShape) shape).getSegmentBvh());
+    }
+
+    /**
+     * 注册折线类图形与其他所有可与线段求交的图形之间的内核（折线的边作为第一个参数）
+     */
+    private static void registerPolyline(ShapeKind kind, Function<WorldObject, SegmentBvh> edgesOf) {
+        PairKernel kernel = (obj1, obj2, hits, out) -> intersectEdges(edgesOf.apply(obj1), obj2, hits, out);
+        PairKernel swapped = (obj1, obj2, hits, out) -> kernel.intersect(obj2, obj1, hits, out);
+        for (ShapeKind other : ShapeKind.values()) {
+            if (getSegment(other) == null) {
+                continue;
+            }
+            PAIR_KERNELS[kind.ordinal()][other.ordinal()] = kernel;
+            // 两条折线求交时以第一个参数的边为主，反方向由另一条折线自己的注册负责
+            if (other != ShapeKind.POLYGON && other != ShapeKind.PATH) {
+                PAIR_KERNELS[other.ordinal()][kind.ordinal()] = swapped;
+            }
+        }
+    }
+
+    /**
+     * 线段与折线求交：按线段包围盒查询 BVH 后逐边求交
+     */
+    private static SegmentKernel polylineSegmentKernel(Function<WorldObject, SegmentBvh> edgesOf) {
+        return (x1, y1, x2, y2, shape, hits, out) -> {
+            SegmentBvh edges = edgesOf.apply(shape);
+            edges.query(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2), s ->
+                    out.add(hits, IntersectionUtils.intersectSegments(x1, y1, x2, y2,
+                            edges.getStartX(s), edges.getStartY(s), edges.getEndX(s), edges.getEndY(s), hits)));
+        };
+    }
+
+    /**
+     * 计算折线所有边与图形的交点，追加到 out 中
+     * <p>
+     * 无限直线，以及包围盒覆盖整条折线的线段，BVH 无法剪枝，直接交给批量内核；
+     * 其余情况按对方包围盒查询 BVH 后逐边求交
+     */
+    private static void intersectEdges(SegmentBvh edges, WorldObject other, double[] hits, PointBuffer out) {
+        ShapeKind kind = other.kind();
+        if (kind == ShapeKind.INFINITE_LINE) {
+            InfiniteLineGeo line = (InfiniteLineGeo) other;
+            SegmentBatchKernel.intersectLine(line.getPoint1X(), line.getPoint1Y(),
+                    line.getPoint2X(), line.getPoint2Y(),
+                    edges.vertexXs(), edges.vertexYs(), edges.getVertexCount(), edges.isClosed(), hits, out);
+            return;
+        }
+        Rectangle2D region = other.getBounds();
+        if (kind == ShapeKind.LINE && covers(region, edges)) {
+            LineGeo line = (LineGeo) other;
+            SegmentBatchKernel.intersectSegment(line.getStartX(), line.getStartY(),
+                    line.getEndX(), line.getEndY(),
+                    edges.vertexXs(), edges.vertexYs(), edges.getVertexCount(), edges.isClosed(), hits, out);
+            return;
+        }
+
+        SegmentKernel segmentKernel = getSegment(kind);
+        if (region == null) {
+            for (int s = 0; s < edges.getSegmentCount(); s++) {
+                segmentKernel.intersect(edges.getStartX(s), edges.getStartY(s),
+                        edges.getEndX(s), edges.getEndY(s), other, hits, out);
+            }
+        } else {
+            edges.query(region.getMinX(), region.getMinY(), region.getMaxX(), region.getMaxY(), s ->
+                    segmentKernel.intersect(edges.getStartX(s), edges.getStartY(s),
+                            edges.getEndX(s), edges.getEndY(s), other, hits, out));
+        }
+    }
+
+    /**
+     * 区域是否覆盖 BVH 的整体包围盒
+     */
+    private static boolean covers(Rectangle2D region, SegmentBvh edges) {
+        return region != null && edges.getSegmentCount() > 0
+                && region.getMinX() <= edges.getMinX() && region.getMaxX() >= edges.getMaxX()
+                && region.getMinY() <= edges.getMinY() && region.getMaxY() >= edges.getMaxY();
+    }
+
+    /**
+     * 图形×图形求交内核
+     */
+    @FunctionalInterface
+    public interface PairKernel {
+        /**
+         * 计算两个图形的交点，追加到 out 中
+         *
+         * @param hits 长度至少为 4 的临时缓冲区
+         */
+        void intersect(WorldObject obj1, WorldObject obj2, double[] hits, PointBuffer out);
+    }
+
+    /**
+     * 线段×图形求交内核
+     */
+    @FunctionalInterface
+    public interface SegmentKernel {
+        /**
+         * 计算线段 (x1,y1)-(x2,y2) 与图形的交点，追加到 out 中
+         *
+         * @param hits 长度至少为 4 的临时缓冲区
+         */
+        void intersect(double x1, double y1, double x2, double y2, WorldObject shape, double[] hits, PointBuffer out);
+    }
+}
@@ -0,0 +1,174 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 全场景交点扫描器
+ * <p>
+ * 按 (i, j)（i &lt; j）的顺序计算所有图形两两之间的交点，并按容差合并重复交点（保留首次出现）。
+ * 图形数量达到阈值时，按行把三角形的图形对空间切分成块，交给 ForkJoinPool 并行计算，
+ * 各块的结果按行顺序合并后再去重，因此与顺序计算的结果完全一致
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public class IntersectionScanner {
+
+    /**
+     * 默认并行阈值（图形数量）
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 256;
+    /**
+     * 单个任务最多处理的图形对数量
+     */
+    private static final long PAIRS_PER_TASK = 4096;
+
+    private final ForkJoinPool pool;
+    private int parallelThreshold;
+
+    public IntersectionScanner() {
+        this(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param pool              并行计算使用的线程池
+     * @param parallelThreshold 图形数量达到该值时并行计算
+     */
+    public IntersectionScanner(ForkJoinPool pool, int parallelThreshold) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * 按默认容差合并重复点，保留首次出现的顺序
+     */
+    static PointBuffer distinct(PointBuffer points) {
+        PointDeduplicator deduplicator = new PointDeduplicator(PointDeduplicator.DEFAULT_EPSILON, points.size());
+        for (int i = 0; i < points.size(); i++) {
+            deduplicator.add(points.getX(i), points.getY(i));
+        }
+        return deduplicator.points();
+    }
+
+    /**
+     * 计算第 [from, to) 行的所有图形对的交点
+     */
+    private static void scanRows(List<WorldObject> objects, int from, int to,
+                                 BooleanSupplier cancelled, PointBuffer out) {
+        int n = objects.size();
+        // 每个任务一个临时数组，逐对求交时不再分配
+        double[] hits = new double[IntersectionUtils.SCRATCH_SIZE];
+        for (int i = from; i < to; i++) {
+            // 每行检查一次取消标志
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            WorldObject obj1 = objects.get(i);
+            for (int j = i + 1; j < n; j++) {
+                IntersectionUtils.intersect(obj1, objects.get(j), hits, out);
+            }
+        }
+    }
+
+    /**
+     * 计算所有图形两两之间的交点
+     *
+     * @param objects 图形列表（调用期间不得修改）
+     * @return 去重后的交点
+     */
+    public PointBuffer scan(List<WorldObject> objects) {
+        return scan(objects, () -> false);
+    }
+
+    /**
+     * 计算所有图形两两之间的交点，支持协作式取消
+     *
+     * @param objects   图形列表（调用期间不得修改）
+     * @param cancelled 取消标志，计算过程中会周期性检查
+     * @return 去重后的交点；被取消时返回 null
+     */
+    public PointBuffer scan(List<WorldObject> objects, BooleanSupplier cancelled) {
+        int n = objects.size();
+        // 预先构建各图形的包围盒与线段 BVH，避免多个线程重复延迟构建
+        for (WorldObject obj : objects) {
+            obj.getBounds();
+        }
+
+        PointBuffer raw;
+        if (n >= parallelThreshold && n > 1) {
+            raw = pool.invoke(new RowTask(objects, 0, n, cancelled));
+        } else {
+            raw = new PointBuffer();
+            scanRows(objects, 0, n, cancelled, raw);
+        }
+        return cancelled.getAsBoolean() ? null : distinct(raw);
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * 按行区间递归切分的扫描任务
+     */
+    private static final class RowTask extends RecursiveTask<PointBuffer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<WorldObject> objects;
+        private final int from;
+        private final int to;
+        private final BooleanSupplier cancelled;
+
+        RowTask(List<WorldObject> objects, int from, int to, BooleanSupplier cancelled) {
+            this.objects = objects;
+            this.from = from;
+            this.to = to;
+            this.cancelled = cancelled;
+        }
+
+        /**
+         * 第 [from, to) 行包含的图形对数量
+         */
+        private long pairCount(int from, int to) {
+            long n = objects.size();
+            long rows = to - from;
+            // 第 i 行有 n - 1 - i 对
+            return rows * (n - 1) - (long) (from + to - 1) * rows / 2;
+        }
+
+        @Override
+        protected PointBuffer compute() {
+            if (to - from <= 1 || pairCount(from, to) <= PAIRS_PER_TASK) {
+                PointBuffer out = new PointBuffer();
+                scanRows(objects, from, to, cancelled, out);
+                return out;
+            }
+
+            // 按图形对数量对半切分行区间（靠前的行更长）
+            long half = pairCount(from, to) / 2;
+            int mid = from + 1;
+            while (mid < to - 1 && pairCount(from, mid) < half) {
+                mid++;
+            }
+
+            RowTask left = new RowTask(objects, from, mid, cancelled);
+            RowTask right = new RowTask(objects, mid, to, cancelled);
+            left.fork();
+            PointBuffer rightResult = right.compute();
+            PointBuffer leftResult = left.join();
+            // 按行顺序合并
+            leftResult.addAll(rightResult);
+            return leftResult;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.bingbaihanji.util;
 
+import com.bingbaihanji.constant.ContactType;
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
 import com.bingbaihanji.view.layout.draw.geometry.impl.CircleGeo;
 import com.bingbaihanji.view.layout.draw.geometry.impl.InfiniteLineGeo;
 import com.bingbaihanji.view.layout.draw.geometry.impl.LineGeo;
@@ -11,238 +13,385 @@ import java.util.List;
 /**
  * 几何图形交点计算工具类
  * 提供线段与线段、线段与圆、圆与圆、无限直线与其他图形之间的交点计算功能
+ * <p>
+ * intersectXxx 系列方法直接接收坐标，把交点按 [x0, y0, x1, y1] 写入调用方提供的缓冲区（长度至少为 4），
+ * 返回交点个数，不创建任何对象；getXxxIntersections 系列方法是基于它们的列表包装。
+ * 相交、相切、共线等判定使用 {@link GeometryPredicates} 的精确谓词，classifyXxx 系列方法返回显式的接触类型
  */
 public class IntersectionUtils {
 
     /**
-     * 计算两个线段的交点
-     *
-     * @param line1 第一条线段
-     * @param line2 第二条线段
-     * @return 交点列表
+     * 求交临时数组的最小长度（单次求交最多 2 个交点）
      */
-    public static List<Point2D> getLineLineIntersections(LineGeo line1, LineGeo line2) {
-        List<Point2D> intersections = new ArrayList<>();
-
-        double x1 = line1.getStartX();
-        double y1 = line1.getStartY();
-        double x2 = line1.getEndX();
-        double y2 = line1.getEndY();
-
-        double x3 = line2.getStartX();
-        double y3 = line2.getStartY();
-        double x4 = line2.getEndX();
-        double y4 = line2.getEndY();
+    public static final int SCRATCH_SIZE = 4;
 
-        double denom = (x1 - x2) * (y3 - y4) - (y1 - y2) * (x3 - x4);
-        if (Math.abs(denom) < 1e-10) {
-            // 线段平行或重合
-            return intersections;
-        }
-
-        double tNum = (x1 - x3) * (y3 - y4) - (y1 - y3) * (x3 - x4);
-        double uNum = -((x1 - x2) * (y1 - y3) - (y1 - y2) * (x1 - x3));
-
-        double t = tNum / denom;
-        double u = uNum / denom;
-
-        // 检查交点是否在两条线段上
-        if (t >= 0 && t <= 1 && u >= 0 && u <= 1) {
-            double ix = x1 + t * (x2 - x1);
-            double iy = y1 + t * (y2 - y1);
-            intersections.add(new Point2D(ix, iy));
-        }
+    /**
+     * 计算两条线段 (x1,y1)-(x2,y2) 与 (x3,y3)-(x4,y4) 的交点
+     * <p>
+     * 端点恰好落在另一条线段上时交点取该端点；共线且只在端点处接触时交点为接触的端点，
+     * 共线重叠（无穷多个交点）时不返回交点
+     *
+     * @param out 交点输出缓冲区
+     * @return 交点个数（0 或 1）
+     */
+    public static int intersectSegments(double x1, double y1, double x2, double y2,
+                                        double x3, double y3, double x4, double y4,
+                                        double[] out) {
+        ContactType contact = segmentContact(x1, y1, x2, y2, x3, y3, x4, y4, out);
+        return contact == ContactType.CROSSING || contact == ContactType.TOUCHING ? 1 : 0;
+    }
 
-        return intersections;
+    /**
+     * 判断两条线段的接触类型
+     *
+     * @return DISJOINT、CROSSING、TOUCHING（端点接触，包括共线时端点相接）或 OVERLAP（共线重叠）
+     */
+    public static ContactType classifySegments(double x1, double y1, double x2, double y2,
+                                               double x3, double y3, double x4, double y4) {
+        return segmentContact(x1, y1, x2, y2, x3, y3, x4, y4, null);
     }
 
     /**
-     * 计算线段与圆的交点
+     * 计算线段 (x1,y1)-(x2,y2) 与圆的交点
      *
-     * @param line   线段
-     * @param circle 圆
-     * @return 交点列表
+     * @param out 交点输出缓冲区
+     * @return 交点个数（0 到 2）
      */
-    public static List<Point2D> getLineCircleIntersections(LineGeo line, CircleGeo circle) {
-        List<Point2D> intersections = new ArrayList<>();
+    public static int intersectSegmentCircle(double x1, double y1, double x2, double y2,
+                                             double cx, double cy, double r, double[] out) {
+        return lineCircle(x1, y1, x2, y2, cx, cy, r, true, out);
+    }
 
-        double x1 = line.getStartX();
-        double y1 = line.getStartY();
-        double x2 = line.getEndX();
-        double y2 = line.getEndY();
+    /**
+     * 计算两个圆的交点
+     *
+     * @param out 交点输出缓冲区
+     * @return 交点个数（0 到 2，相切时为 1）
+     */
+    public static int intersectCircles(double x1, double y1, double r1,
+                                       double x2, double y2, double r2, double[] out) {
+        ContactType contact = classifyCircles(x1, y1, r1, x2, y2, r2);
+        if (contact != ContactType.CROSSING && contact != ContactType.TANGENT) {
+            return 0;
+        }
 
-        double cx = circle.getCx();
-        double cy = circle.getCy();
-        double r = circle.getR();
+        // 计算两圆心之间的距离
+        double d = Math.sqrt((x2 - x1) * (x2 - x1) + (y2 - y1) * (y2 - y1));
 
-        // 将线段转换为参数方程: P(t) = P1 + t(P2-P1)
-        double dx = x2 - x1;
-        double dy = y2 - y1;
+        // 计算交点
+        double a = (r1 * r1 - r2 * r2 + d * d) / (2 * d);
 
-        // 圆的方程: (x-cx)^2 + (y-cy)^2 = r^2
-        // 线段的参数方程代入圆的方程得到关于t的二次方程: at^2 + bt + c = 0
+        // 计算P2点坐标
+        double x3 = x1 + a * (x2 - x1) / d;
+        double y3 = y1 + a * (y2 - y1) / d;
 
-        double a = dx * dx + dy * dy;
-        double b = 2 * (dx * (x1 - cx) + dy * (y1 - cy));
-        double c = (x1 - cx) * (x1 - cx) + (y1 - cy) * (y1 - cy) - r * r;
+        if (contact == ContactType.TANGENT) {
+            // 相切，唯一交点在圆心连线上
+            out[0] = x3;
+            out[1] = y3;
+            return 1;
+        }
 
-        double discriminant = b * b - 4 * a * c;
+        double h = Math.sqrt(Math.max(0, r1 * r1 - a * a));
 
-        if (discriminant < 0) {
-            // 没有实数解，线段与圆不相交
-            return intersections;
-        }
+        // 计算交点坐标
+        double ix1 = x3 + h * (y2 - y1) / d;
+        double iy1 = y3 - h * (x2 - x1) / d;
 
-        if (Math.abs(discriminant) < 1e-10) {
-            // 一个解，线段与圆相切
-            double t = -b / (2 * a);
-            if (t >= 0 && t <= 1) {
-                double ix = x1 + t * dx;
-                double iy = y1 + t * dy;
-                intersections.add(new Point2D(ix, iy));
-            }
-        } else {
-            // 两个解，线段与圆相交于两点
-            double sqrtDiscriminant = Math.sqrt(discriminant);
-            double t1 = (-b + sqrtDiscriminant) / (2 * a);
-            double t2 = (-b - sqrtDiscriminant) / (2 * a);
+        double ix2 = x3 - h * (y2 - y1) / d;
+        double iy2 = y3 + h * (x2 - x1) / d;
 
-            if (t1 >= 0 && t1 <= 1) {
-                double ix = x1 + t1 * dx;
-                double iy = y1 + t1 * dy;
-                intersections.add(new Point2D(ix, iy));
-            }
+        out[0] = ix1;
+        out[1] = iy1;
 
-            if (t2 >= 0 && t2 <= 1) {
-                double ix = x1 + t2 * dx;
-                double iy = y1 + t2 * dy;
-                intersections.add(new Point2D(ix, iy));
-            }
+        // 两个交点在浮点下完全重合时只保留一个
+        if (ix1 != ix2 || iy1 != iy2) {
+            out[2] = ix2;
+            out[3] = iy2;
+            return 2;
         }
+        return 1;
+    }
 
-        return intersections;
+    /**
+     * 判断两个圆的接触类型
+     *
+     * @return DISJOINT（相离或内含）、CROSSING（相交于两点）、TANGENT（内切或外切）或 OVERLAP（重合）
+     */
+    public static ContactType classifyCircles(double x1, double y1, double r1,
+                                              double x2, double y2, double r2) {
+        if (x1 == x2 && y1 == y2) {
+            // 同心圆
+            return r1 == r2 ? ContactType.OVERLAP : ContactType.DISJOINT;
+        }
+        double external = GeometryPredicates.circlesExternal(x1, y1, r1, x2, y2, r2);
+        if (external > 0) {
+            // 两圆相离
+            return ContactType.DISJOINT;
+        }
+        if (external == 0) {
+            return ContactType.TANGENT;
+        }
+        double internal = GeometryPredicates.circlesInternal(x1, y1, r1, x2, y2, r2);
+        if (internal < 0) {
+            // 一圆在另一圆内部
+            return ContactType.DISJOINT;
+        }
+        return internal == 0 ? ContactType.TANGENT : ContactType.CROSSING;
     }
 
     /**
-     * 计算两个圆的交点
+     * 计算过 (x1,y1)、(x2,y2) 的无限直线与线段 (x3,y3)-(x4,y4) 的交点
+     * <p>
+     * 线段端点恰好在直线上时交点取该端点；线段落在直线上（重叠）时不返回交点
      *
-     * @param circle1 第一个圆
-     * @param circle2 第二个圆
-     * @return 交点列表
+     * @param out 交点输出缓冲区
+     * @return 交点个数（0 或 1）
      */
-    public static List<Point2D> getCircleCircleIntersections(CircleGeo circle1, CircleGeo circle2) {
-        List<Point2D> intersections = new ArrayList<>();
+    public static int intersectLineSegment(double x1, double y1, double x2, double y2,
+                                           double x3, double y3, double x4, double y4,
+                                           double[] out) {
+        double o3 = GeometryPredicates.orient2d(x1, y1, x2, y2, x3, y3);
+        double o4 = GeometryPredicates.orient2d(x1, y1, x2, y2, x4, y4);
+        if (sameSide(o3, o4) || (o3 == 0 && o4 == 0)) {
+            // 线段在直线一侧，或与直线重叠
+            return 0;
+        }
+        if (o3 == 0) {
+            return point(x3, y3, out);
+        }
+        if (o4 == 0) {
+            return point(x4, y4, out);
+        }
 
-        double x1 = circle1.getCx();
-        double y1 = circle1.getCy();
-        double r1 = circle1.getR();
+        return lineCrossingPoint(x1, y1, x2, y2, x3, y3, x4, y4, out);
+    }
 
-        double x2 = circle2.getCx();
-        double y2 = circle2.getCy();
-        double r2 = circle2.getR();
+    /**
+     * 线段两端严格位于直线两侧（方向都确定且异号）时的交点
+     *
+     * @return 交点个数（0 或 1，交点不是有限值时为 0）
+     */
+    static int lineCrossingPoint(double x1, double y1, double x2, double y2,
+                                 double x3, double y3, double x4, double y4, double[] out) {
+        double denom = (x1 - x2) * (y3 - y4) - (y1 - y2) * (x3 - x4);
+        double tNum = (x1 - x3) * (y3 - y4) - (y1 - y3) * (x3 - x4);
+        double t = tNum / denom;
+        return finitePoint(x1 + t * (x2 - x1), y1 + t * (y2 - y1), out);
+    }
 
-        // 计算两圆心之间的距离
-        double d = Math.sqrt((x2 - x1) * (x2 - x1) + (y2 - y1) * (y2 - y1));
+    /**
+     * 计算过 (x1,y1)、(x2,y2) 的无限直线与圆的交点
+     *
+     * @param out 交点输出缓冲区
+     * @return 交点个数（0 到 2）
+     */
+    public static int intersectLineCircle(double x1, double y1, double x2, double y2,
+                                          double cx, double cy, double r, double[] out) {
+        return lineCircle(x1, y1, x2, y2, cx, cy, r, false, out);
+    }
 
-        // 检查特殊情况
-        if (d > r1 + r2) {
-            // 两圆相离
-            return intersections;
+    /**
+     * 判断过 (x1,y1)、(x2,y2) 的无限直线与圆的接触类型
+     *
+     * @return DISJOINT、CROSSING（相交于两点）或 TANGENT
+     */
+    public static ContactType classifyLineCircle(double x1, double y1, double x2, double y2,
+                                                 double cx, double cy, double r) {
+        if (x1 == x2 && y1 == y2) {
+            // 两点重合，直线无定义
+            return ContactType.DISJOINT;
         }
-        if (d < Math.abs(r1 - r2)) {
-            // 一圆在另一圆内部
-            return intersections;
+        double side = GeometryPredicates.lineCircle(x1, y1, x2, y2, cx, cy, r);
+        if (side < 0) {
+            return ContactType.DISJOINT;
         }
-        if (d == 0 && r1 == r2) {
-            // 同心圆
-            return intersections;
+        return side == 0 ? ContactType.TANGENT : ContactType.CROSSING;
+    }
+
+    /**
+     * 计算两条无限直线的交点
+     *
+     * @param out 交点输出缓冲区
+     * @return 交点个数（0 或 1）
+     */
+    public static int intersectLines(double x1, double y1, double x2, double y2,
+                                     double x3, double y3, double x4, double y4,
+                                     double[] out) {
+        if (classifyLines(x1, y1, x2, y2, x3, y3, x4, y4) != ContactType.CROSSING) {
+            return 0;
         }
 
-        // 计算交点
-        double a = (r1 * r1 - r2 * r2 + d * d) / (2 * d);
-        double h = Math.sqrt(r1 * r1 - a * a);
+        double denom = (x1 - x2) * (y3 - y4) - (y1 - y2) * (x3 - x4);
+        double tNum = (x1 - x3) * (y3 - y4) - (y1 - y3) * (x3 - x4);
+        double t = tNum / denom;
 
-        // 计算P2点坐标
-        double x3 = x1 + a * (x2 - x1) / d;
-        double y3 = y1 + a * (y2 - y1) / d;
+        // 无限直线不需要检查t和u的范围，直接计算交点
+        return finitePoint(x1 + t * (x2 - x1), y1 + t * (y2 - y1), out);
+    }
 
-        // 计算交点坐标
-        double ix1 = x3 + h * (y2 - y1) / d;
-        double iy1 = y3 - h * (x2 - x1) / d;
+    /**
+     * 判断两条无限直线的接触类型
+     *
+     * @return CROSSING、DISJOINT（平行）或 OVERLAP（重合）
+     */
+    public static ContactType classifyLines(double x1, double y1, double x2, double y2,
+                                            double x3, double y3, double x4, double y4) {
+        if (GeometryPredicates.cross(x1, y1, x2, y2, x3, y3, x4, y4) != 0) {
+            return ContactType.CROSSING;
+        }
+        // 直线平行或重合
+        return GeometryPredicates.orient2d(x1, y1, x2, y2, x3, y3) == 0
+                ? ContactType.OVERLAP : ContactType.DISJOINT;
+    }
 
-        double ix2 = x3 - h * (y2 - y1) / d;
-        double iy2 = y3 + h * (x2 - x1) / d;
+    /**
+     * 两条线段求交并分类，out 不为 null 时写入交点
+     */
+    private static ContactType segmentContact(double x1, double y1, double x2, double y2,
+                                              double x3, double y3, double x4, double y4,
+                                              double[] out) {
+        // 第二条线段的端点相对第一条线段所在直线的方向
+        double o1 = GeometryPredicates.orient2d(x1, y1, x2, y2, x3, y3);
+        double o2 = GeometryPredicates.orient2d(x1, y1, x2, y2, x4, y4);
+        if (sameSide(o1, o2)) {
+            return ContactType.DISJOINT;
+        }
+        // 第一条线段的端点相对第二条线段所在直线的方向
+        double o3 = GeometryPredicates.orient2d(x3, y3, x4, y4, x1, y1);
+        double o4 = GeometryPredicates.orient2d(x3, y3, x4, y4, x2, y2);
+        if (sameSide(o3, o4)) {
+            return ContactType.DISJOINT;
+        }
 
-        intersections.add(new Point2D(ix1, iy1));
+        if (o1 == 0 && o2 == 0) {
+            return collinearContact(x1, y1, x2, y2, x3, y3, x4, y4, out);
+        }
 
-        // 如果两交点不重合，则添加第二个交点
-        if (Math.abs(ix1 - ix2) > 1e-10 || Math.abs(iy1 - iy2) > 1e-10) {
-            intersections.add(new Point2D(ix2, iy2));
+        // 端点恰好落在另一条线段上，交点就是该端点
+        if (o1 == 0 || o2 == 0 || o3 == 0 || o4 == 0) {
+            if (out != null) {
+                if (o1 == 0) {
+                    point(x3, y3, out);
+                } else if (o2 == 0) {
+                    point(x4, y4, out);
+                } else if (o3 == 0) {
+                    point(x1, y1, out);
+                } else {
+                    point(x2, y2, out);
+                }
+            }
+            return ContactType.TOUCHING;
         }
 
-        return intersections;
+        if (out != null) {
+            crossingPoint(x1, y1, x2, y2, x3, y3, x4, y4, out);
+        }
+        return ContactType.CROSSING;
     }
 
     /**
-     * 计算无限直线与线段的交点
+     * 两条线段严格相交（各端点相对另一条线段的方向都确定且异号）时的交点
      *
-     * @param infiniteLine 无限直线
-     * @param line         线段
-     * @return 交点列表
+     * @return 交点个数（1）
      */
-    public static List<Point2D> getInfiniteLineLineIntersections(InfiniteLineGeo infiniteLine, LineGeo line) {
-        List<Point2D> intersections = new ArrayList<>();
+    static int crossingPoint(double x1, double y1, double x2, double y2,
+                             double x3, double y3, double x4, double y4, double[] out) {
+        double denom = (x1 - x2) * (y3 - y4) - (y1 - y2) * (x3 - x4);
+        double tNum = (x1 - x3) * (y3 - y4) - (y1 - y3) * (x3 - x4);
+        // 严格相交时 t 在 (0, 1) 内，夹紧以消除舍入误差（分母下溢为 0 时取起点）
+        double t = denom == 0 ? 0 : Math.max(0, Math.min(1, tNum / denom));
+        out[0] = x1 + t * (x2 - x1);
+        out[1] = y1 + t * (y2 - y1);
+        return 1;
+    }
 
-        double x1 = infiniteLine.getPoint1X();
-        double y1 = infiniteLine.getPoint1Y();
-        double x2 = infiniteLine.getPoint2X();
-        double y2 = infiniteLine.getPoint2Y();
+    /**
+     * 共线的两条线段求交并分类
+     */
+    private static ContactType collinearContact(double x1, double y1, double x2, double y2,
+                                                double x3, double y3, double x4, double y4,
+                                                double[] out) {
+        double spanX = Math.abs(x2 - x1) + Math.abs(x4 - x3);
+        double spanY = Math.abs(y2 - y1) + Math.abs(y4 - y3);
+        if (spanX == 0 && spanY == 0) {
+            // 两条线段都退化为点
+            if (x1 == x3 && y1 == y3) {
+                if (out != null) {
+                    point(x1, y1, out);
+                }
+                return ContactType.TOUCHING;
+            }
+            return ContactType.DISJOINT;
+        }
 
-        double x3 = line.getStartX();
-        double y3 = line.getStartY();
-        double x4 = line.getEndX();
-        double y4 = line.getEndY();
+        // 投影到跨度较大的坐标轴上比较区间
+        boolean useX = spanX >= spanY;
+        double a1 = useX ? x1 : y1;
+        double a2 = useX ? x2 : y2;
+        double a3 = useX ? x3 : y3;
+        double a4 = useX ? x4 : y4;
+        double low = Math.max(Math.min(a1, a2), Math.min(a3, a4));
+        double high = Math.min(Math.max(a1, a2), Math.max(a3, a4));
+        if (low > high) {
+            return ContactType.DISJOINT;
+        }
+        if (low < high) {
+            return ContactType.OVERLAP;
+        }
 
-        double denom = (x1 - x2) * (y3 - y4) - (y1 - y2) * (x3 - x4);
-        if (Math.abs(denom) < 1e-10) {
-            // 直线平行或重合
-            return intersections;
+        // 只在一个端点处相接
+        if (out != null) {
+            if (a1 == low) {
+                point(x1, y1, out);
+            } else if (a2 == low) {
+                point(x2, y2, out);
+            } else if (a3 == low) {
+                point(x3, y3, out);
+            } else {
+                point(x4, y4, out);
+            }
         }
+        return ContactType.TOUCHING;
+    }
 
-        double tNum = (x1 - x3) * (y3 - y4) - (y1 - y3) * (x3 - x4);
-        double uNum = -((x1 - x2) * (y1 - y3) - (y1 - y2) * (x1 - x3));
+    /**
+     * 两个方向值是否严格同号
+     */
+    private static boolean sameSide(double a, double b) {
+        return (a > 0 && b > 0) || (a < 0 && b < 0);
+    }
 
-        double u = uNum / denom;
+    private static int point(double x, double y, double[] out) {
+        out[0] = x;
+        out[1] = y;
+        return 1;
+    }
 
-        // 无限直线不需要检查t，只检查交点是否在线段上
-        if (u >= 0 && u <= 1) {
-            double t = tNum / denom;
-            double ix = x1 + t * (x2 - x1);
-            double iy = y1 + t * (y2 - y1);
-            intersections.add(new Point2D(ix, iy));
+    /**
+     * 写入一个交点；几乎平行导致交点坐标溢出时丢弃
+     */
+    private static int finitePoint(double x, double y, double[] out) {
+        if (!Double.isFinite(x) || !Double.isFinite(y)) {
+            return 0;
         }
-
-        return intersections;
+        return point(x, y, out);
     }
 
     /**
-     * 计算无限直线与圆的交点
+     * 直线（或线段）与圆求交
+     * <p>
+     * 相交、相切由精确谓词判定，不依赖判别式的舍入结果
      *
-     * @param infiniteLine 无限直线
-     * @param circle       圆
-     * @return 交点列表
+     * @param segment true 表示只保留参数 t 在 [0, 1] 内的交点
      */
-    public static List<Point2D> getInfiniteLineCircleIntersections(InfiniteLineGeo infiniteLine, CircleGeo circle) {
-        List<Point2D> intersections = new ArrayList<>();
-
-        double x1 = infiniteLine.getPoint1X();
-        double y1 = infiniteLine.getPoint1Y();
-        double x2 = infiniteLine.getPoint2X();
-        double y2 = infiniteLine.getPoint2Y();
-
-        double cx = circle.getCx();
-        double cy = circle.getCy();
-        double r = circle.getR();
+    private static int lineCircle(double x1, double y1, double x2, double y2,
+                                  double cx, double cy, double r, boolean segment, double[] out) {
+        ContactType contact = classifyLineCircle(x1, y1, x2, y2, cx, cy, r);
+        if (contact == ContactType.DISJOINT) {
+            // 没有实数解，不相交
+            return 0;
+        }
 
         // 将直线转换为参数方程: P(t) = P1 + t(P2-P1)
         double dx = x2 - x1;
@@ -257,33 +406,134 @@ public class IntersectionUtils {
 
         double discriminant = b * b - 4 * a * c;
 
-        if (discriminant < 0) {
-            // 没有实数解，直线与圆不相交
-            return intersections;
-        }
-
-        if (Math.abs(discriminant) < 1e-10) {
-            // 一个解，直线与圆相切
+        int count = 0;
+        if (contact == ContactType.TANGENT || discriminant <= 0) {
+            // 相切（或两交点在浮点下无法区分），取垂足
             double t = -b / (2 * a);
-            double ix = x1 + t * dx;
-            double iy = y1 + t * dy;
-            intersections.add(new Point2D(ix, iy));
+            if (!segment || (t >= 0 && t <= 1)) {
+                out[0] = x1 + t * dx;
+                out[1] = y1 + t * dy;
+                count = 1;
+            }
         } else {
-            // 两个解，直线与圆相交于两点
+            // 两个解，相交于两点
             double sqrtDiscriminant = Math.sqrt(discriminant);
             double t1 = (-b + sqrtDiscriminant) / (2 * a);
             double t2 = (-b - sqrtDiscriminant) / (2 * a);
 
-            double ix1 = x1 + t1 * dx;
-            double iy1 = y1 + t1 * dy;
-            intersections.add(new Point2D(ix1, iy1));
+            if (!segment || (t1 >= 0 && t1 <= 1)) {
+                out[0] = x1 + t1 * dx;
+                out[1] = y1 + t1 * dy;
+                count = 1;
+            }
+            if (!segment || (t2 >= 0 && t2 <= 1)) {
+                out[count * 2] = x1 + t2 * dx;
+                out[count * 2 + 1] = y1 + t2 * dy;
+                count++;
+            }
+        }
+        return count;
+    }
 
-            double ix2 = x1 + t2 * dx;
-            double iy2 = y1 + t2 * dy;
-            intersections.add(new Point2D(ix2, iy2));
+    /**
+     * 计算两个图形之间的所有交点，追加到 out 中
+     * <p>
+     * 按两个图形的 {@link com.bingbaihanji.constant.ShapeKind} 在 {@link IntersectionRegistry} 中查表分派；
+     * 多边形和手绘路径按边求交，并通过各自的线段 BVH 按对方包围盒剪枝
+     *
+     * @param obj1 第一个图形
+     * @param obj2 第二个图形
+     * @param out  交点输出
+     */
+    public static void intersect(WorldObject obj1, WorldObject obj2, PointBuffer out) {
+        intersect(obj1, obj2, new double[SCRATCH_SIZE], out);
+    }
+
+    /**
+     * 计算两个图形之间的所有交点，追加到 out 中（使用调用方提供的临时数组，逐对求交的循环中不再分配）
+     *
+     * @param obj1 第一个图形
+     * @param obj2 第二个图形
+     * @param hits 临时数组，长度至少为 {@link #SCRATCH_SIZE}，同一时刻只能由一个线程使用
+     * @param out  交点输出
+     */
+    public static void intersect(WorldObject obj1, WorldObject obj2, double[] hits, PointBuffer out) {
+        IntersectionRegistry.PairKernel kernel = IntersectionRegistry.get(obj1.kind(), obj2.kind());
+        if (kernel != null) {
+            kernel.intersect(obj1, obj2, hits, out);
         }
+    }
 
-        return intersections;
+    /**
+     * 计算两个线段的交点
+     *
+     * @param line1 第一条线段
+     * @param line2 第二条线段
+     * @return 交点列表
+     */
+    public static List<Point2D> getLineLineIntersections(LineGeo line1, LineGeo line2) {
+        double[] hits = new double[4];
+        int count = intersectSegments(line1.getStartX(), line1.getStartY(), line1.getEndX(), line1.getEndY(),
+                line2.getStartX(), line2.getStartY(), line2.getEndX(), line2.getEndY(), hits);
+        return toList(hits, count);
+    }
+
+    /**
+     * 计算线段与圆的交点
+     *
+     * @param line   线段
+     * @param circle 圆
+     * @return 交点列表
+     */
+    public static List<Point2D> getLineCircleIntersections(LineGeo line, CircleGeo circle) {
+        double[] hits = new double[4];
+        int count = intersectSegmentCircle(line.getStartX(), line.getStartY(), line.getEndX(), line.getEndY(),
+                circle.getCx(), circle.getCy(), circle.getR(), hits);
+        return toList(hits, count);
+    }
+
+    /**
+     * 计算两个圆的交点
+     *
+     * @param circle1 第一个圆
+     * @param circle2 第二个圆
+     * @return 交点列表
+     */
+    public static List<Point2D> getCircleCircleIntersections(CircleGeo circle1, CircleGeo circle2) {
+        double[] hits = new double[4];
+        int count = intersectCircles(circle1.getCx(), circle1.getCy(), circle1.getR(),
+                circle2.getCx(), circle2.getCy(), circle2.getR(), hits);
+        return toList(hits, count);
+    }
+
+    /**
+     * 计算无限直线与线段的交点
+     *
+     * @param infiniteLine 无限直线
+     * @param line         线段
+     * @return 交点列表
+     */
+    public static List<Point2D> getInfiniteLineLineIntersections(InfiniteLineGeo infiniteLine, LineGeo line) {
+        double[] hits = new double[4];
+        int count = intersectLineSegment(infiniteLine.getPoint1X(), infiniteLine.getPoint1Y(),
+                infiniteLine.getPoint2X(), infiniteLine.getPoint2Y(),
+                line.getStartX(), line.getStartY(), line.getEndX(), line.getEndY(), hits);
+        return toList(hits, count);
+    }
+
+    /**
+     * 计算无限直线与圆的交点
+     *
+     * @param infiniteLine 无限直线
+     * @param circle       圆
+     * @return 交点列表
+     */
+    public static List<Point2D> getInfiniteLineCircleIntersections(InfiniteLineGeo infiniteLine, CircleGeo circle) {
+        double[] hits = new double[4];
+        int count = intersectLineCircle(infiniteLine.getPoint1X(), infiniteLine.getPoint1Y(),
+                infiniteLine.getPoint2X(), infiniteLine.getPoint2Y(),
+                circle.getCx(), circle.getCy(), circle.getR(), hits);
+        return toList(hits, count);
     }
 
     /**
@@ -294,32 +544,17 @@ public class IntersectionUtils {
      * @return 交点列表
      */
     public static List<Point2D> getInfiniteLineInfiniteLineIntersections(InfiniteLineGeo line1, InfiniteLineGeo line2) {
-        List<Point2D> intersections = new ArrayList<>();
-
-        double x1 = line1.getPoint1X();
-        double y1 = line1.getPoint1Y();
-        double x2 = line1.getPoint2X();
-        double y2 = line1.getPoint2Y();
-
-        double x3 = line2.getPoint1X();
-        double y3 = line2.getPoint1Y();
-        double x4 = line2.getPoint2X();
-        double y4 = line2.getPoint2Y();
+        double[] hits = new double[4];
+        int count = intersectLines(line1.getPoint1X(), line1.getPoint1Y(), line1.getPoint2X(), line1.getPoint2Y(),
+                line2.getPoint1X(), line2.getPoint1Y(), line2.getPoint2X(), line2.getPoint2Y(), hits);
+        return toList(hits, count);
+    }
 
-        double denom = (x1 - x2) * (y3 - y4) - (y1 - y2) * (x3 - x4);
-        if (Math.abs(denom) < 1e-10) {
-            // 直线平行或重合
-            return intersections;
+    private static List<Point2D> toList(double[] hits, int count) {
+        List<Point2D> intersections = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            intersections.add(new Point2D(hits[i * 2], hits[i * 2 + 1]));
         }
-
-        double tNum = (x1 - x3) * (y3 - y4) - (y1 - y3) * (x3 - x4);
-        double t = tNum / denom;
-
-        // 无限直线不需要检查t和u的范围，直接计算交点
-        double ix = x1 + t * (x2 - x1);
-        double iy = y1 + t * (y2 - y1);
-        intersections.add(new Point2D(ix, iy));
-
         return intersections;
     }
 
@@ -475,4 +710,4 @@ public class IntersectionUtils {
 
         return new Point2D[]{point1, point2};
     }
-}
\ No newline at end of file
+}
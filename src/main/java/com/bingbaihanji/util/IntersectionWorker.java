@@ -0,0 +1,103 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import javafx.application.Platform;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 后台交点计算器
+ * <p>
+ * 在单独的后台线程上对场景几何快照计算交点，结果通过发布执行器（默认 Platform.runLater）回到 FX 线程。
+ * 每次提交都会使之前的任务失效：排队中的旧任务直接跳过，运行中的旧任务在扫描时协作式退出。
+ * 发布前再比较场景版本，快照之后场景已变化的结果不会发布
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public class IntersectionWorker {
+
+    private final IntersectionScanner scanner;
+    private final Executor publisher;
+    private final ExecutorService executor;
+    /**
+     * 任务代数，每次提交或取消时递增
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public IntersectionWorker(IntersectionScanner scanner) {
+        this(scanner, Platform::runLater);
+    }
+
+    /**
+     * @param scanner   交点扫描器
+     * @param publisher 结果发布执行器
+     */
+    public IntersectionWorker(IntersectionScanner scanner, Executor publisher) {
+        this.scanner = scanner;
+        this.publisher = publisher;
+        // Java 17 没有虚拟线程，使用单个守护线程
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "intersection-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 提交一次交点计算
+     *
+     * @param snapshot       场景几何快照（提交后不得再修改）
+     * @param sceneVersion   快照对应的场景版本
+     * @param currentVersion 读取当前场景版本（在发布线程上调用）
+     * @param onResult       结果回调（在发布线程上调用）
+     * @param onStale        计算完成时场景已变化的回调（在发布线程上调用）
+     */
+    public void submit(List<WorldObject> snapshot, long sceneVersion, LongSupplier currentVersion,
+                       Consumer<PointBuffer> onResult, Runnable onStale) {
+        long myGeneration = generation.incrementAndGet();
+        BooleanSupplier cancelled = () -> generation.get() != myGeneration;
+
+        executor.execute(() -> {
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            PointBuffer points = scanner.scan(snapshot, cancelled);
+            if (points == null) {
+                return;
+            }
+            publisher.execute(() -> {
+                if (cancelled.getAsBoolean()) {
+                    return;
+                }
+                if (currentVersion.getAsLong() != sceneVersion) {
+                    onStale.run();
+                    return;
+                }
+                onResult.accept(points);
+            });
+        });
+    }
+
+    /**
+     * 取消所有未完成的任务
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * 取消所有任务并停止后台线程
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
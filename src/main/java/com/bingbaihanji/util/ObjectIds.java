@@ -0,0 +1,26 @@
+package com.bingbaihanji.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 图形唯一标识生成器
+ * <p>
+ * 标识从 1 开始递增，0 保留表示“没有标识”
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public final class ObjectIds {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private ObjectIds() {
+    }
+
+    /**
+     * 分配一个新的标识
+     */
+    public static long next() {
+        return SEQUENCE.incrementAndGet();
+    }
+}
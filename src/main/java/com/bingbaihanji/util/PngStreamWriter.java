@@ -0,0 +1,225 @@
+package com.bingbaihanji.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * 流式 PNG 编码器
+ * <p>
+ * 按从上到下的顺序逐行写入像素，压缩后的数据攒满缓冲区即作为一个 IDAT 块写出，
+ * 内存占用只有一行像素与压缩缓冲区，与图片尺寸无关。
+ * 每行使用 Sub 过滤（与左侧像素求差），对大面积纯色的几何图形压缩效果好且开销低
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public class PngStreamWriter implements Closeable {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final byte FILTER_SUB = 1;
+
+    private final OutputStream out;
+    private final int width;
+    private final int height;
+    private final boolean alpha;
+    private final int bytesPerPixel;
+    private final byte[] row;
+    private final Deflater deflater;
+    private final IdatOutputStream chunks = new IdatOutputStream();
+    private final DeflaterOutputStream idat;
+    private int rowsWritten = 0;
+    private boolean closed = false;
+
+    /**
+     * @param out    输出流（关闭编码器时一并关闭）
+     * @param width  图片宽度（像素）
+     * @param height 图片高度（像素）
+     * @param alpha  是否保留透明通道；不保留时按 RGB 编码，体积更小
+     */
+    public PngStreamWriter(OutputStream out, int width, int height, boolean alpha) throws IOException {
+        this(out, width, height, alpha, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param level 压缩级别（{@link Deflater#BEST_SPEED} 至 {@link Deflater#BEST_COMPRESSION}）
+     */
+    public PngStreamWriter(OutputStream out, int width, int height, boolean alpha, int level) throws IOException {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("图片尺寸必须为正数：" + width + "×" + height);
+        }
+        this.out = out;
+        this.width = width;
+        this.height = height;
+        this.alpha = alpha;
+        this.bytesPerPixel = alpha ? 4 : 3;
+        this.row = new byte[1 + width * bytesPerPixel];
+        this.deflater = new Deflater(level);
+
+        out.write(SIGNATURE);
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8; // 位深度
+        header[9] = (byte) (alpha ? 6 : 2); // 颜色类型：RGBA / RGB
+        writeChunk("IHDR", header, header.length);
+        this.idat = new DeflaterOutputStream(chunks, deflater, CHUNK_SIZE);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * 写入一行像素
+     *
+     * @param argb   像素数组（每个 int 为 ARGB）
+     * @param offset 该行第一个像素在数组中的位置
+     */
+    public void writeRow(int[] argb, int offset) throws IOException {
+        if (rowsWritten >= height) {
+            throw new IllegalStateException("已写满 " + height + " 行");
+        }
+        row[0] = FILTER_SUB;
+        int prevR = 0, prevG = 0, prevB = 0, prevA = 0;
+        int pos = 1;
+        for (int i = 0; i < width; i++) {
+            int pixel = argb[offset + i];
+            int r = (pixel >> 16) & 0xFF;
+            int g = (pixel >> 8) & 0xFF;
+            int b = pixel & 0xFF;
+            row[pos++] = (byte) (r - prevR);
+            row[pos++] = (byte) (g - prevG);
+            row[pos++] = (byte) (b - prevB);
+            prevR = r;
+            prevG = g;
+            prevB = b;
+            if (alpha) {
+                int a = pixel >>> 24;
+                row[pos++] = (byte) (a - prevA);
+                prevA = a;
+            }
+        }
+        idat.write(row);
+        rowsWritten++;
+    }
+
+    /**
+     * 连续写入多行像素
+     *
+     * @param argb   像素数组，行与行之间相隔 stride 个像素
+     * @param rows   行数
+     * @param stride 行跨度（像素）
+     */
+    public void writeRows(int[] argb, int rows, int stride) throws IOException {
+        for (int y = 0; y < rows; y++) {
+            writeRow(argb, y * stride);
+        }
+    }
+
+    /**
+     * 结束编码并关闭输出流（行数不足时抛出异常，输出的文件不完整）
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            idat.finish();
+            chunks.flushChunk();
+            if (rowsWritten != height) {
+                throw new IOException("只写入了 " + rowsWritten + " / " + height + " 行");
+            }
+            writeChunk("IEND", new byte[0], 0);
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    /**
+     * 放弃编码：释放压缩器并关闭输出流，不写出剩余数据（输出的文件不完整，应由调用方删除）
+     */
+    public void abort() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            deflater.end();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        byte[] lengthBytes = new byte[4];
+        putInt(lengthBytes, 0, length);
+        out.write(lengthBytes);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        byte[] crcBytes = new byte[4];
+        putInt(crcBytes, 0, (int) crc.getValue());
+        out.write(crcBytes);
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    /**
+     * 把压缩数据攒满缓冲区后作为一个 IDAT 块写出
+     */
+    private class IdatOutputStream extends OutputStream {
+
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private int size = 0;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (size == buffer.length) {
+                flushChunk();
+            }
+            buffer[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (size == buffer.length) {
+                    flushChunk();
+                }
+                int n = Math.min(length, buffer.length - size);
+                System.arraycopy(bytes, offset, buffer, size, n);
+                size += n;
+                offset += n;
+                length -= n;
+            }
+        }
+
+        void flushChunk() throws IOException {
+            if (size > 0) {
+                writeChunk("IDAT", buffer, size);
+                size = 0;
+            }
+        }
+    }
+}
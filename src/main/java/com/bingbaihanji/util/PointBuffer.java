@@ -0,0 +1,101 @@
+package com.bingbaihanji.util;
+
+import java.util.Arrays;
+
+/**
+ * 紧凑点坐标缓冲区
+ * <p>
+ * 以 [x0, y0, x1, y1, ...] 的形式存储点坐标，避免为每个点创建对象
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public final class PointBuffer {
+
+    private double[] coords;
+    private int size = 0;
+
+    public PointBuffer() {
+        this(8);
+    }
+
+    /**
+     * @param capacity 初始容量（点数）
+     */
+    public PointBuffer(int capacity) {
+        coords = new double[Math.max(2, capacity * 2)];
+    }
+
+    /**
+     * 追加一个点
+     */
+    public void add(double x, double y) {
+        if (size * 2 + 2 > coords.length) {
+            coords = Arrays.copyOf(coords, coords.length * 2);
+        }
+        coords[size * 2] = x;
+        coords[size * 2 + 1] = y;
+        size++;
+    }
+
+    /**
+     * 追加 [x0, y0, x1, y1, ...] 数组中的前 count 个点
+     */
+    public void add(double[] xy, int count) {
+        for (int i = 0; i < count; i++) {
+            add(xy[i * 2], xy[i * 2 + 1]);
+        }
+    }
+
+    /**
+     * 追加另一个缓冲区中的所有点
+     */
+    public void addAll(PointBuffer other) {
+        int required = (size + other.size) * 2;
+        if (required > coords.length) {
+            coords = Arrays.copyOf(coords, Math.max(required, coords.length * 2));
+        }
+        System.arraycopy(other.coords, 0, coords, size * 2, other.size * 2);
+        size += other.size;
+    }
+
+    public double getX(int index) {
+        return coords[index * 2];
+    }
+
+    public double getY(int index) {
+        return coords[index * 2 + 1];
+    }
+
+    /**
+     * 点数
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 估算占用的内存字节数
+     */
+    public long estimateSize() {
+        return 32 + coords.length * 8L;
+    }
+
+    /**
+     * 清空（保留已分配的空间）
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * 导出为 [x0, y0, x1, y1, ...] 数组
+     */
+    public double[] toArray() {
+        return Arrays.copyOf(coords, size * 2);
+    }
+}
@@ -0,0 +1,238 @@
+package com.bingbaihanji.util;
+
+import java.util.Arrays;
+
+/**
+ * 基于容差网格的点去重器
+ * <p>
+ * 平面按边长为容差 epsilon 的网格划分，每个格子（以两个 long 格子坐标为键，开放寻址存储）最多保存一个代表点。
+ * 两点在 x、y 方向上的距离都不超过 epsilon 时视为同一点：这样的两点必然落在同一格子或相邻格子中，
+ * 因此加入一个点只需检查周围 3x3 个格子，时间为 O(1)，重复点不会产生任何对象。
+ * 合并是贪心的：先加入的点成为代表点，后加入的点与它比较。
+ * 坐标除以 epsilon 后超出 ±2^62（long 格子坐标会饱和）或不是有限值的点不进入网格，单独逐个比较距离
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public final class PointDeduplicator {
+
+    /**
+     * 默认容差
+     */
+    public static final double DEFAULT_EPSILON = 1e-10;
+    private static final int MIN_CAPACITY = 16;
+    /**
+     * 格子坐标绝对值的上限（保证相邻格子的坐标也不溢出）
+     */
+    private static final double MAX_CELL = 0x1p62;
+
+    private final double epsilon;
+    /**
+     * 代表点坐标
+     */
+    private final PointBuffer points;
+
+    private long[] cellXs;
+    private long[] cellYs;
+    /**
+     * 代表点下标 + 1，0 表示空槽
+     */
+    private int[] slots;
+    private int mask;
+    /**
+     * 不进入网格的代表点下标。这样的点与网格中的点不可能在容差内重合：
+     * 在 ±2^62·epsilon 附近 double 的间距已是 epsilon 的 1024 倍，容差内的两点只能坐标完全相同
+     */
+    private int[] outliers = new int[0];
+    private int outlierCount;
+
+    public PointDeduplicator() {
+        this(DEFAULT_EPSILON, MIN_CAPACITY);
+    }
+
+    /**
+     * @param epsilon      容差（必须为正数）
+     * @param expectedSize 预计的代表点数量
+     */
+    public PointDeduplicator(double epsilon, int expectedSize) {
+        if (!(epsilon > 0)) {
+            throw new IllegalArgumentException("容差必须为正数: " + epsilon);
+        }
+        this.epsilon = epsilon;
+        this.points = new PointBuffer(expectedSize);
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * 加入一个点
+     *
+     * @return 与已有代表点都不重合、作为新代表点加入时返回 true
+     */
+    public boolean add(double x, double y) {
+        double qx = Math.floor(x / epsilon);
+        double qy = Math.floor(y / epsilon);
+        if (!inGrid(qx) || !inGrid(qy)) {
+            if (findOutlier(x, y) >= 0) {
+                return false;
+            }
+            if (outlierCount == outliers.length) {
+                outliers = Arrays.copyOf(outliers, Math.max(4, outlierCount * 2));
+            }
+            outliers[outlierCount++] = points.size();
+            points.add(x, y);
+            return true;
+        }
+        long cx = (long) qx;
+        long cy = (long) qy;
+        if (findNear(x, y, cx, cy) >= 0) {
+            return false;
+        }
+        insert(cx, cy, points.size());
+        points.add(x, y);
+        return true;
+    }
+
+    /**
+     * 查找与 (x, y) 重合的代表点
+     *
+     * @return 代表点下标，不存在时返回 -1
+     */
+    public int indexOf(double x, double y) {
+        double qx = Math.floor(x / epsilon);
+        double qy = Math.floor(y / epsilon);
+        if (!inGrid(qx) || !inGrid(qy)) {
+            return findOutlier(x, y);
+        }
+        return findNear(x, y, (long) qx, (long) qy);
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    public double getX(int index) {
+        return points.getX(index);
+    }
+
+    public double getY(int index) {
+        return points.getY(index);
+    }
+
+    /**
+     * 代表点（按加入顺序），返回内部缓冲区，调用方不得修改
+     */
+    public PointBuffer points() {
+        return points;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    /**
+     * 清空所有点（保留已分配的空间）
+     */
+    public void clear() {
+        Arrays.fill(slots, 0);
+        outlierCount = 0;
+        points.clear();
+    }
+
+    /**
+     * 格子坐标是否可以用 long 精确表示（NaN 返回 false）
+     */
+    private static boolean inGrid(double q) {
+        return Math.abs(q) < MAX_CELL;
+    }
+
+    /**
+     * 在不进入网格的代表点中查找重合的点（非有限坐标与任何点都不重合）
+     */
+    private int findOutlier(double x, double y) {
+        for (int i = 0; i < outlierCount; i++) {
+            int index = outliers[i];
+            if (Math.abs(points.getX(index) - x) <= epsilon && Math.abs(points.getY(index) - y) <= epsilon) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 在 (cx, cy) 周围 3x3 个格子中查找重合的代表点
+     */
+    private int findNear(double x, double y, long cx, long cy) {
+        // 同一格子内的点视为重合（除法舍入可能使距离比容差多出一个 ulp，这里不再比较距离）
+        int same = find(cx, cy);
+        if (same >= 0) {
+            return same;
+        }
+        for (long gx = cx - 1; gx <= cx + 1; gx++) {
+            for (long gy = cy - 1; gy <= cy + 1; gy++) {
+                int index = (gx == cx && gy == cy) ? -1 : find(gx, gy);
+                if (index >= 0 && Math.abs(points.getX(index) - x) <= epsilon
+                        && Math.abs(points.getY(index) - y) <= epsilon) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int find(long cx, long cy) {
+        int slot = PointKeyMap.hash(cx, cy) & mask;
+        while (slots[slot] != 0) {
+            if (cellXs[slot] == cx && cellYs[slot] == cy) {
+                return slots[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * 登记格子的代表点（调用方保证格子中还没有代表点）
+     */
+    private void insert(long cx, long cy, int index) {
+        int slot = PointKeyMap.hash(cx, cy) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        cellXs[slot] = cx;
+        cellYs[slot] = cy;
+        slots[slot] = index + 1;
+        if ((index + 1) * 2 > slots.length) {
+            rehash(slots.length << 1);
+        }
+    }
+
+    private void allocate(int capacity) {
+        cellXs = new long[capacity];
+        cellYs = new long[capacity];
+        slots = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldXs = cellXs;
+        long[] oldYs = cellYs;
+        int[] oldSlots = slots;
+        allocate(newCapacity);
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] == 0) {
+                continue;
+            }
+            int slot = PointKeyMap.hash(oldXs[i], oldYs[i]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            cellXs[slot] = oldXs[i];
+            cellYs[slot] = oldYs[i];
+            slots[slot] = oldSlots[i];
+        }
+    }
+}
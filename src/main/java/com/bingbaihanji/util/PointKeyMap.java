@@ -0,0 +1,207 @@
+package com.bingbaihanji.util;
+
+import java.util.Arrays;
+
+/**
+ * 以量化坐标为键的开放寻址哈希表
+ * <p>
+ * 键为两个 long（量化后的 x、y），以并行数组存储，线性探测，
+ * 删除时使用后移法保持探测链连续，查找过程不创建任何对象
+ *
+ * @param <V> 值类型（不允许为 null）
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public final class PointKeyMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keyXs;
+    private long[] keyYs;
+    /**
+     * 值数组，null 表示空槽
+     */
+    private Object[] values;
+    private int mask;
+    private int size = 0;
+
+    public PointKeyMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize 预计元素数量
+     */
+    public PointKeyMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * 计算能容纳 expectedSize 个元素（负载因子 0.5）的 2 的幂容量
+     */
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static int hash(long kx, long ky) {
+        long h = kx * 0x9E3779B97F4A7C15L + ky * 0xC2B2AE3D27D4EB4FL;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 获取键对应的值
+     *
+     * @return 值，不存在时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long kx, long ky) {
+        int slot = find(kx, ky);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    public boolean containsKey(long kx, long ky) {
+        return find(kx, ky) >= 0;
+    }
+
+    /**
+     * 放入键值对
+     *
+     * @return 旧值，不存在时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long kx, long ky, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("值不能为 null");
+        }
+        int slot = hash(kx, ky) & mask;
+        while (values[slot] != null) {
+            if (keyXs[slot] == kx && keyYs[slot] == ky) {
+                V old = (V) values[slot];
+                values[slot] = value;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keyXs[slot] = kx;
+        keyYs[slot] = ky;
+        values[slot] = value;
+        size++;
+        if (size * 2 > values.length) {
+            rehash(values.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * 移除键
+     *
+     * @return 被移除的值，不存在时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long kx, long ky) {
+        int slot = find(kx, ky);
+        if (slot < 0) {
+            return null;
+        }
+        V old = (V) values[slot];
+
+        // 后移法：把探测链上后续可以前移的元素移到空位
+        int gap = slot;
+        int j = slot;
+        while (true) {
+            j = (j + 1) & mask;
+            if (values[j] == null) {
+                break;
+            }
+            int ideal = hash(keyXs[j], keyYs[j]) & mask;
+            if (((j - ideal) & mask) >= ((j - gap) & mask)) {
+                keyXs[gap] = keyXs[j];
+                keyYs[gap] = keyYs[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        values[gap] = null;
+        size--;
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 清空所有元素（保留已分配的空间）
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * 遍历所有键值对（顺序不确定，遍历期间不能修改）
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryVisitor<? super V> visitor) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                visitor.visit(keyXs[i], keyYs[i], (V) values[i]);
+            }
+        }
+    }
+
+    private int find(long kx, long ky) {
+        int slot = hash(kx, ky) & mask;
+        while (values[slot] != null) {
+            if (keyXs[slot] == kx && keyYs[slot] == ky) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void allocate(int capacity) {
+        keyXs = new long[capacity];
+        keyYs = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldXs = keyXs;
+        long[] oldYs = keyYs;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) {
+                continue;
+            }
+            int slot = hash(oldXs[i], oldYs[i]) & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keyXs[slot] = oldXs[i];
+            keyYs[slot] = oldYs[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * 键值对访问器
+     */
+    @FunctionalInterface
+    public interface EntryVisitor<V> {
+        void visit(long kx, long ky, V value);
+    }
+}
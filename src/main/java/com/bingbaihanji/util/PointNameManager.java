@@ -2,8 +2,8 @@ package com.bingbaihanji.util;
 
 import javafx.geometry.Point2D;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.BitSet;
 
 /**
  * 点命名管理器
@@ -24,17 +24,25 @@ public class PointNameManager {
      */
     private static PointNameManager instance;
     /**
-     * 点坐标到名称的映射
+     * 点坐标（量化后）到名称的映射
      */
-    private final Map<String, String> pointNameMap = new HashMap<>();
+    private final PointKeyMap<String> pointNameMap = new PointKeyMap<>();
     /**
-     * 名称到索引的映射（用于跟踪已使用的索引）
+     * 已使用的命名索引
      */
-    private final Map<String, Integer> nameToIndexMap = new HashMap<>();
+    private final BitSet usedIndices = new BitSet();
     /**
      * 下一个可用的命名索引
      */
     private int nextAvailableIndex = 0;
+    /**
+     * 名称表（按索引延迟生成并缓存）
+     */
+    private String[] nameTable = new String[26];
+    /**
+     * 修改计数（命名每次变化时递增）
+     */
+    private long modCount = 0;
 
     private PointNameManager() {
     }
@@ -57,23 +65,23 @@ public class PointNameManager {
      * @return 点的名称
      */
     public String assignName(double x, double y) {
-        String key = getPointKey(x, y);
+        long kx = quantize(x);
+        long ky = quantize(y);
 
         // 如果点已存在，返回已有名称
-        if (pointNameMap.containsKey(key)) {
-            return pointNameMap.get(key);
+        String existing = pointNameMap.get(kx, ky);
+        if (existing != null) {
+            return existing;
         }
 
         // 找到下一个未使用的索引
-        while (isIndexUsed(nextAvailableIndex)) {
-            nextAvailableIndex++;
-        }
+        int index = usedIndices.nextClearBit(nextAvailableIndex);
 
-        // 生成新名称
-        String name = generateName(nextAvailableIndex);
-        pointNameMap.put(key, name);
-        nameToIndexMap.put(name, nextAvailableIndex);
-        nextAvailableIndex++;
+        String name = nameOf(index);
+        pointNameMap.put(kx, ky, name);
+        usedIndices.set(index);
+        nextAvailableIndex = index + 1;
+        modCount++;
 
         return name;
     }
@@ -93,8 +101,7 @@ public class PointNameManager {
      * @return 点的名称，如果不存在则返回null
      */
     public String getName(double x, double y) {
-        String key = getPointKey(x, y);
-        return pointNameMap.get(key);
+        return pointNameMap.get(quantize(x), quantize(y));
     }
 
     /**
@@ -108,19 +115,45 @@ public class PointNameManager {
      * 检查点是否已命名
      */
     public boolean hasName(double x, double y) {
-        String key = getPointKey(x, y);
-        return pointNameMap.containsKey(key);
+        return pointNameMap.containsKey(quantize(x), quantize(y));
     }
 
     /**
      * 移除点的名称
      */
     public void removeName(double x, double y) {
-        String key = getPointKey(x, y);
-        String name = pointNameMap.remove(key);
+        String name = pointNameMap.remove(quantize(x), quantize(y));
         if (name != null) {
-            nameToIndexMap.remove(name);
+            usedIndices.clear(indexOf(name));
+            modCount++;
+        }
+    }
+
+    /**
+     * 恢复保存过的命名（如加载场景文件时），名称占用的索引标记为已使用
+     *
+     * @param x    点的X坐标
+     * @param y    点的Y坐标
+     * @param name 由本管理器生成的名称
+     * @throws IllegalArgumentException 名称不符合 {@link #isValidName(String)}
+     */
+    public void restoreName(double x, double y, String name) {
+        if (!isValidName(name)) {
+            throw new IllegalArgumentException("无效的点名称：" + name);
+        }
+        String old = pointNameMap.put(quantize(x), quantize(y), name);
+        if (old != null && !old.equals(name)) {
+            usedIndices.clear(indexOf(old));
         }
+        usedIndices.set(indexOf(name));
+        modCount++;
+    }
+
+    /**
+     * 遍历所有已命名的点（顺序不确定）
+     */
+    public void forEachName(NameVisitor visitor) {
+        pointNameMap.forEach((kx, ky, name) -> visitor.visit(kx * EPSILON, ky * EPSILON, name));
     }
 
     /**
@@ -128,8 +161,58 @@ public class PointNameManager {
      */
     public void clear() {
         pointNameMap.clear();
-        nameToIndexMap.clear();
+        usedIndices.clear();
         nextAvailableIndex = 0;
+        modCount++;
+    }
+
+    /**
+     * 获取索引对应的名称（从名称表中读取，必要时生成）
+     */
+    private String nameOf(int index) {
+        if (index >= nameTable.length) {
+            nameTable = Arrays.copyOf(nameTable, Math.max(index + 1, nameTable.length * 2));
+        }
+        String name = nameTable[index];
+        if (name == null) {
+            name = generateName(index);
+            nameTable[index] = name;
+        }
+        return name;
+    }
+
+    /**
+     * 名称是否可能由本管理器生成：一个大写字母，后面可选不以 0 开头的数字后缀，且对应的索引不溢出
+     */
+    public static boolean isValidName(String name) {
+        if (name == null || name.isEmpty() || name.charAt(0) < 'A' || name.charAt(0) > 'Z') {
+            return false;
+        }
+        if (name.length() == 1) {
+            return true;
+        }
+        // int 索引的数字后缀最多 8 位（(2^31 - 1) / 26 约为 8.3 × 10^7）
+        if (name.length() > 9 || name.charAt(1) == '0') {
+            return false;
+        }
+        long suffix = 0;
+        for (int i = 1; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            suffix = suffix * 10 + (c - '0');
+        }
+        return suffix * 26 + 25 <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * 根据名称反推索引（generateName 的逆运算）
+     */
+    private static int indexOf(String name) {
+        int letterIndex = name.charAt(0) - 'A';
+        int numberSuffix = name.length() > 1 ? Integer.parseInt(name, 1, name.length(), 10) : 0;
+        return numberSuffix * 26 + letterIndex;
     }
 
     /**
@@ -139,7 +222,7 @@ public class PointNameManager {
      * @param index 索引（从0开始）
      * @return 点名称
      */
-    private String generateName(int index) {
+    private static String generateName(int index) {
         int letterIndex = index % 26;
         int numberSuffix = index / 26;
 
@@ -153,14 +236,11 @@ public class PointNameManager {
     }
 
     /**
-     * 生成点的唯一键（基于坐标）
+     * 将坐标量化为整数键分量
      * 使用四舍五入来处理浮点数精度问题
      */
-    private String getPointKey(double x, double y) {
-        // 将坐标四舍五入到指定精度
-        long xRounded = Math.round(x / EPSILON);
-        long yRounded = Math.round(y / EPSILON);
-        return xRounded + "," + yRounded;
+    private static long quantize(double v) {
+        return Math.round(v / EPSILON);
     }
 
     /**
@@ -171,10 +251,17 @@ public class PointNameManager {
     }
 
     /**
-     * 检查索引是否已被使用
+     * 获取修改计数，用于判断命名自上次读取后是否变化
+     */
+    public long getModCount() {
+        return modCount;
+    }
+
+    /**
+     * 已命名点的访问器
      */
-    private boolean isIndexUsed(int index) {
-        String name = generateName(index);
-        return nameToIndexMap.containsKey(name);
+    @FunctionalInterface
+    public interface NameVisitor {
+        void visit(double x, double y, String name);
     }
 }
@@ -0,0 +1,705 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.constant.ShapeKind;
+import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import com.bingbaihanji.view.layout.draw.geometry.impl.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * 后台增量自动保存
+ * <p>
+ * 自动保存文件是由若干段组成的追加日志，每段为：长度（int）、内容、CRC32（int）。
+ * 段的内容依次为：MAGIC、序号（long）、标志（byte，FULL 表示完整场景）、视图变换、
+ * 名称表（-1 表示未变化）、新增或变化的图形记录、删除的图形标识。
+ * <p>
+ * {@link #save} 在 FX 线程上只比较图形版本，把变化的图形复制为不可变记录（几何数组的副本），
+ * 编码、写入与刷盘在后台线程上完成；两次保存之间没有变化时不写入。
+ * 第一次保存与写入失败后的下一次保存写入完整场景并替换整个文件；
+ * 增量段累积到一定数量或大小时，后台线程重放日志并整理为一个完整段。
+ * 崩溃时最后一段可能不完整，恢复时校验失败的段及其之后的内容被忽略
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public class SceneAutosave implements Closeable {
+
+    public static final String EXTENSION = "fxga";
+    public static final long DEFAULT_INTERVAL_MILLIS = 30_000;
+
+    private static final int MAGIC = 0x46584741; // "FXGA"
+    private static final byte FLAG_FULL = 1;
+    /**
+     * 上次整理后追加的增量段达到该数量时整理
+     */
+    private static final int COMPACT_SEGMENTS = 64;
+    /**
+     * 文件大小超过上次整理后大小的该倍数（且不小于 {@link #COMPACT_MIN_BYTES}）时整理
+     */
+    private static final int COMPACT_RATIO = 4;
+    private static final long COMPACT_MIN_BYTES = 1 << 20;
+    private static final ShapeKind[] KINDS = ShapeKind.values();
+
+    private final Path path;
+    private final long intervalMillis;
+    private final ExecutorService writer;
+
+    // 以下字段只在 FX 线程（调用 save 的线程）上访问
+    /**
+     * 已保存的图形标识到版本的映射
+     */
+    private final Map<Long, Long> savedVersions = new HashMap<>();
+    private long savedNameModCount = -1;
+    private double savedScale = Double.NaN;
+    private double savedOffsetX;
+    private double savedOffsetY;
+    private boolean fullPending = true;
+    private long sequence = 0;
+
+    /**
+     * 是否有保存正在后台写入
+     */
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+    private volatile IOException failure;
+    private volatile boolean failedSinceCapture = false;
+
+    // 以下字段只在写线程上访问
+    private long fileBytes = 0;
+    private long compactedBytes = 0;
+    private int segmentsSinceCompaction = 0;
+
+    // 统计
+    private volatile long lastCaptureNanos;
+    private volatile long lastWriteNanos;
+    private volatile long lastSaveBytes;
+    private final AtomicLong totalBytesWritten = new AtomicLong();
+    private final AtomicLong saveCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong compactionCount = new AtomicLong();
+
+    /**
+     * @param path           自动保存文件（第一次保存时覆盖）
+     * @param intervalMillis 保存间隔（毫秒），由调用方按该间隔调用 {@link #save}
+     */
+    public SceneAutosave(Path path, long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("自动保存间隔必须为正数：" + intervalMillis);
+        }
+        this.path = path;
+        this.intervalMillis = intervalMillis;
+        // Java 17 没有虚拟线程，使用单个守护线程
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "scene-autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 捕获自上次保存以来变化的图形并提交后台写入（在 FX 线程上调用）
+     * <p>
+     * 上一次保存尚未写完时跳过本次，变化留到下一次保存
+     *
+     * @param objects   当前场景中的图形（按绘制顺序）
+     * @param transform 当前视图变换
+     * @return 是否提交了写入
+     */
+    public boolean save(List<WorldObject> objects, WorldTransform transform) {
+        if (!inFlight.compareAndSet(false, true)) {
+            skippedCount.incrementAndGet();
+            return false;
+        }
+        long start = System.nanoTime();
+        if (failedSinceCapture) {
+            // 上次写入失败，已提交的变化可能丢失，重新写入完整场景
+            failedSinceCapture = false;
+            fullPending = true;
+        }
+        boolean full = fullPending;
+        if (full) {
+            savedVersions.clear();
+        }
+
+        List<Record> upserts = new ArrayList<>();
+        int matched = 0;
+        for (WorldObject object : objects) {
+            if (!WorldObjectCodec.isSupported(object)) {
+                continue;
+            }
+            Long saved = savedVersions.get(object.getId());
+            if (saved != null) {
+                matched++;
+                if (saved == object.getVersion()) {
+                    continue;
+                }
+            }
+            upserts.add(Record.capture(object));
+        }
+
+        long[] removed = new long[0];
+        int previousCount = savedVersions.size();
+        if (matched != previousCount) {
+            // 有图形被删除：找出已保存但不再存在的标识
+            Set<Long> present = new HashSet<>(objects.size() * 2);
+            for (WorldObject object : objects) {
+                present.add(object.getId());
+            }
+            removed = savedVersions.keySet().stream()
+                    .filter(id -> !present.contains(id))
+                    .mapToLong(Long::longValue)
+                    .toArray();
+        }
+
+        PointNameManager names = PointNameManager.getInstance();
+        NameTable nameTable = full || names.getModCount() != savedNameModCount ? NameTable.capture(names) : null;
+        boolean transformChanged = transform.getScale() != savedScale
+                || transform.getOffsetX() != savedOffsetX
+                || transform.getOffsetY() != savedOffsetY;
+
+        if (!full && upserts.isEmpty() && removed.length == 0 && nameTable == null && !transformChanged) {
+            inFlight.set(false);
+            lastCaptureNanos = System.nanoTime() - start;
+            return false;
+        }
+
+        // 记录已捕获的状态（写入失败时下一次保存改写完整场景）
+        for (Record record : upserts) {
+            savedVersions.put(record.id(), record.version());
+        }
+        for (long id : removed) {
+            savedVersions.remove(id);
+        }
+        savedNameModCount = names.getModCount();
+        savedScale = transform.getScale();
+        savedOffsetX = transform.getOffsetX();
+        savedOffsetY = transform.getOffsetY();
+        fullPending = false;
+
+        Segment segment = new Segment(++sequence, full, savedScale, savedOffsetX, savedOffsetY,
+                nameTable, upserts, removed);
+        lastCaptureNanos = System.nanoTime() - start;
+        writer.execute(() -> write(segment));
+        return true;
+    }
+
+    /**
+     * 等待已提交的保存写完
+     *
+     * @throws IOException 后台写入失败
+     */
+    public void flush() throws IOException {
+        try {
+            writer.submit(() -> {
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * 等待已提交的保存写完并停止后台线程
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * 自动保存间隔（毫秒）
+     */
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * 最近一次保存写入的字节数（整理时为整理后的文件大小）
+     */
+    public long getLastSaveBytes() {
+        return lastSaveBytes;
+    }
+
+    /**
+     * 累计写入的字节数（含整理）
+     */
+    public long getTotalBytesWritten() {
+        return totalBytesWritten.get();
+    }
+
+    /**
+     * 已写入的保存次数
+     */
+    public long getSaveCount() {
+        return saveCount.get();
+    }
+
+    /**
+     * 因上一次保存尚未写完而跳过的次数
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    public long getCompactionCount() {
+        return compactionCount.get();
+    }
+
+    /**
+     * 最近一次在 FX 线程上捕获变化的耗时（纳秒）
+     */
+    public long getLastCaptureNanos() {
+        return lastCaptureNanos;
+    }
+
+    /**
+     * 最近一次后台编码、写入与刷盘的耗时（纳秒）
+     */
+    public long getLastWriteNanos() {
+        return lastWriteNanos;
+    }
+
+    /**
+     * 最近一次写入失败的原因，没有失败时为 null
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * 写入一段（写线程）
+     */
+    private void write(Segment segment) {
+        long start = System.nanoTime();
+        try {
+            ByteBuffer bytes = frame(segment);
+            int size = bytes.remaining();
+            if (segment.full()) {
+                replaceFile(bytes);
+                compactedBytes = size;
+                segmentsSinceCompaction = 0;
+            } else {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND)) {
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                    channel.force(false);
+                }
+                fileBytes += size;
+                segmentsSinceCompaction++;
+            }
+            lastSaveBytes = size;
+            totalBytesWritten.addAndGet(size);
+            saveCount.incrementAndGet();
+            failure = null;
+
+            if (segmentsSinceCompaction >= COMPACT_SEGMENTS
+                    || fileBytes > Math.max(COMPACT_MIN_BYTES, compactedBytes * COMPACT_RATIO)) {
+                compact();
+            }
+        } catch (IOException | RuntimeException e) {
+            failure = e instanceof IOException io ? io : new IOException(e);
+            failedSinceCapture = true;
+        } finally {
+            lastWriteNanos = System.nanoTime() - start;
+            inFlight.set(false);
+        }
+    }
+
+    /**
+     * 重放日志并整理为一个完整段（写线程）
+     */
+    private void compact() throws IOException {
+        State state = replay(path);
+        if (state == null) {
+            return;
+        }
+        Segment segment = new Segment(state.sequence, true, state.scale, state.offsetX, state.offsetY,
+                state.names, new ArrayList<>(state.objects.values()), new long[0]);
+        ByteBuffer bytes = frame(segment);
+        int size = bytes.remaining();
+        replaceFile(bytes);
+        compactedBytes = size;
+        segmentsSinceCompaction = 0;
+        totalBytesWritten.addAndGet(size);
+        compactionCount.incrementAndGet();
+    }
+
+    /**
+     * 写入临时文件并刷盘后替换自动保存文件
+     */
+    private void replaceFile(ByteBuffer bytes) throws IOException {
+        int size = bytes.remaining();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        fileBytes = size;
+    }
+
+    /**
+     * 从自动保存文件恢复场景，点名称管理器被替换为保存的名称表
+     *
+     * @param path 自动保存文件
+     * @return 场景内容；文件不存在或没有完整的段时返回 null
+     */
+    public static SceneFile.Contents recover(Path path) throws IOException {
+        State state = replay(path);
+        if (state == null) {
+            return null;
+        }
+        // 名称在重放时已经校验，清空后恢复不会中途失败
+        PointNameManager names = PointNameManager.getInstance();
+        names.clear();
+        if (state.names != null) {
+            for (int i = 0; i < state.names.names.length; i++) {
+                names.restoreName(state.names.xs[i], state.names.ys[i], state.names.names[i]);
+            }
+        }
+        List<WorldObject> objects = new ArrayList<>(state.objects.size());
+        for (Record record : state.objects.values()) {
+            objects.add(record.create());
+        }
+        return new SceneFile.Contents(objects, state.scale, state.offsetX, state.offsetY);
+    }
+
+    /**
+     * 按顺序重放所有完整的段
+     */
+    private static State replay(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("自动保存文件过大：" + size);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        State state = null;
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= 8) {
+            int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining() - 4) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            buffer.position(buffer.position() + length);
+            if (buffer.getInt() != (int) crc.getValue()) {
+                break;
+            }
+            try {
+                state = apply(state, payload);
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IOException("自动保存文件已损坏：" + path, e);
+            }
+        }
+        return state;
+    }
+
+    private static State apply(State state, ByteBuffer in) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("不是自动保存文件");
+        }
+        long sequence = in.getLong();
+        boolean full = (in.get() & FLAG_FULL) != 0;
+        if (state == null && !full) {
+            throw new IOException("自动保存文件缺少完整场景");
+        }
+        if (full) {
+            state = new State();
+        }
+        state.sequence = sequence;
+        state.scale = in.getDouble();
+        state.offsetX = in.getDouble();
+        state.offsetY = in.getDouble();
+        NameTable names = NameTable.read(in);
+        if (names != null) {
+            state.names = names;
+        }
+        int upsertCount = in.getInt();
+        for (int i = 0; i < upsertCount; i++) {
+            Record record = Record.read(in);
+            // 已有的图形原位更新，保持绘制顺序
+            state.objects.put(record.id(), record);
+        }
+        int removeCount = in.getInt();
+        for (int i = 0; i < removeCount; i++) {
+            state.objects.remove(in.getLong());
+        }
+        return state;
+    }
+
+    /**
+     * 编码一段：长度、内容、CRC32
+     */
+    private static ByteBuffer frame(Segment segment) {
+        int size = 4 + 8 + 1 + 24 + NameTable.encodedSize(segment.names()) + 4 + 4 + segment.removed().length * 8;
+        for (Record record : segment.upserts()) {
+            size += record.encodedSize();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(4 + size + 4);
+        buffer.putInt(size);
+        buffer.putInt(MAGIC);
+        buffer.putLong(segment.sequence());
+        buffer.put(segment.full() ? FLAG_FULL : 0);
+        buffer.putDouble(segment.scale());
+        buffer.putDouble(segment.offsetX());
+        buffer.putDouble(segment.offsetY());
+        NameTable.write(buffer, segment.names());
+        buffer.putInt(segment.upserts().size());
+        for (Record record : segment.upserts()) {
+            record.write(buffer);
+        }
+        buffer.putInt(segment.removed().length);
+        for (long id : segment.removed()) {
+            buffer.putLong(id);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 4, size);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * 一次保存的内容
+     */
+    private record Segment(long sequence, boolean full, double scale, double offsetX, double offsetY,
+                           NameTable names, List<Record> upserts, long[] removed) {
+    }
+
+    /**
+     * 重放得到的场景（图形按首次出现的顺序排列）
+     */
+    private static final class State {
+        private final LinkedHashMap<Long, Record> objects = new LinkedHashMap<>();
+        private NameTable names;
+        private long sequence;
+        private double scale;
+        private double offsetX;
+        private double offsetY;
+    }
+
+    /**
+     * 名称表的副本
+     */
+    private record NameTable(double[] xs, double[] ys, String[] names) {
+
+        static NameTable capture(PointNameManager manager) {
+            int count = manager.getNamedPointCount();
+            double[] xs = new double[count];
+            double[] ys = new double[count];
+            String[] names = new String[count];
+            int[] index = {0};
+            manager.forEachName((x, y, name) -> {
+                int i = index[0]++;
+                xs[i] = x;
+                ys[i] = y;
+                names[i] = name;
+            });
+            return new NameTable(xs, ys, names);
+        }
+
+        static int encodedSize(NameTable table) {
+            if (table == null) {
+                return 4;
+            }
+            int size = 4;
+            for (String name : table.names) {
+                size += 16 + 4 + utf8(name).length;
+            }
+            return size;
+        }
+
+        static void write(ByteBuffer buffer, NameTable table) {
+            if (table == null) {
+                buffer.putInt(-1);
+                return;
+            }
+            buffer.putInt(table.names.length);
+            for (int i = 0; i < table.names.length; i++) {
+                buffer.putDouble(table.xs[i]).putDouble(table.ys[i]);
+                putString(buffer, utf8(table.names[i]));
+            }
+        }
+
+        static NameTable read(ByteBuffer buffer) {
+            int count = buffer.getInt();
+            if (count < 0) {
+                return null;
+            }
+            if (count > buffer.remaining() / 20) {
+                throw new IllegalArgumentException("名称数量无效：" + count);
+            }
+            double[] xs = new double[count];
+            double[] ys = new double[count];
+            String[] names = new String[count];
+            for (int i = 0; i < count; i++) {
+                xs[i] = buffer.getDouble();
+                ys[i] = buffer.getDouble();
+                names[i] = getString(buffer);
+                if (!PointNameManager.isValidName(names[i])) {
+                    throw new IllegalArgumentException("无效的点名称：" + names[i]);
+                }
+            }
+            return new NameTable(xs, ys, names);
+        }
+    }
+
+    /**
+     * 图形的不可变副本：标识、版本、类型、几何数据（圆包含半径）、颜色与名称（仅点）
+     */
+    private record Record(long id, long version, ShapeKind kind, double[] data, int argb, String name) {
+
+        static Record capture(WorldObject object) {
+            ShapeKind kind = object.kind();
+            return switch (kind) {
+                case POINT -> {
+                    PointGeo point = (PointGeo) object;
+                    yield new Record(point.getId(), point.getVersion(), kind, new double[]{point.getX(), point.getY()},
+                            WorldObjectCodec.toArgb(point.getColor()), point.getName());
+                }
+                case CIRCLE -> {
+                    CircleGeo circle = (CircleGeo) object;
+                    yield new Record(circle.getId(), circle.getVersion(), kind,
+                            new double[]{circle.getCx(), circle.getCy(), circle.getR()}, 0, null);
+                }
+                // 坐标数组每次返回新的副本，延迟加载的折线直接从映射区域读取
+                default -> new Record(object.getId(), object.getVersion(), kind, object.getCoordinates(), 0, null);
+            };
+        }
+
+        int encodedSize() {
+            byte[] nameBytes = utf8(name);
+            return 8 + 1 + 4 + data.length * 8 + 4 + 4 + (nameBytes != null ? nameBytes.length : 0);
+        }
+
+        void write(ByteBuffer buffer) {
+            buffer.putLong(id);
+            buffer.put((byte) kind.ordinal());
+            buffer.putInt(data.length);
+            for (double value : data) {
+                buffer.putDouble(value);
+            }
+            buffer.putInt(argb);
+            putString(buffer, utf8(name));
+        }
+
+        static Record read(ByteBuffer buffer) {
+            long id = buffer.getLong();
+            int ordinal = buffer.get();
+            if (ordinal < 0 || ordinal >= KINDS.length) {
+                throw new IllegalArgumentException("未知的图形类型：" + ordinal);
+            }
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining() / 8) {
+                throw new IllegalArgumentException("坐标数量无效：" + length);
+            }
+            double[] data = new double[length];
+            buffer.asDoubleBuffer().get(data);
+            buffer.position(buffer.position() + length * 8);
+            int argb = buffer.getInt();
+            String name = getString(buffer);
+            return new Record(id, 0, KINDS[ordinal], data, argb, name);
+        }
+
+        /**
+         * 按记录重新构造图形（名称表需已恢复）
+         */
+        WorldObject create() {
+            return switch (kind) {
+                case POINT -> {
+                    PointGeo point = new PointGeo(data[0], data[1], false);
+                    point.setColor(WorldObjectCodec.fromArgb(argb));
+                    point.setName(name);
+                    yield point;
+                }
+                case LINE -> new LineGeo(data[0], data[1], data[2], data[3]);
+                case INFINITE_LINE -> new InfiniteLineGeo(data[0], data[1], data[2], data[3]);
+                case CIRCLE -> new CircleGeo(data[0], data[1], data[2]);
+                case POLYGON, PATH -> {
+                    double[] xs = new double[data.length / 2];
+                    double[] ys = new double[data.length / 2];
+                    for (int i = 0; i < xs.length; i++) {
+                        xs[i] = data[i * 2];
+                        ys[i] = data[i * 2 + 1];
+                    }
+                    yield kind == ShapeKind.POLYGON ? new PolygonGeo(xs, ys) : new PathGeo(xs, ys);
+                }
+                default -> throw new IllegalArgumentException("不支持的图形类型：" + kind);
+            };
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.constant.ShapeKind;
+import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import com.bingbaihanji.view.layout.draw.geometry.impl.LazyPolylineGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.PathGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.PointGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.PolygonGeo;
+import javafx.geometry.Rectangle2D;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 场景文件（二进制，带版本号）
+ * <p>
+ * 文件格式（大端序，double 均为 8 字节）：
+ * <ul>
+ *     <li>文件头：魔数（int）、版本号（int）</li>
+ *     <li>视图变换：缩放比例、原点的屏幕偏移 X、Y</li>
+ *     <li>点名称表：数量（int），每项为坐标 X、Y 与名称</li>
+ *     <li>图形：数量（int），每个图形按 {@link WorldObjectCodec} 的格式编码；
+ *     点额外保存自己的名称，多边形、路径的顶点流式写入，不受缓冲区大小限制</li>
+ *     <li>文件尾：魔数（int），用于发现被截断的文件</li>
+ * </ul>
+ * 名称为长度（int，-1 表示没有名称）加 UTF-8 字节。
+ * 读写都直接在通道与一个固定大小的缓冲区之间进行，不构造中间对象；
+ * 读取时先解析整个文件并校验文件尾，再恢复点名称表、按原类型重新构造图形，图形因此得到与保存时相同的名称。
+ * 超大场景可以用 {@link #map(Path, int)} 映射读取，大型折线的顶点延迟到需要时才读入
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public final class SceneFile {
+
+    /**
+     * 场景文件扩展名
+     */
+    public static final String EXTENSION = "fxgs";
+
+    private static final int MAGIC = 0x46584753; // "FXGS"
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final ShapeKind[] KINDS = ShapeKind.values();
+
+    private SceneFile() {
+    }
+
+    /**
+     * 写入场景（先写入同目录下的临时文件，完成后替换目标文件）
+     * <p>
+     * 目标文件正被 {@link #map} 映射时，Windows 不允许替换它：应先对映射出的延迟图形调用
+     * {@link LazyPolylineGeo#detach()}，映射区域被回收之前替换仍可能失败，此时抛出异常且目标文件保持不变
+     *
+     * @param path      场景文件
+     * @param objects   图形（不支持编码的图形被跳过）
+     * @param transform 视图变换
+     */
+    public static void write(Path path, List<WorldObject> objects, WorldTransform transform) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.require(8 + 24).putInt(MAGIC).putInt(VERSION)
+                    .putDouble(transform.getScale())
+                    .putDouble(transform.getOffsetX())
+                    .putDouble(transform.getOffsetY());
+            writeNames(out, PointNameManager.getInstance());
+
+            int count = 0;
+            for (WorldObject object : objects) {
+                if (WorldObjectCodec.isSupported(object)) {
+                    count++;
+                }
+            }
+            out.require(4).putInt(count);
+            for (WorldObject object : objects) {
+                if (WorldObjectCodec.isSupported(object)) {
+                    writeObject(out, object);
+                }
+            }
+            out.require(4).putInt(MAGIC);
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * 读取场景
+     * <p>
+     * 文件完整时点名称管理器被替换为文件中保存的名称表，文件损坏时保持不变
+     *
+     * @param path 场景文件
+     * @return 场景内容
+     * @throws IOException 文件不是场景文件、版本不支持或内容不完整
+     */
+    public static Contents read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readContents(path, new Input(channel), channel.size(), Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * 以内存映射方式读取场景：顶点数不少于 lazyVertexThreshold 的多边形、手绘路径只记录包围盒与顶点在文件中的位置，
+     * 读取为 {@link LazyPolylineGeo}，在进入视口、被命中测试或参与求交时才读入顶点
+     * <p>
+     * 映射在所有延迟图形被回收之前一直有效，期间不应在原位修改该文件。
+     * Linux、macOS 上 {@link #write} 可以直接替换该文件（映射仍指向旧文件的内容）；
+     * Windows 不允许替换被映射的文件，覆盖保存前应先对延迟图形调用 {@link LazyPolylineGeo#detach()}
+     *
+     * @param path                场景文件
+     * @param lazyVertexThreshold 延迟读取的最小顶点数
+     * @return 场景内容
+     * @throws IOException 文件不是场景文件、版本不支持、内容不完整或超过 2 GB
+     */
+    public static Contents map(Path path, int lazyVertexThreshold) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("场景文件过大，无法映射：" + size);
+            }
+            // 映射在通道关闭后仍然有效
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return readContents(path, new Input(mapped), size, lazyVertexThreshold);
+        }
+    }
+
+    private static Contents readContents(Path path, Input in, long fileSize, int lazyVertexThreshold)
+            throws IOException {
+        ByteBuffer header = in.require(8 + 24);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("不是场景文件：" + path);
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("不支持的场景文件版本：" + version);
+        }
+        double scale = header.getDouble();
+        double offsetX = header.getDouble();
+        double offsetY = header.getDouble();
+
+        try {
+            // 先完整解析并校验文件尾，再替换点名称表、构造图形，损坏的文件不会影响当前场景的命名
+            NameTable names = readNames(in, fileSize);
+            int count = checkCount(in.require(4).getInt(), 1, fileSize);
+            List<Supplier<WorldObject>> factories = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                factories.add(readObject(in, fileSize, lazyVertexThreshold));
+            }
+            if (in.require(4).getInt() != MAGIC) {
+                throw new IOException("场景文件已损坏：" + path);
+            }
+            names.apply(PointNameManager.getInstance());
+            List<WorldObject> objects = new ArrayList<>(count);
+            for (Supplier<WorldObject> factory : factories) {
+                objects.add(factory.get());
+            }
+            return new Contents(objects, scale, offsetX, offsetY);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("场景文件已损坏：" + path, e);
+        }
+    }
+
+    private static void writeNames(Output out, PointNameManager names) throws IOException {
+        out.require(4).putInt(names.getNamedPointCount());
+        try {
+            names.forEachName((x, y, name) -> {
+                try {
+                    out.require(16).putDouble(x).putDouble(y);
+                    writeString(out, name);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static NameTable readNames(Input in, long fileSize) throws IOException {
+        int count = checkCount(in.require(4).getInt(), 16, fileSize);
+        NameTable names = new NameTable(new double[count], new double[count], new String[count]);
+        for (int i = 0; i < count; i++) {
+            ByteBuffer buffer = in.require(16);
+            names.xs()[i] = buffer.getDouble();
+            names.ys()[i] = buffer.getDouble();
+            String name = readString(in, fileSize);
+            if (name != null && !PointNameManager.isValidName(name)) {
+                throw new IOException("场景文件已损坏：无效的点名称 " + name);
+            }
+            names.names()[i] = name;
+        }
+        return names;
+    }
+
+    private static void writeObject(Output out, WorldObject object) throws IOException {
+        ShapeKind kind = object.kind();
+        switch (kind) {
+            case POINT -> {
+                PointGeo point = (PointGeo) object;
+                out.require(1 + 16 + 4).put((byte) kind.ordinal())
+                        .putDouble(point.getX())
+                        .putDouble(point.getY())
+                        .putInt(WorldObjectCodec.toArgb(point.getColor()));
+                writeString(out, point.getName());
+            }
+            case POLYGON, PATH -> {
+                int count = object.getCoordinateCount();
+                out.require(1 + 4).put((byte) kind.ordinal()).putInt(count / 2);
+                out.putCoordinates(object, count);
+            }
+            default -> WorldObjectCodec.write(out.require(WorldObjectCodec.encodedSize(object)), object);
+        }
+    }
+
+    /**
+     * 解析一个图形，返回在点名称表恢复之后构造它的工厂（图形构造时按坐标分配名称）
+     */
+    private static Supplier<WorldObject> readObject(Input in, long fileSize, int lazyVertexThreshold)
+            throws IOException {
+        ByteBuffer buffer = in.require(1);
+        int ordinal = buffer.get(buffer.position());
+        if (ordinal < 0 || ordinal >= KINDS.length) {
+            throw new IOException("未知的图形类型：" + ordinal);
+        }
+        ShapeKind kind = KINDS[ordinal];
+        switch (kind) {
+            case POINT -> {
+                buffer = in.require(1 + 16 + 4);
+                buffer.get();
+                double x = buffer.getDouble();
+                double y = buffer.getDouble();
+                int argb = buffer.getInt();
+                String name = readString(in, fileSize);
+                return () -> {
+                    PointGeo point = new PointGeo(x, y, false);
+                    point.setColor(WorldObjectCodec.fromArgb(argb));
+                    point.setName(name);
+                    return point;
+                };
+            }
+            case LINE, INFINITE_LINE -> {
+                return copyEncoded(in, 1 + 32);
+            }
+            case CIRCLE -> {
+                return copyEncoded(in, 1 + 24);
+            }
+            case POLYGON, PATH -> {
+                buffer = in.require(1 + 4);
+                buffer.get();
+                int count = checkCount(buffer.getInt(), 16, fileSize);
+                if (in.isMapped() && count >= lazyVertexThreshold) {
+                    ByteBuffer vertices = in.skip(count * 16);
+                    Rectangle2D bounds = boundsOf(vertices, count);
+                    return () -> new LazyPolylineGeo(kind, vertices, bounds);
+                }
+                double[] xs = new double[count];
+                double[] ys = new double[count];
+                in.getDoubles(xs, ys);
+                return () -> kind == ShapeKind.POLYGON ? new PolygonGeo(xs, ys) : new PathGeo(xs, ys);
+            }
+            default -> throw new IOException("不支持的图形类型：" + kind);
+        }
+    }
+
+    /**
+     * 复制按 {@link WorldObjectCodec} 编码的定长图形，延迟到名称表恢复后再解码
+     */
+    private static Supplier<WorldObject> copyEncoded(Input in, int n) throws IOException {
+        ByteBuffer source = in.require(n);
+        ByteBuffer encoded = ByteBuffer.allocate(n).put(source.slice(source.position(), n)).flip();
+        source.position(source.position() + n);
+        return () -> WorldObjectCodec.read(encoded);
+    }
+
+    private static void writeString(Output out, String value) throws IOException {
+        if (value == null) {
+            out.require(4).putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.require(4).putInt(bytes.length);
+        out.putBytes(bytes);
+    }
+
+    private static String readString(Input in, long fileSize) throws IOException {
+        int length = in.require(4).getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[checkCount(length, 1, fileSize)];
+        in.getBytes(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 交错存放的顶点的包围盒
+     */
+    private static Rectangle2D boundsOf(ByteBuffer vertices, int count) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            double x = vertices.getDouble(i * 16);
+            double y = vertices.getDouble(i * 16 + 8);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        return new Rectangle2D(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    /**
+     * 检查文件中记录的数量：不能为负，对应的数据也不能超过文件大小（避免按损坏的数量分配巨大数组）
+     */
+    private static int checkCount(int count, int bytesPerItem, long fileSize) throws IOException {
+        if (count < 0 || (long) count * bytesPerItem > fileSize) {
+            throw new IOException("场景文件已损坏：无效的数量 " + count);
+        }
+        return count;
+    }
+
+    /**
+     * 场景文件的内容
+     *
+     * @param objects 图形（按保存时的顺序）
+     * @param scale   视图缩放比例
+     * @param offsetX 世界原点的屏幕 X 坐标
+     * @param offsetY 世界原点的屏幕 Y 坐标
+     */
+    public record Contents(List<WorldObject> objects, double scale, double offsetX, double offsetY) {
+    }
+
+    /**
+     * 文件中保存的点名称表（校验通过后才替换点名称管理器中的名称）
+     */
+    private record NameTable(double[] xs, double[] ys, String[] names) {
+
+        void apply(PointNameManager manager) {
+            manager.clear();
+            for (int i = 0; i < names.length; i++) {
+                if (names[i] != null) {
+                    manager.restoreName(xs[i], ys[i], names[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 写缓冲区：空间不足时把已写内容写入通道
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final double[] chunk = new double[WorldObjectCodec.CHUNK_SIZE];
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * 保证缓冲区至少还有 n 字节空间（n 不超过缓冲区大小）
+         */
+        ByteBuffer require(int n) throws IOException {
+            if (buffer.remaining() < n) {
+                flush();
+            }
+            return buffer;
+        }
+
+        /**
+         * 经由固定大小的中转数组分块写出图形的坐标，不复制完整的坐标数组
+         */
+        void putCoordinates(WorldObject object, int count) throws IOException {
+            int offset = 0;
+            while (offset < count) {
+                int n = Math.min(Math.min(count - offset, chunk.length), require(8).remaining() / 8);
+                object.copyCoordinates(offset, chunk, 0, n);
+                buffer.asDoubleBuffer().put(chunk, 0, n);
+                buffer.position(buffer.position() + n * 8);
+                offset += n;
+            }
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                int n = Math.min(bytes.length - offset, require(1).remaining());
+                buffer.put(bytes, offset, n);
+                offset += n;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * 读缓冲区：剩余数据不足时从通道补充；以映射方式读取时缓冲区就是整个文件
+     */
+    private static final class Input {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        Input(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.limit(0);
+        }
+
+        Input(ByteBuffer mapped) {
+            this.channel = null;
+            this.buffer = mapped;
+        }
+
+        boolean isMapped() {
+            return channel == null;
+        }
+
+        /**
+         * 跳过 n 字节并返回它们的视图（只用于映射方式）
+         */
+        ByteBuffer skip(int n) throws IOException {
+            if (buffer.remaining() < n) {
+                throw new EOFException("场景文件不完整");
+            }
+            ByteBuffer view = buffer.slice(buffer.position(), n);
+            buffer.position(buffer.position() + n);
+            return view;
+        }
+
+        /**
+         * 保证缓冲区至少还有 n 字节可读（n 不超过缓冲区大小）
+         *
+         * @throws EOFException 文件提前结束
+         */
+        ByteBuffer require(int n) throws IOException {
+            if (buffer.remaining() < n) {
+                if (channel == null) {
+                    throw new EOFException("场景文件不完整");
+                }
+                buffer.compact();
+                while (buffer.position() < n) {
+                    if (channel.read(buffer) < 0) {
+                        throw new EOFException("场景文件不完整");
+                    }
+                }
+                buffer.flip();
+            }
+            return buffer;
+        }
+
+        /**
+         * 读取交错存放的坐标（x1, y1, x2, y2, ...）
+         */
+        void getDoubles(double[] xs, double[] ys) throws IOException {
+            int i = 0;
+            while (i < xs.length) {
+                int end = Math.min(xs.length, i + require(16).remaining() / 16);
+                for (; i < end; i++) {
+                    xs[i] = buffer.getDouble();
+                    ys[i] = buffer.getDouble();
+                }
+            }
+        }
+
+        void getBytes(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                int n = Math.min(bytes.length - offset, require(1).remaining());
+                buffer.get(bytes, offset, n);
+                offset += n;
+            }
+        }
+    }
+}
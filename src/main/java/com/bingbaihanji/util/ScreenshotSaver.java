@@ -0,0 +1,117 @@
+package com.bingbaihanji.util;
+
+import javafx.concurrent.Task;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 后台截图保存
+ * <p>
+ * FX 线程只负责截图并把像素复制为数组，PNG 编码、压缩与写盘在单独的后台线程上完成，
+ * 通过 {@link Task} 报告进度并支持取消；取消或失败时删除临时文件，不会留下不完整的图片
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public final class ScreenshotSaver {
+
+    /**
+     * 每编码多少行报告一次进度
+     */
+    private static final int PROGRESS_ROWS = 64;
+
+    // Java 17 没有虚拟线程，使用单个守护线程，多次截图按顺序保存
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "screenshot-saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ScreenshotSaver() {
+    }
+
+    /**
+     * 进度监听
+     */
+    public interface ProgressListener {
+        void progress(long done, long total);
+    }
+
+    /**
+     * 在后台线程上把像素保存为 PNG
+     *
+     * @param argb   像素（ARGB，逐行存放，提交后不得再修改）
+     * @param width  宽度（像素）
+     * @param height 高度（像素）
+     * @param target 目标文件
+     * @return 已提交的任务，完成时的值为目标文件，取消时为 null
+     */
+    public static Task<Path> save(int[] argb, int width, int height, Path target) {
+        Task<Path> task = new Task<>() {
+            @Override
+            protected Path call() throws IOException {
+                boolean completed = writePng(argb, width, height, target, this::updateProgress, this::isCancelled);
+                return completed ? target : null;
+            }
+        };
+        EXECUTOR.execute(task);
+        return task;
+    }
+
+    /**
+     * 把像素编码为 PNG 并写入文件（先写临时文件并同步到磁盘，完成后再替换目标文件）
+     *
+     * @param progress  进度监听（在当前线程上调用）
+     * @param cancelled 是否已取消，每编码一批行检查一次
+     * @return 是否完成；被取消时返回 false，目标文件保持不变
+     */
+    public static boolean writePng(int[] argb, int width, int height, Path target,
+                                   ProgressListener progress, BooleanSupplier cancelled) throws IOException {
+        if (argb.length < (long) width * height) {
+            throw new IllegalArgumentException("像素数量不足：" + argb.length + " < " + width + "×" + height);
+        }
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        boolean completed = false;
+        try {
+            PngStreamWriter png = new PngStreamWriter(
+                    new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16), width, height, true);
+            try {
+                for (int y = 0; y < height; y++) {
+                    if (y % PROGRESS_ROWS == 0) {
+                        if (cancelled.getAsBoolean()) {
+                            png.abort();
+                            return false;
+                        }
+                        progress.progress(y, height);
+                    }
+                    png.writeRow(argb, y * width);
+                }
+                png.close();
+            } catch (IOException | RuntimeException e) {
+                png.abort();
+                throw e;
+            }
+            // 替换目标文件前先同步到磁盘，避免断电后留下空文件
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            progress.progress(height, height);
+            completed = true;
+            return true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
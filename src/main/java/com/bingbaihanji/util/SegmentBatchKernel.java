@@ -0,0 +1,134 @@
+package com.bingbaihanji.util;
+
+/**
+ * 批量线段求交内核
+ * <p>
+ * 一条查询线段（或无限直线）与折线的全部边求交。折线顶点以 SoA 形式（xs、ys 两个数组）存放，
+ * 按顺序对每条边做浮点方向过滤：方向用比较结果算出，候选条件用乘积与 {@link Math#max} 合成，过滤本身没有分支；
+ * 顶点相对查询直线的方向由相邻两条边共用，只计算一次。
+ * 在误差上界内确定不相交的边被排除；四个方向都确定且两两异号的边一定严格相交，直接计算交点，
+ * 不再重复 orient2d；其余候选边（共线、端点接触或方向无法确定）调用 {@link IntersectionUtils} 的精确求交，
+ * 因此结果与标量版本逐位相同
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public final class SegmentBatchKernel {
+
+    private SegmentBatchKernel() {
+    }
+
+    /**
+     * 点 c 相对有向直线 a→b 的方向的浮点过滤结果（与 orient2d 的快速路径使用相同的误差上界）
+     *
+     * @return 1 或 -1 表示方向确定，0 表示共线或在误差范围内无法确定
+     */
+    private static int side(double ax, double ay, double bx, double by, double cx, double cy) {
+        double detLeft = (ax - cx) * (by - cy);
+        double detRight = (ay - cy) * (bx - cx);
+        double det = detLeft - detRight;
+        double errBound = GeometryPredicates.CCW_ERRBOUND * (Math.abs(detLeft) + Math.abs(detRight));
+        return (det > errBound ? 1 : 0) - (-det > errBound ? 1 : 0);
+    }
+
+    /**
+     * 查询线段与折线所有边求交（临时数组由本方法分配）
+     *
+     * @see #intersectSegment(double, double, double, double, double[], double[], int, boolean, double[], PointBuffer)
+     */
+    public static void intersectSegment(double qx1, double qy1, double qx2, double qy2,
+                                        double[] xs, double[] ys, int vertexCount, boolean closed,
+                                        PointBuffer out) {
+        intersectSegment(qx1, qy1, qx2, qy2, xs, ys, vertexCount, closed,
+                new double[IntersectionUtils.SCRATCH_SIZE], out);
+    }
+
+    /**
+     * 查询线段与折线所有边求交
+     * <p>
+     * 边 i 为 (xs[i], ys[i]) - (xs[i + 1], ys[i + 1])，闭合时另有最后一个顶点到第一个顶点的边；
+     * 交点与 {@code intersectSegments(边, 查询线段)} 相同
+     *
+     * @param vertexCount 顶点数量
+     * @param closed      是否闭合
+     * @param hits        临时数组，长度至少为 {@link IntersectionUtils#SCRATCH_SIZE}，只由调用线程使用
+     * @param out         交点输出（按边的顺序追加）
+     */
+    public static void intersectSegment(double qx1, double qy1, double qx2, double qy2,
+                                        double[] xs, double[] ys, int vertexCount, boolean closed,
+                                        double[] hits, PointBuffer out) {
+        int edges = vertexCount - 1;
+        int previous = edges > 0 ? side(qx1, qy1, qx2, qy2, xs[0], ys[0]) : 0;
+        for (int i = 0; i < edges; i++) {
+            double ax = xs[i];
+            double ay = ys[i];
+            double bx = xs[i + 1];
+            double by = ys[i + 1];
+            int next = side(qx1, qy1, qx2, qy2, bx, by);
+            // 边的两端相对查询直线、查询线段两端相对边所在直线的方向之积：-1 异侧，0 不确定，1 同侧
+            int edgeSides = previous * next;
+            int querySides = side(ax, ay, bx, by, qx1, qy1) * side(ax, ay, bx, by, qx2, qy2);
+            previous = next;
+            if (Math.max(edgeSides, querySides) <= 0) {
+                out.add(hits, edgeSides + querySides == -2
+                        ? IntersectionUtils.crossingPoint(ax, ay, bx, by, qx1, qy1, qx2, qy2, hits)
+                        : IntersectionUtils.intersectSegments(ax, ay, bx, by, qx1, qy1, qx2, qy2, hits));
+            }
+        }
+
+        if (closed && vertexCount > 1) {
+            int last = vertexCount - 1;
+            out.add(hits, IntersectionUtils.intersectSegments(xs[last], ys[last], xs[0], ys[0],
+                    qx1, qy1, qx2, qy2, hits));
+        }
+    }
+
+    /**
+     * 无限直线与折线所有边求交（临时数组由本方法分配）
+     *
+     * @see #intersectLine(double, double, double, double, double[], double[], int, boolean, double[], PointBuffer)
+     */
+    public static void intersectLine(double lx1, double ly1, double lx2, double ly2,
+                                     double[] xs, double[] ys, int vertexCount, boolean closed,
+                                     PointBuffer out) {
+        intersectLine(lx1, ly1, lx2, ly2, xs, ys, vertexCount, closed,
+                new double[IntersectionUtils.SCRATCH_SIZE], out);
+    }
+
+    /**
+     * 过 (lx1, ly1)、(lx2, ly2) 的无限直线与折线所有边求交
+     * <p>
+     * 交点与 {@code intersectLineSegment(直线, 边)} 相同
+     *
+     * @param vertexCount 顶点数量
+     * @param closed      是否闭合
+     * @param hits        临时数组，长度至少为 {@link IntersectionUtils#SCRATCH_SIZE}，只由调用线程使用
+     * @param out         交点输出（按边的顺序追加）
+     */
+    public static void intersectLine(double lx1, double ly1, double lx2, double ly2,
+                                     double[] xs, double[] ys, int vertexCount, boolean closed,
+                                     double[] hits, PointBuffer out) {
+        int edges = vertexCount - 1;
+        int previous = edges > 0 ? side(lx1, ly1, lx2, ly2, xs[0], ys[0]) : 0;
+        for (int i = 0; i < edges; i++) {
+            double ax = xs[i];
+            double ay = ys[i];
+            double bx = xs[i + 1];
+            double by = ys[i + 1];
+            int next = side(lx1, ly1, lx2, ly2, bx, by);
+            int sides = previous * next;
+            previous = next;
+            if (sides <= 0) {
+                out.add(hits, sides < 0
+                        ? IntersectionUtils.lineCrossingPoint(lx1, ly1, lx2, ly2, ax, ay, bx, by, hits)
+                        : IntersectionUtils.intersectLineSegment(lx1, ly1, lx2, ly2, ax, ay, bx, by, hits));
+            }
+        }
+
+        if (closed && vertexCount > 1) {
+            int last = vertexCount - 1;
+            out.add(hits, IntersectionUtils.intersectLineSegment(lx1, ly1, lx2, ly2,
+                    xs[last], ys[last], xs[0], ys[0], hits));
+        }
+    }
+}
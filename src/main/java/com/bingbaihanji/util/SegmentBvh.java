@@ -0,0 +1,403 @@
+package com.bingbaihanji.util;
+
+import java.util.function.IntConsumer;
+
+/**
+ * 折线线段包围盒层次结构（BVH）
+ * <p>
+ * 对折线/多边形的所有线段按中点中位数递归二分，节点以扁平数组存储
+ * 用于命中测试、最近点查询以及交点计算时的线段级剪枝
+ * <p>
+ * 结构本身只读，直接引用图形的顶点数组；顶点变化后由图形丢弃并重新构建
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public final class SegmentBvh {
+
+    /**
+     * 叶子节点最多包含的线段数
+     */
+    private static final int LEAF_SIZE = 4;
+    /**
+     * 遍历栈深度（中位数划分保证树是平衡的）
+     */
+    private static final int STACK_DEPTH = 64;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int vertexCount;
+    private final boolean closed;
+    private final int segmentCount;
+
+    /**
+     * 节点包围盒
+     */
+    private final double[] nodeMinX;
+    private final double[] nodeMinY;
+    private final double[] nodeMaxX;
+    private final double[] nodeMaxY;
+    /**
+     * 叶子：order 中的起始位置；内部节点：左子节点索引（右子节点为 left + 1）
+     */
+    private final int[] nodeFirst;
+    /**
+     * 叶子：线段数量；内部节点：0
+     */
+    private final int[] nodeCount;
+    /**
+     * 按节点重排后的线段索引
+     */
+    private final int[] order;
+    private int nodeSize = 0;
+
+    private SegmentBvh(double[] xs, double[] ys, int vertexCount, boolean closed) {
+        this.xs = xs;
+        this.ys = ys;
+        this.vertexCount = vertexCount;
+        this.closed = closed;
+        this.segmentCount = vertexCount < 2 ? 0 : (closed ? vertexCount : vertexCount - 1);
+
+        int maxNodes = Math.max(1, 2 * segmentCount);
+        nodeMinX = new double[maxNodes];
+        nodeMinY = new double[maxNodes];
+        nodeMaxX = new double[maxNodes];
+        nodeMaxY = new double[maxNodes];
+        nodeFirst = new int[maxNodes];
+        nodeCount = new int[maxNodes];
+
+        order = new int[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            order[i] = i;
+        }
+
+        int root = nodeSize++;
+        build(root, 0, segmentCount);
+    }
+
+    /**
+     * 为折线构建 BVH
+     *
+     * @param xs          顶点X坐标
+     * @param ys          顶点Y坐标
+     * @param vertexCount 顶点数量
+     * @param closed      是否闭合（多边形最后一个顶点与第一个顶点相连）
+     * @return 构建好的 BVH
+     */
+    public static SegmentBvh build(double[] xs, double[] ys, int vertexCount, boolean closed) {
+        return new SegmentBvh(xs, ys, vertexCount, closed);
+    }
+
+    /**
+     * 计算点到线段的距离
+     */
+    public static double distanceToSegment(double px, double py,
+                                           double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSquared = dx * dx + dy * dy;
+
+        if (lengthSquared == 0) {
+            return Math.hypot(px - x1, py - y1);
+        }
+
+        double t = Math.max(0, Math.min(1, ((px - x1) * dx + (py - y1) * dy) / lengthSquared));
+        double nearestX = x1 + t * dx;
+        double nearestY = y1 + t * dy;
+
+        return Math.hypot(px - nearestX, py - nearestY);
+    }
+
+    /**
+     * 点到轴对齐矩形的距离（点在矩形内时为0）
+     */
+    private static double distanceToBox(double px, double py,
+                                        double minX, double minY, double maxX, double maxY) {
+        double dx = Math.max(0, Math.max(minX - px, px - maxX));
+        double dy = Math.max(0, Math.max(minY - py, py - maxY));
+        return Math.hypot(dx, dy);
+    }
+
+    /**
+     * 递归构建节点
+     *
+     * @param node  当前节点索引
+     * @param start order 中的起始位置（包含）
+     * @param end   order 中的结束位置（不包含）
+     */
+    private void build(int node, int start, int end) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = start; i < end; i++) {
+            int s = order[i];
+            int a = s;
+            int b = nextVertex(s);
+            minX = Math.min(minX, Math.min(xs[a], xs[b]));
+            minY = Math.min(minY, Math.min(ys[a], ys[b]));
+            maxX = Math.max(maxX, Math.max(xs[a], xs[b]));
+            maxY = Math.max(maxY, Math.max(ys[a], ys[b]));
+        }
+        nodeMinX[node] = minX;
+        nodeMinY[node] = minY;
+        nodeMaxX[node] = maxX;
+        nodeMaxY[node] = maxY;
+
+        int count = end - start;
+        if (count <= LEAF_SIZE) {
+            nodeFirst[node] = start;
+            nodeCount[node] = count;
+            return;
+        }
+
+        // 沿包围盒较长的轴，按线段中点的中位数划分
+        boolean splitX = (maxX - minX) >= (maxY - minY);
+        int mid = (start + end) >>> 1;
+        select(start, end - 1, mid, splitX);
+
+        int left = nodeSize;
+        nodeSize += 2;
+        nodeFirst[node] = left;
+        nodeCount[node] = 0;
+        build(left, start, mid);
+        build(left + 1, mid, end);
+    }
+
+    /**
+     * 快速选择：使 order[k] 处于按中点坐标排序后的位置
+     */
+    private void select(int lo, int hi, int k, boolean byX) {
+        while (hi > lo) {
+            double pivot = centroid(order[(lo + hi) >>> 1], byX);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (centroid(order[i], byX) < pivot) i++;
+                while (centroid(order[j], byX) > pivot) j--;
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 线段中点坐标（省略除以2，只用于比较）
+     */
+    private double centroid(int segment, boolean byX) {
+        int b = nextVertex(segment);
+        return byX ? xs[segment] + xs[b] : ys[segment] + ys[b];
+    }
+
+    private int nextVertex(int vertex) {
+        int next = vertex + 1;
+        return next == vertexCount ? 0 : next;
+    }
+
+    /**
+     * 是否存在到给定点距离小于容差的线段
+     */
+    public boolean anyWithin(double px, double py, double tolerance) {
+        if (segmentCount == 0) {
+            return false;
+        }
+        int[] stack = new int[STACK_DEPTH];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (distanceToBox(px, py, nodeMinX[node], nodeMinY[node], nodeMaxX[node], nodeMaxY[node]) >= tolerance) {
+                continue;
+            }
+            int count = nodeCount[node];
+            if (count == 0) {
+                stack[top++] = nodeFirst[node];
+                stack[top++] = nodeFirst[node] + 1;
+                continue;
+            }
+            int first = nodeFirst[node];
+            for (int i = first; i < first + count; i++) {
+                int s = order[i];
+                int b = nextVertex(s);
+                if (distanceToSegment(px, py, xs[s], ys[s], xs[b], ys[b]) < tolerance) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 查询折线上离给定点最近的点
+     *
+     * @param px  查询点X
+     * @param py  查询点Y
+     * @param out 输出数组，out[0]、out[1] 写入最近点坐标
+     * @return 最近距离；折线为空时返回 {@link Double#POSITIVE_INFINITY}
+     */
+    public double nearestPoint(double px, double py, double[] out) {
+        double best = Double.POSITIVE_INFINITY;
+        if (segmentCount == 0) {
+            return best;
+        }
+        int[] stack = new int[STACK_DEPTH];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (distanceToBox(px, py, nodeMinX[node], nodeMinY[node], nodeMaxX[node], nodeMaxY[node]) >= best) {
+                continue;
+            }
+            int count = nodeCount[node];
+            if (count == 0) {
+                int left = nodeFirst[node];
+                // 先压入较远的子节点，使较近的先出栈，尽早收紧 best
+                double dl = distanceToBox(px, py, nodeMinX[left], nodeMinY[left], nodeMaxX[left], nodeMaxY[left]);
+                double dr = distanceToBox(px, py, nodeMinX[left + 1], nodeMinY[left + 1], nodeMaxX[left + 1], nodeMaxY[left + 1]);
+                if (dl <= dr) {
+                    stack[top++] = left + 1;
+                    stack[top++] = left;
+                } else {
+                    stack[top++] = left;
+                    stack[top++] = left + 1;
+                }
+                continue;
+            }
+            int first = nodeFirst[node];
+            for (int i = first; i < first + count; i++) {
+                int s = order[i];
+                int b = nextVertex(s);
+                double x1 = xs[s];
+                double y1 = ys[s];
+                double dx = xs[b] - x1;
+                double dy = ys[b] - y1;
+                double lengthSquared = dx * dx + dy * dy;
+                double t = lengthSquared == 0 ? 0
+                        : Math.max(0, Math.min(1, ((px - x1) * dx + (py - y1) * dy) / lengthSquared));
+                double nx = x1 + t * dx;
+                double ny = y1 + t * dy;
+                double d = Math.hypot(px - nx, py - ny);
+                if (d < best) {
+                    best = d;
+                    out[0] = nx;
+                    out[1] = ny;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 遍历包围盒与给定矩形相交的所有线段
+     *
+     * @param minX    矩形最小X
+     * @param minY    矩形最小Y
+     * @param maxX    矩形最大X
+     * @param maxY    矩形最大Y
+     * @param visitor 线段索引回调
+     */
+    public void query(double minX, double minY, double maxX, double maxY, IntConsumer visitor) {
+        if (segmentCount == 0) {
+            return;
+        }
+        int[] stack = new int[STACK_DEPTH];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (nodeMaxX[node] < minX || nodeMinX[node] > maxX
+                    || nodeMaxY[node] < minY || nodeMinY[node] > maxY) {
+                continue;
+            }
+            int count = nodeCount[node];
+            if (count == 0) {
+                stack[top++] = nodeFirst[node];
+                stack[top++] = nodeFirst[node] + 1;
+                continue;
+            }
+            int first = nodeFirst[node];
+            for (int i = first; i < first + count; i++) {
+                int s = order[i];
+                int b = nextVertex(s);
+                if (Math.max(xs[s], xs[b]) < minX || Math.min(xs[s], xs[b]) > maxX
+                        || Math.max(ys[s], ys[b]) < minY || Math.min(ys[s], ys[b]) > maxY) {
+                    continue;
+                }
+                visitor.accept(s);
+            }
+        }
+    }
+
+    /**
+     * 线段数量
+     */
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    public double getStartX(int segment) {
+        return xs[segment];
+    }
+
+    public double getStartY(int segment) {
+        return ys[segment];
+    }
+
+    public double getEndX(int segment) {
+        return xs[nextVertex(segment)];
+    }
+
+    public double getEndY(int segment) {
+        return ys[nextVertex(segment)];
+    }
+
+    /**
+     * 顶点数组（只读，供批量求交内核直接访问）
+     */
+    double[] vertexXs() {
+        return xs;
+    }
+
+    double[] vertexYs() {
+        return ys;
+    }
+
+    int getVertexCount() {
+        return vertexCount;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 整体包围盒
+     */
+    public double getMinX() {
+        return nodeMinX[0];
+    }
+
+    public double getMinY() {
+        return nodeMinY[0];
+    }
+
+    public double getMaxX() {
+        return nodeMaxX[0];
+    }
+
+    public double getMaxY() {
+        return nodeMaxY[0];
+    }
+}
@@ -5,12 +5,9 @@ import com.bingbaihanji.view.layout.draw.geometry.impl.CircleGeo;
 import com.bingbaihanji.view.layout.draw.geometry.impl.InfiniteLineGeo;
 import com.bingbaihanji.view.layout.draw.geometry.impl.LineGeo;
 import com.bingbaihanji.view.layout.draw.geometry.impl.PointGeo;
-import javafx.geometry.Point2D;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * 特殊点管理器
@@ -20,94 +17,66 @@ public class SpecialPointManager {
 
     /**
      * 从现有的图形对象中提取所有特殊点
+     * <p>
+     * 重合的点（两个方向上的距离都不超过 {@link PointDeduplicator#DEFAULT_EPSILON}）只保留最先出现的一个
      *
      * @param objects 图形对象列表
      * @return 特殊点列表
      */
     public static List<SpecialPoint> extractSpecialPoints(List<WorldObject> objects) {
-        Set<SpecialPoint> specialPointsSet = new HashSet<>();
+        List<SpecialPoint> specialPoints = new ArrayList<>();
+        PointDeduplicator deduplicator = new PointDeduplicator();
 
         // 收集圆、线段端点和独立点
         for (WorldObject obj : objects) {
             if (obj instanceof CircleGeo circle) {
                 // 添加圆心点
-                specialPointsSet.add(new SpecialPoint(circle.getCx(), circle.getCy(), "CENTER"));
+                addSpecialPoint(specialPoints, deduplicator, circle.getCx(), circle.getCy(), "CENTER");
             } else if (obj instanceof LineGeo line) {
                 // 添加线段的两个端点
-                specialPointsSet.add(new SpecialPoint(line.getStartX(), line.getStartY(), "ENDPOINT"));
-                specialPointsSet.add(new SpecialPoint(line.getEndX(), line.getEndY(), "ENDPOINT"));
+                addSpecialPoint(specialPoints, deduplicator, line.getStartX(), line.getStartY(), "ENDPOINT");
+                addSpecialPoint(specialPoints, deduplicator, line.getEndX(), line.getEndY(), "ENDPOINT");
             } else if (obj instanceof InfiniteLineGeo infiniteLine) {
                 // 添加无限直线的两个定义点
-                specialPointsSet.add(new SpecialPoint(infiniteLine.getPoint1X(), infiniteLine.getPoint1Y(), "ENDPOINT"));
-                specialPointsSet.add(new SpecialPoint(infiniteLine.getPoint2X(), infiniteLine.getPoint2Y(), "ENDPOINT"));
+                addSpecialPoint(specialPoints, deduplicator, infiniteLine.getPoint1X(), infiniteLine.getPoint1Y(), "ENDPOINT");
+                addSpecialPoint(specialPoints, deduplicator, infiniteLine.getPoint2X(), infiniteLine.getPoint2Y(), "ENDPOINT");
             } else if (obj instanceof PointGeo point) {
-                // 添加点对象的坐标（包括交点）
-                specialPointsSet.add(new SpecialPoint(point.getX(), point.getY(), "INTERSECTION"));
+                // 添加独立点对象的坐标
+                addSpecialPoint(specialPoints, deduplicator, point.getX(), point.getY(), "INTERSECTION");
             }
         }
 
         // 计算并添加所有交点
-        // 注意：这里我们只添加通过计算得到的交点，不重复添加已经作为PointGeo存在的交点
+        // 注意：交点保存在派生点图层中，不再作为 PointGeo 存在，这里直接计算
         List<WorldObject> objectList = new ArrayList<>(objects);
+        PointBuffer intersections = new PointBuffer();
+        IntersectionCache cache = IntersectionCache.getInstance();
+        double[] hits = new double[IntersectionUtils.SCRATCH_SIZE];
         for (int i = 0; i < objectList.size(); i++) {
             WorldObject obj1 = objectList.get(i);
             for (int j = i + 1; j < objectList.size(); j++) {
                 WorldObject obj2 = objectList.get(j);
 
-                // 计算交点并添加到特殊点集合
-                List<Point2D> intersections = calculateIntersections(obj1, obj2);
-                for (Point2D point : intersections) {
-                    specialPointsSet.add(new SpecialPoint(point.getX(), point.getY(), "INTERSECTION"));
+                // 计算交点并添加到特殊点集合（未变化的图形对直接读缓存）
+                cache.intersect(obj1, obj2, hits, intersections);
+                for (int k = 0; k < intersections.size(); k++) {
+                    addSpecialPoint(specialPoints, deduplicator, intersections.getX(k), intersections.getY(k), "INTERSECTION");
                 }
+                intersections.clear();
             }
         }
 
-        // 转换为列表并返回
-        return new ArrayList<>(specialPointsSet);
+        return specialPoints;
     }
 
     /**
-     * 计算两个几何对象之间的交点
-     *
-     * @param obj1 第一个几何对象
-     * @param obj2 第二个几何对象
-     * @return 交点列表
+     * 与已有特殊点不重合时才创建并添加特殊点
      */
-    private static List<Point2D> calculateIntersections(WorldObject obj1, WorldObject obj2) {
-        List<Point2D> intersections = new ArrayList<>();
-
-        // 线段与线段的交点
-        if (obj1 instanceof LineGeo && obj2 instanceof LineGeo) {
-            intersections.addAll(IntersectionUtils.getLineLineIntersections((LineGeo) obj1, (LineGeo) obj2));
-        }
-        // 线段与圆的交点
-        else if (obj1 instanceof LineGeo && obj2 instanceof CircleGeo) {
-            intersections.addAll(IntersectionUtils.getLineCircleIntersections((LineGeo) obj1, (CircleGeo) obj2));
-        } else if (obj1 instanceof CircleGeo && obj2 instanceof LineGeo) {
-            intersections.addAll(IntersectionUtils.getLineCircleIntersections((LineGeo) obj2, (CircleGeo) obj1));
-        }
-        // 圆与圆的交点
-        else if (obj1 instanceof CircleGeo && obj2 instanceof CircleGeo) {
-            intersections.addAll(IntersectionUtils.getCircleCircleIntersections((CircleGeo) obj1, (CircleGeo) obj2));
+    private static void addSpecialPoint(List<SpecialPoint> specialPoints, PointDeduplicator deduplicator,
+                                        double x, double y, String type) {
+        if (deduplicator.add(x, y)) {
+            specialPoints.add(new SpecialPoint(x, y, type));
         }
-        // 无限直线与线段的交点
-        else if (obj1 instanceof InfiniteLineGeo && obj2 instanceof LineGeo) {
-            intersections.addAll(IntersectionUtils.getInfiniteLineLineIntersections((InfiniteLineGeo) obj1, (LineGeo) obj2));
-        } else if (obj1 instanceof LineGeo && obj2 instanceof InfiniteLineGeo) {
-            intersections.addAll(IntersectionUtils.getInfiniteLineLineIntersections((InfiniteLineGeo) obj2, (LineGeo) obj1));
-        }
-        // 无限直线与圆的交点
-        else if (obj1 instanceof InfiniteLineGeo && obj2 instanceof CircleGeo) {
-            intersections.addAll(IntersectionUtils.getInfiniteLineCircleIntersections((InfiniteLineGeo) obj1, (CircleGeo) obj2));
-        } else if (obj1 instanceof CircleGeo && obj2 instanceof InfiniteLineGeo) {
-            intersections.addAll(IntersectionUtils.getInfiniteLineCircleIntersections((InfiniteLineGeo) obj2, (CircleGeo) obj1));
-        }
-        // 无限直线与无限直线的交点
-        else if (obj1 instanceof InfiniteLineGeo && obj2 instanceof InfiniteLineGeo) {
-            intersections.addAll(IntersectionUtils.getInfiniteLineInfiniteLineIntersections((InfiniteLineGeo) obj1, (InfiniteLineGeo) obj2));
-        }
-
-        return intersections;
     }
 
     /**
@@ -165,16 +134,13 @@ public class SpecialPointManager {
             if (this == obj) return true;
             if (obj == null || getClass() != obj.getClass()) return false;
             SpecialPoint that = (SpecialPoint) obj;
-            // 考虑到浮点数精度问题，使用一个小的容差值进行比较
-            return Math.abs(that.x - x) < 1e-10 && Math.abs(that.y - y) < 1e-10;
+            // 精确比较，与 hashCode 保持一致；按容差合并重合点由 PointDeduplicator 负责
+            return Double.compare(that.x, x) == 0 && Double.compare(that.y, y) == 0;
         }
 
         @Override
         public int hashCode() {
-            // 为了处理浮点数精度问题，我们将坐标四舍五入到一定精度
-            long xBits = Double.doubleToLongBits(Math.round(x * 1e10) / 1e10);
-            long yBits = Double.doubleToLongBits(Math.round(y * 1e10) / 1e10);
-            return (int) (xBits * 31 + yBits);
+            return 31 * Double.hashCode(x) + Double.hashCode(y);
         }
     }
-}
\ No newline at end of file
+}
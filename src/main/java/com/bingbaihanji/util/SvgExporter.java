@@ -0,0 +1,116 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.SvgPaintable;
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import com.bingbaihanji.view.layout.draw.geometry.WorldPainter;
+import javafx.geometry.Rectangle2D;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * SVG 矢量图导出
+ * <p>
+ * 按画布的绘制顺序（背景绘制器、图形、叠加层）遍历，经 {@link SvgWriter} 直接流式写出，
+ * 不构建文档树；包围盒完全落在导出区域之外的图形被剔除，不写出任何元素
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public final class SvgExporter {
+
+    /**
+     * 剔除时在导出区域四周保留的边距（像素），保证区域边缘图形的端点与名称完整
+     */
+    private static final double CULL_MARGIN = 64;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private SvgExporter() {
+    }
+
+    /**
+     * 导出到文件
+     *
+     * @see #export(Writer, WorldTransform, double, double, List, List, List)
+     */
+    public static int export(Path path,
+                             WorldTransform transform,
+                             double width,
+                             double height,
+                             List<? extends WorldPainter> painters,
+                             List<? extends WorldObject> objects,
+                             List<? extends WorldPainter> overlays) throws IOException {
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            return export(writer, transform, width, height, painters, objects, overlays);
+        }
+    }
+
+    /**
+     * 导出到字符流
+     *
+     * @param out       输出（调用方负责缓冲与关闭）
+     * @param transform 导出使用的世界坐标变换，导出区域为该变换下的 [0, width] × [0, height]
+     * @param width     导出区域宽度（像素）
+     * @param height    导出区域高度（像素）
+     * @param painters  绘制在图形下方的绘制器（网格、坐标轴）
+     * @param objects   图形
+     * @param overlays  绘制在图形上方的绘制器（派生点）
+     * @return 实际写出的图形数量（不含被剔除的图形）
+     */
+    public static int export(Writer out,
+                             WorldTransform transform,
+                             double width,
+                             double height,
+                             List<? extends WorldPainter> painters,
+                             List<? extends WorldObject> objects,
+                             List<? extends WorldPainter> overlays) throws IOException {
+        SvgWriter svg = new SvgWriter(out);
+        svg.begin(width, height);
+        writePainters(svg, transform, width, height, painters);
+
+        // 导出区域（含边距）对应的世界坐标范围，世界 Y 轴向上
+        double margin = CULL_MARGIN / transform.getScale();
+        double minX = transform.screenToWorldX(0) - margin;
+        double maxX = transform.screenToWorldX(width) + margin;
+        double minY = transform.screenToWorldY(height) - margin;
+        double maxY = transform.screenToWorldY(0) + margin;
+
+        int exported = 0;
+        for (WorldObject object : objects) {
+            if (!(object instanceof SvgPaintable paintable)) {
+                continue;
+            }
+            Rectangle2D bounds = object.getBounds();
+            if (bounds != null && (bounds.getMaxX() < minX || bounds.getMinX() > maxX
+                    || bounds.getMaxY() < minY || bounds.getMinY() > maxY)) {
+                continue;
+            }
+            paintable.paintSvg(svg, transform, width, height);
+            exported++;
+        }
+
+        writePainters(svg, transform, width, height, overlays);
+        svg.end();
+        return exported;
+    }
+
+    private static void writePainters(SvgWriter svg,
+                                      WorldTransform transform,
+                                      double width,
+                                      double height,
+                                      List<? extends WorldPainter> painters) throws IOException {
+        for (WorldPainter painter : painters) {
+            if (painter instanceof SvgPaintable paintable) {
+                paintable.paintSvg(svg, transform, width, height);
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.bingbaihanji.util;
+
+import javafx.scene.paint.Color;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 流式 SVG 写出器
+ * <p>
+ * 元素直接写入 {@link Writer}，不构建文档树，内存占用与图形数量无关。
+ * 描边、填充等样式通过分组设置，组内元素继承；坐标统一保留两位小数，
+ * 折线中写出后与上一个顶点相同的顶点会被跳过
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public class SvgWriter {
+
+    /**
+     * 写出坐标的上限（像素），超出的坐标被截断，避免极端缩放下写出无意义的长数字
+     */
+    private static final double MAX_COORDINATE = 1e9;
+
+    private final Writer out;
+    private final char[] digits = new char[24];
+
+    private boolean polylineOpen = false;
+    private long lastX;
+    private long lastY;
+    private int polylineVertices;
+
+    public SvgWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * 写出文档头与白色背景
+     */
+    public void begin(double width, double height) throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"");
+        writeNumber(width);
+        out.write("\" height=\"");
+        writeNumber(height);
+        out.write("\" viewBox=\"0 0 ");
+        writeNumber(width);
+        out.write(' ');
+        writeNumber(height);
+        out.write("\" font-family=\"sans-serif\">\n");
+        out.write("<rect width=\"100%\" height=\"100%\" fill=\"#ffffff\"/>\n");
+    }
+
+    public void end() throws IOException {
+        out.write("</svg>\n");
+        out.flush();
+    }
+
+    /**
+     * 开始一个样式分组
+     *
+     * @param stroke      描边颜色，null 表示不描边
+     * @param fill        填充颜色，null 表示不填充
+     * @param strokeWidth 描边宽度
+     */
+    public void beginGroup(Color stroke, Color fill, double strokeWidth) throws IOException {
+        beginGroup(stroke, fill, strokeWidth, null);
+    }
+
+    /**
+     * 开始一个样式分组
+     *
+     * @param dashes 虚线的线段与间隔长度，null 表示实线
+     */
+    public void beginGroup(Color stroke, Color fill, double strokeWidth, double[] dashes) throws IOException {
+        out.write("<g");
+        writePaint(" stroke", stroke);
+        writePaint(" fill", fill);
+        if (stroke != null) {
+            out.write(" stroke-width=\"");
+            writeNumber(strokeWidth);
+            out.write('"');
+        }
+        if (dashes != null && dashes.length > 0) {
+            out.write(" stroke-dasharray=\"");
+            for (int i = 0; i < dashes.length; i++) {
+                if (i > 0) {
+                    out.write(' ');
+                }
+                writeNumber(dashes[i]);
+            }
+            out.write('"');
+        }
+        out.write(">\n");
+    }
+
+    public void endGroup() throws IOException {
+        out.write("</g>\n");
+    }
+
+    /**
+     * 线段（使用分组的描边）
+     */
+    public void line(double x1, double y1, double x2, double y2) throws IOException {
+        out.write("<line x1=\"");
+        writeNumber(x1);
+        out.write("\" y1=\"");
+        writeNumber(y1);
+        out.write("\" x2=\"");
+        writeNumber(x2);
+        out.write("\" y2=\"");
+        writeNumber(y2);
+        out.write("\"/>\n");
+    }
+
+    /**
+     * 实心圆点（使用分组的填充，不描边）
+     */
+    public void fillCircle(double cx, double cy, double r) throws IOException {
+        writeCircle(cx, cy, r);
+        out.write("\" stroke=\"none\"/>\n");
+    }
+
+    /**
+     * 空心圆（使用分组的描边，不填充）
+     */
+    public void strokeCircle(double cx, double cy, double r) throws IOException {
+        writeCircle(cx, cy, r);
+        out.write("\" fill=\"none\"/>\n");
+    }
+
+    private void writeCircle(double cx, double cy, double r) throws IOException {
+        out.write("<circle cx=\"");
+        writeNumber(cx);
+        out.write("\" cy=\"");
+        writeNumber(cy);
+        out.write("\" r=\"");
+        writeNumber(r);
+    }
+
+    /**
+     * 文字（使用分组的填充，不描边）
+     */
+    public void text(double x, double y, String text, double fontSize) throws IOException {
+        out.write("<text x=\"");
+        writeNumber(x);
+        out.write("\" y=\"");
+        writeNumber(y);
+        out.write("\" font-size=\"");
+        writeNumber(fontSize);
+        out.write("\" stroke=\"none\">");
+        writeEscaped(text);
+        out.write("</text>\n");
+    }
+
+    /**
+     * 开始一条折线（使用分组的描边，不填充），之后逐个写出顶点
+     *
+     * @param closed 是否闭合（多边形）
+     */
+    public void beginPolyline(boolean closed) throws IOException {
+        if (polylineOpen) {
+            throw new IllegalStateException("上一条折线尚未结束");
+        }
+        polylineOpen = true;
+        polylineVertices = 0;
+        out.write(closed ? "<polygon fill=\"none\" points=\"" : "<polyline fill=\"none\" points=\"");
+    }
+
+    /**
+     * 写出折线的一个顶点
+     */
+    public void vertex(double x, double y) throws IOException {
+        if (!polylineOpen) {
+            throw new IllegalStateException("没有正在写出的折线");
+        }
+        long fx = toFixed(x);
+        long fy = toFixed(y);
+        if (polylineVertices > 0 && fx == lastX && fy == lastY) {
+            return;
+        }
+        if (polylineVertices > 0) {
+            out.write(' ');
+        }
+        writeFixed(fx);
+        out.write(',');
+        writeFixed(fy);
+        lastX = fx;
+        lastY = fy;
+        polylineVertices++;
+    }
+
+    public void endPolyline() throws IOException {
+        if (!polylineOpen) {
+            throw new IllegalStateException("没有正在写出的折线");
+        }
+        polylineOpen = false;
+        out.write("\"/>\n");
+    }
+
+    private void writePaint(String attribute, Color color) throws IOException {
+        out.write(attribute);
+        out.write("=\"");
+        if (color == null) {
+            out.write("none\"");
+            return;
+        }
+        out.write('#');
+        writeHex((int) Math.round(color.getRed() * 255));
+        writeHex((int) Math.round(color.getGreen() * 255));
+        writeHex((int) Math.round(color.getBlue() * 255));
+        out.write('"');
+        if (color.getOpacity() < 1) {
+            out.write(attribute);
+            out.write("-opacity=\"");
+            writeNumber(color.getOpacity());
+            out.write('"');
+        }
+    }
+
+    private void writeHex(int value) throws IOException {
+        out.write(Character.forDigit(value >> 4, 16));
+        out.write(Character.forDigit(value & 0xF, 16));
+    }
+
+    private void writeEscaped(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.write("&amp;");
+                case '<' -> out.write("&lt;");
+                case '>' -> out.write("&gt;");
+                case '"' -> out.write("&quot;");
+                default -> out.write(c);
+            }
+        }
+    }
+
+    private void writeNumber(double value) throws IOException {
+        writeFixed(toFixed(value));
+    }
+
+    /**
+     * 转换为以 0.01 为单位的定点数
+     */
+    private static long toFixed(double value) {
+        if (Double.isNaN(value)) {
+            return 0;
+        }
+        double clamped = Math.max(-MAX_COORDINATE, Math.min(MAX_COORDINATE, value));
+        return Math.round(clamped * 100);
+    }
+
+    /**
+     * 写出定点数，省略多余的小数位（不经过 String.format，避免大量坐标格式化的开销）
+     */
+    private void writeFixed(long fixed) throws IOException {
+        if (fixed < 0) {
+            out.write('-');
+            fixed = -fixed;
+        }
+        long integer = fixed / 100;
+        int fraction = (int) (fixed % 100);
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + integer % 10);
+            integer /= 10;
+        } while (integer > 0);
+        out.write(digits, pos, digits.length - pos);
+        if (fraction != 0) {
+            out.write('.');
+            out.write('0' + fraction / 10);
+            if (fraction % 10 != 0) {
+                out.write('0' + fraction % 10);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import com.bingbaihanji.view.layout.draw.geometry.WorldPainter;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.image.WritablePixelFormat;
+import javafx.scene.paint.Color;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * 分块渲染的高分辨率 PNG 导出
+ * <p>
+ * 以当前视图为导出区域，按像素倍率放大后逐块渲染：每个图块在离屏画布上平移、缩放后调用绘制器绘制，
+ * 读出像素拼入一条图块带，整条图块带完成后逐行写入 {@link PngStreamWriter}。
+ * 内存峰值为一条图块带（宽度 × {@link #STRIP_HEIGHT}）而不是整张图片，可以导出远大于屏幕的图片。
+ * 画布与快照只能在 JavaFX 应用线程上使用，因此导出必须在该线程上调用
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public final class TiledPngExporter {
+
+    /**
+     * 图块宽度（像素），不超过显卡纹理尺寸的常见上限
+     */
+    public static final int TILE_WIDTH = 2048;
+    /**
+     * 图块带高度（像素）
+     */
+    public static final int STRIP_HEIGHT = 256;
+    /**
+     * 剔除时在图块四周保留的边距（视图像素），保证跨越图块边缘的端点与名称完整
+     */
+    private static final double CULL_MARGIN = 64;
+
+    private TiledPngExporter() {
+    }
+
+    /**
+     * 导出图片尺寸
+     *
+     * @return {宽度, 高度}（像素）
+     */
+    public static int[] imageSize(double viewWidth, double viewHeight, double pixelRatio) {
+        long width = (long) Math.ceil(viewWidth * pixelRatio);
+        long height = (long) Math.ceil(viewHeight * pixelRatio);
+        if (width <= 0 || height <= 0 || width > Integer.MAX_VALUE / STRIP_HEIGHT || height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("导出尺寸无效：" + width + "×" + height);
+        }
+        return new int[]{(int) width, (int) height};
+    }
+
+    /**
+     * 把视图导出为 PNG
+     *
+     * @param path       PNG 文件
+     * @param transform  视图的世界坐标变换
+     * @param viewWidth  视图宽度（像素）
+     * @param viewHeight 视图高度（像素）
+     * @param pixelRatio 像素倍率（1 为屏幕分辨率，打印时为 DPI / 96）
+     * @param painters   绘制在图形下方的绘制器（网格、坐标轴）
+     * @param objects    图形
+     * @param overlays   绘制在图形上方的绘制器（派生点）
+     */
+    public static void export(Path path,
+                              WorldTransform transform,
+                              double viewWidth,
+                              double viewHeight,
+                              double pixelRatio,
+                              List<? extends WorldPainter> painters,
+                              List<? extends WorldObject> objects,
+                              List<? extends WorldPainter> overlays) throws IOException {
+        int[] size = imageSize(viewWidth, viewHeight, pixelRatio);
+        int width = size[0];
+        int height = size[1];
+        int tileWidth = Math.min(TILE_WIDTH, width);
+        int stripHeight = Math.min(STRIP_HEIGHT, height);
+
+        Canvas canvas = new Canvas(tileWidth, stripHeight);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.WHITE);
+        WritableImage tile = new WritableImage(tileWidth, stripHeight);
+        int[] strip = new int[width * stripHeight];
+        WritablePixelFormat<IntBuffer> format = PixelFormat.getIntArgbInstance();
+
+        // 先写入临时文件，完成后再替换目标文件
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16);
+             PngStreamWriter png = new PngStreamWriter(out, width, height, false)) {
+            for (int top = 0; top < height; top += stripHeight) {
+                int rows = Math.min(stripHeight, height - top);
+                for (int left = 0; left < width; left += tileWidth) {
+                    int columns = Math.min(tileWidth, width - left);
+                    paintTile(gc, transform, viewWidth, viewHeight, pixelRatio, left, top, tileWidth, stripHeight,
+                            painters, objects, overlays);
+                    canvas.snapshot(parameters, tile);
+                    tile.getPixelReader().getPixels(0, 0, columns, rows, format, strip, left, width);
+                }
+                png.writeRows(strip, rows, width);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * 在画布上绘制一个图块：把图块左上角平移到画布原点，再按像素倍率缩放，绘制器仍按视图尺寸绘制
+     */
+    private static void paintTile(GraphicsContext gc,
+                                  WorldTransform transform,
+                                  double viewWidth,
+                                  double viewHeight,
+                                  double pixelRatio,
+                                  int left,
+                                  int top,
+                                  int tileWidth,
+                                  int tileHeight,
+                                  List<? extends WorldPainter> painters,
+                                  List<? extends WorldObject> objects,
+                                  List<? extends WorldPainter> overlays) {
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        gc.clearRect(0, 0, tileWidth, tileHeight);
+        gc.save();
+        gc.translate(-left, -top);
+        gc.scale(pixelRatio, pixelRatio);
+
+        for (WorldPainter painter : painters) {
+            painter.paint(gc, transform, viewWidth, viewHeight);
+        }
+
+        // 图块（含边距）对应的世界坐标范围，世界 Y 轴向上
+        double minX = transform.screenToWorldX(left / pixelRatio - CULL_MARGIN);
+        double maxX = transform.screenToWorldX((left + tileWidth) / pixelRatio + CULL_MARGIN);
+        double minY = transform.screenToWorldY((top + tileHeight) / pixelRatio + CULL_MARGIN);
+        double maxY = transform.screenToWorldY(top / pixelRatio - CULL_MARGIN);
+        for (WorldObject object : objects) {
+            Rectangle2D bounds = object.getBounds();
+            if (bounds != null && (bounds.getMaxX() < minX || bounds.getMinX() > maxX
+                    || bounds.getMaxY() < minY || bounds.getMinY() > maxY)) {
+                continue;
+            }
+            object.paint(gc, transform, viewWidth, viewHeight);
+        }
+
+        for (WorldPainter painter : overlays) {
+            painter.paint(gc, transform, viewWidth, viewHeight);
+        }
+        gc.restore();
+    }
+}
@@ -0,0 +1,156 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.constant.ShapeKind;
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import com.bingbaihanji.view.layout.draw.geometry.impl.*;
+import javafx.geometry.Point2D;
+import javafx.scene.paint.Color;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 图形的二进制编码
+ * <p>
+ * 格式为一个字节的 {@link ShapeKind} 序号，后接该类型的几何数据（double 均为 8 字节）：
+ * <ul>
+ *     <li>POINT：x、y、颜色（ARGB int）、是否命名（byte）</li>
+ *     <li>LINE、INFINITE_LINE：两个定义点</li>
+ *     <li>CIRCLE：圆心与半径</li>
+ *     <li>POLYGON、PATH：顶点数（int）与各顶点坐标</li>
+ * </ul>
+ * 解码时按原类型重新构造图形（重新分配标识与点名称）
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public final class WorldObjectCodec {
+
+    private static final ShapeKind[] KINDS = ShapeKind.values();
+    /**
+     * 分块复制折线坐标时每块的坐标数
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    private WorldObjectCodec() {
+    }
+
+    /**
+     * 判断图形是否可以编码（只看类型，不读取坐标）
+     */
+    public static boolean isSupported(WorldObject object) {
+        return object.kind() != ShapeKind.OTHER;
+    }
+
+    /**
+     * 编码后的字节数
+     */
+    public static int encodedSize(WorldObject object) {
+        return switch (object.kind()) {
+            case POINT -> 1 + 16 + 4 + 1;
+            case LINE, INFINITE_LINE -> 1 + 32;
+            case CIRCLE -> 1 + 24;
+            case POLYGON, PATH -> 1 + 4 + object.getCoordinateCount() * 8;
+            default -> throw new IllegalArgumentException("不支持编码的图形类型：" + object.kind());
+        };
+    }
+
+    /**
+     * 把图形写入缓冲区（调用方保证剩余空间不少于 {@link #encodedSize(WorldObject)}）
+     */
+    public static void write(ByteBuffer buffer, WorldObject object) {
+        ShapeKind kind = object.kind();
+        buffer.put((byte) kind.ordinal());
+        switch (kind) {
+            case POINT -> {
+                PointGeo point = (PointGeo) object;
+                buffer.putDouble(point.getX());
+                buffer.putDouble(point.getY());
+                buffer.putInt(toArgb(point.getColor()));
+                buffer.put((byte) (point.getName() != null ? 1 : 0));
+            }
+            case LINE, INFINITE_LINE, CIRCLE -> {
+                for (double value : coordinatesOf(object)) {
+                    buffer.putDouble(value);
+                }
+            }
+            case POLYGON, PATH -> {
+                int count = object.getCoordinateCount();
+                buffer.putInt(count / 2);
+                double[] chunk = new double[Math.min(count, CHUNK_SIZE)];
+                for (int from = 0; from < count; from += chunk.length) {
+                    int n = Math.min(chunk.length, count - from);
+                    object.copyCoordinates(from, chunk, 0, n);
+                    buffer.asDoubleBuffer().put(chunk, 0, n);
+                    buffer.position(buffer.position() + n * 8);
+                }
+            }
+            default -> throw new IllegalArgumentException("不支持编码的图形类型：" + kind);
+        }
+    }
+
+    /**
+     * 从缓冲区读取一个图形
+     */
+    public static WorldObject read(ByteBuffer buffer) {
+        ShapeKind kind = KINDS[buffer.get()];
+        switch (kind) {
+            case POINT -> {
+                double x = buffer.getDouble();
+                double y = buffer.getDouble();
+                int argb = buffer.getInt();
+                boolean named = buffer.get() != 0;
+                PointGeo point = new PointGeo(x, y, named);
+                point.setColor(fromArgb(argb));
+                return point;
+            }
+            case LINE -> {
+                return new LineGeo(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+            }
+            case INFINITE_LINE -> {
+                return new InfiniteLineGeo(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+            }
+            case CIRCLE -> {
+                return new CircleGeo(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+            }
+            case POLYGON -> {
+                double[] vertices = new double[buffer.getInt() * 2];
+                for (int i = 0; i < vertices.length; i++) {
+                    vertices[i] = buffer.getDouble();
+                }
+                return new PolygonGeo(vertices);
+            }
+            case PATH -> {
+                int count = buffer.getInt();
+                List<Point2D> points = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    points.add(new Point2D(buffer.getDouble(), buffer.getDouble()));
+                }
+                return new PathGeo(points);
+            }
+            default -> throw new IllegalArgumentException("不支持解码的图形类型：" + kind);
+        }
+    }
+
+    /**
+     * 定长图形的完整几何数据（圆包含半径）
+     */
+    private static double[] coordinatesOf(WorldObject object) {
+        if (object instanceof CircleGeo circle) {
+            return new double[]{circle.getCx(), circle.getCy(), circle.getR()};
+        }
+        return object.getCoordinates();
+    }
+
+    static int toArgb(Color color) {
+        return (int) Math.round(color.getOpacity() * 255) << 24
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+    }
+
+    static Color fromArgb(int argb) {
+        return Color.rgb((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF, ((argb >>> 24) & 0xFF) / 255.0);
+    }
+}
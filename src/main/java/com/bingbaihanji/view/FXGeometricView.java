@@ -16,6 +16,7 @@ import java.util.Objects;
  */
 public class FXGeometricView extends Application {
 
+    private InitView initView;
 
     @Override
     public void init() throws Exception {
@@ -24,6 +25,9 @@ public class FXGeometricView extends Application {
 
     @Override
     public void stop() throws Exception {
+        if (initView != null) {
+            initView.shutdown();
+        }
         super.stop();
         Runtime.getRuntime().addShutdownHook(
                 new Thread(() -> {
@@ -36,7 +40,8 @@ public class FXGeometricView extends Application {
 
     @Override
     public void start(Stage stage) throws Exception {
-        Stage init = new InitView(stage).init();
+        initView = new InitView(stage);
+        Stage init = initView.init();
         init.getIcons().add(new Image(Objects.requireNonNull(getClass().getResource("/logo.png")).toExternalForm()));
         init.show();
     }
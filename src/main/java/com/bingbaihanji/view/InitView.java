@@ -3,6 +3,8 @@ package com.bingbaihanji.view;
 import com.bingbaihanji.controller.DrawingController;
 import com.bingbaihanji.util.FxTools;
 import com.bingbaihanji.util.I18nUtil;
+import com.bingbaihanji.util.SceneAutosave;
+import com.bingbaihanji.util.SceneFile;
 import com.bingbaihanji.view.layout.core.GridChartView;
 import com.bingbaihanji.view.layout.pane.ShapeToolPane;
 import com.bingbaihanji.view.menu.MenuEvent;
@@ -11,12 +13,20 @@ import javafx.application.Platform;
 import javafx.geometry.Orientation;
 import javafx.scene.Node;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.control.SplitPane;
+import javafx.scene.control.TextInputDialog;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.BorderPane;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
 /**
  * 首页布局配置
  * <p>
@@ -26,6 +36,18 @@ import javafx.stage.Stage;
  * @date 2025-12-20 15:25:06
  */
 public class InitView {
+    /**
+     * 磁盘历史日志路径的系统属性（如 -Dfxgeometric.journal=history.journal），未设置时不记录日志
+     */
+    public static final String JOURNAL_PROPERTY = "fxgeometric.journal";
+    /**
+     * 自动保存文件路径的系统属性（如 -Dfxgeometric.autosave=scene.fxga），未设置时不自动保存
+     */
+    public static final String AUTOSAVE_PROPERTY = "fxgeometric.autosave";
+    /**
+     * 自动保存间隔（秒）的系统属性，默认 30 秒
+     */
+    public static final String AUTOSAVE_INTERVAL_PROPERTY = "fxgeometric.autosave.interval";
     private final Stage stage;
     /**
      * 绘制控制器
@@ -48,6 +70,8 @@ public class InitView {
 
         // 3. 创建绘制控制器
         DrawingController drawingController = new DrawingController(gridChartPane);
+        openJournal(drawingController);
+        startAutosave(drawingController);
 
         // 4. 绑定事件
         // 工具栏模式切换
@@ -86,6 +110,10 @@ public class InitView {
 
 
         var menuView = new MenuView();
+        menuView.setOnOpenSceneAction(this::openScene);
+        menuView.setOnSaveSceneAction(this::saveScene);
+        menuView.setOnExportSvgAction(this::exportSvg);
+        menuView.setOnExportPngAction(this::exportPng);
 
         MenuEvent menuEvent = new MenuEvent(menuView);
         root.setTop(menuEvent.getMenuView(stage, gridChartPane));
@@ -116,6 +144,163 @@ public class InitView {
         return stage;
     }
 
+    /**
+     * 退出程序前保存最后的变化：停止自动保存并关闭磁盘历史日志（在 FX 线程上调用）
+     */
+    public void shutdown() {
+        if (drawingController == null) {
+            return;
+        }
+        try {
+            drawingController.stopAutosave();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        try {
+            drawingController.closeJournal();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 启用磁盘历史日志并恢复上次会话的场景（重新初始化界面时先关闭旧控制器的日志）
+     */
+    private void openJournal(DrawingController newController) {
+        String journalPath = System.getProperty(JOURNAL_PROPERTY);
+        if (journalPath == null) {
+            return;
+        }
+        try {
+            if (this.drawingController != null) {
+                this.drawingController.closeJournal();
+            }
+            newController.openJournal(Path.of(journalPath));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 启用后台增量自动保存（重新初始化界面时先停止旧控制器的自动保存）
+     */
+    private void startAutosave(DrawingController newController) {
+        String autosavePath = System.getProperty(AUTOSAVE_PROPERTY);
+        if (autosavePath == null) {
+            return;
+        }
+        try {
+            if (this.drawingController != null) {
+                this.drawingController.stopAutosave();
+            }
+            long intervalMillis = Long.getLong(AUTOSAVE_INTERVAL_PROPERTY,
+                    SceneAutosave.DEFAULT_INTERVAL_MILLIS / 1000) * 1000;
+            newController.startAutosave(Path.of(autosavePath), intervalMillis);
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 选择并打开场景文件
+     */
+    private void openScene() {
+        File file = sceneFileChooser().showOpenDialog(stage);
+        if (file == null) {
+            return;
+        }
+        try {
+            drawingController.loadScene(file.toPath());
+        } catch (IOException e) {
+            showError(I18nUtil.getString("menu.file.openFailed"), e);
+        }
+    }
+
+    /**
+     * 选择位置并保存场景文件
+     */
+    private void saveScene() {
+        File file = sceneFileChooser().showSaveDialog(stage);
+        if (file == null) {
+            return;
+        }
+        try {
+            drawingController.saveScene(file.toPath());
+        } catch (IOException e) {
+            showError(I18nUtil.getString("menu.file.saveFailed"), e);
+        }
+    }
+
+    /**
+     * 选择位置并把当前视图导出为 SVG
+     */
+    private void exportSvg() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+                I18nUtil.getString("menu.file.svgFile"), "*.svg"));
+        File file = fileChooser.showSaveDialog(stage);
+        if (file == null) {
+            return;
+        }
+        try {
+            drawingController.exportSvg(file.toPath());
+        } catch (IOException e) {
+            showError(I18nUtil.getString("menu.file.exportFailed"), e);
+        }
+    }
+
+    /**
+     * 输入像素倍率、选择位置并把当前视图导出为高分辨率 PNG
+     */
+    private void exportPng() {
+        TextInputDialog dialog = new TextInputDialog("4");
+        dialog.initOwner(stage);
+        dialog.setHeaderText(I18nUtil.getString("menu.file.exportPng"));
+        dialog.setContentText(I18nUtil.getString("menu.file.pixelRatio"));
+        Optional<String> input = dialog.showAndWait();
+        if (input.isEmpty()) {
+            return;
+        }
+        double pixelRatio;
+        try {
+            pixelRatio = Double.parseDouble(input.get().trim());
+        } catch (NumberFormatException e) {
+            pixelRatio = -1;
+        }
+        if (!(pixelRatio > 0) || Double.isInfinite(pixelRatio)) {
+            showError(I18nUtil.getString("menu.file.invalidPixelRatio"), new IllegalArgumentException(input.get()));
+            return;
+        }
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+                I18nUtil.getString("menu.file.pngFile"), "*.png"));
+        File file = fileChooser.showSaveDialog(stage);
+        if (file == null) {
+            return;
+        }
+        try {
+            drawingController.exportPng(file.toPath(), pixelRatio);
+        } catch (IOException | IllegalArgumentException e) {
+            showError(I18nUtil.getString("menu.file.exportPngFailed"), e);
+        }
+    }
+
+    private FileChooser sceneFileChooser() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+                I18nUtil.getString("menu.file.sceneFile"), "*." + SceneFile.EXTENSION));
+        return fileChooser;
+    }
+
+    private void showError(String header, Exception e) {
+        e.printStackTrace();
+        Alert alert = new Alert(Alert.AlertType.ERROR, e.getMessage());
+        alert.initOwner(stage);
+        alert.setHeaderText(header);
+        alert.showAndWait();
+    }
+
     /**
      * 处理快捷键事件
      */
@@ -1,11 +1,14 @@
 package com.bingbaihanji.view.layout.core;
 
+import com.bingbaihanji.constant.DerivedPointType;
 import com.bingbaihanji.constant.GridMode;
+import com.bingbaihanji.util.PointBuffer;
 import com.bingbaihanji.util.SpecialPointManager;
 import com.bingbaihanji.util.SpecialPointManager.SpecialPoint;
 import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
 import com.bingbaihanji.view.layout.draw.geometry.WorldPainter;
 import com.bingbaihanji.view.layout.draw.geometry.impl.AxesPainter;
+import com.bingbaihanji.view.layout.draw.geometry.impl.DerivedPointLayer;
 import com.bingbaihanji.view.layout.draw.geometry.impl.GridPainter;
 import com.bingbaihanji.view.layout.draw.tools.CircleDrawingTool;
 import javafx.animation.PauseTransition;
@@ -23,7 +26,9 @@ import javafx.util.Duration;
 
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.BiConsumer;
 
 /**
@@ -43,6 +48,17 @@ public class GridChartView extends Pane {
     private final WorldTransform transform = new WorldTransform();
     private final List<WorldPainter> painters = new ArrayList<>();
     private final List<WorldObject> objects = new ArrayList<>();
+    // 图形标识到图形的索引（标识为 0 的图形不参与）
+    private final Map<Long, WorldObject> objectsById = new HashMap<>();
+    // 派生点（交点等），绘制在所有图形对象之上
+    private final DerivedPointLayer derivedPoints = new DerivedPointLayer();
+    // 场景版本，图形增删或几何变化时递增
+    private long sceneVersion = 0;
+    // 场景变化监听器（如历史日志）
+    private SceneListener sceneListener;
+    // 批量更新的嵌套深度；批量更新期间的重绘推迟到结束时合并为一次
+    private int batchDepth = 0;
+    private boolean redrawPending = false;
     private final CircleDrawingTool circleTool;
     //   鼠标悬停气泡
     private final Tooltip hoverTooltip = new Tooltip();
@@ -344,6 +360,11 @@ public class GridChartView extends Pane {
      * 清空画布后，依次调用所有已注册的 WorldPainter 进行绘制
      */
     public void redraw() {
+        if (batchDepth > 0) {
+            redrawPending = true;
+            return;
+        }
+        redrawPending = false;
         GraphicsContext gc = canvas.getGraphicsContext2D();
         gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
 
@@ -358,6 +379,8 @@ public class GridChartView extends Pane {
             obj.paint(gc, transform, w, h);
         }
 
+        derivedPoints.paint(gc, transform, w, h);
+
         // 绘制预览图形
         if (previewPainter != null) {
             previewPainter.accept(gc, transform);
@@ -503,6 +526,12 @@ public class GridChartView extends Pane {
                 }
             }
 
+            // 未命中图形对象时再检查派生点
+            int newDerivedHover = newHover == null
+                    ? derivedPoints.hitTest(worldX, worldY, tolerance)
+                    : -1;
+            boolean derivedHoverChanged = derivedPoints.setHoverIndex(newDerivedHover);
+
             // hover 发生变化才更新
             if (newHover != hoverObject) {
 
@@ -517,7 +546,7 @@ public class GridChartView extends Pane {
                 }
 
                 redraw();
-            } else if (nearbySpecialPoint != null) {
+            } else if (derivedHoverChanged || nearbySpecialPoint != null) {
                 // 即使hover对象没变，如果附近有特殊点，也需要重绘以显示提示
                 redraw();
             }
@@ -531,6 +560,10 @@ public class GridChartView extends Pane {
                 redraw();
             }
 
+            if (derivedPoints.setHoverIndex(-1)) {
+                redraw();
+            }
+
             // 清除特殊点提示
             if (nearbySpecialPoint != null) {
                 nearbySpecialPoint = null;
@@ -547,13 +580,19 @@ public class GridChartView extends Pane {
      * @return 最近的特殊点，如果没有找到则返回null
      */
     private SpecialPoint findNearestSpecialPoint(double x, double y) {
-        // 获取所有特殊点
-        List<SpecialPoint> specialPoints = SpecialPointManager.extractSpecialPoints(objects);
-
         // 计算吸附阈值（像素距离转换为世界坐标距离）
         double scale = transform.getScale();
         double threshold = 10.0 / scale; // 10像素的吸附范围
 
+        // 特殊点都在所属图形的包围盒内，只从鼠标附近的图形中提取
+        List<WorldObject> nearby = new ArrayList<>();
+        for (WorldObject obj : objects) {
+            if (obj.isNear(x, y, threshold)) {
+                nearby.add(obj);
+            }
+        }
+        List<SpecialPoint> specialPoints = SpecialPointManager.extractSpecialPoints(nearby);
+
         // 查找最近的特殊点
         return SpecialPointManager.findNearestSpecialPoint(x, y, specialPoints, threshold);
     }
@@ -656,11 +695,23 @@ public class GridChartView extends Pane {
 
     public void addObject(WorldObject obj) {
         objects.add(obj);
+        if (obj.getId() != 0) {
+            objectsById.put(obj.getId(), obj);
+        }
+        sceneVersion++;
+        if (sceneListener != null) {
+            sceneListener.objectAdded(obj);
+        }
         redraw();
     }
 
     public void removeObject(WorldObject obj) {
         objects.remove(obj);
+        objectsById.remove(obj.getId(), obj);
+        sceneVersion++;
+        if (sceneListener != null) {
+            sceneListener.objectRemoved(obj);
+        }
         redraw();
     }
 
@@ -669,6 +720,78 @@ public class GridChartView extends Pane {
      */
     public void clearAllObjects() {
         objects.clear();
+        objectsById.clear();
+        sceneVersion++;
+        derivedPoints.clear();
+        if (sceneListener != null) {
+            sceneListener.sceneCleared();
+        }
+        redraw();
+    }
+
+    /**
+     * 开始批量更新：结束前的所有重绘请求合并为一次（可嵌套）
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * 结束批量更新，最外层结束时如有重绘请求则重绘一次
+     */
+    public void endBatch() {
+        if (batchDepth > 0 && --batchDepth == 0 && redrawPending) {
+            redraw();
+        }
+    }
+
+    /**
+     * 设置场景变化监听器（null 表示移除）
+     */
+    public void setSceneListener(SceneListener sceneListener) {
+        this.sceneListener = sceneListener;
+    }
+
+    /**
+     * 获取场景版本（图形增删或几何变化时递增）
+     */
+    public long getSceneVersion() {
+        return sceneVersion;
+    }
+
+    /**
+     * 标记图形几何已变化（拖动、旋转等直接修改图形的操作调用）
+     */
+    public void markSceneChanged() {
+        sceneVersion++;
+    }
+
+    /**
+     * 获取派生点图层（交点等）
+     */
+    public DerivedPointLayer getDerivedPoints() {
+        return derivedPoints;
+    }
+
+    /**
+     * 批量添加派生点并重绘
+     */
+    public void addDerivedPoints(PointBuffer points, DerivedPointType type) {
+        if (points.isEmpty()) {
+            return;
+        }
+        derivedPoints.addAll(points, type);
+        redraw();
+    }
+
+    /**
+     * 批量移除派生点并重绘
+     */
+    public void removeDerivedPoints(PointBuffer points) {
+        if (points.isEmpty()) {
+            return;
+        }
+        derivedPoints.removeAll(points);
         redraw();
     }
 
@@ -681,6 +804,15 @@ public class GridChartView extends Pane {
         return new ArrayList<>(objects);
     }
 
+    /**
+     * 按标识查找图形
+     *
+     * @return 图形；不存在时返回 null
+     */
+    public WorldObject findObject(long id) {
+        return id != 0 ? objectsById.get(id) : null;
+    }
+
     /**
      * 设置预览绘制器
      */
@@ -707,4 +839,15 @@ public class GridChartView extends Pane {
         pane.setOnMouseExited(e -> pane.setCursor(Cursor.DEFAULT));
     }
 
+
+    /**
+     * 场景图形增删监听器
+     */
+    public interface SceneListener {
+        void objectAdded(WorldObject obj);
+
+        void objectRemoved(WorldObject obj);
+
+        void sceneCleared();
+    }
 }
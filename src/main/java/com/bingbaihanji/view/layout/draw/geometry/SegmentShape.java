@@ -0,0 +1,17 @@
+package com.bingbaihanji.view.layout.draw.geometry;
+
+import com.bingbaihanji.util.SegmentBvh;
+
+/**
+ * 由折线段组成的图形（多边形、手绘路径），按边求交与命中测试
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public interface SegmentShape {
+
+    /**
+     * 获取图形各边的线段 BVH
+     */
+    SegmentBvh getSegmentBvh();
+}
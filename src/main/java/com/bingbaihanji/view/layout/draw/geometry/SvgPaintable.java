@@ -0,0 +1,27 @@
+package com.bingbaihanji.view.layout.draw.geometry;
+
+import com.bingbaihanji.util.SvgWriter;
+import com.bingbaihanji.view.layout.core.WorldTransform;
+
+import java.io.IOException;
+
+/**
+ * 可以导出为 SVG 矢量图的绘制器或图形
+ * <p>
+ * 与 {@link WorldPainter#paint} 对应，以非悬停样式把内容写为 SVG 元素
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public interface SvgPaintable {
+
+    /**
+     * 在给定的世界坐标变换下写出 SVG 元素
+     *
+     * @param svg       SVG 写出器
+     * @param transform 世界坐标变换
+     * @param width     导出区域宽度（像素）
+     * @param height    导出区域高度（像素）
+     */
+    void paintSvg(SvgWriter svg, WorldTransform transform, double width, double height) throws IOException;
+}
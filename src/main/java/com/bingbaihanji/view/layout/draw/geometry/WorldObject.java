@@ -1,5 +1,8 @@
 package com.bingbaihanji.view.layout.draw.geometry;
 
+import com.bingbaihanji.constant.ShapeKind;
+import javafx.geometry.Rectangle2D;
+
 import java.util.List;
 
 public interface WorldObject extends WorldPainter {
@@ -13,6 +16,98 @@ public interface WorldObject extends WorldPainter {
      */
     boolean hitTest(double worldX, double worldY, double tolerance);
 
+    /**
+     * 获取图形类型，用于按类型分派几何运算
+     */
+    default ShapeKind kind() {
+        return ShapeKind.OTHER;
+    }
+
+    /**
+     * 获取图形的唯一标识（快照保留原图形的标识）
+     *
+     * @return 标识；0 表示没有标识（不参与按标识缓存的计算）
+     */
+    default long getId() {
+        return 0;
+    }
+
+    /**
+     * 获取图形的几何版本号，几何数据每次变化（拖动、旋转等）时递增
+     */
+    default long getVersion() {
+        return 0;
+    }
+
+    /**
+     * 获取图形的世界坐标包围盒
+     *
+     * @return 包围盒；无界图形（如无限直线）返回 null
+     */
+    default Rectangle2D getBounds() {
+        return null;
+    }
+
+    /**
+     * 点是否落在向外扩展 tolerance 后的包围盒内（无界图形总是返回 true）
+     * <p>
+     * 控制点、端点、圆心和交点都在图形的包围盒内，查找它们之前先用该方法剔除远处的图形，
+     * 延迟加载的图形因此不会被读入
+     */
+    default boolean isNear(double worldX, double worldY, double tolerance) {
+        Rectangle2D bounds = getBounds();
+        return bounds == null || (worldX >= bounds.getMinX() - tolerance && worldX <= bounds.getMaxX() + tolerance
+                && worldY >= bounds.getMinY() - tolerance && worldY <= bounds.getMaxY() + tolerance);
+    }
+
+    /**
+     * 创建只包含几何数据的独立副本（不分配点名称），供后台线程计算使用
+     *
+     * @return 副本；不参与交点计算的图形返回 null
+     */
+    default WorldObject snapshot() {
+        return null;
+    }
+
+    /**
+     * 获取图形的可变几何坐标（按固定布局展开为数组，供撤销历史做增量编码）
+     *
+     * @return 坐标副本；不支持时返回 null
+     */
+    default double[] getCoordinates() {
+        return null;
+    }
+
+    /**
+     * 按 {@link #getCoordinates()} 的布局设置几何坐标
+     */
+    default void setCoordinates(double[] coordinates) {
+    }
+
+    /**
+     * 获取几何坐标的个数（与 {@link #getCoordinates()} 的长度相同，顶点多的图形应不复制坐标直接返回）
+     *
+     * @return 坐标个数；不支持时返回 0
+     */
+    default int getCoordinateCount() {
+        double[] coordinates = getCoordinates();
+        return coordinates == null ? 0 : coordinates.length;
+    }
+
+    /**
+     * 把 {@link #getCoordinates()} 布局中从 from 开始的 length 个坐标复制到 dest，供编码时分块写出而不复制整个数组
+     */
+    default void copyCoordinates(int from, double[] dest, int destOffset, int length) {
+        System.arraycopy(getCoordinates(), from, dest, destOffset, length);
+    }
+
+    /**
+     * 估算图形占用的内存字节数（用于限制撤销历史的内存）
+     */
+    default long estimateSize() {
+        return 64;
+    }
+
     default void onClick(double worldX, double worldY) {
 
     }
@@ -1,16 +1,20 @@
 package com.bingbaihanji.view.layout.draw.geometry.impl;
 
 import com.bingbaihanji.util.I18nUtil;
+import com.bingbaihanji.util.SvgWriter;
 import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.SvgPaintable;
 import com.bingbaihanji.view.layout.draw.geometry.WorldPainter;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 
+import java.io.IOException;
+
 /**
  * 世界坐标轴绘制器
  */
-public class AxesPainter implements WorldPainter {
+public class AxesPainter implements WorldPainter, SvgPaintable {
 
     // 颜色常量
     private static final Color AXES_COLOR = Color.valueOf("#f7a707"); // 主坐标轴颜色
@@ -58,6 +62,96 @@ public class AxesPainter implements WorldPainter {
         drawAxisTicks(gc, transform, width, height, xAxisVisible, yAxisVisible);
     }
 
+    /**
+     * 导出坐标轴：与画布绘制使用相同的位置、颜色与刻度
+     */
+    @Override
+    public void paintSvg(SvgWriter svg,
+                         WorldTransform transform,
+                         double width,
+                         double height) throws IOException {
+        if (showCartesianCoordinateAxis == false) {
+            return;
+        }
+        double x0 = transform.worldToScreenX(0);
+        double y0 = transform.worldToScreenY(0);
+        boolean xAxisVisible = y0 >= 0 && y0 <= height;
+        boolean yAxisVisible = x0 >= 0 && x0 <= width;
+
+        // 主要坐标轴
+        svg.beginGroup(AXES_COLOR, AXES_COLOR, 1.8);
+        if (xAxisVisible) {
+            svg.line(0, y0, width, y0);
+            writeArrow(svg, width - 10, y0, width, y0);
+            svg.text(width - 25, y0 < 15 ? y0 + 15 : y0 - 8, getLabelName("axis.xAxis"), 15);
+        }
+        if (yAxisVisible) {
+            svg.line(x0, 0, x0, height);
+            writeArrow(svg, x0, 10, x0, 0);
+            svg.text(x0 > width - 25 ? x0 - 25 : x0 + 6, 20, getLabelName("axis.yAxis"), 15);
+        }
+        svg.endGroup();
+
+        // 边界坐标轴（虚线）
+        svg.beginGroup(BOUNDARY_AXES_COLOR, BOUNDARY_AXES_COLOR, 1.5, new double[]{5, 3});
+        if (!xAxisVisible && isAxisNearBoundary(y0, height)) {
+            double boundaryY = getBoundaryPosition(y0, height);
+            double textY = (boundaryY < 15) ? boundaryY + 15 : boundaryY - 8;
+            String boundaryText = y0 < 0 ? getLabelName("axis.upperBorder") : getLabelName("axis.lowerBorder");
+            svg.line(0, boundaryY, width, boundaryY);
+            writeArrow(svg, width - 10, boundaryY, width, boundaryY);
+            svg.text(width - 25, textY, getLabelName("axis.xAxis"), 12);
+            svg.text(width - 45, textY + 25, "(" + boundaryText + ")", 12);
+        }
+        if (!yAxisVisible && isAxisNearBoundary(x0, width)) {
+            double boundaryX = getBoundaryPosition(x0, width);
+            double textX = (boundaryX > width - 45) ? boundaryX - 45 : boundaryX + 6;
+            String boundaryText = x0 < 0 ? getLabelName("axis.leftBorder") : getLabelName("axis.rightBorder");
+            svg.line(boundaryX, 0, boundaryX, height);
+            writeArrow(svg, boundaryX, 10, boundaryX, 0);
+            svg.text(textX, 20, getLabelName("axis.yAxis"), 12);
+            svg.text(textX, 65, "(" + boundaryText + ")", 12);
+        }
+        svg.endGroup();
+
+        // 刻度线及数值标签
+        double step = chooseAxisStep(transform.getScale());
+        double worldLeft = transform.screenToWorldX(0);
+        double worldRight = transform.screenToWorldX(width);
+        double worldTop = transform.screenToWorldY(0);
+        double worldBottom = transform.screenToWorldY(height);
+        svg.beginGroup(AXES_COLOR, AXES_COLOR, 2);
+        if (xAxisVisible || isAxisNearBoundary(y0, height)) {
+            double tickY = xAxisVisible ? y0 : getBoundaryPosition(y0, height);
+            for (double x = Math.floor(worldLeft / step) * step; x <= worldRight; x += step) {
+                if (Math.abs(x) < 1e-8) continue;
+                double sx = transform.worldToScreenX(x);
+                svg.line(sx, tickY - 4, sx, tickY + 4);
+                svg.text(sx + 2, tickY - 6, formatNumber(x), 15);
+            }
+        }
+        if (yAxisVisible || isAxisNearBoundary(x0, width)) {
+            double tickX = yAxisVisible ? x0 : getBoundaryPosition(x0, width);
+            for (double y = Math.floor(worldBottom / step) * step; y <= worldTop; y += step) {
+                if (Math.abs(y) < 1e-8) continue;
+                double sy = transform.worldToScreenY(y);
+                svg.line(tickX - 4, sy, tickX + 4, sy);
+                svg.text(tickX + 6, sy + 4, formatNumber(y), 15);
+            }
+        }
+        svg.endGroup();
+    }
+
+    private void writeArrow(SvgWriter svg,
+                            double x1, double y1,
+                            double x2, double y2) throws IOException {
+        double angle = Math.atan2(y2 - y1, x2 - x1);
+        double arrowLength = 8;
+        double arrowAngle = Math.PI / 6;
+        svg.line(x2, y2, x2 - arrowLength * Math.cos(angle - arrowAngle), y2 - arrowLength * Math.sin(angle - arrowAngle));
+        svg.line(x2, y2, x2 - arrowLength * Math.cos(angle + arrowAngle), y2 - arrowLength * Math.sin(angle + arrowAngle));
+    }
+
     /**
      * 绘制主要坐标轴
      */
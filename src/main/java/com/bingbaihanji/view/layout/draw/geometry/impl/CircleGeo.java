@@ -1,26 +1,53 @@
 package com.bingbaihanji.view.layout.draw.geometry.impl;
 
+import com.bingbaihanji.constant.ShapeKind;
+import com.bingbaihanji.util.ObjectIds;
+import com.bingbaihanji.util.SvgWriter;
 import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.SvgPaintable;
 import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 
+import java.io.IOException;
 import java.util.List;
 
-public class CircleGeo implements WorldObject {
+public class CircleGeo implements WorldObject, SvgPaintable {
 
     private final double r;
     private double cx;
     private double cy;
     private boolean hover = false;
-
+    /**
+     * 唯一标识与几何版本号
+     */
+    private final long id;
+    private long version = 0;
 
     public CircleGeo(double cx, double cy, double r) {
+        this.id = ObjectIds.next();
         this.cx = cx;
         this.cy = cy;
         this.r = r;
     }
 
+    /**
+     * 复制构造（保留标识与版本号）
+     */
+    private CircleGeo(CircleGeo source) {
+        this.id = source.id;
+        this.version = source.version;
+        this.cx = source.cx;
+        this.cy = source.cy;
+        this.r = source.r;
+    }
+
+    @Override
+    public WorldObject snapshot() {
+        return new CircleGeo(this);
+    }
+
     // Getter methods for intersection calculations
     public double getCx() {
         return cx;
@@ -63,12 +90,58 @@ public class CircleGeo implements WorldObject {
 
     }
 
+    @Override
+    public void paintSvg(SvgWriter svg, WorldTransform transform, double w, double h) throws IOException {
+        double sx = transform.worldToScreenX(cx);
+        double sy = transform.worldToScreenY(cy);
+
+        svg.beginGroup(Color.DODGERBLUE, Color.RED, 2);
+        svg.strokeCircle(sx, sy, r * transform.getScale());
+        svg.fillCircle(sx, sy, 3);
+        svg.endGroup();
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 坐标布局：{圆心x, 圆心y}（半径不可变）
+     */
+    @Override
+    public double[] getCoordinates() {
+        return new double[]{cx, cy};
+    }
+
+    @Override
+    public void setCoordinates(double[] coordinates) {
+        cx = coordinates[0];
+        cy = coordinates[1];
+        version++;
+    }
+
+    @Override
+    public ShapeKind kind() {
+        return ShapeKind.CIRCLE;
+    }
+
     @Override
     public boolean hitTest(double x, double y, double tolerance) {
         double d = Math.hypot(x - cx, y - cy);
         return Math.abs(d - r) <= tolerance;
     }
 
+    @Override
+    public Rectangle2D getBounds() {
+        return new Rectangle2D(cx - r, cy - r, r * 2, r * 2);
+    }
+
     @Override
     public void onClick(double x, double y) {
         // 圆本身暂时不响应点击
@@ -86,6 +159,7 @@ public class CircleGeo implements WorldObject {
                 new DraggablePoint(cx, cy, (newX, newY) -> {
                     cx = newX;
                     cy = newY;
+                    version++;
                 })
         );
     }
@@ -99,5 +173,6 @@ public class CircleGeo implements WorldObject {
         double dy = cy - centerY;
         cx = centerX + dx * cos - dy * sin;
         cy = centerY + dx * sin + dy * cos;
+        version++;
     }
 }
\ No newline at end of file
@@ -0,0 +1,398 @@
+package com.bingbaihanji.view.layout.draw.geometry.impl;
+
+import com.bingbaihanji.constant.DerivedPointType;
+import com.bingbaihanji.util.PointBuffer;
+import com.bingbaihanji.util.SvgWriter;
+import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.SvgPaintable;
+import com.bingbaihanji.view.layout.draw.geometry.WorldPainter;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 派生点图层
+ * <p>
+ * 交点等派生点以紧凑的基本类型数组存储，按类型一次性批量绘制，
+ * 命中测试通过按网格单元排序的空间索引完成，不再为每个交点创建 PointGeo 对象
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public class DerivedPointLayer implements WorldPainter, SvgPaintable {
+
+    /**
+     * 空间索引网格单元尺寸（世界单位）
+     */
+    private static final double CELL_SIZE = 0.5;
+    /**
+     * 单轴最多扫描的网格数，超过时退化为线性扫描
+     */
+    private static final int MAX_CELL_SPAN = 64;
+    private static final DerivedPointType[] TYPES = DerivedPointType.values();
+
+    private double[] xs = new double[16];
+    private double[] ys = new double[16];
+    private byte[] types = new byte[16];
+    private int size = 0;
+
+    private int hoverIndex = -1;
+
+    /**
+     * 空间索引：按网格键排序的 (键, 点索引)
+     */
+    private long[] cellKeys = new long[0];
+    private int[] cellOrder = new int[0];
+    private boolean indexDirty = true;
+
+    private static int cell(double v) {
+        double c = Math.floor(v / CELL_SIZE);
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, c));
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    private static Color colorOf(DerivedPointType type) {
+        return switch (type) {
+            case INTERSECTION -> Color.PURPLE;
+        };
+    }
+
+    @Override
+    public void paint(GraphicsContext gc, WorldTransform transform, double width, double height) {
+        double r = 4;
+        // 每种类型只设置一次填充色，批量绘制
+        for (DerivedPointType type : TYPES) {
+            byte ordinal = (byte) type.ordinal();
+            gc.setFill(colorOf(type));
+            for (int i = 0; i < size; i++) {
+                if (types[i] != ordinal || i == hoverIndex) {
+                    continue;
+                }
+                double sx = transform.worldToScreenX(xs[i]);
+                double sy = transform.worldToScreenY(ys[i]);
+                // 视口外的点不绘制
+                if (sx < -r || sx > width + r || sy < -r || sy > height + r) {
+                    continue;
+                }
+                gc.fillOval(sx - r, sy - r, r * 2, r * 2);
+            }
+        }
+
+        if (hoverIndex >= 0 && hoverIndex < size) {
+            double hr = 6;
+            double sx = transform.worldToScreenX(xs[hoverIndex]);
+            double sy = transform.worldToScreenY(ys[hoverIndex]);
+            gc.setFill(Color.ORANGE);
+            gc.fillOval(sx - hr, sy - hr, hr * 2, hr * 2);
+        }
+    }
+
+    @Override
+    public void paintSvg(SvgWriter svg, WorldTransform transform, double width, double height) throws IOException {
+        double r = 4;
+        for (DerivedPointType type : TYPES) {
+            byte ordinal = (byte) type.ordinal();
+            svg.beginGroup(null, colorOf(type), 0);
+            for (int i = 0; i < size; i++) {
+                if (types[i] != ordinal) {
+                    continue;
+                }
+                double sx = transform.worldToScreenX(xs[i]);
+                double sy = transform.worldToScreenY(ys[i]);
+                // 导出区域外的点不写出
+                if (sx < -r || sx > width + r || sy < -r || sy > height + r) {
+                    continue;
+                }
+                svg.fillCircle(sx, sy, r);
+            }
+            svg.endGroup();
+        }
+    }
+
+    /**
+     * 添加一个派生点
+     */
+    public void add(double x, double y, DerivedPointType type) {
+        ensureCapacity(size + 1);
+        xs[size] = x;
+        ys[size] = y;
+        types[size] = (byte) type.ordinal();
+        size++;
+        indexDirty = true;
+    }
+
+    /**
+     * 批量添加派生点
+     */
+    public void addAll(PointBuffer points, DerivedPointType type) {
+        ensureCapacity(size + points.size());
+        byte ordinal = (byte) type.ordinal();
+        for (int i = 0; i < points.size(); i++) {
+            xs[size] = points.getX(i);
+            ys[size] = points.getY(i);
+            types[size] = ordinal;
+            size++;
+        }
+        indexDirty = true;
+    }
+
+    /**
+     * 批量移除派生点（每个坐标移除一个完全相同的点，找不到则忽略）
+     */
+    public void removeAll(PointBuffer points) {
+        if (points.isEmpty() || size == 0) {
+            return;
+        }
+        ensureIndex();
+        boolean[] removed = new boolean[size];
+        for (int p = 0; p < points.size(); p++) {
+            double x = points.getX(p);
+            double y = points.getY(p);
+            long key = cellKey(cell(x), cell(y));
+            for (int pos = lowerBound(key); pos < cellKeys.length && cellKeys[pos] == key; pos++) {
+                int i = cellOrder[pos];
+                if (!removed[i] && xs[i] == x && ys[i] == y) {
+                    removed[i] = true;
+                    break;
+                }
+            }
+        }
+        compact(removed);
+    }
+
+    /**
+     * 移除指定类型的所有派生点
+     */
+    public void clear(DerivedPointType type) {
+        boolean[] removed = new boolean[size];
+        byte ordinal = (byte) type.ordinal();
+        for (int i = 0; i < size; i++) {
+            removed[i] = types[i] == ordinal;
+        }
+        compact(removed);
+    }
+
+    /**
+     * 移除所有派生点
+     */
+    public void clear() {
+        size = 0;
+        hoverIndex = -1;
+        indexDirty = true;
+    }
+
+    /**
+     * 命中测试
+     *
+     * @return 容差范围内最近的派生点索引，未命中返回 -1
+     */
+    public int hitTest(double worldX, double worldY, double tolerance) {
+        if (size == 0) {
+            return -1;
+        }
+        int minCx = cell(worldX - tolerance);
+        int maxCx = cell(worldX + tolerance);
+        int minCy = cell(worldY - tolerance);
+        int maxCy = cell(worldY + tolerance);
+
+        int best = -1;
+        double bestDistance = tolerance;
+        if ((long) maxCx - minCx > MAX_CELL_SPAN || (long) maxCy - minCy > MAX_CELL_SPAN) {
+            for (int i = 0; i < size; i++) {
+                double d = Math.hypot(worldX - xs[i], worldY - ys[i]);
+                if (d < bestDistance) {
+                    bestDistance = d;
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        ensureIndex();
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cy = minCy; cy <= maxCy; cy++) {
+                long key = cellKey(cx, cy);
+                for (int pos = lowerBound(key); pos < cellKeys.length && cellKeys[pos] == key; pos++) {
+                    int i = cellOrder[pos];
+                    double d = Math.hypot(worldX - xs[i], worldY - ys[i]);
+                    if (d < bestDistance) {
+                        bestDistance = d;
+                        best = i;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 设置悬停的派生点
+     *
+     * @param index 派生点索引，-1 表示无
+     * @return 悬停状态是否发生变化
+     */
+    public boolean setHoverIndex(int index) {
+        if (index == hoverIndex) {
+            return false;
+        }
+        hoverIndex = index;
+        return true;
+    }
+
+    public int getHoverIndex() {
+        return hoverIndex;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getX(int index) {
+        return xs[index];
+    }
+
+    public double getY(int index) {
+        return ys[index];
+    }
+
+    public DerivedPointType getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    /**
+     * 估算点数据占用的内存字节数
+     */
+    public long estimateSize() {
+        return 64 + xs.length * 17L;
+    }
+
+    /**
+     * 创建当前内容的独立副本（用于撤销）
+     */
+    public DerivedPointLayer snapshot() {
+        DerivedPointLayer copy = new DerivedPointLayer();
+        copy.xs = Arrays.copyOf(xs, Math.max(size, 1));
+        copy.ys = Arrays.copyOf(ys, Math.max(size, 1));
+        copy.types = Arrays.copyOf(types, Math.max(size, 1));
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * 用副本的内容替换当前内容
+     */
+    public void restore(DerivedPointLayer snapshot) {
+        xs = Arrays.copyOf(snapshot.xs, Math.max(snapshot.size, 16));
+        ys = Arrays.copyOf(snapshot.ys, Math.max(snapshot.size, 16));
+        types = Arrays.copyOf(snapshot.types, Math.max(snapshot.size, 16));
+        size = snapshot.size;
+        hoverIndex = -1;
+        indexDirty = true;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > xs.length) {
+            int newCapacity = Math.max(capacity, xs.length * 2);
+            xs = Arrays.copyOf(xs, newCapacity);
+            ys = Arrays.copyOf(ys, newCapacity);
+            types = Arrays.copyOf(types, newCapacity);
+        }
+    }
+
+    /**
+     * 保持原有顺序，移除被标记的点
+     */
+    private void compact(boolean[] removed) {
+        int hover = hoverIndex;
+        hoverIndex = -1;
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            if (removed[i]) {
+                continue;
+            }
+            if (i == hover) {
+                hoverIndex = j;
+            }
+            xs[j] = xs[i];
+            ys[j] = ys[i];
+            types[j] = types[i];
+            j++;
+        }
+        size = j;
+        indexDirty = true;
+    }
+
+    /**
+     * 必要时重建空间索引
+     */
+    private void ensureIndex() {
+        if (!indexDirty) {
+            return;
+        }
+        long[] keys = new long[size];
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = cellKey(cell(xs[i]), cell(ys[i]));
+            order[i] = i;
+        }
+        sort(keys, order, 0, size - 1);
+        cellKeys = keys;
+        cellOrder = order;
+        indexDirty = false;
+    }
+
+    /**
+     * 第一个不小于 key 的位置
+     */
+    private int lowerBound(long key) {
+        int lo = 0;
+        int hi = cellKeys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cellKeys[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 按键对 (键, 索引) 数组对进行快速排序
+     */
+    private static void sort(long[] keys, int[] order, int lo, int hi) {
+        while (lo < hi) {
+            long pivot = keys[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (keys[i] < pivot) i++;
+                while (keys[j] > pivot) j--;
+                if (i <= j) {
+                    long k = keys[i];
+                    keys[i] = keys[j];
+                    keys[j] = k;
+                    int o = order[i];
+                    order[i] = order[j];
+                    order[j] = o;
+                    i++;
+                    j--;
+                }
+            }
+            // 先递归较小的一侧，限制栈深度
+            if (j - lo < hi - i) {
+                sort(keys, order, lo, j);
+                lo = i;
+            } else {
+                sort(keys, order, i, hi);
+                hi = j;
+            }
+        }
+    }
+}
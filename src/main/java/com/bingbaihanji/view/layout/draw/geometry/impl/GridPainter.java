@@ -1,15 +1,19 @@
 package com.bingbaihanji.view.layout.draw.geometry.impl;
 
 import com.bingbaihanji.constant.GridMode;
+import com.bingbaihanji.util.SvgWriter;
 import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.SvgPaintable;
 import com.bingbaihanji.view.layout.draw.geometry.WorldPainter;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 
+import java.io.IOException;
+
 /**
  * 世界网格绘制器
  */
-public class GridPainter implements WorldPainter {
+public class GridPainter implements WorldPainter, SvgPaintable {
 
     private GridMode gridMode;
 
@@ -75,6 +79,45 @@ public class GridPainter implements WorldPainter {
         }
     }
 
+    @Override
+    public void paintSvg(SvgWriter svg,
+                         WorldTransform transform,
+                         double width,
+                         double height) throws IOException {
+
+        double worldLeft = transform.screenToWorldX(0);
+        double worldRight = transform.screenToWorldX(width);
+        double worldTop = transform.screenToWorldY(0);
+        double worldBottom = transform.screenToWorldY(height);
+
+        double step = chooseStep(transform.getScale());
+        double startX = Math.floor(worldLeft / step) * step;
+        double startY = Math.floor(worldBottom / step) * step;
+
+        if (gridMode == GridMode.DOT) {
+            svg.beginGroup(null, Color.rgb(126, 126, 126), 0);
+            for (double x = startX; x <= worldRight; x += step) {
+                for (double y = startY; y <= worldTop; y += step) {
+                    svg.fillCircle(transform.worldToScreenX(x), transform.worldToScreenY(y), 1);
+                }
+            }
+            svg.endGroup();
+        }
+
+        if (gridMode == GridMode.LINE) {
+            svg.beginGroup(Color.rgb(153, 153, 153), null, 1);
+            for (double x = startX; x <= worldRight; x += step) {
+                double sx = transform.worldToScreenX(x);
+                svg.line(sx, 0, sx, height);
+            }
+            for (double y = startY; y <= worldTop; y += step) {
+                double sy = transform.worldToScreenY(y);
+                svg.line(0, sy, width, sy);
+            }
+            svg.endGroup();
+        }
+    }
+
     private double chooseStep(double scale) {
         if (scale > 150) return 0.2;
         if (scale > 80) return 0.5;
@@ -1,13 +1,18 @@
 package com.bingbaihanji.view.layout.draw.geometry.impl;
 
+import com.bingbaihanji.constant.ShapeKind;
+import com.bingbaihanji.util.ObjectIds;
 import com.bingbaihanji.util.PointNameManager;
+import com.bingbaihanji.util.SvgWriter;
 import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.SvgPaintable;
 import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -18,7 +23,7 @@ import java.util.List;
  * @author bingbaihanji
  * @date 2025-12-23
  */
-public class InfiniteLineGeo implements WorldObject {
+public class InfiniteLineGeo implements WorldObject, SvgPaintable {
 
     private double point1X;
     private double point1Y;
@@ -28,8 +33,14 @@ public class InfiniteLineGeo implements WorldObject {
     private boolean hover = false;
     private String point1Name; // 定义点1名称
     private String point2Name; // 定义点2名称
+    /**
+     * 唯一标识与几何版本号
+     */
+    private final long id;
+    private long version = 0;
 
     public InfiniteLineGeo(double point1X, double point1Y, double point2X, double point2Y) {
+        this.id = ObjectIds.next();
         this.point1X = point1X;
         this.point1Y = point1Y;
         this.point2X = point2X;
@@ -40,6 +51,25 @@ public class InfiniteLineGeo implements WorldObject {
         this.point2Name = manager.assignName(point2X, point2Y);
     }
 
+    /**
+     * 复制构造（保留标识与版本号，不重新分配名称）
+     */
+    private InfiniteLineGeo(InfiniteLineGeo source) {
+        this.id = source.id;
+        this.version = source.version;
+        this.point1X = source.point1X;
+        this.point1Y = source.point1Y;
+        this.point2X = source.point2X;
+        this.point2Y = source.point2Y;
+        this.point1Name = source.point1Name;
+        this.point2Name = source.point2Name;
+    }
+
+    @Override
+    public WorldObject snapshot() {
+        return new InfiniteLineGeo(this);
+    }
+
     public double getPoint1X() {
         return point1X;
     }
@@ -56,6 +86,17 @@ public class InfiniteLineGeo implements WorldObject {
         return point2Y;
     }
 
+    /**
+     * 重新设置两个定义点（名称不变）
+     */
+    public void setPoints(double point1X, double point1Y, double point2X, double point2Y) {
+        this.point1X = point1X;
+        this.point1Y = point1Y;
+        this.point2X = point2X;
+        this.point2Y = point2Y;
+        version++;
+    }
+
     @Override
     public void paint(GraphicsContext gc, WorldTransform transform, double w, double h) {
         // 转换两个点到屏幕坐标
@@ -93,6 +134,30 @@ public class InfiniteLineGeo implements WorldObject {
         }
     }
 
+    @Override
+    public void paintSvg(SvgWriter svg, WorldTransform transform, double w, double h) throws IOException {
+        double sx1 = transform.worldToScreenX(point1X);
+        double sy1 = transform.worldToScreenY(point1Y);
+        double sx2 = transform.worldToScreenX(point2X);
+        double sy2 = transform.worldToScreenY(point2Y);
+        double[] endpoints = calculateLineScreenIntersection(sx1, sy1, sx2, sy2, w, h);
+
+        svg.beginGroup(Color.DODGERBLUE, Color.RED, 2);
+        svg.line(endpoints[0], endpoints[1], endpoints[2], endpoints[3]);
+        svg.fillCircle(sx1, sy1, 4);
+        svg.fillCircle(sx2, sy2, 4);
+        svg.endGroup();
+
+        svg.beginGroup(null, Color.BLACK, 0);
+        if (point1Name != null && !point1Name.isEmpty()) {
+            svg.text(sx1 + 8, sy1 - 8, point1Name, 12);
+        }
+        if (point2Name != null && !point2Name.isEmpty()) {
+            svg.text(sx2 + 8, sy2 - 8, point2Name, 12);
+        }
+        svg.endGroup();
+    }
+
     /**
      * 计算直线与屏幕边界的交点，使直线延伸至屏幕边界
      */
@@ -135,6 +200,34 @@ public class InfiniteLineGeo implements WorldObject {
         return new double[]{p1x, p1y, p2x, p2y};
     }
 
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 坐标布局：{定义点1x, 定义点1y, 定义点2x, 定义点2y}
+     */
+    @Override
+    public double[] getCoordinates() {
+        return new double[]{point1X, point1Y, point2X, point2Y};
+    }
+
+    @Override
+    public void setCoordinates(double[] coordinates) {
+        setPoints(coordinates[0], coordinates[1], coordinates[2], coordinates[3]);
+    }
+
+    @Override
+    public ShapeKind kind() {
+        return ShapeKind.INFINITE_LINE;
+    }
+
     @Override
     public boolean hitTest(double x, double y, double tolerance) {
         // 计算点到直线的距离
@@ -170,10 +263,12 @@ public class InfiniteLineGeo implements WorldObject {
                 new DraggablePoint(point1X, point1Y, (newX, newY) -> {
                     point1X = newX;
                     point1Y = newY;
+                    version++;
                 }),
                 new DraggablePoint(point2X, point2Y, (newX, newY) -> {
                     point2X = newX;
                     point2Y = newY;
+                    version++;
                 })
         );
     }
@@ -194,5 +289,6 @@ public class InfiniteLineGeo implements WorldObject {
         double dy2 = point2Y - centerY;
         point2X = centerX + dx2 * cos - dy2 * sin;
         point2Y = centerY + dx2 * sin + dy2 * cos;
+        version++;
     }
 }
@@ -0,0 +1,355 @@
+package com.bingbaihanji.view.layout.draw.geometry.impl;
+
+import com.bingbaihanji.constant.ShapeKind;
+import com.bingbaihanji.util.ObjectIds;
+import com.bingbaihanji.util.PointNameManager;
+import com.bingbaihanji.util.SegmentBvh;
+import com.bingbaihanji.util.SvgWriter;
+import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.SegmentShape;
+import com.bingbaihanji.view.layout.draw.geometry.SvgPaintable;
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 延迟加载的多边形或手绘路径
+ * <p>
+ * 只持有包围盒与场景文件映射区域中的顶点数据（交错存放的 x、y，大端 double），
+ * 图形进入视口、被命中测试或参与求交时才把顶点读入堆内存，构造真正的 {@link PolygonGeo} / {@link PathGeo}。
+ * 读入的图形只被软引用持有，内存紧张时由垃圾回收释放，之后需要时再从映射区域重新读取；
+ * 图形被编辑（拖动、旋转、设置坐标）后改为强引用持有，不再释放
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+public class LazyPolylineGeo implements WorldObject, SegmentShape, SvgPaintable {
+
+    private final long id;
+    private final ShapeKind kind;
+    /**
+     * 顶点数据（映射区域的视图，{@link #detach()} 后为堆内存中的副本）
+     */
+    private ByteBuffer vertices;
+    private final int vertexCount;
+    private final Rectangle2D bounds;
+
+    private SoftReference<WorldObject> cached = new SoftReference<>(null);
+    /**
+     * 编辑过的图形（强引用）
+     */
+    private WorldObject pinned;
+    /**
+     * 放弃编辑时累加的版本号，保证版本号单调递增
+     */
+    private long versionBase = 0;
+    private boolean hover = false;
+    /**
+     * 读入顶点时是否分配点名称（快照为 false）
+     */
+    private boolean named = true;
+    private int loadCount = 0;
+
+    /**
+     * @param kind     {@link ShapeKind#POLYGON} 或 {@link ShapeKind#PATH}
+     * @param vertices 交错存放的顶点坐标，长度为顶点数 × 16 字节
+     * @param bounds   顶点的包围盒
+     */
+    public LazyPolylineGeo(ShapeKind kind, ByteBuffer vertices, Rectangle2D bounds) {
+        this(ObjectIds.next(), kind, vertices, bounds);
+    }
+
+    private LazyPolylineGeo(long id, ShapeKind kind, ByteBuffer vertices, Rectangle2D bounds) {
+        if (kind != ShapeKind.POLYGON && kind != ShapeKind.PATH) {
+            throw new IllegalArgumentException("只支持多边形和手绘路径：" + kind);
+        }
+        this.id = id;
+        this.kind = kind;
+        this.vertices = vertices;
+        this.vertexCount = vertices.capacity() / 16;
+        this.bounds = bounds;
+    }
+
+    /**
+     * 顶点当前是否已读入堆内存
+     */
+    public boolean isLoaded() {
+        return pinned != null || cached.get() != null;
+    }
+
+    /**
+     * 顶点被读入堆内存的次数
+     */
+    public int getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * 主动释放读入的顶点（编辑过的图形不释放）
+     */
+    public void release() {
+        cached.clear();
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * 获取真正的图形（必要时从映射区域读入顶点）
+     */
+    public WorldObject load() {
+        if (pinned != null) {
+            return pinned;
+        }
+        WorldObject shape = cached.get();
+        if (shape == null) {
+            shape = create();
+            shape.setHover(hover);
+            cached = new SoftReference<>(shape);
+            loadCount++;
+        }
+        return shape;
+    }
+
+    /**
+     * 把顶点复制到堆内存，不再引用映射区域（覆盖保存被映射的场景文件之前调用）
+     * <p>
+     * 之后仍按需构造图形、可以放弃编辑，只是顶点数据改为占用堆内存
+     */
+    public void detach() {
+        if (vertices.isDirect()) {
+            ByteBuffer copy = ByteBuffer.allocate(vertices.capacity());
+            copy.put(vertices.duplicate().clear());
+            vertices = copy.flip();
+        }
+    }
+
+    /**
+     * 是否编辑过（编辑过的顶点以强引用持有，不再与映射区域一致）
+     */
+    public boolean isPinned() {
+        return pinned != null;
+    }
+
+    /**
+     * 放弃编辑，恢复为映射区域中的顶点（如恢复历史检查点时）
+     */
+    public void unpin() {
+        if (pinned != null) {
+            versionBase += pinned.getVersion() + 1;
+            pinned = null;
+        }
+    }
+
+    /**
+     * 获取真正的图形并改为强引用持有（图形即将被修改）
+     */
+    private WorldObject pin() {
+        if (pinned == null) {
+            pinned = load();
+            cached.clear();
+        }
+        return pinned;
+    }
+
+    private WorldObject create() {
+        double[] xs = new double[vertexCount];
+        double[] ys = new double[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            xs[i] = vertices.getDouble(i * 16);
+            ys[i] = vertices.getDouble(i * 16 + 8);
+        }
+        return kind == ShapeKind.POLYGON ? new PolygonGeo(id, xs, ys, named) : new PathGeo(id, xs, ys, named);
+    }
+
+    @Override
+    public void paint(GraphicsContext gc, WorldTransform transform, double w, double h) {
+        Rectangle2D box = getBounds();
+        double left = transform.worldToScreenX(box.getMinX());
+        double right = transform.worldToScreenX(box.getMaxX());
+        // 世界 Y 轴向上，屏幕 Y 轴向下
+        double top = transform.worldToScreenY(box.getMaxY());
+        double bottom = transform.worldToScreenY(box.getMinY());
+        if (right < 0 || left > w || bottom < 0 || top > h) {
+            return;
+        }
+        load().paint(gc, transform, w, h);
+    }
+
+    /**
+     * 导出：未读入时直接从映射区域逐个写出顶点，不把顶点读入堆内存
+     */
+    @Override
+    public void paintSvg(SvgWriter svg, WorldTransform transform, double w, double h) throws IOException {
+        WorldObject shape = pinned != null ? pinned : cached.get();
+        if (shape != null) {
+            ((SvgPaintable) shape).paintSvg(svg, transform, w, h);
+            return;
+        }
+        boolean polygon = kind == ShapeKind.POLYGON;
+        if (vertexCount < (polygon ? 1 : 2)) {
+            return;
+        }
+        svg.beginGroup(Color.DODGERBLUE, Color.RED, 2);
+        svg.beginPolyline(polygon);
+        for (int i = 0; i < vertexCount; i++) {
+            svg.vertex(transform.worldToScreenX(vertices.getDouble(i * 16)),
+                    transform.worldToScreenY(vertices.getDouble(i * 16 + 8)));
+        }
+        svg.endPolyline();
+        // 多边形绘制全部顶点，手绘路径只绘制起点和终点
+        for (int i = 0; i < vertexCount; i++) {
+            if (polygon || i == 0 || i == vertexCount - 1) {
+                svg.fillCircle(transform.worldToScreenX(vertices.getDouble(i * 16)),
+                        transform.worldToScreenY(vertices.getDouble(i * 16 + 8)), polygon ? 3 : 4);
+            }
+        }
+        svg.endGroup();
+
+        svg.beginGroup(null, Color.BLACK, 0);
+        PointNameManager names = PointNameManager.getInstance();
+        for (int i = 0; i < vertexCount; i++) {
+            if (polygon || i == 0 || i == vertexCount - 1) {
+                double x = vertices.getDouble(i * 16);
+                double y = vertices.getDouble(i * 16 + 8);
+                String name = names.getName(x, y);
+                if (name != null && !name.isEmpty()) {
+                    svg.text(transform.worldToScreenX(x) + 8, transform.worldToScreenY(y) - 8, name, 12);
+                }
+            }
+        }
+        svg.endGroup();
+    }
+
+    @Override
+    public boolean hitTest(double worldX, double worldY, double tolerance) {
+        Rectangle2D box = getBounds();
+        if (worldX < box.getMinX() - tolerance || worldX > box.getMaxX() + tolerance
+                || worldY < box.getMinY() - tolerance || worldY > box.getMaxY() + tolerance) {
+            return false;
+        }
+        return load().hitTest(worldX, worldY, tolerance);
+    }
+
+    @Override
+    public SegmentBvh getSegmentBvh() {
+        return ((SegmentShape) load()).getSegmentBvh();
+    }
+
+    @Override
+    public ShapeKind kind() {
+        return kind;
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public long getVersion() {
+        return pinned != null ? versionBase + pinned.getVersion() : versionBase;
+    }
+
+    @Override
+    public Rectangle2D getBounds() {
+        return pinned != null ? pinned.getBounds() : bounds;
+    }
+
+    /**
+     * 快照：编辑过时复制编辑后的图形，否则返回共享同一映射区域的延迟图形（标识、版本相同），
+     * 顶点只在后台计算真正需要时才读入
+     */
+    @Override
+    public WorldObject snapshot() {
+        if (pinned != null) {
+            return pinned.snapshot();
+        }
+        LazyPolylineGeo copy = new LazyPolylineGeo(id, kind, vertices, bounds);
+        copy.versionBase = versionBase;
+        // 快照在后台线程上读入顶点，不访问点名称管理器
+        copy.named = false;
+        return copy;
+    }
+
+    /**
+     * 坐标布局：{x0, y0, x1, y1, ...}（未编辑时直接从映射区域读取）
+     */
+    @Override
+    public double[] getCoordinates() {
+        if (pinned != null) {
+            return pinned.getCoordinates();
+        }
+        double[] coordinates = new double[vertexCount * 2];
+        vertices.duplicate().asDoubleBuffer().get(coordinates);
+        return coordinates;
+    }
+
+    @Override
+    public int getCoordinateCount() {
+        return pinned != null ? pinned.getCoordinateCount() : vertexCount * 2;
+    }
+
+    @Override
+    public void copyCoordinates(int from, double[] dest, int destOffset, int length) {
+        if (pinned != null) {
+            pinned.copyCoordinates(from, dest, destOffset, length);
+        } else {
+            vertices.duplicate().asDoubleBuffer().get(from, dest, destOffset, length);
+        }
+    }
+
+    @Override
+    public void setCoordinates(double[] coordinates) {
+        pin().setCoordinates(coordinates);
+    }
+
+    @Override
+    public long estimateSize() {
+        WorldObject shape = pinned != null ? pinned : cached.get();
+        return shape != null ? shape.estimateSize() : 64;
+    }
+
+    @Override
+    public void onClick(double worldX, double worldY) {
+        load().onClick(worldX, worldY);
+    }
+
+    @Override
+    public void setHover(boolean hover) {
+        this.hover = hover;
+        WorldObject shape = pinned != null ? pinned : cached.get();
+        if (shape != null) {
+            shape.setHover(hover);
+        }
+    }
+
+    /**
+     * 控制点：拖动控制点时先改为强引用持有，保证修改不会随软引用一起丢失
+     */
+    @Override
+    public List<DraggablePoint> getDraggablePoints() {
+        List<DraggablePoint> points = load().getDraggablePoints();
+        List<DraggablePoint> wrapped = new ArrayList<>(points.size());
+        for (DraggablePoint point : points) {
+            wrapped.add(new DraggablePoint(point.getX(), point.getY(), (newX, newY) -> {
+                pin();
+                point.updatePosition(newX, newY);
+            }));
+        }
+        return wrapped;
+    }
+
+    @Override
+    public void rotateAroundPoint(double centerX, double centerY, double angle) {
+        pin().rotateAroundPoint(centerX, centerY, angle);
+    }
+}
@@ -1,16 +1,22 @@
 package com.bingbaihanji.view.layout.draw.geometry.impl;
 
+import com.bingbaihanji.constant.ShapeKind;
+import com.bingbaihanji.util.ObjectIds;
 import com.bingbaihanji.util.PointNameManager;
+import com.bingbaihanji.util.SvgWriter;
 import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.SvgPaintable;
 import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
 
+import java.io.IOException;
 import java.util.List;
 
-public class LineGeo implements WorldObject {
+public class LineGeo implements WorldObject, SvgPaintable {
 
     private double startX;
     private double startY;
@@ -20,12 +26,18 @@ public class LineGeo implements WorldObject {
     private boolean hover = false;
     private String startPointName; // 起点名称
     private String endPointName;   // 终点名称
+    /**
+     * 唯一标识与几何版本号
+     */
+    private final long id;
+    private long version = 0;
 
     public LineGeo(double startX, double startY, double endX, double endY) {
         this(startX, startY, endX, endY, true);
     }
 
     public LineGeo(double startX, double startY, double endX, double endY, boolean autoName) {
+        this.id = ObjectIds.next();
         this.startX = startX;
         this.startY = startY;
         this.endX = endX;
@@ -38,6 +50,22 @@ public class LineGeo implements WorldObject {
         }
     }
 
+    /**
+     * 复制构造（保留标识与版本号，不复制名称）
+     */
+    private LineGeo(LineGeo source) {
+        this.id = source.id;
+        this.version = source.version;
+        this.startX = source.startX;
+        this.startY = source.startY;
+        this.endX = source.endX;
+        this.endY = source.endY;
+    }
+
+    @Override
+    public WorldObject snapshot() {
+        return new LineGeo(this);
+    }
 
     public double getStartX() {
         return startX;
@@ -84,6 +112,61 @@ public class LineGeo implements WorldObject {
         }
     }
 
+    @Override
+    public void paintSvg(SvgWriter svg, WorldTransform transform, double w, double h) throws IOException {
+        double sx1 = transform.worldToScreenX(startX);
+        double sy1 = transform.worldToScreenY(startY);
+        double sx2 = transform.worldToScreenX(endX);
+        double sy2 = transform.worldToScreenY(endY);
+
+        svg.beginGroup(Color.DODGERBLUE, Color.RED, 2);
+        svg.line(sx1, sy1, sx2, sy2);
+        svg.fillCircle(sx1, sy1, 4);
+        svg.fillCircle(sx2, sy2, 4);
+        svg.endGroup();
+
+        svg.beginGroup(null, Color.BLACK, 0);
+        if (startPointName != null && !startPointName.isEmpty()) {
+            svg.text(sx1 + 8, sy1 - 8, startPointName, 12);
+        }
+        if (endPointName != null && !endPointName.isEmpty()) {
+            svg.text(sx2 + 8, sy2 - 8, endPointName, 12);
+        }
+        svg.endGroup();
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 坐标布局：{起点x, 起点y, 终点x, 终点y}
+     */
+    @Override
+    public double[] getCoordinates() {
+        return new double[]{startX, startY, endX, endY};
+    }
+
+    @Override
+    public void setCoordinates(double[] coordinates) {
+        startX = coordinates[0];
+        startY = coordinates[1];
+        endX = coordinates[2];
+        endY = coordinates[3];
+        version++;
+    }
+
+    @Override
+    public ShapeKind kind() {
+        return ShapeKind.LINE;
+    }
+
     @Override
     public boolean hitTest(double x, double y, double tolerance) {
         // 点到线段的距离计算
@@ -103,6 +186,13 @@ public class LineGeo implements WorldObject {
         return distance <= tolerance;
     }
 
+    @Override
+    public Rectangle2D getBounds() {
+        double minX = Math.min(startX, endX);
+        double minY = Math.min(startY, endY);
+        return new Rectangle2D(minX, minY, Math.max(startX, endX) - minX, Math.max(startY, endY) - minY);
+    }
+
     @Override
     public void onClick(double x, double y) {
         // 线段本身暂时不响应点击
@@ -120,10 +210,12 @@ public class LineGeo implements WorldObject {
                 new DraggablePoint(startX, startY, (newX, newY) -> {
                     startX = newX;
                     startY = newY;
+                    version++;
                 }),
                 new DraggablePoint(endX, endY, (newX, newY) -> {
                     endX = newX;
                     endY = newY;
+                    version++;
                 })
         );
     }
@@ -144,5 +236,6 @@ public class LineGeo implements WorldObject {
         double dy2 = endY - centerY;
         endX = centerX + dx2 * cos - dy2 * sin;
         endY = centerY + dx2 * sin + dy2 * cos;
+        version++;
     }
 }
\ No newline at end of file
@@ -1,14 +1,22 @@
 package com.bingbaihanji.view.layout.draw.geometry.impl;
 
+import com.bingbaihanji.constant.ShapeKind;
+import com.bingbaihanji.util.ObjectIds;
 import com.bingbaihanji.util.PointNameManager;
+import com.bingbaihanji.util.SegmentBvh;
+import com.bingbaihanji.util.SvgWriter;
 import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.SegmentShape;
+import com.bingbaihanji.view.layout.draw.geometry.SvgPaintable;
 import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
 import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -20,16 +28,27 @@ import java.util.List;
  * @author bingbaihanji
  * @date 2025-12-23
  */
-public class PathGeo implements WorldObject {
+public class PathGeo implements WorldObject, SegmentShape, SvgPaintable {
 
     /**
      * 路径上的所有点（世界坐标）
      */
-    private final List<Point> pathPoints;
+    private final double[] xs;
+    private final double[] ys;
 
     private boolean hover = false;
     private String startPointName; // 起点名称
     private String endPointName;   // 终点名称
+    /**
+     * 唯一标识与几何版本号
+     */
+    private final long id;
+    private long version = 0;
+
+    /**
+     * 线段 BVH（延迟构建，顶点变化后失效）
+     */
+    private SegmentBvh bvh;
 
     /**
      * 构造函数
@@ -41,9 +60,13 @@ public class PathGeo implements WorldObject {
             throw new IllegalArgumentException("路径至少需要2个点");
         }
 
-        this.pathPoints = new ArrayList<>();
-        for (Point2D p : points) {
-            this.pathPoints.add(new Point(p.getX(), p.getY()));
+        this.id = ObjectIds.next();
+        this.xs = new double[points.size()];
+        this.ys = new double[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            Point2D p = points.get(i);
+            xs[i] = p.getX();
+            ys[i] = p.getY();
         }
 
         // 为起点和终点分配名称
@@ -54,34 +77,93 @@ public class PathGeo implements WorldObject {
         this.endPointName = manager.assignName(endPoint.getX(), endPoint.getY());
     }
 
+    /**
+     * 构造函数（直接使用给定的坐标数组，不复制，用于批量加载大量路径点）
+     *
+     * @param xs 路径点的 X 坐标
+     * @param ys 路径点的 Y 坐标
+     */
+    public PathGeo(double[] xs, double[] ys) {
+        this(ObjectIds.next(), xs, ys);
+    }
+
+    /**
+     * 构造函数（使用指定的标识，供延迟加载的图形在重新加载坐标时保持标识不变）
+     */
+    PathGeo(long id, double[] xs, double[] ys) {
+        this(id, xs, ys, true);
+    }
+
+    /**
+     * 构造函数（使用指定的标识；named 为 false 时不分配起点、终点名称，供后台线程上的快照读入顶点）
+     */
+    PathGeo(long id, double[] xs, double[] ys, boolean named) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("X、Y 坐标数组长度不一致");
+        }
+        if (xs.length < 2) {
+            throw new IllegalArgumentException("路径至少需要2个点");
+        }
+
+        this.id = id;
+        this.xs = xs;
+        this.ys = ys;
+
+        // 为起点和终点分配名称
+        if (named) {
+            PointNameManager manager = PointNameManager.getInstance();
+            int last = xs.length - 1;
+            this.startPointName = manager.assignName(xs[0], ys[0]);
+            this.endPointName = manager.assignName(xs[last], ys[last]);
+        }
+    }
+
+    /**
+     * 复制构造（复制路径点数组，保留标识与版本号，不重新分配名称）
+     */
+    private PathGeo(PathGeo source) {
+        this.id = source.id;
+        this.version = source.version;
+        this.xs = source.xs.clone();
+        this.ys = source.ys.clone();
+        this.startPointName = source.startPointName;
+        this.endPointName = source.endPointName;
+    }
+
+    @Override
+    public WorldObject snapshot() {
+        return new PathGeo(this);
+    }
+
+    @Override
+    public long estimateSize() {
+        // 顶点坐标与线段 BVH
+        return 64 + xs.length * 48L;
+    }
+
     @Override
     public void paint(GraphicsContext gc, WorldTransform transform, double w, double h) {
-        if (pathPoints.size() < 2) return;
+        if (xs.length < 2) return;
 
         // 绘制曲线路径
         gc.setStroke(hover ? Color.ORANGE : Color.DODGERBLUE);
         gc.setLineWidth(hover ? 3 : 2);
 
-        for (int i = 0; i < pathPoints.size() - 1; i++) {
-            Point p1 = pathPoints.get(i);
-            Point p2 = pathPoints.get(i + 1);
-
-            double sx1 = transform.worldToScreenX(p1.x);
-            double sy1 = transform.worldToScreenY(p1.y);
-            double sx2 = transform.worldToScreenX(p2.x);
-            double sy2 = transform.worldToScreenY(p2.y);
+        for (int i = 0; i < xs.length - 1; i++) {
+            double sx1 = transform.worldToScreenX(xs[i]);
+            double sy1 = transform.worldToScreenY(ys[i]);
+            double sx2 = transform.worldToScreenX(xs[i + 1]);
+            double sy2 = transform.worldToScreenY(ys[i + 1]);
 
             gc.strokeLine(sx1, sy1, sx2, sy2);
         }
 
         // 只绘制起点和终点
-        Point startPoint = pathPoints.get(0);
-        Point endPoint = pathPoints.get(pathPoints.size() - 1);
-
-        double sx1 = transform.worldToScreenX(startPoint.x);
-        double sy1 = transform.worldToScreenY(startPoint.y);
-        double sx2 = transform.worldToScreenX(endPoint.x);
-        double sy2 = transform.worldToScreenY(endPoint.y);
+        int last = xs.length - 1;
+        double sx1 = transform.worldToScreenX(xs[0]);
+        double sy1 = transform.worldToScreenY(ys[0]);
+        double sx2 = transform.worldToScreenX(xs[last]);
+        double sy2 = transform.worldToScreenY(ys[last]);
 
         gc.setFill(hover ? Color.ORANGE : Color.RED);
         double pointRadius = hover ? 5 : 4;
@@ -101,38 +183,127 @@ public class PathGeo implements WorldObject {
     }
 
     @Override
-    public boolean hitTest(double wx, double wy, double tol) {
-        // 检查点到路径的距离
-        for (int i = 0; i < pathPoints.size() - 1; i++) {
-            Point p1 = pathPoints.get(i);
-            Point p2 = pathPoints.get(i + 1);
+    public void paintSvg(SvgWriter svg, WorldTransform transform, double w, double h) throws IOException {
+        if (xs.length < 2) return;
 
-            double dist = pointToSegmentDistance(wx, wy, p1.x, p1.y, p2.x, p2.y);
-            if (dist < tol) {
-                return true;
-            }
+        svg.beginGroup(Color.DODGERBLUE, Color.RED, 2);
+        svg.beginPolyline(false);
+        for (int i = 0; i < xs.length; i++) {
+            svg.vertex(transform.worldToScreenX(xs[i]), transform.worldToScreenY(ys[i]));
         }
-        return false;
+        svg.endPolyline();
+
+        // 只绘制起点和终点
+        int last = xs.length - 1;
+        double sx1 = transform.worldToScreenX(xs[0]);
+        double sy1 = transform.worldToScreenY(ys[0]);
+        double sx2 = transform.worldToScreenX(xs[last]);
+        double sy2 = transform.worldToScreenY(ys[last]);
+        svg.fillCircle(sx1, sy1, 4);
+        svg.fillCircle(sx2, sy2, 4);
+        svg.endGroup();
+
+        svg.beginGroup(null, Color.BLACK, 0);
+        if (startPointName != null && !startPointName.isEmpty()) {
+            svg.text(sx1 + 8, sy1 - 8, startPointName, 12);
+        }
+        if (endPointName != null && !endPointName.isEmpty()) {
+            svg.text(sx2 + 8, sy2 - 8, endPointName, 12);
+        }
+        svg.endGroup();
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 坐标布局：{x0, y0, x1, y1, ...}
+     */
+    @Override
+    public double[] getCoordinates() {
+        double[] coordinates = new double[xs.length * 2];
+        for (int i = 0; i < xs.length; i++) {
+            coordinates[i * 2] = xs[i];
+            coordinates[i * 2 + 1] = ys[i];
+        }
+        return coordinates;
+    }
+
+    @Override
+    public int getCoordinateCount() {
+        return xs.length * 2;
+    }
+
+    @Override
+    public void copyCoordinates(int from, double[] dest, int destOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            int index = from + i;
+            dest[destOffset + i] = (index & 1) == 0 ? xs[index >> 1] : ys[index >> 1];
+        }
+    }
+
+    @Override
+    public void setCoordinates(double[] coordinates) {
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = coordinates[i * 2];
+            ys[i] = coordinates[i * 2 + 1];
+        }
+        invalidate();
+    }
+
+    @Override
+    public ShapeKind kind() {
+        return ShapeKind.PATH;
+    }
+
+    @Override
+    public boolean hitTest(double wx, double wy, double tol) {
+        // 通过 BVH 检查点到路径的距离
+        return getSegmentBvh().anyWithin(wx, wy, tol);
     }
 
     /**
-     * 计算点到线段的距离
+     * 获取路径上离给定点最近的点
      */
-    private double pointToSegmentDistance(double px, double py,
-                                          double x1, double y1, double x2, double y2) {
-        double dx = x2 - x1;
-        double dy = y2 - y1;
-        double lengthSquared = dx * dx + dy * dy;
+    public Point2D getNearestPoint(double wx, double wy) {
+        double[] out = new double[2];
+        getSegmentBvh().nearestPoint(wx, wy, out);
+        return new Point2D(out[0], out[1]);
+    }
 
-        if (lengthSquared == 0) {
-            return Math.hypot(px - x1, py - y1);
+    /**
+     * 获取线段 BVH（必要时重新构建）
+     */
+    @Override
+    public SegmentBvh getSegmentBvh() {
+        SegmentBvh tree = bvh;
+        if (tree == null) {
+            tree = SegmentBvh.build(xs, ys, xs.length, false);
+            bvh = tree;
         }
+        return tree;
+    }
 
-        double t = Math.max(0, Math.min(1, ((px - x1) * dx + (py - y1) * dy) / lengthSquared));
-        double nearestX = x1 + t * dx;
-        double nearestY = y1 + t * dy;
+    /**
+     * 顶点发生变化，丢弃 BVH 并递增版本号
+     */
+    private void invalidate() {
+        bvh = null;
+        version++;
+    }
 
-        return Math.hypot(px - nearestX, py - nearestY);
+    @Override
+    public Rectangle2D getBounds() {
+        SegmentBvh tree = getSegmentBvh();
+        return new Rectangle2D(tree.getMinX(), tree.getMinY(),
+                tree.getMaxX() - tree.getMinX(), tree.getMaxY() - tree.getMinY());
     }
 
     @Override
@@ -152,22 +323,24 @@ public class PathGeo implements WorldObject {
 
         // 起点
         points.add(new DraggablePoint(
-                pathPoints.get(0).x,
-                pathPoints.get(0).y,
+                xs[0],
+                ys[0],
                 (newX, newY) -> {
-                    pathPoints.get(0).x = newX;
-                    pathPoints.get(0).y = newY;
+                    xs[0] = newX;
+                    ys[0] = newY;
+                    invalidate();
                 }
         ));
 
         // 终点
-        int lastIndex = pathPoints.size() - 1;
+        int lastIndex = xs.length - 1;
         points.add(new DraggablePoint(
-                pathPoints.get(lastIndex).x,
-                pathPoints.get(lastIndex).y,
+                xs[lastIndex],
+                ys[lastIndex],
                 (newX, newY) -> {
-                    pathPoints.get(lastIndex).x = newX;
-                    pathPoints.get(lastIndex).y = newY;
+                    xs[lastIndex] = newX;
+                    ys[lastIndex] = newY;
+                    invalidate();
                 }
         ));
 
@@ -179,10 +352,8 @@ public class PathGeo implements WorldObject {
      */
     public List<LineGeo> getEdges() {
         List<LineGeo> edges = new ArrayList<>();
-        for (int i = 0; i < pathPoints.size() - 1; i++) {
-            Point p1 = pathPoints.get(i);
-            Point p2 = pathPoints.get(i + 1);
-            edges.add(new LineGeo(p1.x, p1.y, p2.x, p2.y, false));  // 不自动命名
+        for (int i = 0; i < xs.length - 1; i++) {
+            edges.add(new LineGeo(xs[i], ys[i], xs[i + 1], ys[i + 1], false));  // 不自动命名
         }
         return edges;
     }
@@ -193,24 +364,12 @@ public class PathGeo implements WorldObject {
         double sin = Math.sin(angle);
 
         // 旋转所有路径点
-        for (Point point : pathPoints) {
-            double dx = point.x - centerX;
-            double dy = point.y - centerY;
-            point.x = centerX + dx * cos - dy * sin;
-            point.y = centerY + dx * sin + dy * cos;
-        }
-    }
-
-    /**
-     * 内部点类
-     */
-    private static class Point {
-        double x;
-        double y;
-
-        Point(double x, double y) {
-            this.x = x;
-            this.y = y;
+        for (int i = 0; i < xs.length; i++) {
+            double dx = xs[i] - centerX;
+            double dy = ys[i] - centerY;
+            xs[i] = centerX + dx * cos - dy * sin;
+            ys[i] = centerY + dx * sin + dy * cos;
         }
+        invalidate();
     }
 }
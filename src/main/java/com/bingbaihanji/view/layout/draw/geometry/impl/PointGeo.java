@@ -1,16 +1,22 @@
 package com.bingbaihanji.view.layout.draw.geometry.impl;
 
+import com.bingbaihanji.constant.ShapeKind;
+import com.bingbaihanji.util.ObjectIds;
 import com.bingbaihanji.util.PointNameManager;
+import com.bingbaihanji.util.SvgWriter;
 import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.SvgPaintable;
 import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
 
+import java.io.IOException;
 import java.util.List;
 
-public class PointGeo implements WorldObject {
+public class PointGeo implements WorldObject, SvgPaintable {
 
     private double x;
     private double y;
@@ -18,6 +24,11 @@ public class PointGeo implements WorldObject {
     private boolean hover = false;
     private Color color = Color.RED; // 默认颜色为红色
     private String name; // 点的名称
+    /**
+     * 唯一标识与几何版本号
+     */
+    private final long id = ObjectIds.next();
+    private long version = 0;
 
     public PointGeo(double x, double y) {
         this.x = x;
@@ -44,6 +55,15 @@ public class PointGeo implements WorldObject {
         return y;
     }
 
+    /**
+     * 移动点到新位置（名称不变）
+     */
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+        version++;
+    }
+
     // 获取点的颜色
     public Color getColor() {
         return color;
@@ -85,11 +105,60 @@ public class PointGeo implements WorldObject {
         }
     }
 
+    @Override
+    public void paintSvg(SvgWriter svg, WorldTransform t, double w, double h) throws IOException {
+        double sx = t.worldToScreenX(x);
+        double sy = t.worldToScreenY(y);
+
+        svg.beginGroup(null, color, 0);
+        svg.fillCircle(sx, sy, 4);
+        svg.endGroup();
+
+        if (name != null && !name.isEmpty()) {
+            svg.beginGroup(null, Color.BLACK, 0);
+            svg.text(sx + 8, sy - 8, name, 12);
+            svg.endGroup();
+        }
+    }
+
+    /**
+     * 坐标布局：{x, y}
+     */
+    @Override
+    public double[] getCoordinates() {
+        return new double[]{x, y};
+    }
+
+    @Override
+    public void setCoordinates(double[] coordinates) {
+        setPosition(coordinates[0], coordinates[1]);
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public ShapeKind kind() {
+        return ShapeKind.POINT;
+    }
+
     @Override
     public boolean hitTest(double wx, double wy, double tol) {
         return Math.hypot(wx - x, wy - y) < tol;
     }
 
+    @Override
+    public Rectangle2D getBounds() {
+        return new Rectangle2D(x, y, 0, 0);
+    }
+
     @Override
     public void setHover(boolean hover) {
         this.hover = hover;
@@ -107,6 +176,7 @@ public class PointGeo implements WorldObject {
                 new DraggablePoint(x, y, (newX, newY) -> {
                     x = newX;
                     y = newY;
+                    version++;
                 })
         );
     }
@@ -119,5 +189,6 @@ public class PointGeo implements WorldObject {
         double dy = y - centerY;
         x = centerX + dx * cos - dy * sin;
         y = centerY + dx * sin + dy * cos;
+        version++;
     }
 }
\ No newline at end of file
@@ -1,13 +1,21 @@
 package com.bingbaihanji.view.layout.draw.geometry.impl;
 
+import com.bingbaihanji.constant.ShapeKind;
+import com.bingbaihanji.util.ObjectIds;
 import com.bingbaihanji.util.PointNameManager;
+import com.bingbaihanji.util.SegmentBvh;
+import com.bingbaihanji.util.SvgWriter;
 import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.SegmentShape;
+import com.bingbaihanji.view.layout.draw.geometry.SvgPaintable;
 import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,14 +27,25 @@ import java.util.List;
  * @author bingbaihanji
  * @date 2025-12-23
  */
-public class PolygonGeo implements WorldObject {
+public class PolygonGeo implements WorldObject, SegmentShape, SvgPaintable {
 
     /**
      * 多边形顶点列表（世界坐标）
      */
-    private final List<Point> vertices;
+    private final double[] xs;
+    private final double[] ys;
     private final List<String> vertexNames; // 顶点名称列表
     private boolean hover = false;
+    /**
+     * 唯一标识与几何版本号
+     */
+    private final long id;
+    private long version = 0;
+
+    /**
+     * 边的 BVH（延迟构建，顶点变化后失效）
+     */
+    private SegmentBvh bvh;
 
     /**
      * 构造函数
@@ -41,11 +60,14 @@ public class PolygonGeo implements WorldObject {
             throw new IllegalArgumentException("顶点坐标数组长度必须是偶数");
         }
 
-        this.vertices = new ArrayList<>();
+        this.id = ObjectIds.next();
+        this.xs = new double[vertices.length / 2];
+        this.ys = new double[vertices.length / 2];
         this.vertexNames = new ArrayList<>();
         PointNameManager manager = PointNameManager.getInstance();
         for (int i = 0; i < vertices.length; i += 2) {
-            this.vertices.add(new Point(vertices[i], vertices[i + 1]));
+            xs[i / 2] = vertices[i];
+            ys[i / 2] = vertices[i + 1];
             // 为每个顶点分配名称
             this.vertexNames.add(manager.assignName(vertices[i], vertices[i + 1]));
         }
@@ -61,39 +83,103 @@ public class PolygonGeo implements WorldObject {
             throw new IllegalArgumentException("多边形至少需要3个顶点");
         }
 
-        this.vertices = new ArrayList<>();
+        this.id = ObjectIds.next();
+        this.xs = new double[points.size()];
+        this.ys = new double[points.size()];
         this.vertexNames = new ArrayList<>();
         PointNameManager manager = PointNameManager.getInstance();
-        for (javafx.geometry.Point2D p : points) {
-            this.vertices.add(new Point(p.getX(), p.getY()));
+        for (int i = 0; i < points.size(); i++) {
+            javafx.geometry.Point2D p = points.get(i);
+            xs[i] = p.getX();
+            ys[i] = p.getY();
             // 为每个顶点分配名称
             this.vertexNames.add(manager.assignName(p.getX(), p.getY()));
         }
     }
 
+    /**
+     * 构造函数（直接使用给定的坐标数组，不复制，用于批量加载大量顶点）
+     *
+     * @param xs 顶点的 X 坐标
+     * @param ys 顶点的 Y 坐标
+     */
+    public PolygonGeo(double[] xs, double[] ys) {
+        this(ObjectIds.next(), xs, ys);
+    }
+
+    /**
+     * 构造函数（使用指定的标识，供延迟加载的图形在重新加载坐标时保持标识不变）
+     */
+    PolygonGeo(long id, double[] xs, double[] ys) {
+        this(id, xs, ys, true);
+    }
+
+    /**
+     * 构造函数（使用指定的标识；named 为 false 时不分配顶点名称，供后台线程上的快照读入顶点）
+     */
+    PolygonGeo(long id, double[] xs, double[] ys, boolean named) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("X、Y 坐标数组长度不一致");
+        }
+        if (xs.length < 3) {
+            throw new IllegalArgumentException("多边形至少需要3个顶点");
+        }
+
+        this.id = id;
+        this.xs = xs;
+        this.ys = ys;
+        this.vertexNames = new ArrayList<>(xs.length);
+        PointNameManager manager = PointNameManager.getInstance();
+        for (int i = 0; i < xs.length; i++) {
+            // 为每个顶点分配名称
+            this.vertexNames.add(named ? manager.assignName(xs[i], ys[i]) : null);
+        }
+    }
+
+    /**
+     * 复制构造（复制顶点数组，保留标识与版本号，不重新分配名称）
+     */
+    private PolygonGeo(PolygonGeo source) {
+        this.id = source.id;
+        this.version = source.version;
+        this.xs = source.xs.clone();
+        this.ys = source.ys.clone();
+        this.vertexNames = new ArrayList<>(source.vertexNames);
+    }
+
+    @Override
+    public WorldObject snapshot() {
+        return new PolygonGeo(this);
+    }
+
+    @Override
+    public long estimateSize() {
+        // 顶点坐标、顶点名称与线段 BVH
+        return 64 + xs.length * 64L;
+    }
+
     @Override
     public void paint(GraphicsContext gc, WorldTransform transform, double w, double h) {
-        if (vertices.isEmpty()) return;
+        if (xs.length == 0) return;
 
         // 转换顶点到屏幕坐标
-        double[] xPoints = new double[vertices.size()];
-        double[] yPoints = new double[vertices.size()];
+        double[] xPoints = new double[xs.length];
+        double[] yPoints = new double[xs.length];
 
-        for (int i = 0; i < vertices.size(); i++) {
-            Point vertex = vertices.get(i);
-            xPoints[i] = transform.worldToScreenX(vertex.x);
-            yPoints[i] = transform.worldToScreenY(vertex.y);
+        for (int i = 0; i < xs.length; i++) {
+            xPoints[i] = transform.worldToScreenX(xs[i]);
+            yPoints[i] = transform.worldToScreenY(ys[i]);
         }
 
         // 绘制多边形
         gc.setStroke(hover ? Color.ORANGE : Color.DODGERBLUE);
         gc.setLineWidth(hover ? 3 : 2);
-        gc.strokePolygon(xPoints, yPoints, vertices.size());
+        gc.strokePolygon(xPoints, yPoints, xs.length);
 
         // 绘制顶点
         gc.setFill(hover ? Color.ORANGE : Color.RED);
         double pointRadius = 3;
-        for (int i = 0; i < vertices.size(); i++) {
+        for (int i = 0; i < xs.length; i++) {
             gc.fillOval(xPoints[i] - pointRadius, yPoints[i] - pointRadius,
                     pointRadius * 2, pointRadius * 2);
         }
@@ -102,7 +188,7 @@ public class PolygonGeo implements WorldObject {
         gc.setFill(Color.BLACK);
         gc.setFont(Font.font(12));
         gc.setTextAlign(TextAlignment.LEFT);
-        for (int i = 0; i < vertices.size(); i++) {
+        for (int i = 0; i < xs.length; i++) {
             String name = vertexNames.get(i);
             if (name != null && !name.isEmpty()) {
                 gc.fillText(name, xPoints[i] + 8, yPoints[i] - 8);
@@ -111,39 +197,122 @@ public class PolygonGeo implements WorldObject {
     }
 
     @Override
-    public boolean hitTest(double wx, double wy, double tol) {
-        // 简单的命中测试：检查是否在多边形边界附近或内部
-        for (int i = 0; i < vertices.size(); i++) {
-            Point p1 = vertices.get(i);
-            Point p2 = vertices.get((i + 1) % vertices.size());
-
-            // 检查点到线段的距离
-            double dist = pointToSegmentDistance(wx, wy, p1.x, p1.y, p2.x, p2.y);
-            if (dist < tol) {
-                return true;
+    public void paintSvg(SvgWriter svg, WorldTransform transform, double w, double h) throws IOException {
+        if (xs.length == 0) return;
+
+        // 顶点逐个写出，不创建屏幕坐标数组
+        svg.beginGroup(Color.DODGERBLUE, Color.RED, 2);
+        svg.beginPolyline(true);
+        for (int i = 0; i < xs.length; i++) {
+            svg.vertex(transform.worldToScreenX(xs[i]), transform.worldToScreenY(ys[i]));
+        }
+        svg.endPolyline();
+        for (int i = 0; i < xs.length; i++) {
+            svg.fillCircle(transform.worldToScreenX(xs[i]), transform.worldToScreenY(ys[i]), 3);
+        }
+        svg.endGroup();
+
+        svg.beginGroup(null, Color.BLACK, 0);
+        for (int i = 0; i < xs.length; i++) {
+            String name = vertexNames.get(i);
+            if (name != null && !name.isEmpty()) {
+                svg.text(transform.worldToScreenX(xs[i]) + 8, transform.worldToScreenY(ys[i]) - 8, name, 12);
             }
         }
-        return false;
+        svg.endGroup();
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
     }
 
     /**
-     * 计算点到线段的距离
+     * 坐标布局：{x0, y0, x1, y1, ...}
      */
-    private double pointToSegmentDistance(double px, double py,
-                                          double x1, double y1, double x2, double y2) {
-        double dx = x2 - x1;
-        double dy = y2 - y1;
-        double lengthSquared = dx * dx + dy * dy;
+    @Override
+    public double[] getCoordinates() {
+        double[] coordinates = new double[xs.length * 2];
+        for (int i = 0; i < xs.length; i++) {
+            coordinates[i * 2] = xs[i];
+            coordinates[i * 2 + 1] = ys[i];
+        }
+        return coordinates;
+    }
 
-        if (lengthSquared == 0) {
-            return Math.hypot(px - x1, py - y1);
+    @Override
+    public int getCoordinateCount() {
+        return xs.length * 2;
+    }
+
+    @Override
+    public void copyCoordinates(int from, double[] dest, int destOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            int index = from + i;
+            dest[destOffset + i] = (index & 1) == 0 ? xs[index >> 1] : ys[index >> 1];
         }
+    }
 
-        double t = Math.max(0, Math.min(1, ((px - x1) * dx + (py - y1) * dy) / lengthSquared));
-        double nearestX = x1 + t * dx;
-        double nearestY = y1 + t * dy;
+    @Override
+    public void setCoordinates(double[] coordinates) {
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = coordinates[i * 2];
+            ys[i] = coordinates[i * 2 + 1];
+        }
+        invalidate();
+    }
 
-        return Math.hypot(px - nearestX, py - nearestY);
+    @Override
+    public ShapeKind kind() {
+        return ShapeKind.POLYGON;
+    }
+
+    @Override
+    public boolean hitTest(double wx, double wy, double tol) {
+        // 通过 BVH 检查点到多边形边界的距离
+        return getSegmentBvh().anyWithin(wx, wy, tol);
+    }
+
+    /**
+     * 获取多边形边界上离给定点最近的点
+     */
+    public javafx.geometry.Point2D getNearestPoint(double wx, double wy) {
+        double[] out = new double[2];
+        getSegmentBvh().nearestPoint(wx, wy, out);
+        return new javafx.geometry.Point2D(out[0], out[1]);
+    }
+
+    /**
+     * 获取边的 BVH（必要时重新构建）
+     */
+    @Override
+    public SegmentBvh getSegmentBvh() {
+        SegmentBvh tree = bvh;
+        if (tree == null) {
+            tree = SegmentBvh.build(xs, ys, xs.length, true);
+            bvh = tree;
+        }
+        return tree;
+    }
+
+    /**
+     * 顶点发生变化，丢弃 BVH 并递增版本号
+     */
+    private void invalidate() {
+        bvh = null;
+        version++;
+    }
+
+    @Override
+    public Rectangle2D getBounds() {
+        SegmentBvh tree = getSegmentBvh();
+        return new Rectangle2D(tree.getMinX(), tree.getMinY(),
+                tree.getMaxX() - tree.getMinX(), tree.getMaxY() - tree.getMinY());
     }
 
     @Override
@@ -160,15 +329,14 @@ public class PolygonGeo implements WorldObject {
      * 获取顶点数量
      */
     public int getVertexCount() {
-        return vertices.size();
+        return xs.length;
     }
 
     /**
      * 获取指定索引的顶点
      */
     public javafx.geometry.Point2D getVertex(int index) {
-        Point p = vertices.get(index);
-        return new javafx.geometry.Point2D(p.x, p.y);
+        return new javafx.geometry.Point2D(xs[index], ys[index]);
     }
 
     /**
@@ -178,10 +346,9 @@ public class PolygonGeo implements WorldObject {
      */
     public List<LineGeo> getEdges() {
         List<LineGeo> edges = new ArrayList<>();
-        for (int i = 0; i < vertices.size(); i++) {
-            Point p1 = vertices.get(i);
-            Point p2 = vertices.get((i + 1) % vertices.size());
-            edges.add(new LineGeo(p1.x, p1.y, p2.x, p2.y, false));  // 不自动命名
+        for (int i = 0; i < xs.length; i++) {
+            int next = (i + 1) % xs.length;
+            edges.add(new LineGeo(xs[i], ys[i], xs[next], ys[next], false));  // 不自动命名
         }
         return edges;
     }
@@ -190,12 +357,12 @@ public class PolygonGeo implements WorldObject {
     public List<DraggablePoint> getDraggablePoints() {
         // 所有顶点都可拖动
         List<DraggablePoint> points = new java.util.ArrayList<>();
-        for (int i = 0; i < vertices.size(); i++) {
+        for (int i = 0; i < xs.length; i++) {
             final int index = i;
-            Point vertex = vertices.get(index);
-            points.add(new DraggablePoint(vertex.x, vertex.y, (newX, newY) -> {
-                vertices.get(index).x = newX;
-                vertices.get(index).y = newY;
+            points.add(new DraggablePoint(xs[index], ys[index], (newX, newY) -> {
+                xs[index] = newX;
+                ys[index] = newY;
+                invalidate();
             }));
         }
         return points;
@@ -207,24 +374,12 @@ public class PolygonGeo implements WorldObject {
         double sin = Math.sin(angle);
 
         // 旋转所有顶点
-        for (Point vertex : vertices) {
-            double dx = vertex.x - centerX;
-            double dy = vertex.y - centerY;
-            vertex.x = centerX + dx * cos - dy * sin;
-            vertex.y = centerY + dx * sin + dy * cos;
-        }
-    }
-
-    /**
-     * 内部点类
-     */
-    private static class Point {
-        double x;
-        double y;
-
-        Point(double x, double y) {
-            this.x = x;
-            this.y = y;
+        for (int i = 0; i < xs.length; i++) {
+            double dx = xs[i] - centerX;
+            double dy = ys[i] - centerY;
+            xs[i] = centerX + dx * cos - dy * sin;
+            ys[i] = centerY + dx * sin + dy * cos;
         }
+        invalidate();
     }
 }
@@ -11,6 +11,10 @@ public class MenuView extends MenuBar {
     private final ObservableList<Menu> menus = FXCollections.observableArrayList();
 
     // 菜单项声明，方便外部访问和添加事件监听
+    private MenuItem openSceneItem; // 打开场景
+    private MenuItem saveSceneItem; // 保存场景
+    private MenuItem exportSvgItem; // 导出 SVG
+    private MenuItem exportPngItem; // 导出高分辨率 PNG
     private MenuItem screenshotItem;
     private RadioMenuItem dotModeItem; // 创建"点模式"单选菜单项
     private RadioMenuItem gridModeItem; // 创建"格子模式"单选菜单项
@@ -25,6 +29,19 @@ public class MenuView extends MenuBar {
     }
 
     private void initializeMenus() {
+        // 0. 创建"文件"菜单
+        Menu fileMenu = new Menu(getMenuName("menu.file"));
+
+        openSceneItem = new MenuItem(getMenuName("menu.file.openScene"));
+        openSceneItem.setAccelerator(KeyCombination.keyCombination("Ctrl+O"));
+        saveSceneItem = new MenuItem(getMenuName("menu.file.saveScene"));
+        saveSceneItem.setAccelerator(KeyCombination.keyCombination("Ctrl+S"));
+
+        exportSvgItem = new MenuItem(getMenuName("menu.file.exportSvg"));
+        exportPngItem = new MenuItem(getMenuName("menu.file.exportPng"));
+
+        fileMenu.getItems().addAll(openSceneItem, saveSceneItem, new SeparatorMenuItem(), exportSvgItem, exportPngItem);
+
         // 1. 创建"工具"菜单
         Menu toolMenu = new Menu(getMenuName("menu.view.tools"));
 
@@ -89,8 +106,8 @@ public class MenuView extends MenuBar {
         settingsMenu.getItems().add(systemSettingsItem);
 
         // 4. 将所有菜单添加到菜单栏
-        menus.addAll(toolMenu, viewMenu, settingsMenu);
-        this.getMenus().addAll(toolMenu, viewMenu, settingsMenu);
+        menus.addAll(fileMenu, toolMenu, viewMenu, settingsMenu);
+        this.getMenus().addAll(fileMenu, toolMenu, viewMenu, settingsMenu);
     }
 
 
@@ -101,6 +118,22 @@ public class MenuView extends MenuBar {
 
     // Getter 方法，方便外部添加事件监听
 
+    public MenuItem getOpenSceneItem() {
+        return openSceneItem;
+    }
+
+    public MenuItem getSaveSceneItem() {
+        return saveSceneItem;
+    }
+
+    public MenuItem getExportSvgItem() {
+        return exportSvgItem;
+    }
+
+    public MenuItem getExportPngItem() {
+        return exportPngItem;
+    }
+
     public MenuItem getScreenshotItem() {
         return screenshotItem;
     }
@@ -130,6 +163,22 @@ public class MenuView extends MenuBar {
     }
     // 添加事件监听器的方法
 
+    public void setOnOpenSceneAction(Runnable action) {
+        openSceneItem.setOnAction(e -> action.run());
+    }
+
+    public void setOnSaveSceneAction(Runnable action) {
+        saveSceneItem.setOnAction(e -> action.run());
+    }
+
+    public void setOnExportSvgAction(Runnable action) {
+        exportSvgItem.setOnAction(e -> action.run());
+    }
+
+    public void setOnExportPngAction(Runnable action) {
+        exportPngItem.setOnAction(e -> action.run());
+    }
+
     public void setOnScreenshotAction(Runnable action) {
         screenshotItem.setOnAction(e -> action.run());
     }
@@ -3,6 +3,8 @@ package com.bingbaihanji.util;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -191,4 +193,296 @@ public class CommandHistoryTest {
         assertFalse(history.canUndo());
         assertFalse(history.canRedo());
     }
+
+    private CommandHistory.Command sized(String text, long size) {
+        return new CommandHistory.Command() {
+            @Override
+            public void execute() {
+                result.append(text);
+            }
+
+            @Override
+            public void undo() {
+                result.setLength(result.length() - text.length());
+            }
+
+            @Override
+            public long estimateSize() {
+                return size;
+            }
+        };
+    }
+
+    @Test
+    public void testEntryLimitEvictsOldest() {
+        history = new CommandHistory(2, Long.MAX_VALUE);
+        history.execute(sized("A", 10));
+        history.execute(sized("B", 10));
+        history.execute(sized("C", 10));
+
+        assertEquals(2, history.getUndoCount());
+        assertEquals(1, history.getEvictionCount());
+        assertEquals(20, history.getRetainedBytes());
+
+        // 最早的 A 已被淘汰，无法撤销
+        history.undo();
+        history.undo();
+        history.undo();
+        assertEquals("A", result.toString());
+        assertFalse(history.canUndo());
+        assertEquals(2, history.getRedoCount());
+    }
+
+    @Test
+    public void testByteBudgetEvictsOldest() {
+        history = new CommandHistory(100, 100);
+        history.execute(sized("A", 40));
+        history.execute(sized("B", 40));
+        assertEquals(80, history.getRetainedBytes());
+
+        history.execute(sized("C", 40));
+        assertEquals(2, history.getUndoCount());
+        assertEquals(80, history.getRetainedBytes());
+
+        // 单条超出预算的命令仍然保留，以便撤销最近一次操作
+        history.execute(sized("D", 500));
+        assertEquals(1, history.getUndoCount());
+        assertEquals(500, history.getRetainedBytes());
+        history.undo();
+        assertEquals("ABC", result.toString());
+
+        // 新命令清空恢复栈并释放其内存
+        history.execute(sized("E", 10));
+        assertFalse(history.canRedo());
+        assertEquals(10, history.getRetainedBytes());
+
+        // 收紧限制时立即淘汰
+        history.execute(sized("F", 10));
+        history.setLimits(1, 100);
+        assertEquals(1, history.getUndoCount());
+        assertEquals(10, history.getRetainedBytes());
+
+        history.clear();
+        assertEquals(0, history.getRetainedBytes());
+        assertThrows(IllegalArgumentException.class, () -> history.setLimits(0, 100));
+    }
+
+    /**
+     * 把数值从 from 改为 to 的可合并命令
+     */
+    private static class SetValueCommand implements CommandHistory.Command {
+        private final int[] target;
+        private final int from;
+        private int to;
+
+        SetValueCommand(int[] target, int from, int to) {
+            this.target = target;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void execute() {
+            target[0] = to;
+        }
+
+        @Override
+        public void undo() {
+            target[0] = from;
+        }
+
+        @Override
+        public boolean mergeWith(CommandHistory.Command next) {
+            if (next instanceof SetValueCommand set && set.target == target) {
+                to = set.to;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    @Test
+    public void testConsecutiveCommandsMerge() {
+        int[] value = {0};
+        history.execute(new SetValueCommand(value, 0, 1));
+        history.execute(new SetValueCommand(value, 1, 2));
+        history.execute(new SetValueCommand(value, 2, 3));
+        assertEquals(3, value[0]);
+        assertEquals(1, history.getUndoCount());
+
+        // 一次撤销回到最初状态，一次恢复回到最终状态
+        history.undo();
+        assertEquals(0, value[0]);
+        assertFalse(history.canUndo());
+        history.redo();
+        assertEquals(3, value[0]);
+
+        // 撤销/恢复后不再合并
+        history.execute(new SetValueCommand(value, 3, 4));
+        assertEquals(2, history.getUndoCount());
+
+        // 不同目标、中间插入其他命令或主动断开时不合并
+        history.execute(new SetValueCommand(new int[1], 0, 1));
+        assertEquals(3, history.getUndoCount());
+        history.breakMerge();
+        history.execute(new SetValueCommand(value, 4, 5));
+        assertEquals(4, history.getUndoCount());
+        history.execute(sized("A", 10));
+        history.execute(new SetValueCommand(value, 5, 6));
+        assertEquals(6, history.getUndoCount());
+    }
+
+    @Test
+    public void testTransactionIsOneUndoUnitWithOneBatch() {
+        int[] batches = {0, 0};
+        history.setUpdateBatch(new CommandHistory.UpdateBatch() {
+            @Override
+            public void begin() {
+                batches[0]++;
+            }
+
+            @Override
+            public void end() {
+                batches[1]++;
+            }
+        });
+
+        history.transaction(() -> {
+            history.execute(sized("A", 10));
+            history.execute(sized("B", 10));
+            // 嵌套事务并入外层事务
+            history.transaction(() -> history.execute(sized("C", 10)));
+        });
+        assertEquals("ABC", result.toString());
+        assertEquals(1, history.getUndoCount());
+        assertTrue(history.getRetainedBytes() >= 30);
+        assertEquals(batches[0], batches[1]);
+
+        // 整组一次撤销、一次恢复，各在一次批量更新中完成
+        batches[0] = 0;
+        batches[1] = 0;
+        history.undo();
+        assertEquals("", result.toString());
+        assertEquals(1, batches[0]);
+        history.redo();
+        assertEquals("ABC", result.toString());
+        assertEquals(2, batches[0]);
+        assertEquals(batches[0], batches[1]);
+    }
+
+    @Test
+    public void testTransactionRollback() {
+        history.execute(sized("A", 10));
+        history.beginTransaction();
+        history.execute(sized("B", 10));
+        history.execute(sized("C", 10));
+        assertThrows(IllegalStateException.class, history::undo);
+        history.rollbackTransaction();
+        assertEquals("A", result.toString());
+        assertEquals(1, history.getUndoCount());
+        assertFalse(history.isInTransaction());
+        assertThrows(IllegalStateException.class, history::commitTransaction);
+
+        // 抛出异常时自动回滚
+        assertThrows(IllegalArgumentException.class, () -> history.transaction(() -> {
+            history.execute(sized("D", 10));
+            throw new IllegalArgumentException();
+        }));
+        assertEquals("A", result.toString());
+        assertEquals(1, history.getUndoCount());
+
+        // 空事务不记录
+        history.transaction(() -> {
+        });
+        assertEquals(1, history.getUndoCount());
+    }
+
+    @Test
+    public void testBranchesStayReachable() {
+        history.execute(sized("A", 10));
+        long a = history.getCurrentState();
+        history.execute(sized("B", 10));
+        long ab = history.getCurrentState();
+        history.undo();
+        // 撤销后的新命令开出新分支，原分支 B 保留
+        history.execute(sized("C", 10));
+        long ac = history.getCurrentState();
+        assertFalse(history.canRedo());
+        assertEquals(List.of(ab, ac), history.getChildStates(a));
+        assertEquals(a, history.getParentState(ab));
+
+        assertTrue(history.jumpTo(ab));
+        assertEquals("AB", result.toString());
+        assertEquals(2, history.getLastJumpSteps());
+        assertTrue(history.jumpTo(history.getRootState()));
+        assertEquals("", result.toString());
+
+        // 恢复沿最近访问过的分支前进
+        history.redo();
+        history.redo();
+        assertEquals("AB", result.toString());
+        assertFalse(history.jumpTo(12345));
+        assertThrows(IllegalStateException.class, () -> history.transaction(() -> history.jumpTo(ac)));
+    }
+
+    @Test
+    public void testJumpRestoresNearestCheckpoint() {
+        int[] batches = {0};
+        history.setUpdateBatch(new CommandHistory.UpdateBatch() {
+            @Override
+            public void begin() {
+                batches[0]++;
+            }
+
+            @Override
+            public void end() {
+            }
+        });
+        history.setCheckpointer(() -> {
+            String saved = result.toString();
+            return () -> result.replace(0, result.length(), saved);
+        }, 10);
+
+        for (int i = 0; i < 100; i++) {
+            history.execute(sized(String.valueOf(i % 10), 10));
+        }
+        String expected = result.substring(0, 55);
+        long state55 = history.getCurrentState();
+        for (int i = 0; i < 45; i++) {
+            state55 = history.getParentState(state55);
+        }
+        history.jumpTo(history.getRootState());
+        assertEquals("", result.toString());
+
+        // 从根跳到第 55 个状态：恢复第 50 个状态的检查点后只重放 5 条命令
+        batches[0] = 0;
+        assertTrue(history.jumpTo(state55));
+        assertEquals(expected, result.toString());
+        assertEquals(6, history.getLastJumpSteps());
+        assertEquals(1, batches[0]);
+        assertEquals(55, history.getUndoCount());
+
+        // 相邻状态之间仍然逐条撤销
+        assertTrue(history.jumpTo(history.getParentState(state55)));
+        assertEquals(1, history.getLastJumpSteps());
+        assertEquals(expected.substring(0, 54), result.toString());
+    }
+
+    @Test
+    public void testOffPathBranchesEvictedFirst() {
+        history = new CommandHistory(3, Long.MAX_VALUE);
+        history.execute(sized("A", 10));
+        history.execute(sized("B", 10));
+        long ab = history.getCurrentState();
+        history.undo();
+        history.execute(sized("C", 10));
+        history.execute(sized("D", 10));
+
+        // 超出条目限制时先丢弃不在当前路径上的分支 B
+        assertEquals(3, history.getUndoCount());
+        assertEquals(4, history.getStateCount());
+        assertFalse(history.jumpTo(ab));
+        assertEquals(30, history.getRetainedBytes());
+        assertEquals(1, history.getEvictionCount());
+    }
 }
@@ -0,0 +1,113 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.draw.geometry.impl.InfiniteLineGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.LineGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.PointGeo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ConstructionGraph 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class ConstructionGraphTest {
+
+    private ConstructionGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        PointNameManager.getInstance().clear();
+        graph = new ConstructionGraph();
+    }
+
+    @Test
+    void testMidpointFollowsDraggedSegment() {
+        LineGeo line = new LineGeo(0, 0, 2, 0, false);
+        PointGeo mid = new PointGeo(1, 0);
+        graph.add(mid, () -> mid.setPosition((line.getStartX() + line.getEndX()) / 2,
+                (line.getStartY() + line.getEndY()) / 2), line);
+
+        // 拖动线段终点
+        line.getDraggablePoints().get(1).updatePosition(4, 4);
+        assertEquals(List.of(mid), graph.update(line));
+        assertEquals(2, mid.getX());
+        assertEquals(2, mid.getY());
+    }
+
+    @Test
+    void testDownstreamEvaluatedInTopologicalOrder() {
+        // a -> b -> d，a -> c -> d（菱形）
+        LineGeo a = new LineGeo(0, 0, 1, 0, false);
+        InfiniteLineGeo b = new InfiniteLineGeo(0, 1, 1, 1);
+        InfiniteLineGeo c = new InfiniteLineGeo(0, 2, 1, 2);
+        PointGeo d = new PointGeo(0, 3);
+        PointGeo unrelated = new PointGeo(9, 9);
+        LineGeo other = new LineGeo(5, 5, 6, 6, false);
+        List<Object> evaluated = new ArrayList<>();
+
+        graph.add(b, () -> evaluated.add(b), a);
+        graph.add(c, () -> evaluated.add(c), a);
+        graph.add(d, () -> evaluated.add(d), b, c);
+        graph.add(unrelated, () -> evaluated.add(unrelated), other);
+
+        List<?> updated = graph.update(a);
+        assertEquals(3, updated.size());
+        assertEquals(updated, evaluated);
+        // d 在 b、c 之后，且只求值一次
+        assertEquals(d, evaluated.get(2));
+        assertFalse(evaluated.contains(unrelated));
+
+        // 只影响下游子图
+        evaluated.clear();
+        assertEquals(List.of(d), graph.update(c));
+        assertEquals(List.of(c, d), evaluated);
+    }
+
+    @Test
+    void testConstructedObjectKeepsItsConstraint() {
+        LineGeo source = new LineGeo(0, 0, 1, 0, false);
+        PointGeo mid = new PointGeo(0.5, 0);
+        graph.add(mid, () -> mid.setPosition((source.getStartX() + source.getEndX()) / 2, 0), source);
+
+        // 拖动构造出的点后重新求值，回到约束位置
+        mid.getDraggablePoints().get(0).updatePosition(3, 3);
+        assertTrue(graph.update(mid).isEmpty());
+        assertEquals(0.5, mid.getX());
+        assertEquals(0, mid.getY());
+    }
+
+    @Test
+    void testRemoveSnapshotAndCycles() {
+        LineGeo a = new LineGeo(0, 0, 1, 0, false);
+        InfiniteLineGeo b = new InfiniteLineGeo(0, 1, 1, 1);
+        InfiniteLineGeo c = new InfiniteLineGeo(0, 2, 1, 2);
+        graph.add(b, () -> {
+        }, a);
+        graph.add(c, () -> {
+        }, b);
+
+        // 重复登记、形成环
+        assertThrows(IllegalArgumentException.class, () -> graph.add(b, () -> {
+        }, a));
+        assertThrows(IllegalArgumentException.class, () -> graph.add(a, () -> {
+        }, c));
+
+        ConstructionGraph snapshot = graph.snapshot();
+        graph.remove(c);
+        assertFalse(graph.isConstructed(c));
+        assertEquals(List.of(b), graph.update(a));
+
+        graph.clear();
+        assertEquals(0, graph.size());
+        graph.restore(snapshot);
+        assertEquals(2, graph.size());
+        assertEquals(List.of(b, c), graph.update(a));
+    }
+}
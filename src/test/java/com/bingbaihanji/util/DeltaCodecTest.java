@@ -0,0 +1,99 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.draw.geometry.impl.PolygonGeo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DeltaCodec 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class DeltaCodecTest {
+
+    @BeforeEach
+    void setUp() {
+        PointNameManager.getInstance().clear();
+    }
+
+    @Test
+    void testVarintAndZigZagRoundTrip() {
+        long[] values = {0, 1, -1, 63, -64, 64, 1L << 40, Long.MAX_VALUE, Long.MIN_VALUE};
+        byte[] buffer = new byte[16];
+        for (long value : values) {
+            assertEquals(value, DeltaCodec.unZigZag(DeltaCodec.zigZag(value)));
+            int length = DeltaCodec.writeVarLong(buffer, 0, DeltaCodec.zigZag(value));
+            int[] pos = {0};
+            assertEquals(value, DeltaCodec.unZigZag(DeltaCodec.readVarLong(buffer, pos)));
+            assertEquals(length, pos[0]);
+        }
+        // 小数值只占一个字节
+        assertEquals(1, DeltaCodec.writeVarLong(buffer, 0, DeltaCodec.zigZag(-3)));
+    }
+
+    @Test
+    void testReplayIsExactInBothDirections() {
+        Random random = new Random(7);
+        for (int round = 0; round < 100; round++) {
+            double[] before = new double[8];
+            for (int i = 0; i < before.length; i++) {
+                before[i] = (random.nextDouble() - 0.5) * 1e6;
+            }
+            double[] after = before.clone();
+            after[random.nextInt(after.length)] = random.nextDouble() * -1e-9;
+            after[random.nextInt(after.length)] += random.nextDouble();
+
+            byte[] record = DeltaCodec.encode(42, before, after);
+            assertEquals(42, DeltaCodec.readId(record));
+
+            double[] state = before.clone();
+            DeltaCodec.apply(record, state, true);
+            assertArrayEquals(after, state);
+            DeltaCodec.apply(record, state, false);
+            assertArrayEquals(before, state);
+        }
+    }
+
+    @Test
+    void testRecordOnlyStoresChangedCoordinates() {
+        // 拖动 1000 个顶点的多边形中的一个顶点
+        double[] vertices = new double[2000];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = i * 0.5;
+        }
+        PolygonGeo polygon = new PolygonGeo(vertices);
+        double[] before = polygon.getCoordinates();
+        polygon.getDraggablePoints().get(500).updatePosition(250.25, 250.75);
+        double[] after = polygon.getCoordinates();
+
+        byte[] record = DeltaCodec.encode(polygon.getId(), before, after);
+        assertTrue(record.length < 32, "record length " + record.length);
+        // 没有变化时只有标识和数量两个字节
+        assertEquals(2, DeltaCodec.encode(0, before, before).length);
+
+        double[] state = after.clone();
+        DeltaCodec.apply(record, state, false);
+        polygon.setCoordinates(state);
+        assertArrayEquals(before, polygon.getCoordinates());
+    }
+
+    @Test
+    void testMergeEqualsSequentialReplay() {
+        double[] a = {1, 2, 3, 4};
+        double[] b = {1.5, 2, 3, 4};
+        double[] c = {1.5, 2, 3.25, 5};
+        byte[] merged = DeltaCodec.merge(DeltaCodec.encode(9, a, b), DeltaCodec.encode(9, b, c), c);
+        assertEquals(9, DeltaCodec.readId(merged));
+
+        double[] state = a.clone();
+        DeltaCodec.apply(merged, state, true);
+        assertArrayEquals(c, state);
+        DeltaCodec.apply(merged, state, false);
+        assertArrayEquals(a, state);
+    }
+}
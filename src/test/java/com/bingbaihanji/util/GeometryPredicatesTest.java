@@ -0,0 +1,71 @@
+package com.bingbaihanji.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GeometryPredicates 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class GeometryPredicatesTest {
+
+    private static BigDecimal big(double v) {
+        return new BigDecimal(v);
+    }
+
+    private static int exactOrient(double ax, double ay, double bx, double by, double cx, double cy) {
+        return big(ax).subtract(big(cx)).multiply(big(by).subtract(big(cy)))
+                .subtract(big(ay).subtract(big(cy)).multiply(big(bx).subtract(big(cx)))).signum();
+    }
+
+    private static int exactCross(double ax, double ay, double bx, double by,
+                                  double cx, double cy, double dx, double dy) {
+        return big(bx).subtract(big(ax)).multiply(big(dy).subtract(big(cy)))
+                .subtract(big(by).subtract(big(ay)).multiply(big(dx).subtract(big(cx)))).signum();
+    }
+
+    @Test
+    void testOrientNearlyCollinear() {
+        // 经典的近退化输入：在 (0.5, 0.5) 附近逐 ulp 扰动，与精确结果逐一比较
+        double ulp = Math.ulp(0.5);
+        for (int i = 0; i < 64; i++) {
+            for (int j = 0; j < 64; j++) {
+                double ax = 0.5 + i * ulp;
+                double ay = 0.5 + j * ulp;
+                assertEquals(exactOrient(ax, ay, 12, 12, 24, 24),
+                        (int) Math.signum(GeometryPredicates.orient2d(ax, ay, 12, 12, 24, 24)));
+            }
+        }
+        assertEquals(exactOrient(0.1, 0.1, 0.2, 0.2, 0.3, 0.3),
+                (int) Math.signum(GeometryPredicates.orient2d(0.1, 0.1, 0.2, 0.2, 0.3, 0.3)));
+    }
+
+    @Test
+    void testExactTangency() {
+        // 直线 y = r 与圆心在原点、半径为 r 的圆相切
+        double r = 0.1;
+        assertEquals(0, GeometryPredicates.lineCircle(-3, r, 7, r, 0, 0, r));
+        assertTrue(GeometryPredicates.lineCircle(-3, r, 7, Math.nextDown(r), 0, 0, r) > 0);
+        assertTrue(GeometryPredicates.lineCircle(-3, Math.nextUp(r), 7, Math.nextUp(r), 0, 0, r) < 0);
+
+        // 圆心距恰好等于半径之和 / 之差
+        assertEquals(0, GeometryPredicates.circlesExternal(0, 0, 0.125, 0.375, 0.5, 0.5));
+        assertTrue(GeometryPredicates.circlesExternal(0, 0, 0.125, 0.375, 0.5, Math.nextDown(0.5)) > 0);
+        assertEquals(0, GeometryPredicates.circlesInternal(0, 0, 1.125, 0.375, 0.5, 0.5));
+        assertTrue(GeometryPredicates.circlesInternal(0, 0, 1.125, 0.375, 0.5, Math.nextUp(0.5)) > 0);
+    }
+
+    @Test
+    void testCrossDetectsParallel() {
+        assertEquals(exactCross(0.1, 0.2, 0.4, 0.8, 1.1, 1.2, 1.4, 1.8),
+                (int) Math.signum(GeometryPredicates.cross(0.1, 0.2, 0.4, 0.8, 1.1, 1.2, 1.4, 1.8)));
+        assertEquals(0, GeometryPredicates.cross(0, 0, 3, 1, 10, 10, 16, 12));
+        assertTrue(GeometryPredicates.cross(0, 0, 1, 0, 0, 0, 0, 1) > 0);
+    }
+}
@@ -0,0 +1,173 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import com.bingbaihanji.view.layout.draw.geometry.impl.CircleGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.LineGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.PathGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.PointGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.PolygonGeo;
+import javafx.geometry.Point2D;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HistoryJournal 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class HistoryJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        PointNameManager.getInstance().clear();
+    }
+
+    @Test
+    void testReplayStopsAtLastCommit() throws IOException {
+        Path path = dir.resolve("history.journal");
+        LineGeo line = new LineGeo(0, 0, 1, 1);
+        List<WorldObject> scene = new ArrayList<>(List.of(line));
+
+        try (HistoryJournal journal = new HistoryJournal(path, scene, () -> scene, 0)) {
+            CommandHistory history = new CommandHistory();
+            history.setJournal(journal);
+
+            CircleGeo circle = new CircleGeo(2, 3, 4);
+            PointGeo point = new PointGeo(5, 6);
+            point.setColor(Color.GREEN);
+            history.execute(new CommandHistory.Command() {
+                @Override
+                public void execute() {
+                    journal.recordAdd(circle);
+                    journal.recordAdd(point);
+                }
+
+                @Override
+                public void undo() {
+                    journal.recordRemove(circle);
+                    journal.recordRemove(point);
+                }
+            });
+
+            circle.setCoordinates(new double[]{7, 8});
+            journal.recordCoordinates(circle);
+            journal.commit();
+
+            // 未提交的操作（模拟崩溃）
+            journal.recordRemove(line);
+            journal.recordAdd(new PolygonGeo(0, 0, 1, 0, 0, 1));
+            journal.flush();
+
+            List<WorldObject> recovered = HistoryJournal.replay(path);
+            assertEquals(3, recovered.size());
+            assertArrayEquals(line.getCoordinates(), recovered.get(0).getCoordinates());
+            CircleGeo recoveredCircle = (CircleGeo) recovered.get(1);
+            assertEquals(7, recoveredCircle.getCx());
+            assertEquals(8, recoveredCircle.getCy());
+            assertEquals(4, recoveredCircle.getR());
+            PointGeo recoveredPoint = (PointGeo) recovered.get(2);
+            assertEquals(Color.GREEN, recoveredPoint.getColor());
+
+            // 撤销同样作为一个事务提交
+            history.undo();
+            journal.flush();
+            assertEquals(1, HistoryJournal.replay(path).size());
+        }
+    }
+
+    @Test
+    void testCheckpointsAndLargeRecords() throws IOException {
+        Path path = dir.resolve("history.journal");
+        List<WorldObject> scene = new ArrayList<>();
+
+        try (HistoryJournal journal = new HistoryJournal(path, scene, () -> scene, 3)) {
+            for (int i = 0; i < 10; i++) {
+                LineGeo line = new LineGeo(i, 0, i, 1, false);
+                scene.add(line);
+                journal.recordAdd(line);
+                journal.commit();
+            }
+            journal.recordClear();
+            scene.clear();
+            journal.commit();
+
+            // 超过一个映射段的记录
+            List<Point2D> points = new ArrayList<>();
+            for (int i = 0; i < 300_000; i++) {
+                points.add(new Point2D(i, i % 7));
+            }
+            PathGeo path1 = new PathGeo(points);
+            scene.add(path1);
+            journal.recordAdd(path1);
+            journal.commit();
+        }
+
+        List<WorldObject> recovered = HistoryJournal.replay(path);
+        assertEquals(1, recovered.size());
+        double[] coordinates = recovered.get(0).getCoordinates();
+        assertEquals(600_000, coordinates.length);
+        assertEquals(299_999, coordinates[599_998]);
+        assertEquals(299_999 % 7, coordinates[599_999]);
+    }
+
+    @Test
+    void testDeltaRecordsAndDeferredCheckpoints() throws IOException {
+        Path path = dir.resolve("history.journal");
+        PolygonGeo polygon = new PolygonGeo(0, 0, 4, 0, 0, 4);
+        PointGeo point = new PointGeo(1, 1);
+        List<WorldObject> scene = new ArrayList<>(List.of(polygon, point));
+
+        try (HistoryJournal journal = new HistoryJournal(path, scene, () -> scene, 2)) {
+            double[] before = polygon.getCoordinates();
+            double[] after = before.clone();
+            after[2] = 5.5;
+            polygon.setCoordinates(after);
+            byte[] delta = DeltaCodec.encode(polygon.getId(), before, after);
+            journal.recordDelta(delta, true);
+            journal.commit();
+            // 撤销后再恢复
+            polygon.setCoordinates(before);
+            journal.recordDelta(delta, false);
+            journal.commit();
+            polygon.setCoordinates(after);
+            journal.recordDelta(delta, true);
+            journal.commit();
+            journal.flush();
+            assertArrayEquals(after, HistoryJournal.replay(path).get(0).getCoordinates());
+
+            // 第二次提交写入了检查点：检查点保存的是提交时的快照，之后的修改不影响它
+            journal.recordDelta(delta, false);
+            polygon.setCoordinates(before);
+            journal.commit();
+            journal.recordDelta(delta, true);
+            polygon.setCoordinates(after);
+            journal.flush();
+            List<WorldObject> recovered = HistoryJournal.replay(path);
+            assertEquals(2, recovered.size());
+            assertArrayEquals(before, recovered.get(0).getCoordinates());
+            assertArrayEquals(point.getCoordinates(), recovered.get(1).getCoordinates());
+        }
+    }
+
+    @Test
+    void testMissingOrForeignFileRecoversEmptyScene() throws IOException {
+        assertTrue(HistoryJournal.replay(dir.resolve("missing.journal")).isEmpty());
+        Path foreign = dir.resolve("foreign.journal");
+        Files.write(foreign, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        assertTrue(HistoryJournal.replay(foreign).isEmpty());
+    }
+}
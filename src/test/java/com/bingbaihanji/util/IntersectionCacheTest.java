@@ -0,0 +1,91 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import com.bingbaihanji.view.layout.draw.geometry.impl.CircleGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.LineGeo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IntersectionCache 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class IntersectionCacheTest {
+
+    @BeforeEach
+    void setUp() {
+        PointNameManager.getInstance().clear();
+    }
+
+    @Test
+    void testHitReturnsSamePoints() {
+        IntersectionCache cache = new IntersectionCache(16);
+        LineGeo line = new LineGeo(-2, 0.3, 2, 0.3, false);
+        CircleGeo circle = new CircleGeo(0.1, 0, 1);
+
+        PointBuffer first = new PointBuffer();
+        cache.intersect(line, circle, first);
+        PointBuffer second = new PointBuffer();
+        cache.intersect(line, circle, second);
+
+        PointBuffer direct = new PointBuffer();
+        IntersectionUtils.intersect(line, circle, direct);
+        assertArrayEquals(direct.toArray(), first.toArray());
+        assertArrayEquals(direct.toArray(), second.toArray());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    void testVersionChangeMisses() {
+        IntersectionCache cache = new IntersectionCache(16);
+        LineGeo line = new LineGeo(-2, 0, 2, 0, false);
+        CircleGeo circle = new CircleGeo(0, 0, 1);
+        PointBuffer out = new PointBuffer();
+        cache.intersect(line, circle, out);
+
+        // 拖动圆心后版本号变化，不能读到旧结果
+        long version = circle.getVersion();
+        WorldObject.DraggablePoint centre = circle.getDraggablePoints().get(0);
+        centre.updatePosition(5, 5);
+        assertNotEquals(version, circle.getVersion());
+
+        out.clear();
+        cache.intersect(line, circle, out);
+        assertTrue(out.isEmpty());
+        assertEquals(2, cache.getMissCount());
+
+        // 快照保留标识与版本号，可以命中
+        cache.intersect(line.snapshot(), circle.snapshot(), out);
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEviction() {
+        IntersectionCache cache = new IntersectionCache(2);
+        LineGeo line = new LineGeo(-2, 0, 2, 0, false);
+        CircleGeo c1 = new CircleGeo(0, 0, 1);
+        CircleGeo c2 = new CircleGeo(1, 0, 1);
+        CircleGeo c3 = new CircleGeo(-1, 0, 1);
+        PointBuffer out = new PointBuffer();
+
+        cache.intersect(line, c1, out);
+        cache.intersect(line, c2, out);
+        // 访问 c1，使 c2 成为最久未使用
+        cache.intersect(line, c1, out);
+        cache.intersect(line, c3, out);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+
+        cache.resetStatistics();
+        cache.intersect(line, c1, out);
+        cache.intersect(line, c2, out);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+}
@@ -0,0 +1,74 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.constant.ShapeKind;
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import com.bingbaihanji.view.layout.draw.geometry.impl.CircleGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.InfiniteLineGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.LineGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.PathGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.PointGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.PolygonGeo;
+import javafx.geometry.Point2D;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IntersectionRegistry 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class IntersectionRegistryTest {
+
+    @BeforeEach
+    void setUp() {
+        PointNameManager.getInstance().clear();
+    }
+
+    @Test
+    void testEveryGeometricPairIsRegistered() {
+        List<ShapeKind> geometric = List.of(ShapeKind.LINE, ShapeKind.INFINITE_LINE, ShapeKind.CIRCLE,
+                ShapeKind.POLYGON, ShapeKind.PATH);
+        for (ShapeKind kind1 : geometric) {
+            assertNotNull(IntersectionRegistry.getSegment(kind1), kind1.name());
+            for (ShapeKind kind2 : geometric) {
+                assertNotNull(IntersectionRegistry.get(kind1, kind2), kind1 + " x " + kind2);
+            }
+            // 点和其他图形不参与求交
+            assertNull(IntersectionRegistry.get(kind1, ShapeKind.POINT));
+            assertNull(IntersectionRegistry.get(ShapeKind.OTHER, kind1));
+        }
+    }
+
+    @Test
+    void testDispatchIsSymmetric() {
+        // 除点以外的图形两两之间都有交点
+        List<WorldObject> shapes = List.of(
+                new LineGeo(-1, 1, 3, 1, false),
+                new InfiniteLineGeo(1, -1, 1, 3),
+                new CircleGeo(1, 1, 1.2),
+                new PolygonGeo(0, 0, 2, 0, 2, 2, 0, 2),
+                new PathGeo(List.of(new Point2D(-1, -1), new Point2D(1.2, 1.5), new Point2D(3, 3))),
+                new PointGeo(1, 1, false));
+        PointBuffer forward = new PointBuffer();
+        PointBuffer backward = new PointBuffer();
+        for (WorldObject obj1 : shapes) {
+            for (WorldObject obj2 : shapes) {
+                if (obj1 == obj2) {
+                    continue;
+                }
+                forward.clear();
+                backward.clear();
+                IntersectionUtils.intersect(obj1, obj2, forward);
+                IntersectionUtils.intersect(obj2, obj1, backward);
+                assertEquals(forward.size(), backward.size(), obj1.kind() + " x " + obj2.kind());
+                boolean hasPoint = obj1.kind() == ShapeKind.POINT || obj2.kind() == ShapeKind.POINT;
+                assertEquals(hasPoint, forward.isEmpty(), obj1.kind() + " x " + obj2.kind());
+            }
+        }
+    }
+}
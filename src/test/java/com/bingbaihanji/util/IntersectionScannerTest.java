@@ -0,0 +1,63 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import com.bingbaihanji.view.layout.draw.geometry.impl.CircleGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.InfiniteLineGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.LineGeo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IntersectionScanner 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class IntersectionScannerTest {
+
+    @BeforeEach
+    void setUp() {
+        PointNameManager.getInstance().clear();
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        Random random = new Random(5);
+        List<WorldObject> objects = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            double x = random.nextDouble() * 40 - 20;
+            double y = random.nextDouble() * 40 - 20;
+            switch (i % 3) {
+                case 0 -> objects.add(new LineGeo(x, y, x + random.nextDouble() * 10, y + random.nextDouble() * 10, false));
+                case 1 -> objects.add(new CircleGeo(x, y, random.nextDouble() * 5));
+                default -> objects.add(new InfiniteLineGeo(x, y, x + 1, y + random.nextDouble() - 0.5));
+            }
+        }
+
+        PointBuffer sequential = new IntersectionScanner(ForkJoinPool.commonPool(), Integer.MAX_VALUE).scan(objects);
+        PointBuffer parallel = new IntersectionScanner(new ForkJoinPool(4), 0).scan(objects);
+
+        assertTrue(sequential.size() > 0);
+        assertArrayEquals(sequential.toArray(), parallel.toArray());
+    }
+
+    @Test
+    void testDuplicatesRemoved() {
+        // 三条线段交于同一点 (0, 0)
+        List<WorldObject> objects = List.of(
+                new LineGeo(-1, 0, 1, 0, false),
+                new LineGeo(0, -1, 0, 1, false),
+                new LineGeo(-1, -1, 1, 1, false));
+        PointBuffer points = new IntersectionScanner().scan(objects);
+        assertEquals(1, points.size());
+        assertEquals(0, points.getX(0));
+        assertEquals(0, points.getY(0));
+    }
+}
@@ -0,0 +1,136 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.constant.ContactType;
+import com.bingbaihanji.view.layout.draw.geometry.impl.CircleGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.InfiniteLineGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.LineGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.PolygonGeo;
+import javafx.geometry.Point2D;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IntersectionUtils 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class IntersectionUtilsTest {
+
+    @BeforeEach
+    void setUp() {
+        PointNameManager.getInstance().clear();
+    }
+
+    @Test
+    void testPrimitiveVariants() {
+        double[] out = new double[4];
+
+        assertEquals(1, IntersectionUtils.intersectSegments(0, 0, 2, 2, 0, 2, 2, 0, out));
+        assertEquals(1, out[0], 1e-12);
+        assertEquals(1, out[1], 1e-12);
+
+        // 不相交
+        assertEquals(0, IntersectionUtils.intersectSegments(0, 0, 1, 0, 0, 1, 1, 1, out));
+        assertEquals(0, IntersectionUtils.intersectSegmentCircle(5, 5, 6, 6, 0, 0, 1, out));
+
+        // 线段只穿过圆一次
+        assertEquals(1, IntersectionUtils.intersectSegmentCircle(0, 0, 3, 0, 0, 0, 1, out));
+        assertEquals(1, out[0], 1e-12);
+
+        // 无限直线穿过圆两次
+        assertEquals(2, IntersectionUtils.intersectLineCircle(0, 0, 0.5, 0, 0, 0, 1, out));
+        assertEquals(1, Math.abs(out[0]), 1e-12);
+        assertEquals(1, Math.abs(out[2]), 1e-12);
+
+        assertEquals(2, IntersectionUtils.intersectCircles(0, 0, 1, 1, 0, 1, out));
+        assertEquals(0.5, out[0], 1e-12);
+        assertEquals(0.5, out[2], 1e-12);
+
+        // 无限直线不受线段参数范围限制
+        assertEquals(1, IntersectionUtils.intersectLines(0, 0, 1, 0, 5, -1, 5, 1, out));
+        assertEquals(5, out[0], 1e-12);
+        assertEquals(0, IntersectionUtils.intersectLineSegment(0, 0, 1, 0, 5, 1, 5, 2, out));
+    }
+
+    @Test
+    void testListWrappersMatchPrimitiveVariants() {
+        LineGeo line = new LineGeo(-2, 0.5, 2, 0.5, false);
+        CircleGeo circle = new CircleGeo(0, 0, 1);
+        List<Point2D> points = IntersectionUtils.getLineCircleIntersections(line, circle);
+
+        double[] out = new double[4];
+        int count = IntersectionUtils.intersectSegmentCircle(-2, 0.5, 2, 0.5, 0, 0, 1, out);
+        assertEquals(count, points.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(out[i * 2], points.get(i).getX());
+            assertEquals(out[i * 2 + 1], points.get(i).getY());
+        }
+    }
+
+    @Test
+    void testIntersectDispatchesPolygonEdges() {
+        PolygonGeo square = new PolygonGeo(0, 0, 2, 0, 2, 2, 0, 2);
+        PointBuffer out = new PointBuffer();
+
+        // 线段穿过正方形左右两条边
+        IntersectionUtils.intersect(square, new LineGeo(-1, 1, 3, 1, false), out);
+        assertEquals(2, out.size());
+
+        // 参数顺序不影响结果
+        out.clear();
+        IntersectionUtils.intersect(new LineGeo(-1, 1, 3, 1, false), square, out);
+        assertEquals(2, out.size());
+
+        // 无限直线（无包围盒）与所有边求交
+        out.clear();
+        IntersectionUtils.intersect(new InfiniteLineGeo(1, -5, 1, 5), square, out);
+        assertEquals(2, out.size());
+        for (int i = 0; i < out.size(); i++) {
+            assertEquals(1, out.getX(i), 1e-12);
+        }
+    }
+
+    @Test
+    void testDegenerateCasesAreClassified() {
+        double[] out = new double[4];
+
+        // 共线重叠：无穷多个交点，不返回交点
+        assertEquals(ContactType.OVERLAP, IntersectionUtils.classifySegments(0, 0, 2, 0, 1, 0, 3, 0));
+        assertEquals(0, IntersectionUtils.intersectSegments(0, 0, 2, 0, 1, 0, 3, 0, out));
+
+        // 共线且首尾相接：交点就是公共端点
+        assertEquals(ContactType.TOUCHING, IntersectionUtils.classifySegments(0, 0, 0.1, 0.3, 0.1, 0.3, 0.2, 0.6));
+        assertEquals(1, IntersectionUtils.intersectSegments(0, 0, 0.1, 0.3, 0.1, 0.3, 0.2, 0.6, out));
+        assertEquals(0.1, out[0]);
+        assertEquals(0.3, out[1]);
+
+        // 端点落在另一条线段内部（T 形）：交点精确等于端点
+        assertEquals(ContactType.TOUCHING, IntersectionUtils.classifySegments(0, 0, 0.3, 0.3, 0.1, 0.1, 1, -1));
+        assertEquals(1, IntersectionUtils.intersectSegments(0, 0, 0.3, 0.3, 0.1, 0.1, 1, -1, out));
+        assertEquals(0.1, out[0]);
+        assertEquals(0.1, out[1]);
+
+        // 几乎平行但确实相交的线段不会被固定阈值丢弃
+        assertEquals(ContactType.CROSSING, IntersectionUtils.classifySegments(0, 0, 1, 1e-12, 0, 1e-13, 1, 0));
+
+        // 相切：直线 y = 0.1 与半径 0.1 的圆只有一个交点
+        assertEquals(ContactType.TANGENT, IntersectionUtils.classifyLineCircle(-1, 0.1, 1, 0.1, 0, 0, 0.1));
+        assertEquals(1, IntersectionUtils.intersectLineCircle(-1, 0.1, 1, 0.1, 0, 0, 0.1, out));
+        assertEquals(0, out[0], 1e-15);
+        assertEquals(0.1, out[1], 1e-15);
+
+        // 两圆外切、重合
+        assertEquals(ContactType.TANGENT, IntersectionUtils.classifyCircles(0, 0, 0.125, 0.375, 0.5, 0.5));
+        assertEquals(1, IntersectionUtils.intersectCircles(0, 0, 0.125, 0.375, 0.5, 0.5, out));
+        assertEquals(ContactType.OVERLAP, IntersectionUtils.classifyCircles(1, 1, 2, 1, 1, 2));
+
+        // 直线重合与平行
+        assertEquals(ContactType.OVERLAP, IntersectionUtils.classifyLines(0, 0, 1, 1, 2, 2, 5, 5));
+        assertEquals(ContactType.DISJOINT, IntersectionUtils.classifyLines(0, 0, 1, 1, 0, 1, 1, 2));
+    }
+}
@@ -0,0 +1,92 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import com.bingbaihanji.view.layout.draw.geometry.impl.CircleGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.LineGeo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IntersectionWorker 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class IntersectionWorkerTest {
+
+    // 直接在后台线程上发布结果，测试不依赖 FX 线程
+    private final IntersectionWorker worker = new IntersectionWorker(new IntersectionScanner(), Runnable::run);
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    private static List<WorldObject> scene() {
+        return List.of(new LineGeo(-2, 0, 2, 0, false), new CircleGeo(0, 0, 1));
+    }
+
+    @Test
+    void testPublishesWhenVersionUnchanged() throws InterruptedException {
+        AtomicReference<PointBuffer> result = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        worker.submit(scene(), 1, () -> 1, points -> {
+            result.set(points);
+            done.countDown();
+        }, done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertNotNull(result.get());
+        assertEquals(2, result.get().size());
+    }
+
+    @Test
+    void testDropsResultWhenSceneChanged() throws InterruptedException {
+        AtomicInteger published = new AtomicInteger();
+        CountDownLatch stale = new CountDownLatch(1);
+
+        // 快照版本为 1，发布时场景已是版本 2
+        worker.submit(scene(), 1, () -> 2, points -> published.incrementAndGet(), stale::countDown);
+
+        assertTrue(stale.await(5, TimeUnit.SECONDS));
+        assertEquals(0, published.get());
+    }
+
+    @Test
+    void testNewSubmissionCancelsPrevious() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch blocker = new CountDownLatch(1);
+        AtomicInteger firstPublished = new AtomicInteger();
+        CountDownLatch secondDone = new CountDownLatch(1);
+
+        // 占住后台线程，使后续任务排队
+        worker.submit(List.of(), 0, () -> 0, points -> {
+            started.countDown();
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, () -> {
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        worker.submit(scene(), 0, () -> 0, points -> firstPublished.incrementAndGet(), () -> {
+        });
+        worker.submit(scene(), 0, () -> 0, points -> secondDone.countDown(), () -> {
+        });
+        blocker.countDown();
+
+        assertTrue(secondDone.await(5, TimeUnit.SECONDS));
+        assertEquals(0, firstPublished.get());
+    }
+}
@@ -0,0 +1,100 @@
+package com.bingbaihanji.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PngStreamWriter 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class PngStreamWriterTest {
+
+    private static int pixel(int x, int y) {
+        return 0xFF000000 | ((x * 7) & 0xFF) << 16 | ((y * 13) & 0xFF) << 8 | ((x ^ y) & 0xFF);
+    }
+
+    @Test
+    void testDecodesToSamePixels() throws IOException {
+        // 宽度足够大，压缩数据跨越多个 IDAT 块
+        int width = 700;
+        int height = 300;
+        int[] strip = new int[width * 100];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PngStreamWriter png = new PngStreamWriter(bytes, width, height, false)) {
+            for (int top = 0; top < height; top += 100) {
+                for (int y = 0; y < 100; y++) {
+                    for (int x = 0; x < width; x++) {
+                        strip[y * width + x] = pixel(x, top + y);
+                    }
+                }
+                png.writeRows(strip, 100, width);
+            }
+        }
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(width, image.getWidth());
+        assertEquals(height, image.getHeight());
+        for (int y = 0; y < height; y += 7) {
+            for (int x = 0; x < width; x += 3) {
+                assertEquals(pixel(x, y), image.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    void testKeepsAlphaAndRejectsIncompleteImages() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PngStreamWriter png = new PngStreamWriter(bytes, 2, 1, true)) {
+            png.writeRow(new int[]{0x80FF0000, 0x00000000}, 0);
+        }
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(0x80FF0000, image.getRGB(0, 0));
+        assertEquals(0, image.getRGB(1, 0) >>> 24);
+
+        PngStreamWriter incomplete = new PngStreamWriter(new ByteArrayOutputStream(), 2, 2, false);
+        incomplete.writeRow(new int[2], 0);
+        assertThrows(IOException.class, incomplete::close);
+        assertThrows(IllegalArgumentException.class, () -> new PngStreamWriter(new ByteArrayOutputStream(), 0, 1, false));
+    }
+
+    @Test
+    void testLargeImageThroughput() throws IOException {
+        // 10000 × 10000 的白底图片，每 50 行一条横线
+        int width = 10_000;
+        int height = 10_000;
+        int[] row = new int[width];
+        int[] line = new int[width];
+        Arrays.fill(row, 0xFFFFFFFF);
+        Arrays.fill(line, 0xFF1E90FF);
+        long[] written = {0};
+        OutputStream sink = new OutputStream() {
+            @Override
+            public void write(int b) {
+                written[0]++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                written[0] += len;
+            }
+        };
+
+        try (PngStreamWriter png = new PngStreamWriter(sink, width, height, false)) {
+            for (int y = 0; y < height; y++) {
+                png.writeRow(y % 50 == 0 ? line : row, 0);
+            }
+        }
+        assertTrue(written[0] > 0);
+    }
+}
@@ -0,0 +1,110 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import com.bingbaihanji.view.layout.draw.geometry.impl.CircleGeo;
+import com.bingbaihanji.view.layout.draw.geometry.impl.LineGeo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PointDeduplicator 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class PointDeduplicatorTest {
+
+    @BeforeEach
+    void setUp() {
+        PointNameManager.getInstance().clear();
+    }
+
+    @Test
+    void testMergesAcrossCellBoundaries() {
+        PointDeduplicator deduplicator = new PointDeduplicator(0.1, 4);
+
+        assertTrue(deduplicator.add(0.0999, 0.0999));
+        // 落在相邻格子但距离在容差内
+        assertFalse(deduplicator.add(0.1001, 0.1001));
+        assertFalse(deduplicator.add(0.0, 0.0));
+        // 超出容差
+        assertTrue(deduplicator.add(0.25, 0.0999));
+
+        assertEquals(2, deduplicator.size());
+        assertEquals(0, deduplicator.indexOf(0.15, 0.05));
+        assertEquals(-1, deduplicator.indexOf(5, 5));
+        // 保留最先加入的代表点
+        assertEquals(0.0999, deduplicator.getX(0));
+    }
+
+    @Test
+    void testFarAndNonFiniteCoordinates() {
+        PointDeduplicator deduplicator = new PointDeduplicator();
+
+        // 坐标除以容差后超出 long 范围：不同的点不能因格子坐标饱和而被合并
+        assertTrue(deduplicator.add(1e12, 0));
+        assertTrue(deduplicator.add(2e12, 0));
+        assertTrue(deduplicator.add(-1e12, -3e15));
+        assertFalse(deduplicator.add(1e12, 0));
+        assertEquals(1, deduplicator.indexOf(2e12, 0));
+        assertEquals(-1, deduplicator.indexOf(3e12, 0));
+
+        // 非有限坐标不与任何点重合，也不影响原点附近的点
+        assertTrue(deduplicator.add(Double.NaN, 0));
+        assertTrue(deduplicator.add(Double.NaN, 0));
+        assertTrue(deduplicator.add(Double.POSITIVE_INFINITY, 1));
+        assertTrue(deduplicator.add(0, 0));
+        assertFalse(deduplicator.add(0, 5e-11));
+        assertEquals(7, deduplicator.size());
+
+        deduplicator.clear();
+        assertTrue(deduplicator.add(1e12, 0));
+    }
+
+    @Test
+    void testMatchesBruteForce() {
+        Random random = new Random(11);
+        double epsilon = 1e-3;
+        PointDeduplicator deduplicator = new PointDeduplicator(epsilon, 16);
+        PointBuffer expected = new PointBuffer();
+
+        for (int i = 0; i < 5000; i++) {
+            double x = random.nextInt(200) * 0.8e-3 + random.nextDouble() * 1e-4;
+            double y = random.nextInt(200) * 0.8e-3 - random.nextDouble() * 1e-4;
+            boolean duplicate = false;
+            for (int k = 0; k < expected.size() && !duplicate; k++) {
+                duplicate = Math.abs(expected.getX(k) - x) <= epsilon && Math.abs(expected.getY(k) - y) <= epsilon;
+            }
+            if (!duplicate) {
+                expected.add(x, y);
+            }
+            assertEquals(!duplicate, deduplicator.add(x, y));
+        }
+        assertArrayEquals(expected.toArray(), deduplicator.points().toArray());
+
+        deduplicator.clear();
+        assertEquals(0, deduplicator.size());
+        assertTrue(deduplicator.add(0, 0));
+    }
+
+    @Test
+    void testSpecialPointsAreDeduplicated() {
+        // 两条线段共享端点 (1, 1)，且交于该端点；圆心与线段端点重合
+        List<WorldObject> objects = List.of(
+                new LineGeo(0, 0, 1, 1, false),
+                new LineGeo(1, 1, 2, 0, false),
+                new CircleGeo(0, 0, 5));
+        List<SpecialPointManager.SpecialPoint> points = SpecialPointManager.extractSpecialPoints(objects);
+
+        long atShared = points.stream().filter(p -> p.getX() == 1 && p.getY() == 1).count();
+        long atOrigin = points.stream().filter(p -> p.getX() == 0 && p.getY() == 0).count();
+        assertEquals(1, atShared);
+        assertEquals(1, atOrigin);
+        assertEquals("ENDPOINT", points.get(0).getType());
+    }
+}
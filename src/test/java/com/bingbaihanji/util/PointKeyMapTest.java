@@ -0,0 +1,56 @@
+package com.bingbaihanji.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PointKeyMap 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class PointKeyMapTest {
+
+    @Test
+    void testMatchesHashMapUnderRandomOperations() {
+        Random random = new Random(11);
+        PointKeyMap<Integer> map = new PointKeyMap<>();
+        Map<String, Integer> expected = new HashMap<>();
+
+        // 键范围较小，使插入、覆盖、删除频繁交错
+        for (int op = 0; op < 200_000; op++) {
+            long kx = random.nextInt(300) - 150;
+            long ky = random.nextInt(300) - 150;
+            String key = kx + "," + ky;
+            switch (random.nextInt(3)) {
+                case 0 -> assertEquals(expected.put(key, op), map.put(kx, ky, op));
+                case 1 -> assertEquals(expected.remove(key), map.remove(kx, ky));
+                default -> assertEquals(expected.get(key), map.get(kx, ky));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            String[] parts = entry.getKey().split(",");
+            assertEquals(entry.getValue(), map.get(Long.parseLong(parts[0]), Long.parseLong(parts[1])));
+        }
+    }
+
+    @Test
+    void testClear() {
+        PointKeyMap<String> map = new PointKeyMap<>();
+        map.put(1, 2, "A");
+        map.put(Long.MIN_VALUE, Long.MAX_VALUE, "B");
+        assertEquals("B", map.get(Long.MIN_VALUE, Long.MAX_VALUE));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1, 2));
+        assertFalse(map.containsKey(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+}
@@ -157,4 +157,45 @@ class PointNameManagerTest {
         // 确认总点数
         assertEquals(10, manager.getNamedPointCount());
     }
+
+    @Test
+    void testManyNamedPoints() {
+        // 测试大量点（10万）的命名、查找与移除
+        int count = 100_000;
+        for (int i = 0; i < count; i++) {
+            manager.assignName(i * 0.5, -i * 0.25);
+        }
+        assertEquals(count, manager.getNamedPointCount());
+        assertEquals("A", manager.getName(0, 0));
+        assertEquals("B1", manager.getName(27 * 0.5, -27 * 0.25));
+        assertEquals("D3846", manager.getName((count - 1) * 0.5, -(count - 1) * 0.25));
+
+        for (int i = 0; i < count; i += 2) {
+            manager.removeName(i * 0.5, -i * 0.25);
+        }
+        assertEquals(count / 2, manager.getNamedPointCount());
+        assertFalse(manager.hasName(0, 0));
+        assertEquals("B", manager.getName(0.5, -0.25));
+    }
+
+    @Test
+    void testRemoveKeepsNamingOrder() {
+        // 移除名称后，新点仍按出现顺序命名
+        manager.assignName(0, 0);
+        manager.assignName(1, 1);
+        manager.assignName(2, 2);
+        manager.removeName(1, 1);
+        assertEquals("D", manager.assignName(3, 3));
+        assertEquals(3, manager.getNamedPointCount());
+    }
+
+    @Test
+    void testNamesAreCachedAcrossClear() {
+        // 名称表缓存：清除后重新命名复用同一个字符串实例
+        String first = manager.assignName(0, 0);
+        String second = manager.assignName(1, 1);
+        manager.clear();
+        assertSame(first, manager.assignName(5, 5));
+        assertSame(second, manager.assignName(6, 6));
+    }
 }
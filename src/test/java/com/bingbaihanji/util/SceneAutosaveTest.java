@@ -0,0 +1,146 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import com.bingbaihanji.view.layout.draw.geometry.impl.*;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SceneAutosave 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class SceneAutosaveTest {
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        PointNameManager.getInstance().clear();
+    }
+
+    @Test
+    void testDeltaSavesRecoverLatestScene() throws IOException {
+        PointGeo point = new PointGeo(1, 2);
+        point.setColor(Color.GREEN);
+        LineGeo line = new LineGeo(0, 0, 5, 5);
+        CircleGeo circle = new CircleGeo(2, 3, 4);
+        List<WorldObject> objects = new ArrayList<>(List.of(point, line, circle));
+        for (int i = 0; i < 200; i++) {
+            objects.add(new PolygonGeo(i, 0, i + 1, 0, i, 1));
+        }
+        WorldTransform transform = new WorldTransform();
+        transform.setScale(40);
+        transform.setOffset(10, 20);
+        Path file = dir.resolve("scene." + SceneAutosave.EXTENSION);
+
+        try (SceneAutosave autosave = new SceneAutosave(file, 1000)) {
+            assertTrue(autosave.save(objects, transform));
+            autosave.flush();
+            long fullBytes = autosave.getLastSaveBytes();
+
+            // 没有变化时不写入
+            assertFalse(autosave.save(objects, transform));
+
+            // 只写入移动的点和删除的圆
+            point.setPosition(1.5, 2.5);
+            objects.remove(circle);
+            assertTrue(autosave.save(objects, transform));
+            autosave.flush();
+
+            assertEquals(2, autosave.getSaveCount());
+            assertEquals(1000, autosave.getIntervalMillis());
+            assertTrue(autosave.getLastSaveBytes() < fullBytes / 20);
+            assertEquals(Files.size(file), autosave.getTotalBytesWritten());
+        }
+
+        String pointName = point.getName();
+        PointNameManager.getInstance().clear();
+        SceneFile.Contents contents = SceneAutosave.recover(file);
+        assertNotNull(contents);
+        assertEquals(202, contents.objects().size());
+        assertEquals(40, contents.scale());
+        assertEquals(20, contents.offsetY());
+
+        PointGeo restored = (PointGeo) contents.objects().get(0);
+        assertEquals(1.5, restored.getX());
+        assertEquals(2.5, restored.getY());
+        assertEquals(pointName, restored.getName());
+        assertEquals(Color.GREEN, restored.getColor());
+        assertInstanceOf(LineGeo.class, contents.objects().get(1));
+        assertInstanceOf(PolygonGeo.class, contents.objects().get(2));
+        assertEquals(pointName, PointNameManager.getInstance().getName(1, 2));
+    }
+
+    @Test
+    void testTornTailIsIgnored() throws IOException {
+        PointGeo point = new PointGeo(1, 1);
+        List<WorldObject> objects = List.of(point);
+        WorldTransform transform = new WorldTransform();
+        Path file = dir.resolve("scene." + SceneAutosave.EXTENSION);
+
+        try (SceneAutosave autosave = new SceneAutosave(file, 1000)) {
+            autosave.save(objects, transform);
+            autosave.flush();
+            long committed = Files.size(file);
+            point.setPosition(3, 3);
+            autosave.save(objects, transform);
+            autosave.flush();
+
+            // 模拟写入最后一段时崩溃
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(committed + (Files.size(file) - committed) / 2);
+            }
+        }
+
+        SceneFile.Contents contents = SceneAutosave.recover(file);
+        assertNotNull(contents);
+        assertEquals(1, ((PointGeo) contents.objects().get(0)).getX());
+        assertNull(SceneAutosave.recover(dir.resolve("missing." + SceneAutosave.EXTENSION)));
+    }
+
+    @Test
+    void testCompactionKeepsFileSmall() throws IOException {
+        PointGeo point = new PointGeo(0, 0);
+        List<WorldObject> objects = new ArrayList<>(List.of(point));
+        for (int i = 0; i < 50; i++) {
+            objects.add(new LineGeo(i, 0, i, 1));
+        }
+        WorldTransform transform = new WorldTransform();
+        Path file = dir.resolve("scene." + SceneAutosave.EXTENSION);
+
+        long fullBytes;
+        try (SceneAutosave autosave = new SceneAutosave(file, 1000)) {
+            autosave.save(objects, transform);
+            autosave.flush();
+            fullBytes = Files.size(file);
+            for (int i = 1; i <= 200; i++) {
+                point.setPosition(i, i);
+                autosave.save(objects, transform);
+                autosave.flush();
+            }
+            assertTrue(autosave.getCompactionCount() >= 3);
+            assertTrue(autosave.getTotalBytesWritten() > Files.size(file));
+        }
+
+        assertTrue(Files.size(file) < fullBytes * 3);
+        SceneFile.Contents contents = SceneAutosave.recover(file);
+        assertEquals(51, contents.objects().size());
+        assertEquals(200, ((PointGeo) contents.objects().get(0)).getX());
+    }
+}
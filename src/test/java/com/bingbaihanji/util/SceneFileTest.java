@@ -0,0 +1,252 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import com.bingbaihanji.view.layout.draw.geometry.impl.*;
+import javafx.geometry.Point2D;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SceneFile 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class SceneFileTest {
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        PointNameManager.getInstance().clear();
+    }
+
+    @Test
+    void testRoundTripKeepsShapesNamesAndTransform() throws IOException {
+        PointGeo point = new PointGeo(1, 2);
+        point.setColor(Color.GREEN);
+        PointGeo unnamed = new PointGeo(-3, 4, false);
+        LineGeo line = new LineGeo(0, 0, 5, 5);
+        InfiniteLineGeo infiniteLine = new InfiniteLineGeo(1, 0, 0, 1);
+        CircleGeo circle = new CircleGeo(2, 3, 4);
+        PolygonGeo polygon = new PolygonGeo(0, 0, 6, 0, 0, 6);
+        PathGeo path = new PathGeo(List.of(new Point2D(0.5, 0.25), new Point2D(1, 1), new Point2D(7, -7)));
+        // 移动过的点保留原来的名称
+        point.setPosition(1.5, 2.5);
+        List<WorldObject> objects = List.of(point, unnamed, line, infiniteLine, circle, polygon, path);
+
+        WorldTransform transform = new WorldTransform();
+        transform.setScale(73.5);
+        transform.setOffset(120, -45);
+        Path file = dir.resolve("scene." + SceneFile.EXTENSION);
+        SceneFile.write(file, objects, transform);
+        int namedCount = PointNameManager.getInstance().getNamedPointCount();
+        String lineStartName = PointNameManager.getInstance().getName(0, 0);
+
+        PointNameManager.getInstance().clear();
+        PointNameManager.getInstance().assignName(99, 99);
+        SceneFile.Contents contents = SceneFile.read(file);
+
+        assertEquals(73.5, contents.scale());
+        assertEquals(120, contents.offsetX());
+        assertEquals(-45, contents.offsetY());
+        assertEquals(namedCount, PointNameManager.getInstance().getNamedPointCount());
+        assertEquals(lineStartName, PointNameManager.getInstance().getName(0, 0));
+        assertNull(PointNameManager.getInstance().getName(99, 99));
+
+        List<WorldObject> loaded = contents.objects();
+        assertEquals(objects.size(), loaded.size());
+        for (int i = 0; i < objects.size(); i++) {
+            assertEquals(objects.get(i).kind(), loaded.get(i).kind());
+            assertArrayEquals(objects.get(i).getCoordinates(), loaded.get(i).getCoordinates());
+        }
+        PointGeo loadedPoint = (PointGeo) loaded.get(0);
+        assertEquals(point.getName(), loadedPoint.getName());
+        assertEquals(Color.GREEN, loadedPoint.getColor());
+        assertNull(((PointGeo) loaded.get(1)).getName());
+        assertEquals(4, ((CircleGeo) loaded.get(4)).getR());
+
+        // 加载后新分配的名称不与已恢复的名称冲突
+        String next = PointNameManager.getInstance().assignName(50, 50);
+        PointNameManager.getInstance().forEachName((x, y, name) -> {
+            if (x != 50 || y != 50) {
+                assertNotEquals(next, name);
+            }
+        });
+    }
+
+    @Test
+    void testRejectsForeignAndTruncatedFiles() throws IOException {
+        Path foreign = dir.resolve("foreign." + SceneFile.EXTENSION);
+        Files.write(foreign, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> SceneFile.read(foreign));
+
+        Path file = dir.resolve("scene." + SceneFile.EXTENSION);
+        SceneFile.write(file, List.of(new PolygonGeo(0, 0, 1, 0, 0, 1)), new WorldTransform());
+        byte[] bytes = Files.readAllBytes(file);
+        Path truncated = dir.resolve("truncated." + SceneFile.EXTENSION);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 10));
+
+        // 读取失败时当前场景的点名称保持不变
+        PointNameManager.getInstance().clear();
+        String name = PointNameManager.getInstance().assignName(42, 42);
+        assertThrows(IOException.class, () -> SceneFile.read(truncated));
+        assertThrows(IOException.class, () -> SceneFile.map(truncated, 1));
+        assertEquals(name, PointNameManager.getInstance().getName(42, 42));
+        assertEquals(1, PointNameManager.getInstance().getNamedPointCount());
+    }
+
+    @Test
+    void testRejectsMalformedPointNames() throws IOException {
+        Path file = dir.resolve("names." + SceneFile.EXTENSION);
+        SceneFile.write(file, List.of(new PointGeo(1, 2)), new WorldTransform());
+        byte[] bytes = Files.readAllBytes(file);
+        // 名称表位于文件头（32 字节）之后：数量、坐标、名称长度、名称 "A"
+        assertEquals('A', bytes[56]);
+
+        PointNameManager.getInstance().clear();
+        String name = PointNameManager.getInstance().assignName(42, 42);
+        for (byte malformed : new byte[]{'a', '-', '0'}) {
+            bytes[56] = malformed;
+            Path corrupt = dir.resolve("corrupt." + SceneFile.EXTENSION);
+            Files.write(corrupt, bytes);
+            assertThrows(IOException.class, () -> SceneFile.read(corrupt));
+            assertEquals(name, PointNameManager.getInstance().getName(42, 42));
+            assertEquals(1, PointNameManager.getInstance().getNamedPointCount());
+        }
+
+        assertTrue(PointNameManager.isValidName("Z"));
+        assertTrue(PointNameManager.isValidName("B12"));
+        for (String malformed : new String[]{"", "a", "A-1", "A0", "A01", "A99999999999", "AB"}) {
+            assertFalse(PointNameManager.isValidName(malformed), malformed);
+        }
+        assertThrows(IllegalArgumentException.class, () -> PointNameManager.getInstance().restoreName(0, 0, "A-1"));
+    }
+
+    @Test
+    void testLargeSceneRoundTrip() throws IOException {
+        // 200 万个顶点的手绘路径与 1 万条线段
+        int vertexCount = 2_000_000;
+        double[] xs = new double[vertexCount];
+        double[] ys = new double[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            xs[i] = i * 0.001;
+            ys[i] = Math.sin(i * 0.01);
+        }
+        List<WorldObject> objects = new ArrayList<>();
+        objects.add(new PathGeo(xs, ys));
+        for (int i = 0; i < 10_000; i++) {
+            objects.add(new LineGeo(i, 0, i, 1, false));
+        }
+        Path file = dir.resolve("large." + SceneFile.EXTENSION);
+
+        SceneFile.write(file, objects, new WorldTransform());
+        SceneFile.Contents contents = SceneFile.read(file);
+
+        // 每个顶点 16 字节，另加文件头、名称表与线段
+        assertTrue(Files.size(file) >= vertexCount * 16L);
+        assertEquals(objects.size(), contents.objects().size());
+        double[] coordinates = contents.objects().get(0).getCoordinates();
+        assertEquals(vertexCount * 2, coordinates.length);
+        assertEquals(xs[vertexCount - 1], coordinates[vertexCount * 2 - 2]);
+        assertEquals(ys[vertexCount - 1], coordinates[vertexCount * 2 - 1]);
+        assertArrayEquals(new double[]{9_999, 0, 9_999, 1}, contents.objects().get(10_000).getCoordinates());
+    }
+
+    @Test
+    void testMappedLoadReadsLargePolylinesLazily() throws IOException {
+        int vertexCount = 50_000;
+        double[] xs = new double[vertexCount];
+        double[] ys = new double[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            xs[i] = i * 0.01;
+            ys[i] = (i % 2) * 3;
+        }
+        PathGeo path = new PathGeo(xs.clone(), ys.clone());
+        Path file = dir.resolve("mapped." + SceneFile.EXTENSION);
+        SceneFile.write(file, List.of(path, new PolygonGeo(0, 0, 1, 0, 0, 1), new LineGeo(10, -1, 10, 5)),
+                new WorldTransform());
+
+        SceneFile.Contents contents = SceneFile.map(file, 1000);
+        assertEquals(3, contents.objects().size());
+        // 小图形直接读入
+        assertInstanceOf(PolygonGeo.class, contents.objects().get(1));
+        LazyPolylineGeo lazy = (LazyPolylineGeo) contents.objects().get(0);
+        assertEquals(path.kind(), lazy.kind());
+        assertEquals(vertexCount, lazy.getVertexCount());
+        assertEquals(path.getBounds(), lazy.getBounds());
+
+        // 读取坐标、包围盒之外的命中测试不读入顶点
+        assertArrayEquals(path.getCoordinates(), lazy.getCoordinates());
+        assertEquals(vertexCount * 2, lazy.getCoordinateCount());
+        double[] chunk = new double[3];
+        lazy.copyCoordinates(201, chunk, 0, 3);
+        assertArrayEquals(new double[]{ys[100], xs[101], ys[101]}, chunk);
+        assertFalse(lazy.hitTest(1000, 1000, 0.1));
+        assertFalse(lazy.isLoaded());
+
+        assertTrue(lazy.hitTest(xs[100], ys[100], 0.01));
+        assertTrue(lazy.isLoaded());
+        assertEquals(1, lazy.getLoadCount());
+        assertEquals(lazy.getId(), lazy.snapshot().getId());
+
+        // 通过折线接口参与求交
+        PointBuffer hits = new PointBuffer();
+        IntersectionCache.getInstance().intersect(lazy, contents.objects().get(2), hits);
+        assertFalse(hits.isEmpty());
+
+        // 释放后再次使用时重新读入
+        lazy.release();
+        assertFalse(lazy.isLoaded());
+        assertTrue(lazy.hitTest(xs[100], ys[100], 0.01));
+        assertEquals(2, lazy.getLoadCount());
+
+        // 未编辑时的快照共享映射区域，不读入顶点也不分配点名称
+        lazy.release();
+        int named = PointNameManager.getInstance().getNamedPointCount();
+        WorldObject copy = lazy.snapshot();
+        assertFalse(lazy.isLoaded());
+        assertEquals(lazy.getVersion(), copy.getVersion());
+        assertTrue(copy.hitTest(xs[100], ys[100], 0.01));
+        assertEquals(named, PointNameManager.getInstance().getNamedPointCount());
+
+        // 编辑过的图形不再释放
+        double[] moved = lazy.getCoordinates();
+        moved[0] = -5;
+        lazy.setCoordinates(moved);
+        lazy.release();
+        assertTrue(lazy.isLoaded());
+        assertEquals(-5, lazy.getCoordinates()[0]);
+        assertTrue(lazy.getVersion() > 0);
+
+        // 放弃编辑后恢复为映射区域中的顶点，版本号继续递增
+        long editedVersion = lazy.getVersion();
+        lazy.unpin();
+        assertFalse(lazy.isPinned());
+        assertEquals(xs[0], lazy.getCoordinates()[0]);
+        assertTrue(lazy.getVersion() > editedVersion);
+        lazy.setCoordinates(moved);
+        assertTrue(lazy.isPinned());
+        assertTrue(lazy.getVersion() > editedVersion + 1);
+
+        // 解除映射后仍能放弃编辑，并可以覆盖保存原文件
+        lazy.detach();
+        lazy.unpin();
+        assertArrayEquals(path.getCoordinates(), lazy.getCoordinates());
+        SceneFile.write(file, contents.objects(), new WorldTransform());
+        assertArrayEquals(path.getCoordinates(), SceneFile.read(file).objects().get(0).getCoordinates());
+    }
+}
@@ -0,0 +1,73 @@
+package com.bingbaihanji.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ScreenshotSaver 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class ScreenshotSaverTest {
+
+    @TempDir
+    Path dir;
+
+    private static int[] pixels(int width, int height) {
+        int[] argb = new int[width * height];
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = (i % 3 == 0 ? 0x00000000 : 0xFF000000) | (i * 31 & 0xFFFFFF);
+        }
+        return argb;
+    }
+
+    @Test
+    void testWritesPngAndReportsProgress() throws IOException {
+        int width = 120;
+        int height = 300;
+        int[] argb = pixels(width, height);
+        Path target = dir.resolve("shot.png");
+        List<Long> reported = new ArrayList<>();
+
+        assertTrue(ScreenshotSaver.writePng(argb, width, height, target,
+                (done, total) -> {
+                    assertEquals(height, total);
+                    reported.add(done);
+                }, () -> false));
+
+        assertEquals(List.of(0L, 64L, 128L, 192L, 256L, 300L), reported);
+        assertFalse(Files.exists(dir.resolve("shot.png.tmp")));
+        BufferedImage image = ImageIO.read(target.toFile());
+        assertEquals(width, image.getWidth());
+        assertEquals(argb[5 * width + 7], image.getRGB(7, 5));
+        assertEquals(0, image.getRGB(0, 0) >>> 24);
+    }
+
+    @Test
+    void testCancellationKeepsExistingFile() throws IOException {
+        Path target = dir.resolve("shot.png");
+        Files.writeString(target, "old");
+        int[] checks = {0};
+
+        assertFalse(ScreenshotSaver.writePng(pixels(50, 500), 50, 500, target,
+                (done, total) -> {
+                }, () -> ++checks[0] > 2));
+
+        assertEquals("old", Files.readString(target));
+        assertFalse(Files.exists(dir.resolve("shot.png.tmp")));
+        assertThrows(IllegalArgumentException.class,
+                () -> ScreenshotSaver.writePng(new int[10], 5, 5, target, (done, total) -> {
+                }, () -> false));
+    }
+}
@@ -0,0 +1,89 @@
+package com.bingbaihanji.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SegmentBatchKernel 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class SegmentBatchKernelTest {
+
+    private static void assertSamePoints(PointBuffer expected, PointBuffer actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getX(i), actual.getX(i));
+            assertEquals(expected.getY(i), actual.getY(i));
+        }
+    }
+
+    private static void checkAgainstScalar(int vertexCount, boolean closed, long seed) {
+        checkAgainstScalar(vertexCount, closed, seed, false);
+    }
+
+    /**
+     * @param grid 顶点与查询端点取整数坐标，产生大量共线、端点接触的退化情况
+     */
+    private static void checkAgainstScalar(int vertexCount, boolean closed, long seed, boolean grid) {
+        Random random = new Random(seed);
+        double[] xs = new double[vertexCount];
+        double[] ys = new double[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            xs[i] = grid ? random.nextInt(9) - 4 : random.nextDouble() * 100 - 50;
+            ys[i] = grid ? random.nextInt(9) - 4 : random.nextDouble() * 100 - 50;
+        }
+        int segments = closed ? vertexCount : vertexCount - 1;
+        double[] hits = new double[4];
+
+        for (int q = 0; q < 20; q++) {
+            double qx1 = grid ? random.nextInt(9) - 4 : random.nextDouble() * 120 - 60;
+            double qy1 = grid ? random.nextInt(9) - 4 : random.nextDouble() * 120 - 60;
+            double qx2 = grid ? random.nextInt(9) - 4 : random.nextDouble() * 120 - 60;
+            double qy2 = grid ? random.nextInt(9) - 4 : random.nextDouble() * 120 - 60;
+
+            PointBuffer expected = new PointBuffer();
+            for (int i = 0; i < segments; i++) {
+                int j = (i + 1) % vertexCount;
+                expected.add(hits, IntersectionUtils.intersectSegments(xs[i], ys[i], xs[j], ys[j],
+                        qx1, qy1, qx2, qy2, hits));
+            }
+            PointBuffer actual = new PointBuffer();
+            SegmentBatchKernel.intersectSegment(qx1, qy1, qx2, qy2, xs, ys, vertexCount, closed, actual);
+            assertSamePoints(expected, actual);
+
+            expected.clear();
+            for (int i = 0; i < segments; i++) {
+                int j = (i + 1) % vertexCount;
+                expected.add(hits, IntersectionUtils.intersectLineSegment(qx1, qy1, qx2, qy2,
+                        xs[i], ys[i], xs[j], ys[j], hits));
+            }
+            actual.clear();
+            SegmentBatchKernel.intersectLine(qx1, qy1, qx2, qy2, xs, ys, vertexCount, closed, actual);
+            assertSamePoints(expected, actual);
+        }
+    }
+
+    @Test
+    void testMatchesScalarPathBitForBit() {
+        checkAgainstScalar(1_000, false, 1);
+        checkAgainstScalar(1_000, true, 2);
+        checkAgainstScalar(100_000, false, 3);
+        checkAgainstScalar(1_000, true, 4, true);
+    }
+
+    @Test
+    void testDegenerateInputs() {
+        PointBuffer out = new PointBuffer();
+        SegmentBatchKernel.intersectSegment(0, 0, 1, 1, new double[]{0}, new double[]{0}, 1, true, out);
+        assertTrue(out.isEmpty());
+
+        // 平行边不产生交点
+        SegmentBatchKernel.intersectLine(0, 0, 1, 0, new double[]{0, 5}, new double[]{1, 1}, 2, false, out);
+        assertTrue(out.isEmpty());
+    }
+}
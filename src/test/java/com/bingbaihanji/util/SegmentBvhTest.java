@@ -0,0 +1,123 @@
+package com.bingbaihanji.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SegmentBvh 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class SegmentBvhTest {
+
+    /**
+     * 生成随机游走折线
+     */
+    private static double[][] randomWalk(Random random, int n) {
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 1; i < n; i++) {
+            xs[i] = xs[i - 1] + random.nextDouble() - 0.5;
+            ys[i] = ys[i - 1] + random.nextDouble() - 0.5;
+        }
+        return new double[][]{xs, ys};
+    }
+
+    @Test
+    void testAnyWithinMatchesBruteForce() {
+        Random random = new Random(42);
+        double[][] walk = randomWalk(random, 2000);
+        double[] xs = walk[0];
+        double[] ys = walk[1];
+        SegmentBvh bvh = SegmentBvh.build(xs, ys, xs.length, false);
+
+        for (int q = 0; q < 500; q++) {
+            double px = random.nextDouble() * 40 - 20;
+            double py = random.nextDouble() * 40 - 20;
+            double tol = random.nextDouble() * 0.5;
+
+            boolean expected = false;
+            for (int i = 0; i < xs.length - 1; i++) {
+                if (SegmentBvh.distanceToSegment(px, py, xs[i], ys[i], xs[i + 1], ys[i + 1]) < tol) {
+                    expected = true;
+                    break;
+                }
+            }
+            assertEquals(expected, bvh.anyWithin(px, py, tol));
+        }
+    }
+
+    @Test
+    void testNearestPointMatchesBruteForce() {
+        Random random = new Random(7);
+        double[][] walk = randomWalk(random, 1000);
+        double[] xs = walk[0];
+        double[] ys = walk[1];
+        SegmentBvh bvh = SegmentBvh.build(xs, ys, xs.length, true);
+
+        double[] out = new double[2];
+        for (int q = 0; q < 200; q++) {
+            double px = random.nextDouble() * 40 - 20;
+            double py = random.nextDouble() * 40 - 20;
+
+            double expected = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < xs.length; i++) {
+                int j = (i + 1) % xs.length;
+                expected = Math.min(expected, SegmentBvh.distanceToSegment(px, py, xs[i], ys[i], xs[j], ys[j]));
+            }
+            double actual = bvh.nearestPoint(px, py, out);
+            assertEquals(expected, actual, 1e-12);
+            assertEquals(actual, Math.hypot(px - out[0], py - out[1]), 1e-12);
+        }
+    }
+
+    @Test
+    void testQueryMatchesBruteForce() {
+        Random random = new Random(3);
+        double[][] walk = randomWalk(random, 3000);
+        double[] xs = walk[0];
+        double[] ys = walk[1];
+        SegmentBvh bvh = SegmentBvh.build(xs, ys, xs.length, false);
+
+        for (int q = 0; q < 100; q++) {
+            double minX = random.nextDouble() * 20 - 10;
+            double minY = random.nextDouble() * 20 - 10;
+            double maxX = minX + random.nextDouble() * 3;
+            double maxY = minY + random.nextDouble() * 3;
+
+            Set<Integer> expected = new HashSet<>();
+            for (int i = 0; i < xs.length - 1; i++) {
+                if (Math.max(xs[i], xs[i + 1]) >= minX && Math.min(xs[i], xs[i + 1]) <= maxX
+                        && Math.max(ys[i], ys[i + 1]) >= minY && Math.min(ys[i], ys[i + 1]) <= maxY) {
+                    expected.add(i);
+                }
+            }
+            Set<Integer> actual = new HashSet<>();
+            bvh.query(minX, minY, maxX, maxY, actual::add);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void testClosedPolygonIncludesClosingEdge() {
+        // 正方形，闭合边 (0,1)-(0,0)
+        double[] xs = {0, 1, 1, 0};
+        double[] ys = {0, 0, 1, 1};
+        SegmentBvh bvh = SegmentBvh.build(xs, ys, 4, true);
+
+        assertEquals(4, bvh.getSegmentCount());
+        assertTrue(bvh.anyWithin(0, 0.5, 0.01));
+        assertEquals(0, bvh.getEndX(3));
+        assertEquals(0, bvh.getEndY(3));
+
+        SegmentBvh open = SegmentBvh.build(xs, ys, 4, false);
+        assertEquals(3, open.getSegmentCount());
+        assertFalse(open.anyWithin(0, 0.5, 0.01));
+    }
+}
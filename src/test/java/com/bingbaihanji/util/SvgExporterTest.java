@@ -0,0 +1,130 @@
+package com.bingbaihanji.util;
+
+import com.bingbaihanji.constant.DerivedPointType;
+import com.bingbaihanji.constant.GridMode;
+import com.bingbaihanji.view.layout.core.WorldTransform;
+import com.bingbaihanji.view.layout.draw.geometry.WorldObject;
+import com.bingbaihanji.view.layout.draw.geometry.impl.*;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SvgExporter 测试类
+ *
+ * @author bingbaihanji
+ * @date 2026-10-19
+ */
+class SvgExporterTest {
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        PointNameManager.getInstance().clear();
+    }
+
+    private static int count(String text, String pattern) {
+        int count = 0;
+        for (int i = text.indexOf(pattern); i >= 0; i = text.indexOf(pattern, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    void testExportMapsCoordinatesAndCullsOutsideObjects() throws IOException {
+        WorldTransform transform = new WorldTransform();
+        transform.setScale(10);
+        transform.setOffset(100, 100);
+
+        PointGeo point = new PointGeo(1, 2);
+        point.setColor(Color.GREEN);
+        List<WorldObject> objects = List.of(
+                point,
+                new LineGeo(0, 0, 5, 0),
+                new CircleGeo(0, 0, 3),
+                new PolygonGeo(0, 0, 2, 0, 0, 2),
+                new InfiniteLineGeo(0, 0, 1, 1),
+                // 远离导出区域，应被剔除
+                new LineGeo(1000, 1000, 1001, 1001));
+        DerivedPointLayer derived = new DerivedPointLayer();
+        derived.add(3, 3, DerivedPointType.INTERSECTION);
+
+        StringWriter out = new StringWriter();
+        int exported = SvgExporter.export(out, transform, 200, 200,
+                List.of(new GridPainter(GridMode.LINE), new AxesPainter(true)), objects, List.of(derived));
+        String svg = out.toString();
+
+        assertEquals(5, exported);
+        assertTrue(svg.startsWith("<?xml"));
+        assertTrue(svg.endsWith("</svg>\n"));
+        assertEquals(count(svg, "<g"), count(svg, "</g>"));
+        // 世界 (1, 2) 映射到屏幕 (110, 80)
+        assertTrue(svg.contains("<circle cx=\"110\" cy=\"80\" r=\"4\""));
+        assertTrue(svg.contains("fill=\"#008000\""));
+        assertTrue(svg.contains("<line x1=\"100\" y1=\"100\" x2=\"150\" y2=\"100\"/>"));
+        assertTrue(svg.contains("r=\"30\" fill=\"none\""));
+        assertTrue(svg.contains("<polygon fill=\"none\" points=\"100,100 120,100 100,80\"/>"));
+        assertTrue(svg.contains("<circle cx=\"130\" cy=\"70\" r=\"4\""));
+        // 坐标轴刻度标签
+        assertTrue(svg.contains(">10</text>"));
+        assertFalse(svg.contains("x1=\"10100\""));
+    }
+
+    @Test
+    void testWriterEscapesTextAndSkipsDuplicateVertices() throws IOException {
+        StringWriter out = new StringWriter();
+        SvgWriter svg = new SvgWriter(out);
+        svg.text(1.5, -2.25, "a<b & \"c\"", 12);
+        svg.beginPolyline(false);
+        svg.vertex(0, 0);
+        svg.vertex(0.001, -0.001);
+        svg.vertex(1.256, 3);
+        svg.endPolyline();
+
+        String text = out.toString();
+        assertTrue(text.contains("x=\"1.5\" y=\"-2.25\""));
+        assertTrue(text.contains(">a&lt;b &amp; &quot;c&quot;</text>"));
+        assertTrue(text.contains("points=\"0,0 1.26,3\""));
+        assertThrows(IllegalStateException.class, () -> svg.vertex(1, 1));
+    }
+
+    @Test
+    void testLargeSceneExport() throws IOException {
+        // 100 万个顶点的手绘路径与 10 万个点，其中一半的点在导出区域之外
+        int vertexCount = 1_000_000;
+        double[] xs = new double[vertexCount];
+        double[] ys = new double[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            xs[i] = i * 0.0001;
+            ys[i] = Math.sin(i * 0.001) * 5;
+        }
+        List<WorldObject> objects = new ArrayList<>();
+        objects.add(new PathGeo(xs, ys));
+        for (int i = 0; i < 100_000; i++) {
+            objects.add(new PointGeo(i % 2 == 0 ? i * 0.001 : 10_000 + i, 1, false));
+        }
+        WorldTransform transform = new WorldTransform();
+        transform.setScale(10);
+        transform.setOffset(0, 500);
+        Path file = dir.resolve("large.svg");
+
+        int exported = SvgExporter.export(file, transform, 1920, 1080,
+                List.of(new GridPainter(GridMode.DOT), new AxesPainter(true)), objects, List.of());
+
+        assertEquals(1 + 50_000, exported);
+        assertTrue(Files.size(file) > 0);
+    }
+}